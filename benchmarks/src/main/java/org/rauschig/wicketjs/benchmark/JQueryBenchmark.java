@@ -0,0 +1,75 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.benchmark;
+
+import static org.rauschig.wicketjs.jquery.JQuery.$;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.rauschig.wicketjs.JsStatements;
+import org.rauschig.wicketjs.generator.JsGenerator;
+import org.rauschig.wicketjs.jquery.JQuery;
+
+/**
+ * Measures building jQuery chains with the fluent JQuery builder, and building plus generating them, as done by
+ * behaviors on every render.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JQueryBenchmark {
+
+    @Benchmark
+    public JQuery build() {
+        return chain();
+    }
+
+    @Benchmark
+    public String buildAndGenerate() {
+        return new JsGenerator(chain()).generate();
+    }
+
+    @Benchmark
+    public String eventHandler() {
+        JQuery handler = $("#menu").on("mouseenter mouseleave", "li",
+                new JsStatements($(JQuery.eventObject).toggleClass("hover"), $("#status").show()));
+        return new JsGenerator(handler).generate();
+    }
+
+    private static JQuery chain() {
+        return $("#panel")
+                .find("tr.item")
+                .addClass("visible", "loaded")
+                .removeClass("pending")
+                .not(".disabled")
+                .first()
+                .parent("table")
+                .fadeIn()
+                .trigger("loaded");
+    }
+}
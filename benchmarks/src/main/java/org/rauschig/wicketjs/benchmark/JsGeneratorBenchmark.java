@@ -0,0 +1,117 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.rauschig.wicketjs.IJsStatement;
+import org.rauschig.wicketjs.JsCall;
+import org.rauschig.wicketjs.JsCallChain;
+import org.rauschig.wicketjs.JsExpressionStatement;
+import org.rauschig.wicketjs.JsStatements;
+import org.rauschig.wicketjs.generator.JsGenerator;
+
+/**
+ * Measures the JsGenerator on deep call chains and on large statement lists, both into a String and streamed into a
+ * reused StringBuilder, and on frozen trees that are served from the ScriptCache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsGeneratorBenchmark {
+
+    @State(Scope.Thread)
+    public static class CallChainState {
+
+        @Param({ "10", "100", "1000" })
+        int depth;
+
+        JsCallChain chain;
+
+        @Setup
+        public void setUp() {
+            chain = new JsCallChain("window");
+            for (int i = 0; i < depth; i++) {
+                chain.call("fn" + (i % 16), i, "arg-" + i, (i % 2) == 0);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class StatementsState {
+
+        @Param({ "1000", "10000" })
+        int size;
+
+        JsStatements statements;
+
+        JsStatements frozen;
+
+        StringBuilder buffer;
+
+        @Setup
+        public void setUp() {
+            statements = create(size);
+            frozen = create(size).freeze();
+            buffer = new StringBuilder(64 * size);
+        }
+
+        private static JsStatements create(int size) {
+            JsStatements statements = new JsStatements();
+            for (int i = 0; i < size; i++) {
+                IJsStatement statement = new JsExpressionStatement(new JsCall("update", "row-" + i, i, i * 0.5));
+                statements.add(statement);
+            }
+            return statements;
+        }
+    }
+
+    @Benchmark
+    public String callChain(CallChainState state) {
+        return new JsGenerator(state.chain).generate();
+    }
+
+    @Benchmark
+    public String statements(StatementsState state) {
+        return new JsGenerator(state.statements).generate();
+    }
+
+    @Benchmark
+    public int statementsIntoBuffer(StatementsState state) {
+        StringBuilder buffer = state.buffer;
+        buffer.setLength(0);
+        new JsGenerator(state.statements).generate(buffer);
+        return buffer.length();
+    }
+
+    @Benchmark
+    public String frozenStatements(StatementsState state) {
+        return new JsGenerator(state.frozen).generate();
+    }
+}
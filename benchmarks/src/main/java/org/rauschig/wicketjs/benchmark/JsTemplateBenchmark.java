@@ -0,0 +1,70 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.rauschig.wicketjs.JsTemplate;
+import org.rauschig.wicketjs.generator.JsGenerator;
+
+/**
+ * Measures the interpolation of a JsTemplate that was loaded once, and the combined loading and interpolation of a
+ * template per operation, as done by behaviors that create their templates on render.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsTemplateBenchmark {
+
+    @State(Scope.Thread)
+    public static class TemplateState {
+
+        JsTemplate template;
+
+        int counter;
+
+        @Setup
+        public void setUp(WicketState wicket) {
+            template = new JsTemplate("dialog.js", JsTemplateBenchmark.class);
+            template.var("title", "Edit entry").var("width", 400);
+        }
+    }
+
+    @Benchmark
+    public String interpolate(TemplateState state) {
+        state.template.var("id", "dialog" + (state.counter++ & 0xFF));
+        return new JsGenerator(state.template).generate();
+    }
+
+    @Benchmark
+    public String loadAndInterpolate(WicketState wicket) {
+        JsTemplate template = new JsTemplate("dialog.js", JsTemplateBenchmark.class);
+        template.var("id", "dialog").var("title", "Edit entry").var("width", 400);
+        return new JsGenerator(template).generate();
+    }
+}
@@ -0,0 +1,96 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.benchmark;
+
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.rauschig.wicketjs.JsCall;
+import org.rauschig.wicketjs.JsFunction;
+import org.rauschig.wicketjs.util.JsonSerializer;
+import org.rauschig.wicketjs.util.options.Options;
+
+/**
+ * Measures the JsonSerializer on typical widget option maps: flat maps of primitives, and nested maps with lists and
+ * embedded JavaScript tokens.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JsonSerializerBenchmark {
+
+    private JsonSerializer serializer;
+
+    private Map<String, Object> flat;
+
+    private Map<String, Object> nested;
+
+    @Setup
+    public void setUp() {
+        serializer = new JsonSerializer();
+
+        flat = new Options()
+                .set("autoOpen", false)
+                .set("width", 400)
+                .set("height", 320.5)
+                .set("title", "Edit \"entry\" <1>")
+                .set("modal", true)
+                .set("position", "center")
+                .getMap();
+
+        Map<String, Object> buttons = new LinkedHashMap<>();
+        buttons.put("Ok", new JsFunction(new JsCall("save")));
+        buttons.put("Cancel", new JsFunction(new JsCall("close")));
+
+        nested = new LinkedHashMap<>(flat);
+        nested.put("buttons", buttons);
+        nested.put("classes", Arrays.asList("ui-dialog", "ui-corner-all", "ui-widget"));
+        nested.put("ticks", new int[] { 0, 10, 20, 30, 40, 50 });
+    }
+
+    @Benchmark
+    public String flatOptions() {
+        return serializer.serialize(flat);
+    }
+
+    @Benchmark
+    public String nestedOptions() {
+        return serializer.serialize(nested);
+    }
+
+    @Benchmark
+    public int nestedOptionsIntoWriter() {
+        StringWriter writer = new StringWriter(256);
+        serializer.serialize(nested, writer);
+        return writer.getBuffer().length();
+    }
+}
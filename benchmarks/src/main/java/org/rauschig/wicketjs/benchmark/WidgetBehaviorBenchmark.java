@@ -0,0 +1,96 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.wicket.markup.html.WebMarkupContainer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.rauschig.wicketjs.IJavaScript;
+import org.rauschig.wicketjs.behavior.WidgetBehavior;
+import org.rauschig.wicketjs.generator.JsGenerator;
+import org.rauschig.wicketjs.util.options.Options;
+
+/**
+ * Measures {@code WidgetBehavior#domReadyJs()} of a widget with a typical option map, both building the syntax tree
+ * and generating the dom ready script from it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WidgetBehaviorBenchmark {
+
+    @State(Scope.Thread)
+    public static class WidgetState {
+
+        ExposedWidgetBehavior behavior;
+
+        @Setup
+        public void setUp(WicketState wicket) {
+            Options options = new Options()
+                    .set("autoOpen", false)
+                    .set("width", 400)
+                    .set("height", 320)
+                    .set("title", "Edit entry")
+                    .set("modal", true)
+                    .set("position", "center");
+
+            behavior = new ExposedWidgetBehavior(options);
+
+            WebMarkupContainer component = new WebMarkupContainer("dialog");
+            component.setMarkupId("dialog");
+            component.add(behavior);
+        }
+    }
+
+    @Benchmark
+    public IJavaScript domReadyJs(WidgetState state) {
+        return state.behavior.domReadyJs();
+    }
+
+    @Benchmark
+    public String domReadyScript(WidgetState state) {
+        return new JsGenerator(state.behavior.domReadyJs()).generate();
+    }
+
+    /**
+     * Makes the protected domReadyJs() accessible to the benchmark.
+     */
+    static class ExposedWidgetBehavior extends WidgetBehavior {
+
+        private static final long serialVersionUID = 1L;
+
+        ExposedWidgetBehavior(Options options) {
+            super("dialog", options);
+        }
+
+        @Override
+        protected IJavaScript domReadyJs() {
+            return super.domReadyJs();
+        }
+    }
+}
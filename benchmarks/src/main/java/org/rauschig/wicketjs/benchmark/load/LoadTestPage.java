@@ -0,0 +1,120 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.benchmark.load;
+
+import static org.rauschig.wicketjs.jquery.JQuery.$;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.wicket.ajax.AjaxRequestTarget;
+import org.apache.wicket.markup.html.WebMarkupContainer;
+import org.apache.wicket.markup.html.WebPage;
+import org.apache.wicket.markup.html.basic.Label;
+import org.apache.wicket.markup.html.list.ListItem;
+import org.apache.wicket.markup.html.list.ListView;
+import org.apache.wicket.request.mapper.parameter.PageParameters;
+import org.rauschig.wicketjs.IJavaScript;
+import org.rauschig.wicketjs.JsCall;
+import org.rauschig.wicketjs.JsStatements;
+import org.rauschig.wicketjs.ajax.JsAjaxLink;
+import org.rauschig.wicketjs.behavior.JQueryEventBehavior;
+import org.rauschig.wicketjs.behavior.JsBehavior;
+import org.rauschig.wicketjs.behavior.WidgetBehavior;
+import org.rauschig.wicketjs.util.options.Options;
+
+/**
+ * A page with a configurable amount of rows, each of which carries a JsBehavior, a JQueryEventBehavior, a
+ * WidgetBehavior and a JsAjaxLink. The amount of rows is read from the page parameter {@code rows}.
+ */
+public class LoadTestPage extends WebPage {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String ROWS = "rows";
+
+    public LoadTestPage(PageParameters parameters) {
+        super(parameters);
+
+        int rows = parameters.get(ROWS).toInt(10);
+
+        List<Integer> items = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            items.add(i);
+        }
+
+        add(new ListView<Integer>("rows", items) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected void populateItem(ListItem<Integer> item) {
+                populateRow(item, item.getModelObject());
+            }
+        });
+    }
+
+    private static void populateRow(ListItem<Integer> item, final int index) {
+        WebMarkupContainer row = new WebMarkupContainer("row");
+        item.add(row);
+
+        row.add(new JsBehavior() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected IJavaScript domReadyJs() {
+                return $(this).call("data", "index", index).addClass("row", (index % 2 == 0) ? "even" : "odd");
+            }
+        });
+
+        row.add(new JQueryEventBehavior("mouseenter mouseleave") {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected IJavaScript callback() {
+                return new JsStatements($(this).toggleClass("hover"), $(this).call("trigger", "row-hover", index));
+            }
+        });
+
+        Options options = new Options()
+                .set("min", 0)
+                .set("max", 100)
+                .set("value", index % 100)
+                .set("step", 0.5)
+                .set("label", "Row #" + index);
+        row.add(new WidgetBehavior("slider", ".slider", options));
+
+        row.add(new Label("label", "Row " + index));
+
+        row.add(new JsAjaxLink<Void>("link") {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public void onClick(AjaxRequestTarget target) {
+                // only rendered
+            }
+
+            @Override
+            public IJavaScript onBefore() {
+                return $(this).addClass("loading");
+            }
+
+            @Override
+            public IJavaScript onComplete() {
+                return new JsStatements($(this).removeClass("loading"), new JsCall("console.log", "done", index));
+            }
+        });
+    }
+}
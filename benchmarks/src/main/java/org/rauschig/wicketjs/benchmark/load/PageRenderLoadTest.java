@@ -0,0 +1,291 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.benchmark.load;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.wicket.ThreadContext;
+import org.apache.wicket.request.mapper.parameter.PageParameters;
+import org.apache.wicket.util.tester.WicketTester;
+
+/**
+ * End-to-end load harness that renders {@link LoadTestPage}s through WicketTester on multiple threads and simulated
+ * sessions, and reports throughput, render latency percentiles and the amount of inline JavaScript per page.
+ * <p>
+ * Each simulated session is a WicketTester with its own application and session, owned by exactly one worker thread.
+ * Workers render pages round-robin over their sessions. Options are passed as {@code --name=value}:
+ * </p>
+ * <ul>
+ * <li>{@code threads} - worker threads (default: available processors)</li>
+ * <li>{@code sessions} - simulated sessions, distributed over the threads (default: 4 per thread)</li>
+ * <li>{@code rows} - rows per page (default: 50)</li>
+ * <li>{@code warmup} - unmeasured requests per thread (default: 500)</li>
+ * <li>{@code requests} - measured requests per thread (default: 2000)</li>
+ * </ul>
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar org.rauschig.wicketjs.benchmark.load.PageRenderLoadTest --threads=8 --rows=100
+ * </pre>
+ */
+public final class PageRenderLoadTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final int threads;
+    private final int sessions;
+    private final int rows;
+    private final int warmup;
+    private final int requests;
+
+    public PageRenderLoadTest(int threads, int sessions, int rows, int warmup, int requests) {
+        if (threads < 1 || sessions < threads || rows < 0 || warmup < 0 || requests < 1) {
+            throw new IllegalArgumentException("Invalid load test configuration");
+        }
+
+        this.threads = threads;
+        this.sessions = sessions;
+        this.rows = rows;
+        this.warmup = warmup;
+        this.requests = requests;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = intOption(args, "threads", Runtime.getRuntime().availableProcessors());
+
+        PageRenderLoadTest test = new PageRenderLoadTest(
+                threads,
+                intOption(args, "sessions", 4 * threads),
+                intOption(args, "rows", 50),
+                intOption(args, "warmup", 500),
+                intOption(args, "requests", 2000));
+
+        System.out.println(test.run());
+    }
+
+    /**
+     * Runs the load test and returns its result.
+     *
+     * @return the result
+     * @throws Exception if a worker failed
+     */
+    public Result run() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CyclicBarrier start = new CyclicBarrier(threads);
+
+        try {
+            List<Future<Worker>> futures = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                int workerSessions = sessions / threads + ((i < sessions % threads) ? 1 : 0);
+                futures.add(executor.submit(new Worker(workerSessions, start)));
+            }
+
+            long[] latencies = new long[threads * requests];
+            long scriptBytes = 0;
+            long pageBytes = 0;
+            long begin = Long.MAX_VALUE;
+            long end = Long.MIN_VALUE;
+
+            for (int i = 0; i < threads; i++) {
+                Worker worker = futures.get(i).get();
+                System.arraycopy(worker.latencies, 0, latencies, i * requests, requests);
+                scriptBytes += worker.scriptBytes;
+                pageBytes += worker.pageBytes;
+                begin = Math.min(begin, worker.begin);
+                end = Math.max(end, worker.end);
+            }
+
+            Arrays.sort(latencies);
+            return new Result(latencies, end - begin, scriptBytes / latencies.length, pageBytes / latencies.length);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Counts the bytes of inline script elements (those without a src attribute) in the given HTML.
+     *
+     * @param html the page markup
+     * @return the UTF-8 encoded size of all inline scripts
+     */
+    static long inlineScriptBytes(String html) {
+        long bytes = 0;
+
+        int index = html.indexOf("<script");
+        while (index >= 0) {
+            int tagEnd = html.indexOf('>', index);
+            int close = html.indexOf("</script>", tagEnd);
+            if (tagEnd < 0 || close < 0) {
+                break;
+            }
+
+            if (!html.substring(index, tagEnd).contains(" src=")) {
+                bytes += html.substring(tagEnd + 1, close).getBytes(UTF_8).length;
+            }
+            index = html.indexOf("<script", close);
+        }
+
+        return bytes;
+    }
+
+    private static int intOption(String[] args, String name, int defaultValue) {
+        String prefix = "--" + name + "=";
+        for (String arg : args) {
+            if (arg.startsWith(prefix)) {
+                return Integer.parseInt(arg.substring(prefix.length()));
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Renders pages on one thread, round-robin over its own sessions.
+     */
+    private class Worker implements Callable<Worker> {
+
+        private final int sessionCount;
+        private final CyclicBarrier start;
+
+        final long[] latencies = new long[requests];
+        long scriptBytes;
+        long pageBytes;
+        long begin;
+        long end;
+
+        Worker(int sessionCount, CyclicBarrier start) {
+            this.sessionCount = sessionCount;
+            this.start = start;
+        }
+
+        @Override
+        public Worker call() throws Exception {
+            WicketTester[] testers = new WicketTester[sessionCount];
+            for (int i = 0; i < sessionCount; i++) {
+                testers[i] = new WicketTester(LoadTestPage.class);
+            }
+
+            PageParameters parameters = new PageParameters().add(LoadTestPage.ROWS, rows);
+
+            try {
+                for (int i = 0; i < warmup; i++) {
+                    render(testers[i % sessionCount], parameters);
+                }
+
+                start.await();
+                begin = System.nanoTime();
+                for (int i = 0; i < requests; i++) {
+                    WicketTester tester = testers[i % sessionCount];
+
+                    long t0 = System.nanoTime();
+                    render(tester, parameters);
+                    latencies[i] = System.nanoTime() - t0;
+
+                    String html = tester.getLastResponseAsString();
+                    pageBytes += html.getBytes(UTF_8).length;
+                    scriptBytes += inlineScriptBytes(html);
+                }
+                end = System.nanoTime();
+            } finally {
+                for (WicketTester tester : testers) {
+                    bind(tester);
+                    tester.destroy();
+                }
+                ThreadContext.detach();
+            }
+
+            return this;
+        }
+
+        private void render(WicketTester tester, PageParameters parameters) {
+            bind(tester);
+            tester.startPage(LoadTestPage.class, parameters);
+            // the mock page manager keeps every rendered page in memory, expiring the session drops them
+            tester.getSession().getPageManager().sessionExpired(tester.getSession().getId());
+        }
+
+        private void bind(WicketTester tester) {
+            ThreadContext.setApplication(tester.getApplication());
+            ThreadContext.setSession(tester.getSession());
+        }
+    }
+
+    /**
+     * The result of a load test run.
+     */
+    public static final class Result {
+
+        private final long[] latencies;
+        private final long durationNanos;
+        private final long scriptBytesPerPage;
+        private final long pageBytesPerPage;
+
+        Result(long[] latencies, long durationNanos, long scriptBytesPerPage, long pageBytesPerPage) {
+            this.latencies = latencies;
+            this.durationNanos = durationNanos;
+            this.scriptBytesPerPage = scriptBytesPerPage;
+            this.pageBytesPerPage = pageBytesPerPage;
+        }
+
+        public int getRequests() {
+            return latencies.length;
+        }
+
+        public double getRequestsPerSecond() {
+            return latencies.length / (durationNanos / (double) TimeUnit.SECONDS.toNanos(1));
+        }
+
+        /**
+         * Returns the render latency at the given percentile.
+         *
+         * @param percentile the percentile between 0 and 100
+         * @return the latency in milliseconds
+         */
+        public double getLatencyMillis(double percentile) {
+            int index = (int) Math.ceil(percentile / 100 * latencies.length) - 1;
+            return latencies[Math.max(0, Math.min(index, latencies.length - 1))] / 1e6;
+        }
+
+        public long getScriptBytesPerPage() {
+            return scriptBytesPerPage;
+        }
+
+        public long getPageBytesPerPage() {
+            return pageBytesPerPage;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("requests:            %d%n"
+                + "throughput:          %.1f req/s%n"
+                + "latency p50:         %.3f ms%n"
+                + "latency p90:         %.3f ms%n"
+                + "latency p99:         %.3f ms%n"
+                + "latency max:         %.3f ms%n"
+                + "inline js per page:  %d bytes%n"
+                + "markup per page:     %d bytes",
+                    getRequests(), getRequestsPerSecond(), getLatencyMillis(50), getLatencyMillis(90),
+                    getLatencyMillis(99), getLatencyMillis(100), scriptBytesPerPage, pageBytesPerPage);
+        }
+    }
+}
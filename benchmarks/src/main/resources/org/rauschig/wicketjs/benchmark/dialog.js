@@ -0,0 +1 @@
+$('#${id}').dialog({title: '${title}', width: ${width}, modal: true})
@@ -0,0 +1,184 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.jfr;
+
+import org.apache.wicket.Component;
+import org.apache.wicket.util.lang.Args;
+import org.rauschig.wicketjs.metrics.IScriptMetrics;
+
+/**
+ * An IScriptMetrics implementation that emits JDK Flight Recorder events for script generation, JSON serialization,
+ * template evaluation and the header contribution of wicket-js behaviors. Install it in {@code Application#init()}:
+ *
+ * <pre>
+ * WicketJsSettings.install(this).setMetrics(new JfrScriptMetrics());
+ * </pre>
+ *
+ * Each event carries the path of the component and the class of the behavior that is rendering, the class the
+ * operation is attributed to and the amount of characters written. Events of operations that run nested within a
+ * behavior's {@code renderHead}, e.g. generator runs, inherit the component path and behavior class of the behavior.
+ * <p>
+ * Events are only created if they are enabled in a running recording. Other metrics, e.g. a
+ * {@link org.rauschig.wicketjs.metrics.ScriptMetricsRegistry}, can be passed as delegate to record both.
+ * </p>
+ */
+public class JfrScriptMetrics implements IScriptMetrics {
+
+    /**
+     * The behavior that is currently rendering its head on this thread.
+     */
+    private static final ThreadLocal<Scope> SCOPE = new ThreadLocal<>();
+
+    private final IScriptMetrics delegate;
+
+    public JfrScriptMetrics() {
+        this(IScriptMetrics.NOOP);
+    }
+
+    /**
+     * Creates new JfrScriptMetrics that additionally record everything with the given IScriptMetrics.
+     * 
+     * @param delegate the metrics to delegate to
+     */
+    public JfrScriptMetrics(IScriptMetrics delegate) {
+        this.delegate = Args.notNull(delegate, "delegate");
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public Object begin(Operation operation, Class<?> source, Component component) {
+        Scope scope = SCOPE.get();
+
+        String componentPath;
+        if (component != null) {
+            componentPath = component.getPageRelativePath();
+        } else {
+            componentPath = (scope != null) ? scope.componentPath : null;
+        }
+
+        Class<?> behaviorClass;
+        if (operation == Operation.RENDER_HEAD || operation == Operation.DOM_READY) {
+            behaviorClass = source;
+        } else {
+            behaviorClass = (scope != null) ? scope.behaviorClass : null;
+        }
+
+        if (operation == Operation.RENDER_HEAD) {
+            SCOPE.set(new Scope(componentPath, behaviorClass, scope));
+        }
+
+        ScriptEvent event = createEvent(operation);
+        if (event.isEnabled()) {
+            event.componentPath = componentPath;
+            event.behaviorClass = behaviorClass;
+            event.sourceClass = source;
+            event.begin();
+        } else {
+            event = null;
+        }
+
+        Object delegateToken = delegate.isEnabled() ? delegate.begin(operation, source, component) : null;
+
+        return (event != null || delegateToken != null) ? new Token(event, delegateToken) : null;
+    }
+
+    @Override
+    public void record(Operation operation, Class<?> source, Object token, long nanos, long chars) {
+        if (operation == Operation.RENDER_HEAD) {
+            Scope scope = SCOPE.get();
+            if (scope == null || scope.previous == null) {
+                SCOPE.remove();
+            } else {
+                SCOPE.set(scope.previous);
+            }
+        }
+
+        Token t = (Token) token;
+        if (t != null && t.event != null) {
+            t.event.outputSize = chars;
+            t.event.commit();
+        }
+
+        if (delegate.isEnabled()) {
+            delegate.record(operation, source, (t != null) ? t.delegateToken : null, nanos, chars);
+        }
+    }
+
+    @Override
+    public void recordFallback(Class<?> type) {
+        SerializerFallbackEvent event = new SerializerFallbackEvent();
+        if (event.isEnabled()) {
+            Scope scope = SCOPE.get();
+            if (scope != null) {
+                event.componentPath = scope.componentPath;
+                event.behaviorClass = scope.behaviorClass;
+            }
+            event.valueClass = type;
+            event.commit();
+        }
+
+        delegate.recordFallback(type);
+    }
+
+    /**
+     * Creates a new, not yet started event for the given operation.
+     * 
+     * @param operation the operation
+     * @return a new ScriptEvent
+     */
+    ScriptEvent createEvent(Operation operation) {
+        switch (operation) {
+            case GENERATE:
+                return new GenerateEvent();
+            case SERIALIZE:
+                return new SerializeEvent();
+            case TEMPLATE:
+                return new TemplateEvent();
+            case RENDER_HEAD:
+                return new RenderHeadEvent();
+            case DOM_READY:
+                return new DomReadyEvent();
+            default:
+                throw new IllegalArgumentException("Unknown operation " + operation);
+        }
+    }
+
+    private static final class Scope {
+        final String componentPath;
+        final Class<?> behaviorClass;
+        final Scope previous;
+
+        Scope(String componentPath, Class<?> behaviorClass, Scope previous) {
+            this.componentPath = componentPath;
+            this.behaviorClass = behaviorClass;
+            this.previous = previous;
+        }
+    }
+
+    private static final class Token {
+        final ScriptEvent event;
+        final Object delegateToken;
+
+        Token(ScriptEvent event, Object delegateToken) {
+            this.event = event;
+            this.delegateToken = delegateToken;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Base class of the events emitted for instrumented wicket-js operations. Operations that run while a behavior renders
+ * its head inherit the component path and behavior class of that behavior.
+ */
+@Category({ "Wicket", "wicket-js" })
+@StackTrace(false)
+abstract class ScriptEvent extends Event {
+
+    @Label("Component Path")
+    @Description("The page relative path of the component the script was rendered for")
+    String componentPath;
+
+    @Label("Behavior Class")
+    @Description("The class of the behavior that rendered the script")
+    Class<?> behaviorClass;
+
+    @Label("Source Class")
+    @Description("The class the operation is attributed to, e.g. the generator or the serialized value")
+    Class<?> sourceClass;
+
+    @Label("Output Size")
+    @Description("The amount of characters written, or -1 if unknown")
+    long outputSize;
+}
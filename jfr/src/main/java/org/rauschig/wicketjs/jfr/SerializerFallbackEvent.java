@@ -0,0 +1,44 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Emitted for each value the {@code JsonSerializer} hands to the Jackson ObjectMapper. The stack trace is recorded, as
+ * it shows where the value came from.
+ */
+@Name("org.rauschig.wicketjs.SerializerFallback")
+@Label("Jackson Serializer Fallback")
+@Description("A value that could not be written directly and was serialized by Jackson")
+@Category({ "Wicket", "wicket-js" })
+@StackTrace(true)
+class SerializerFallbackEvent extends Event {
+
+    @Label("Component Path")
+    String componentPath;
+
+    @Label("Behavior Class")
+    Class<?> behaviorClass;
+
+    @Label("Value Class")
+    Class<?> valueClass;
+}
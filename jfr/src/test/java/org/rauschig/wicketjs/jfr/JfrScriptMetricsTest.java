@@ -0,0 +1,118 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.jfr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.apache.wicket.markup.html.WebMarkupContainer;
+import org.apache.wicket.mock.MockApplication;
+import org.apache.wicket.util.tester.WicketTester;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.rauschig.wicketjs.JsIdentifier;
+import org.rauschig.wicketjs.WicketJsSettings;
+import org.rauschig.wicketjs.behavior.JsBehavior;
+import org.rauschig.wicketjs.generator.JsGenerator;
+import org.rauschig.wicketjs.metrics.IScriptMetrics.Operation;
+
+public class JfrScriptMetricsTest {
+
+    private WicketTester tester;
+
+    private JfrScriptMetrics metrics;
+
+    @Before
+    public void setUp() throws Exception {
+        tester = new WicketTester(new MockApplication());
+        metrics = new JfrScriptMetrics();
+        WicketJsSettings.install(tester.getApplication()).setMetrics(metrics);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        tester.destroy();
+    }
+
+    @Test
+    public void generate_withinRenderHead_inheritsComponentPathAndBehaviorClass() throws Exception {
+        List<RecordedEvent> events;
+
+        try (Recording recording = new Recording()) {
+            recording.enable(GenerateEvent.class);
+            recording.enable(RenderHeadEvent.class);
+            recording.start();
+
+            WebMarkupContainer container = new WebMarkupContainer("container");
+            new WebMarkupContainer("page").add(container);
+
+            Object token = metrics.begin(Operation.RENDER_HEAD, JsBehavior.class, container);
+            new JsGenerator(new JsIdentifier("foo")).generate(new StringBuilder());
+            metrics.record(Operation.RENDER_HEAD, JsBehavior.class, token, 0, -1);
+
+            new JsGenerator(new JsIdentifier("bar")).generate(new StringBuilder());
+
+            recording.stop();
+            events = read(recording);
+        }
+
+        assertEquals(3, events.size());
+
+        RecordedEvent nested = events.get(0);
+        assertEquals("org.rauschig.wicketjs.Generate", nested.getEventType().getName());
+        assertEquals("container", nested.getString("componentPath"));
+        assertEquals(JsBehavior.class.getName(), nested.getClass("behaviorClass").getName());
+        assertEquals(JsGenerator.class.getName(), nested.getClass("sourceClass").getName());
+        assertEquals(3, nested.getLong("outputSize"));
+
+        RecordedEvent renderHead = events.get(1);
+        assertEquals("org.rauschig.wicketjs.RenderHead", renderHead.getEventType().getName());
+        assertEquals("container", renderHead.getString("componentPath"));
+
+        RecordedEvent outside = events.get(2);
+        assertEquals("org.rauschig.wicketjs.Generate", outside.getEventType().getName());
+        assertNull(outside.getString("componentPath"));
+        assertNull(outside.getClass("behaviorClass"));
+    }
+
+    private static List<RecordedEvent> read(Recording recording) throws Exception {
+        Path file = Files.createTempFile("wicket-js", ".jfr");
+        try {
+            recording.dump(file);
+
+            List<RecordedEvent> events = new ArrayList<>();
+            for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+                if (event.getEventType().getName().startsWith("org.rauschig.wicketjs.")) {
+                    events.add(event);
+                }
+            }
+            events.sort((a, b) -> a.getEndTime().compareTo(b.getEndTime()));
+            return events;
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs;
+
+/**
+ * A mutable syntax tree node that can be made read-only.
+ * <p>
+ * Freezing a node freezes all its children, trims its child lists to fixed-size arrays and replaces its children with
+ * their canonical instances from the {@link JsInterner}. Afterwards, all mutating operations throw an
+ * {@code UnsupportedOperationException}, and the hash code of the node is computed only once, s.t. hashing a frozen
+ * tree at every level does not traverse its subtrees again. Frozen trees can safely be shared across request threads,
+ * e.g. in static fields.
+ * </p>
+ * <p>
+ * Syntax tree nodes that do not implement this interface (like {@link JsIdentifier} or {@link JsExpression}) are
+ * considered immutable.
+ * </p>
+ */
+public interface IFreezable {
+
+    /**
+     * Makes this node and all its children read-only.
+     * 
+     * @return this for chaining
+     */
+    IJavaScript freeze();
+
+    /**
+     * Returns whether this node was frozen.
+     * 
+     * @return true if this node is read-only
+     */
+    boolean isFrozen();
+
+    /**
+     * Returns whether this node generates the same code each time, i.e. whether all literals in it are constant. Nodes
+     * that contain model-backed or lazy literals are not, and neither are nodes that are not frozen yet, except for
+     * literals, whose constancy only depends on their value. Frozen nodes compute this once when they are frozen, and
+     * only frozen constant nodes may be cached by their structure.
+     * 
+     * @return true if the generated code of this node can not change
+     * @see JsLiteral#isConstant()
+     */
+    boolean isConstant();
+}
@@ -26,6 +26,27 @@ public interface IJsExpressionVisitor {
      */
     void visit(JsLiteral.JsNumber visitable);
 
+    /**
+     * Visit the given Expression.
+     * 
+     * @param visitable the Expression to visit.
+     */
+    void visit(JsLiteral.JsInt visitable);
+
+    /**
+     * Visit the given Expression.
+     * 
+     * @param visitable the Expression to visit.
+     */
+    void visit(JsLiteral.JsLong visitable);
+
+    /**
+     * Visit the given Expression.
+     * 
+     * @param visitable the Expression to visit.
+     */
+    void visit(JsLiteral.JsDouble visitable);
+
     /**
      * Visit the given Expression.
      * 
@@ -47,6 +68,48 @@ public interface IJsExpressionVisitor {
      */
     void visit(JsLiteral.JsArray visitable);
 
+    /**
+     * Visit the given Expression.
+     * 
+     * @param visitable the Expression to visit.
+     */
+    void visit(JsLiteral.JsIterableArray visitable);
+
+    /**
+     * Visit the given Expression.
+     * 
+     * @param visitable the Expression to visit.
+     */
+    void visit(JsLiteral.JsIntArray visitable);
+
+    /**
+     * Visit the given Expression.
+     * 
+     * @param visitable the Expression to visit.
+     */
+    void visit(JsLiteral.JsLongArray visitable);
+
+    /**
+     * Visit the given Expression.
+     * 
+     * @param visitable the Expression to visit.
+     */
+    void visit(JsLiteral.JsDoubleArray visitable);
+
+    /**
+     * Visit the given Expression.
+     * 
+     * @param visitable the Expression to visit.
+     */
+    void visit(JsLiteral.JsTypedArray visitable);
+
+    /**
+     * Visit the given Expression.
+     * 
+     * @param visitable the Expression to visit.
+     */
+    void visit(JsLiteral.JsTable visitable);
+
     /**
      * Visit the given Expression.
      * 
@@ -110,4 +173,11 @@ public interface IJsExpressionVisitor {
      */
     void visit(JsNamedFunction visitable);
 
+    /**
+     * Visit the given Expression.
+     * 
+     * @param visitable the Expression to visit.
+     */
+    void visit(JsPlaceholder visitable);
+
 }
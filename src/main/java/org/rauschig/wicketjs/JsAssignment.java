@@ -15,6 +15,8 @@
  */
 package org.rauschig.wicketjs;
 
+import java.util.Objects;
+
 import org.rauschig.wicketjs.util.JsUtils;
 
 /**
@@ -24,13 +26,19 @@ import org.rauschig.wicketjs.util.JsUtils;
  *     &lt;left&gt; = &lt;right&gt;
  * </pre>
  */
-public class JsAssignment extends AbstractJsExpression {
+public class JsAssignment extends AbstractJsExpression implements IFreezable {
 
     private static final long serialVersionUID = -3250863627225988870L;
 
     private IJsExpression left;
     private IJsExpression right;
 
+    private boolean frozen;
+
+    private boolean constant;
+
+    private transient int hash;
+
     public JsAssignment(CharSequence identifier, Object value) {
         this(new JsIdentifier(identifier), JsUtils.asArgument(value));
     }
@@ -48,8 +56,52 @@ public class JsAssignment extends AbstractJsExpression {
         return right;
     }
 
+    @Override
+    public JsAssignment freeze() {
+        if (!frozen) {
+            frozen = true;
+            left = JsInterner.intern(left);
+            right = JsInterner.intern(right);
+            constant = JsInterner.isConstant(left) && JsInterner.isConstant(right);
+            hash = Objects.hash(left, right);
+        }
+        return this;
+    }
+
+    @Override
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    @Override
+    public boolean isConstant() {
+        return frozen && constant;
+    }
+
     @Override
     public void accept(IJsExpressionVisitor visitor) {
         visitor.accept(this);
     }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        } else if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+
+        JsAssignment other = (JsAssignment) obj;
+        return Objects.equals(left, other.left) && Objects.equals(right, other.right);
+    }
+
+    @Override
+    public int hashCode() {
+        if (!frozen) {
+            return Objects.hash(left, right);
+        } else if (hash == 0) {
+            hash = Objects.hash(left, right);
+        }
+        return hash;
+    }
 }
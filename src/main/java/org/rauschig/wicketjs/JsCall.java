@@ -17,6 +17,7 @@ package org.rauschig.wicketjs;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 import org.rauschig.wicketjs.util.JsUtils;
 
@@ -33,7 +34,7 @@ import org.rauschig.wicketjs.util.JsUtils;
  * console.log('logging', 42, 'this', this, function(...){...});
  * </pre>
  */
-public class JsCall extends AbstractJsExpression {
+public class JsCall extends AbstractJsExpression implements IFreezable {
 
     private static final long serialVersionUID = -1541822119879211306L;
 
@@ -41,6 +42,12 @@ public class JsCall extends AbstractJsExpression {
 
     private List<IJsExpression> arguments;
 
+    private boolean frozen;
+
+    private boolean constant;
+
+    private transient int hash;
+
     /**
      * Creates a new JsCall, calling the given functionName with the given arguments. Each argument is converted into a
      * JS syntax token.
@@ -122,9 +129,52 @@ public class JsCall extends AbstractJsExpression {
         return this;
     }
 
+    @Override
+    public JsCall freeze() {
+        if (!frozen) {
+            frozen = true;
+            function = JsInterner.intern(function);
+            arguments = JsInterner.internAll(arguments);
+            constant = JsInterner.isConstant(function) && JsInterner.isConstantAll(arguments);
+            hash = Objects.hash(function, arguments);
+        }
+        return this;
+    }
+
+    @Override
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    @Override
+    public boolean isConstant() {
+        return frozen && constant;
+    }
+
     @Override
     public void accept(IJsExpressionVisitor visitor) {
         visitor.visit(this);
     }
 
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        } else if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+
+        JsCall other = (JsCall) obj;
+        return Objects.equals(function, other.function) && Objects.equals(arguments, other.arguments);
+    }
+
+    @Override
+    public int hashCode() {
+        if (!frozen) {
+            return Objects.hash(function, arguments);
+        } else if (hash == 0) {
+            hash = Objects.hash(function, arguments);
+        }
+        return hash;
+    }
 }
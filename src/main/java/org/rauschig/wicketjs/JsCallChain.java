@@ -18,6 +18,7 @@ package org.rauschig.wicketjs;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 
 import org.rauschig.wicketjs.util.JsUtils;
 
@@ -44,12 +45,18 @@ import org.rauschig.wicketjs.util.JsUtils;
  * </tr>
  * </table>
  */
-public class JsCallChain extends AbstractJsExpression {
+public class JsCallChain extends AbstractJsExpression implements IFreezable {
 
     private static final long serialVersionUID = -5447236481139701035L;
 
     private List<IJsExpression> expressions;
 
+    private boolean frozen;
+
+    private boolean constant;
+
+    private transient int hash;
+
     public JsCallChain() {
         this(new ArrayList<IJsExpression>());
     }
@@ -172,9 +179,51 @@ public class JsCallChain extends AbstractJsExpression {
         return expressions;
     }
 
+    @Override
+    public JsCallChain freeze() {
+        if (!frozen) {
+            frozen = true;
+            expressions = JsInterner.internAll(expressions);
+            constant = JsInterner.isConstantAll(expressions);
+            hash = Objects.hash(expressions);
+        }
+        return this;
+    }
+
+    @Override
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    @Override
+    public boolean isConstant() {
+        return frozen && constant;
+    }
+
     @Override
     public void accept(IJsExpressionVisitor visitor) {
         visitor.accept(this);
     }
 
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        } else if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+
+        JsCallChain other = (JsCallChain) obj;
+        return Objects.equals(expressions, other.expressions);
+    }
+
+    @Override
+    public int hashCode() {
+        if (!frozen) {
+            return Objects.hash(expressions);
+        } else if (hash == 0) {
+            hash = Objects.hash(expressions);
+        }
+        return hash;
+    }
 }
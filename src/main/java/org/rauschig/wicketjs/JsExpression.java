@@ -15,6 +15,8 @@
  */
 package org.rauschig.wicketjs;
 
+import java.util.Objects;
+
 /**
  * A raw expression that may contain arbitrary JavaScript code.
  */
@@ -56,4 +58,21 @@ public class JsExpression extends AbstractJsExpression {
     public void accept(IJsExpressionVisitor visitor) {
         visitor.visit(this);
     }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        } else if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+
+        JsExpression other = (JsExpression) obj;
+        return Objects.equals(String.valueOf(getExpression()), String.valueOf(other.getExpression()));
+    }
+
+    @Override
+    public int hashCode() {
+        return String.valueOf(getExpression()).hashCode();
+    }
 }
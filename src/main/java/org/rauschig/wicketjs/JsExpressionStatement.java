@@ -15,15 +15,23 @@
  */
 package org.rauschig.wicketjs;
 
+import java.util.Objects;
+
 /**
  * IJsExpression wrapper representing a semicolon terminated expression.
  */
-public class JsExpressionStatement extends AbstractJsStatement {
+public class JsExpressionStatement extends AbstractJsStatement implements IFreezable {
 
     private static final long serialVersionUID = -559738161269895071L;
 
     private IJsExpression expression;
 
+    private boolean frozen;
+
+    private boolean constant;
+
+    private transient int hash;
+
     public JsExpressionStatement(CharSequence expression) {
         this(new JsExpression(expression));
     }
@@ -36,9 +44,51 @@ public class JsExpressionStatement extends AbstractJsStatement {
         return expression;
     }
 
+    @Override
+    public JsExpressionStatement freeze() {
+        if (!frozen) {
+            frozen = true;
+            expression = JsInterner.intern(expression);
+            constant = JsInterner.isConstant(expression);
+            hash = Objects.hash(expression);
+        }
+        return this;
+    }
+
+    @Override
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    @Override
+    public boolean isConstant() {
+        return frozen && constant;
+    }
+
     @Override
     public void accept(IJsStatementVisitor visitor) {
         visitor.visit(this);
     }
 
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        } else if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+
+        JsExpressionStatement other = (JsExpressionStatement) obj;
+        return Objects.equals(expression, other.expression);
+    }
+
+    @Override
+    public int hashCode() {
+        if (!frozen) {
+            return Objects.hash(expression);
+        } else if (hash == 0) {
+            hash = Objects.hash(expression);
+        }
+        return hash;
+    }
 }
@@ -17,6 +17,7 @@ package org.rauschig.wicketjs;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 import org.rauschig.wicketjs.util.JsUtils;
 
@@ -31,13 +32,19 @@ import org.rauschig.wicketjs.util.JsUtils;
  *     }
  * </pre>
  */
-public class JsFunction implements IJsExpression {
+public class JsFunction implements IJsExpression, IFreezable {
 
     private static final long serialVersionUID = -2514816269156224568L;
 
     private List<JsIdentifier> parameters;
     private IJsStatement body;
 
+    private boolean frozen;
+
+    private boolean constant;
+
+    private transient int hash;
+
     public JsFunction(CharSequence body) {
         this(new JsExpressionStatement(body));
     }
@@ -118,6 +125,28 @@ public class JsFunction implements IJsExpression {
         return body;
     }
 
+    @Override
+    public JsFunction freeze() {
+        if (!frozen) {
+            frozen = true;
+            parameters = JsInterner.internAll(parameters);
+            body = JsInterner.intern(body);
+            constant = JsInterner.isConstant(body);
+            hash = Objects.hash(parameters, body);
+        }
+        return this;
+    }
+
+    @Override
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    @Override
+    public boolean isConstant() {
+        return frozen && constant;
+    }
+
     @Override
     public IJsStatement terminate() {
         return JsStatement.of(this);
@@ -127,4 +156,26 @@ public class JsFunction implements IJsExpression {
     public void accept(IJsExpressionVisitor visitor) {
         visitor.visit(this);
     }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        } else if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+
+        JsFunction other = (JsFunction) obj;
+        return Objects.equals(parameters, other.parameters) && Objects.equals(body, other.body);
+    }
+
+    @Override
+    public int hashCode() {
+        if (!frozen) {
+            return Objects.hash(parameters, body);
+        } else if (hash == 0) {
+            hash = Objects.hash(parameters, body);
+        }
+        return hash;
+    }
 }
@@ -15,6 +15,8 @@
  */
 package org.rauschig.wicketjs;
 
+import java.util.Objects;
+
 /**
  * A JavaScript <code>if</code> statement.
  * 
@@ -27,7 +29,7 @@ package org.rauschig.wicketjs;
  * }]
  * </pre>
  */
-public class JsIf extends AbstractJsStatement {
+public class JsIf extends AbstractJsStatement implements IFreezable {
 
     private static final long serialVersionUID = -3465855189099342658L;
 
@@ -38,6 +40,12 @@ public class JsIf extends AbstractJsStatement {
 
     private boolean negated;
 
+    private boolean frozen;
+
+    private boolean constant;
+
+    private transient int hash;
+
     public JsIf(CharSequence expression, IJsStatement thenBlock) {
         this(new JsExpression(expression), thenBlock);
     }
@@ -76,14 +84,65 @@ public class JsIf extends AbstractJsStatement {
      * Negates the if statement by placing a negation around the expression.
      *
      * @return this for chaining
+     * @throws UnsupportedOperationException if the statement is frozen
      */
     public JsIf not() {
+        if (frozen) {
+            throw new UnsupportedOperationException("Can not negate a frozen if statement");
+        }
         negated = !negated;
         return this;
     }
 
+    @Override
+    public JsIf freeze() {
+        if (!frozen) {
+            frozen = true;
+            expression = JsInterner.intern(expression);
+            thenBlock = JsInterner.intern(thenBlock);
+            elseBlock = JsInterner.intern(elseBlock);
+            constant = JsInterner.isConstant(expression) && JsInterner.isConstant(thenBlock)
+                    && JsInterner.isConstant(elseBlock);
+            hash = Objects.hash(expression, thenBlock, elseBlock, negated);
+        }
+        return this;
+    }
+
+    @Override
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    @Override
+    public boolean isConstant() {
+        return frozen && constant;
+    }
+
     @Override
     public void accept(IJsStatementVisitor visitor) {
         visitor.visit(this);
     }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        } else if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+
+        JsIf other = (JsIf) obj;
+        return negated == other.negated && Objects.equals(expression, other.expression)
+            && Objects.equals(thenBlock, other.thenBlock) && Objects.equals(elseBlock, other.elseBlock);
+    }
+
+    @Override
+    public int hashCode() {
+        if (!frozen) {
+            return Objects.hash(expression, thenBlock, elseBlock, negated);
+        } else if (hash == 0) {
+            hash = Objects.hash(expression, thenBlock, elseBlock, negated);
+        }
+        return hash;
+    }
 }
@@ -0,0 +1,216 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.wicket.model.IModel;
+import org.rauschig.wicketjs.util.json.IJsonCacheable;
+
+/**
+ * JVM-wide pool of frozen syntax tree nodes (hash-consing). Interning a node freezes it and returns the canonical
+ * instance of all structurally equal nodes, s.t. common fragments like {@code $(this)} exist only once.
+ *
+ * <pre>
+ * static final JsCallChain TOGGLE = JsInterner.intern($(THIS).toggleClass(&quot;active&quot;));
+ * </pre>
+ *
+ * Nodes are pooled by their structural {@code equals} and {@code hashCode}, and only with nodes of the same class.
+ * Literals that are not {@link JsLiteral#isConstant() constant} (lazy arrays and model-backed literals) are frozen,
+ * but never pooled. The pool only holds weak references, so canonical instances that are no longer used anywhere else
+ * can be garbage collected.
+ */
+public final class JsInterner {
+
+    private static final ConcurrentMap<Ref, Ref> POOL = new ConcurrentHashMap<>();
+
+    private static final ReferenceQueue<IJavaScript> QUEUE = new ReferenceQueue<>();
+
+    private JsInterner() {
+        // static utility class
+    }
+
+    /**
+     * Freezes the given node and returns the canonical instance of all nodes structurally equal to it.
+     * 
+     * @param node the node to intern
+     * @param <T> the node type
+     * @return the canonical instance, or null if the node was null
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends IJavaScript> T intern(T node) {
+        if (node == null) {
+            return null;
+        }
+
+        if (node instanceof IFreezable) {
+            ((IFreezable) node).freeze();
+        }
+
+        if (node instanceof JsLiteral && !((JsLiteral<?>) node).isConstant()) {
+            return node;
+        }
+
+        expunge();
+
+        Ref lookup = new Ref(node, null);
+        while (true) {
+            Ref entry = POOL.get(lookup);
+
+            if (entry != null) {
+                IJavaScript canonical = entry.get();
+                if (canonical != null) {
+                    return (T) canonical;
+                }
+                POOL.remove(entry, entry);
+            } else {
+                Ref ref = new Ref(node, QUEUE);
+                if (POOL.putIfAbsent(ref, ref) == null) {
+                    return node;
+                }
+            }
+        }
+    }
+
+    /**
+     * Interns all nodes of the given list and returns them as a fixed-size, unmodifiable list.
+     * 
+     * @param nodes the nodes to intern
+     * @param <T> the node type
+     * @return a read-only list of canonical instances
+     */
+    public static <T extends IJavaScript> List<T> internAll(List<T> nodes) {
+        if (nodes == null || nodes.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        @SuppressWarnings("unchecked")
+        T[] array = (T[]) nodes.toArray(new IJavaScript[nodes.size()]);
+        for (int i = 0; i < array.length; i++) {
+            array[i] = intern(array[i]);
+        }
+
+        return Collections.unmodifiableList(Arrays.asList(array));
+    }
+
+    /**
+     * Returns whether the given child or literal value generates the same code each time. Freezable nodes have to be
+     * frozen and {@link IFreezable#isConstant() constant}, models, lazy Iterables and {@link IJsonCacheable} values
+     * (like Options) are never constant, and Maps, Collections and arrays are constant if all their elements are.
+     * Other values, like immutable nodes or beans, are considered constant.
+     * 
+     * @param value a syntax tree node or literal value, may be null
+     * @return true if the value is constant
+     */
+    static boolean isConstant(Object value) {
+        if (value == null) {
+            return true;
+        } else if (value instanceof IFreezable) {
+            IFreezable node = (IFreezable) value;
+            return node.isFrozen() && node.isConstant();
+        } else if (value instanceof IModel || value instanceof IJsonCacheable) {
+            return false;
+        } else if (value instanceof Map) {
+            return isConstantAll(((Map<?, ?>) value).values());
+        } else if (value instanceof Collection) {
+            return isConstantAll((Collection<?>) value);
+        } else if (value instanceof Iterable) {
+            return false;
+        } else if (value instanceof Object[]) {
+            return isConstantAll(Arrays.asList((Object[]) value));
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether all the given children or literal values are {@link #isConstant(Object) constant}.
+     * 
+     * @param values the values to check, may be null
+     * @return true if all values are constant
+     */
+    static boolean isConstantAll(Collection<?> values) {
+        if (values != null) {
+            for (Object value : values) {
+                if (!isConstant(value)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the amount of canonical instances currently held by the pool.
+     * 
+     * @return pool size
+     */
+    public static int size() {
+        expunge();
+        return POOL.size();
+    }
+
+    private static void expunge() {
+        Object reference;
+        while ((reference = QUEUE.poll()) != null) {
+            POOL.remove(reference, reference);
+        }
+    }
+
+    /**
+     * Weak reference to a pooled node that is equal to the references of structurally equal nodes of the same class.
+     * The hash code is computed once, as the referenced node is frozen.
+     */
+    private static final class Ref extends WeakReference<IJavaScript> {
+        private final int hash;
+
+        Ref(IJavaScript node, ReferenceQueue<IJavaScript> queue) {
+            super(node, queue);
+            this.hash = node.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            } else if (!(obj instanceof Ref)) {
+                return false;
+            }
+
+            Ref other = (Ref) obj;
+            if (hash != other.hash) {
+                return false;
+            }
+
+            IJavaScript node = get();
+            IJavaScript otherNode = other.get();
+            return node != null && otherNode != null && node.getClass() == otherNode.getClass()
+                    && node.equals(otherNode);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
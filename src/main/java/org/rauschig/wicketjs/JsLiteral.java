@@ -15,15 +15,31 @@
  */
 package org.rauschig.wicketjs;
 
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+
+import org.apache.wicket.core.util.lang.PropertyResolver;
+import org.apache.wicket.markup.head.HeaderItem;
+import org.apache.wicket.markup.head.JavaScriptHeaderItem;
+import org.apache.wicket.markup.repeater.data.IDataProvider;
+import org.apache.wicket.request.resource.JavaScriptResourceReference;
+import org.apache.wicket.util.io.IClusterable;
+import org.apache.wicket.util.lang.Args;
 
 /**
  * A value wrapper to map literal semantics of Java to JavaScript.
  *
  * TODO: RegularExpression
  */
-public abstract class JsLiteral<T> extends AbstractJsExpression {
+public abstract class JsLiteral<T> extends AbstractJsExpression implements IFreezable {
 
     private static final long serialVersionUID = -8362618585257944508L;
 
@@ -31,13 +47,19 @@ public abstract class JsLiteral<T> extends AbstractJsExpression {
 
     private T value;
 
+    private boolean frozen;
+
+    private boolean constant;
+
+    private transient int hash;
+
     /**
      * Creates a new JavaScript literal for the given value.
      * 
      * @param value the Java value to be wrapped.
      */
     public JsLiteral(T value) {
-        setValue(value);
+        this.value = value;
     }
 
     /**
@@ -49,37 +71,114 @@ public abstract class JsLiteral<T> extends AbstractJsExpression {
         return value;
     }
 
+    /**
+     * Sets the Java value object.
+     * 
+     * @param value the Java value object
+     * @throws UnsupportedOperationException if the literal is frozen
+     */
     public void setValue(T value) {
+        if (frozen) {
+            throw new UnsupportedOperationException("Can not change the value of a frozen literal");
+        }
         this.value = value;
     }
 
+    /**
+     * Makes this literal read-only. Map and Collection values are replaced by unmodifiable copies, all other values
+     * (arrays or beans) are kept as they are and must not be changed after freezing. Lazy arrays keep their Iterable,
+     * as it is iterated each time the literal is generated.
+     * 
+     * @return this for chaining
+     */
+    @Override
+    public JsLiteral<T> freeze() {
+        if (!frozen) {
+            if (!(this instanceof JsIterableArray)) {
+                value = unmodifiableCopyOf(value);
+            }
+            constant = isConstant();
+            hash = valueHashCode();
+            frozen = true;
+        }
+        return this;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T unmodifiableCopyOf(T value) {
+        if (value instanceof Map) {
+            return (T) Collections.unmodifiableMap(new LinkedHashMap<>((Map<?, ?>) value));
+        } else if (value instanceof List) {
+            return (T) Collections.unmodifiableList(new ArrayList<>((List<?>) value));
+        } else if (value instanceof Collection) {
+            return (T) Collections.unmodifiableCollection(new ArrayList<>((Collection<?>) value));
+        }
+        return value;
+    }
+
+    @Override
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * Returns whether the value of this literal is constant, i.e. whether it is the same each time the literal is
+     * generated. Literals backed by an {@code IModel} are not constant, and neither are lazy arrays or Maps, Collections
+     * and arrays that contain models, lazy Iterables or syntax tree nodes that are not frozen and constant. Literals
+     * that are not constant are only equal to themselves and are never interned by the {@link JsInterner}. The result
+     * is computed once when the literal is frozen.
+     * 
+     * @return true if the value is constant
+     */
+    @Override
+    public boolean isConstant() {
+        if (frozen) {
+            return constant;
+        }
+        return JsInterner.isConstant(value);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
             return true;
+        } else if (!isConstant()) {
+            return false;
         } else if (!(o instanceof JsLiteral)) {
-            return value != null && value.equals(o);
+            return getValue() != null && getValue().equals(o);
         } else if (!getClass().equals(o.getClass())) {
-            System.out.println("not the same class");
             return false;
         }
 
-        JsLiteral other = (JsLiteral) o;
-        if (value == null) {
-            return other.value == null;
-        } else {
-            return value.equals(other.value);
-        }
+        return Objects.deepEquals(getValue(), ((JsLiteral) o).getValue());
     }
 
     @Override
     public int hashCode() {
-        return value != null ? value.hashCode() : 0;
+        if (!frozen) {
+            return valueHashCode();
+        } else if (hash == 0) {
+            hash = valueHashCode();
+        }
+        return hash;
+    }
+
+    private int valueHashCode() {
+        if (!isConstant()) {
+            return System.identityHashCode(this);
+        }
+
+        T v = getValue();
+        if (v != null && v.getClass().isArray()) {
+            return Arrays.deepHashCode(new Object[] { v });
+        }
+        return v != null ? v.hashCode() : 0;
     }
 
     @Override
     public String toString() {
-        return value == null ? null : value.toString();
+        T v = getValue();
+        return v == null ? null : v.toString();
     }
 
     /**
@@ -107,6 +206,11 @@ public abstract class JsLiteral<T> extends AbstractJsExpression {
         public static final JsBoolean FALSE = new JsBoolean(false);
         public static final JsBoolean TRUE = new JsBoolean(true);
 
+        static {
+            FALSE.freeze();
+            TRUE.freeze();
+        }
+
         public JsBoolean(Boolean value) {
             super(value);
         }
@@ -127,6 +231,125 @@ public abstract class JsLiteral<T> extends AbstractJsExpression {
             super(value);
         }
 
+        /**
+         * Number literals are equal if their values are equal, regardless of whether they are backed by a primitive or
+         * a boxed value.
+         */
+        @Override
+        public boolean equals(Object o) {
+            if (o instanceof JsNumber) {
+                return Objects.equals(getValue(), ((JsNumber) o).getValue());
+            }
+            return super.equals(o);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(getValue());
+        }
+
+        @Override
+        public void accept(IJsExpressionVisitor visitor) {
+            visitor.visit(this);
+        }
+    }
+
+    /**
+     * A JavaScript Number backed by a primitive int. The value is only boxed when calling {@link #getValue()}.
+     */
+    public static class JsInt extends JsNumber {
+        private static final long serialVersionUID = 4337405618843406447L;
+
+        private final int intValue;
+
+        public JsInt(int value) {
+            super(null);
+            this.intValue = value;
+        }
+
+        public int intValue() {
+            return intValue;
+        }
+
+        @Override
+        public Number getValue() {
+            return intValue;
+        }
+
+        @Override
+        public void setValue(Number value) {
+            throw new UnsupportedOperationException("Primitive literals are immutable");
+        }
+
+        @Override
+        public void accept(IJsExpressionVisitor visitor) {
+            visitor.visit(this);
+        }
+    }
+
+    /**
+     * A JavaScript Number backed by a primitive long. The value is only boxed when calling {@link #getValue()}.
+     * <p>
+     * Note that JavaScript numbers can only represent integers up to 2^53 exactly.
+     * </p>
+     */
+    public static class JsLong extends JsNumber {
+        private static final long serialVersionUID = -4404932390958613390L;
+
+        private final long longValue;
+
+        public JsLong(long value) {
+            super(null);
+            this.longValue = value;
+        }
+
+        public long longValue() {
+            return longValue;
+        }
+
+        @Override
+        public Number getValue() {
+            return longValue;
+        }
+
+        @Override
+        public void setValue(Number value) {
+            throw new UnsupportedOperationException("Primitive literals are immutable");
+        }
+
+        @Override
+        public void accept(IJsExpressionVisitor visitor) {
+            visitor.visit(this);
+        }
+    }
+
+    /**
+     * A JavaScript Number backed by a primitive double. The value is only boxed when calling {@link #getValue()}.
+     */
+    public static class JsDouble extends JsNumber {
+        private static final long serialVersionUID = 2950305337893542498L;
+
+        private final double doubleValue;
+
+        public JsDouble(double value) {
+            super(null);
+            this.doubleValue = value;
+        }
+
+        public double doubleValue() {
+            return doubleValue;
+        }
+
+        @Override
+        public Number getValue() {
+            return doubleValue;
+        }
+
+        @Override
+        public void setValue(Number value) {
+            throw new UnsupportedOperationException("Primitive literals are immutable");
+        }
+
         @Override
         public void accept(IJsExpressionVisitor visitor) {
             visitor.visit(this);
@@ -153,6 +376,509 @@ public abstract class JsLiteral<T> extends AbstractJsExpression {
         }
     }
 
+    /**
+     * A JavaScript array of ints. The array is neither copied nor boxed, but written directly into the output when
+     * generating the script, and therefore must not be modified afterwards.
+     */
+    public static class JsIntArray extends JsLiteral<int[]> {
+        private static final long serialVersionUID = -2204733785393014436L;
+
+        public JsIntArray(int[] value) {
+            super(value);
+        }
+
+        @Override
+        public void accept(IJsExpressionVisitor visitor) {
+            visitor.visit(this);
+        }
+    }
+
+    /**
+     * A JavaScript array of longs. The array is neither copied nor boxed, but written directly into the output when
+     * generating the script, and therefore must not be modified afterwards.
+     */
+    public static class JsLongArray extends JsLiteral<long[]> {
+        private static final long serialVersionUID = 6618716383513779562L;
+
+        public JsLongArray(long[] value) {
+            super(value);
+        }
+
+        @Override
+        public void accept(IJsExpressionVisitor visitor) {
+            visitor.visit(this);
+        }
+    }
+
+    /**
+     * A JavaScript array of doubles. The array is neither copied nor boxed, but written directly into the output when
+     * generating the script, and therefore must not be modified afterwards.
+     */
+    public static class JsDoubleArray extends JsLiteral<double[]> {
+        private static final long serialVersionUID = -779128405731734201L;
+
+        public JsDoubleArray(double[] value) {
+            super(value);
+        }
+
+        @Override
+        public void accept(IJsExpressionVisitor visitor) {
+            visitor.visit(this);
+        }
+    }
+
+    /**
+     * A numeric JavaScript array that is transferred as base64 encoded binary payload, which is decoded into a
+     * JavaScript typed array on the client side. For large numeric series this is considerably smaller and faster to
+     * parse than a JSON array literal.
+     * <p>
+     * The generated code calls {@code WicketJs.typedArray(type, payload[, base])}, which is defined by the
+     * {@link #DECODER} script. Generators register the decoder as dependency of the generated script (see
+     * {@link org.rauschig.wicketjs.generator.AbstractJsGenerator#getDependencies()}).
+     * </p>
+     * 
+     * @see JsLiteral#float64(double[])
+     * @see JsLiteral#int32(int[])
+     * @see JsLiteral#int32(long[])
+     * @see JsLiteral#delta(long[])
+     */
+    public static class JsTypedArray extends JsLiteral<Object> {
+        private static final long serialVersionUID = -2416178330561871082L;
+
+        /**
+         * The client-side decoder of typed array payloads.
+         */
+        public static final JavaScriptResourceReference DECODER = new JavaScriptResourceReference(JsLiteral.class,
+                "wicket-js-typedarray.js");
+
+        /**
+         * The binary encodings of a JsTypedArray.
+         */
+        public enum Encoding {
+            /**
+             * Each value is written as little-endian IEEE 754 double and decoded into a Float64Array.
+             */
+            FLOAT64("f64"),
+
+            /**
+             * Each value is written as little-endian 32-bit integer and decoded into an Int32Array.
+             */
+            INT32("i32"),
+
+            /**
+             * The first value is written as number literal, each following value as the 32-bit integer difference to
+             * its predecessor. Decoded into a Float64Array, which holds integers up to 2^53 exactly. Suited for
+             * monotonic series such as timestamps.
+             */
+            INT32_DELTA("d32");
+
+            private final String type;
+
+            Encoding(String type) {
+                this.type = type;
+            }
+
+            /**
+             * Returns the type identifier the client-side decoder uses for this encoding.
+             * 
+             * @return the type identifier
+             */
+            public String getType() {
+                return type;
+            }
+        }
+
+        private final Encoding encoding;
+
+        /**
+         * Creates a new JsTypedArray for the given values and encoding.
+         * 
+         * @param value a double[] for FLOAT64, or an int[] or long[] for the integer encodings
+         * @param encoding the encoding
+         * @throws IllegalArgumentException if the array type does not match the encoding, or a value can not be
+         *             represented with the encoding
+         */
+        public JsTypedArray(Object value, Encoding encoding) {
+            super(Args.notNull(value, "value"));
+            this.encoding = Args.notNull(encoding, "encoding");
+
+            switch (encoding) {
+                case FLOAT64:
+                    if (!(value instanceof double[])) {
+                        throw new IllegalArgumentException("FLOAT64 requires a double[]");
+                    }
+                    break;
+                case INT32:
+                    if (value instanceof long[]) {
+                        checkInt32((long[]) value);
+                    } else if (!(value instanceof int[])) {
+                        throw new IllegalArgumentException("INT32 requires an int[] or long[]");
+                    }
+                    break;
+                case INT32_DELTA:
+                    if (value instanceof long[]) {
+                        checkInt32Deltas((long[]) value);
+                    } else if (!(value instanceof int[])) {
+                        throw new IllegalArgumentException("INT32_DELTA requires an int[] or long[]");
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown encoding " + encoding);
+            }
+        }
+
+        public Encoding getEncoding() {
+            return encoding;
+        }
+
+        /**
+         * Returns the amount of values in the array.
+         * 
+         * @return the array length
+         */
+        public int length() {
+            return Array.getLength(getValue());
+        }
+
+        /**
+         * Returns the value at the given index as long. Must only be called for the integer encodings.
+         * 
+         * @param index the index
+         * @return the value
+         */
+        public long longValue(int index) {
+            Object value = getValue();
+            return (value instanceof int[]) ? ((int[]) value)[index] : ((long[]) value)[index];
+        }
+
+        /**
+         * Returns a header item that renders the {@link #DECODER} script.
+         * 
+         * @return a new header item
+         */
+        public static HeaderItem getDecoderHeaderItem() {
+            return JavaScriptHeaderItem.forReference(DECODER);
+        }
+
+        @Override
+        public void setValue(Object value) {
+            throw new UnsupportedOperationException("A JsTypedArray can not be changed");
+        }
+
+        @Override
+        public void accept(IJsExpressionVisitor visitor) {
+            visitor.visit(this);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return super.equals(o) && (!(o instanceof JsTypedArray) || encoding == ((JsTypedArray) o).encoding);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * super.hashCode() + encoding.hashCode();
+        }
+
+        private static void checkInt32(long[] values) {
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != (int) values[i]) {
+                    throw new IllegalArgumentException("Value " + values[i] + " at index " + i
+                        + " exceeds the 32-bit integer range");
+                }
+            }
+        }
+
+        private static void checkInt32Deltas(long[] values) {
+            for (int i = 1; i < values.length; i++) {
+                long delta = values[i] - values[i - 1];
+                boolean overflow = ((values[i] ^ values[i - 1]) & (values[i] ^ delta)) < 0;
+
+                if (overflow || delta != (int) delta) {
+                    throw new IllegalArgumentException("Difference between the values at index " + (i - 1) + " and "
+                        + i + " exceeds the 32-bit integer range");
+                }
+            }
+        }
+    }
+
+    /**
+     * A table of rows (beans or maps) that is written column by column, s.t. property names are transferred only once
+     * instead of once per row:
+     * 
+     * <pre>
+     * {cols:['time','value'],data:[[t0,t1,...],[v0,v1,...]]}
+     * </pre>
+     * 
+     * Each column reads a property of the rows, either a map key or a Wicket property expression. Numeric columns can
+     * be written as {@link JsTypedArray} by specifying an encoding. If {@link #asRows()} is set, the table is passed
+     * through the client-side helper {@code WicketJs.tableRows}, which rehydrates it into an array of row objects.
+     * <p>
+     * The rows are iterated once per column when the script is generated, so the Iterable has to support multiple
+     * iterations.
+     * </p>
+     * 
+     * @see JsLiteral#table(Iterable, String...)
+     */
+    public static class JsTable extends JsLiteral<Iterable<?>> {
+        private static final long serialVersionUID = 4683916480071235120L;
+
+        /**
+         * The client-side helper that rehydrates row objects from a table.
+         */
+        public static final JavaScriptResourceReference ROWS_HELPER = new JavaScriptResourceReference(JsLiteral.class,
+                "wicket-js-table.js");
+
+        private final List<Column> columns = new ArrayList<>();
+
+        private boolean rows;
+
+        public JsTable(Iterable<?> value) {
+            super(Args.notNull(value, "value"));
+        }
+
+        /**
+         * Adds a column that reads the given property, which is also used as column name.
+         * 
+         * @param property the map key or property expression
+         * @return this for chaining
+         */
+        public JsTable column(String property) {
+            return column(property, property);
+        }
+
+        /**
+         * Adds a column with the given name that reads the given property.
+         * 
+         * @param name the column name
+         * @param property the map key or property expression
+         * @return this for chaining
+         */
+        public JsTable column(String name, String property) {
+            return column(new Column(name, property, null));
+        }
+
+        /**
+         * Adds a numeric column with the given name that reads the given property and is written as JsTypedArray with
+         * the given encoding.
+         * 
+         * @param name the column name
+         * @param property the map key or property expression
+         * @param encoding the typed array encoding
+         * @return this for chaining
+         */
+        public JsTable column(String name, String property, JsTypedArray.Encoding encoding) {
+            return column(new Column(name, property, Args.notNull(encoding, "encoding")));
+        }
+
+        private JsTable column(Column column) {
+            if (isFrozen()) {
+                throw new UnsupportedOperationException("Can not add columns to a frozen table");
+            }
+            columns.add(column);
+            return this;
+        }
+
+        /**
+         * Makes the generated code rehydrate the table into an array of row objects on the client side.
+         * 
+         * @return this for chaining
+         */
+        public JsTable asRows() {
+            if (isFrozen()) {
+                throw new UnsupportedOperationException("Can not change a frozen table");
+            }
+            rows = true;
+            return this;
+        }
+
+        public List<Column> getColumns() {
+            return Collections.unmodifiableList(columns);
+        }
+
+        public boolean isRows() {
+            return rows;
+        }
+
+        /**
+         * Returns a header item that renders the {@link #ROWS_HELPER} script.
+         * 
+         * @return a new header item
+         */
+        public static HeaderItem getRowsHelperHeaderItem() {
+            return JavaScriptHeaderItem.forReference(ROWS_HELPER);
+        }
+
+        @Override
+        public void accept(IJsExpressionVisitor visitor) {
+            visitor.visit(this);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!super.equals(o) || !(o instanceof JsTable)) {
+                return false;
+            }
+
+            JsTable that = (JsTable) o;
+            return rows == that.rows && columns.equals(that.columns);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(super.hashCode(), columns, rows);
+        }
+
+        /**
+         * A column of a JsTable.
+         */
+        public static final class Column implements IClusterable {
+            private static final long serialVersionUID = -2815513622590733316L;
+
+            private final String name;
+
+            private final String property;
+
+            private final JsTypedArray.Encoding encoding;
+
+            Column(String name, String property, JsTypedArray.Encoding encoding) {
+                this.name = Args.notNull(name, "name");
+                this.property = Args.notNull(property, "property");
+                this.encoding = encoding;
+            }
+
+            public String getName() {
+                return name;
+            }
+
+            public String getProperty() {
+                return property;
+            }
+
+            /**
+             * Returns the typed array encoding of the column.
+             * 
+             * @return the encoding, or null if the values are written as array literal
+             */
+            public JsTypedArray.Encoding getEncoding() {
+                return encoding;
+            }
+
+            /**
+             * Reads the value of this column from the given row.
+             * 
+             * @param row a Map or a bean
+             * @return the value
+             */
+            public Object getValue(Object row) {
+                if (row == null) {
+                    return null;
+                } else if (row instanceof Map) {
+                    return ((Map<?, ?>) row).get(property);
+                }
+                return PropertyResolver.getValue(property, row);
+            }
+
+            @Override
+            public boolean equals(Object o) {
+                if (this == o) {
+                    return true;
+                } else if (o == null || getClass() != o.getClass()) {
+                    return false;
+                }
+
+                Column that = (Column) o;
+                return name.equals(that.name) && property.equals(that.property) && encoding == that.encoding;
+            }
+
+            @Override
+            public int hashCode() {
+                return Objects.hash(name, property, encoding);
+            }
+        }
+    }
+
+    /**
+     * A JavaScript array whose elements are pulled from an Iterable and written one by one when the script is
+     * generated, rather than being copied into the syntax tree. Each element is serialized like the values of a
+     * {@link JsObject}.
+     * 
+     * @see JsLiteral#lazy(Iterable)
+     * @see JsLiteral#lazy(Iterator)
+     * @see JsLiteral#lazy(IDataProvider, long, long)
+     */
+    public static class JsIterableArray extends JsLiteral<Iterable<?>> {
+        private static final long serialVersionUID = 6130389146722367413L;
+
+        public JsIterableArray(Iterable<?> value) {
+            super(Args.notNull(value, "value"));
+        }
+
+        /**
+         * Lazy arrays are evaluated each time they are generated, so they are never constant.
+         * 
+         * @return false
+         */
+        @Override
+        public boolean isConstant() {
+            return false;
+        }
+
+        @Override
+        public void accept(IJsExpressionVisitor visitor) {
+            visitor.visit(this);
+        }
+
+        /**
+         * An Iterable that returns the wrapped Iterator exactly once. The Iterator is not serialized.
+         */
+        private static class IteratorIterable implements Iterable<Object>, IClusterable {
+            private static final long serialVersionUID = 1L;
+
+            private transient Iterator<?> iterator;
+
+            IteratorIterable(Iterator<?> iterator) {
+                this.iterator = Args.notNull(iterator, "iterator");
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public Iterator<Object> iterator() {
+                if (iterator == null) {
+                    throw new IllegalStateException("An array backed by an Iterator can only be generated once");
+                }
+
+                Iterator<?> it = iterator;
+                iterator = null;
+                return (Iterator<Object>) it;
+            }
+        }
+
+        /**
+         * An Iterable that queries the given range of an IDataProvider each time it is iterated.
+         */
+        private static class DataProviderIterable implements Iterable<Object>, IClusterable {
+            private static final long serialVersionUID = 1L;
+
+            private final IDataProvider<?> provider;
+            private final long first;
+            private final long count;
+
+            DataProviderIterable(IDataProvider<?> provider, long first, long count) {
+                this.provider = Args.notNull(provider, "provider");
+                this.first = first;
+                this.count = count;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public Iterator<Object> iterator() {
+                long n = (count < 0) ? Math.max(0, provider.size() - first) : count;
+                return (Iterator<Object>) provider.iterator(first, n);
+            }
+        }
+    }
+
     /**
      * A JavaScript object.
      */
@@ -178,6 +904,10 @@ public abstract class JsLiteral<T> extends AbstractJsExpression {
 
         public static final JsNull INSTANCE = new JsNull();
 
+        static {
+            INSTANCE.freeze();
+        }
+
         public JsNull() {
             super(null);
         }
@@ -208,6 +938,58 @@ public abstract class JsLiteral<T> extends AbstractJsExpression {
         return new JsNumber(number);
     }
 
+    /**
+     * Wraps the given int as a JsInt without boxing it.
+     * 
+     * @param number the value to wrap
+     * @return the JavaScript value
+     */
+    public static JsInt of(int number) {
+        return new JsInt(number);
+    }
+
+    /**
+     * Wraps the given long as a JsLong without boxing it.
+     * 
+     * @param number the value to wrap
+     * @return the JavaScript value
+     */
+    public static JsLong of(long number) {
+        return new JsLong(number);
+    }
+
+    /**
+     * Wraps the given double as a JsDouble without boxing it.
+     * 
+     * @param number the value to wrap
+     * @return the JavaScript value
+     */
+    public static JsDouble of(double number) {
+        return new JsDouble(number);
+    }
+
+    /**
+     * Wraps the given float as a JsNumber. The float is not widened to a double, s.t. its shortest digits are kept
+     * (e.g. {@code 4.2} rather than {@code 4.199999809265137}).
+     * 
+     * @param number the value to wrap
+     * @return the JavaScript value
+     */
+    public static JsNumber of(float number) {
+        return new JsNumber(number);
+    }
+
+    /**
+     * Wraps the given char as a JsObject, which is written as a string of the single character. Without this overload,
+     * a char would be widened to {@link #of(int)} and written as its code point.
+     * 
+     * @param character the value to wrap
+     * @return the JavaScript value
+     */
+    public static JsObject of(char character) {
+        return new JsObject(character);
+    }
+
     /**
      * Wraps the given String as a JsString.
      * 
@@ -228,6 +1010,138 @@ public abstract class JsLiteral<T> extends AbstractJsExpression {
         return new JsArray(array);
     }
 
+    /**
+     * Wraps the given int array as a JsIntArray without copying it.
+     * 
+     * @param array the value to wrap
+     * @return the JavaScript value
+     */
+    public static JsIntArray of(int[] array) {
+        return new JsIntArray(array);
+    }
+
+    /**
+     * Wraps the given long array as a JsLongArray without copying it.
+     * 
+     * @param array the value to wrap
+     * @return the JavaScript value
+     */
+    public static JsLongArray of(long[] array) {
+        return new JsLongArray(array);
+    }
+
+    /**
+     * Wraps the given double array as a JsDoubleArray without copying it.
+     * 
+     * @param array the value to wrap
+     * @return the JavaScript value
+     */
+    public static JsDoubleArray of(double[] array) {
+        return new JsDoubleArray(array);
+    }
+
+    /**
+     * Wraps the given array as a JsTypedArray that is transferred as Float64Array.
+     * 
+     * @param array the value to wrap
+     * @return the JavaScript value
+     */
+    public static JsTypedArray float64(double[] array) {
+        return new JsTypedArray(array, JsTypedArray.Encoding.FLOAT64);
+    }
+
+    /**
+     * Wraps the given array as a JsTypedArray that is transferred as Int32Array.
+     * 
+     * @param array the value to wrap
+     * @return the JavaScript value
+     */
+    public static JsTypedArray int32(int[] array) {
+        return new JsTypedArray(array, JsTypedArray.Encoding.INT32);
+    }
+
+    /**
+     * Wraps the given array as a JsTypedArray that is transferred as Int32Array.
+     * 
+     * @param array the value to wrap
+     * @return the JavaScript value
+     * @throws IllegalArgumentException if a value exceeds the 32-bit integer range
+     */
+    public static JsTypedArray int32(long[] array) {
+        return new JsTypedArray(array, JsTypedArray.Encoding.INT32);
+    }
+
+    /**
+     * Wraps the given array as a delta-encoded JsTypedArray, e.g. for a series of timestamps.
+     * 
+     * @param array the value to wrap
+     * @return the JavaScript value
+     * @throws IllegalArgumentException if the difference of two consecutive values exceeds the 32-bit integer range
+     */
+    public static JsTypedArray delta(long[] array) {
+        return new JsTypedArray(array, JsTypedArray.Encoding.INT32_DELTA);
+    }
+
+    /**
+     * Wraps the given Iterable as a JsIterableArray, whose elements are only iterated when the script is generated.
+     * 
+     * @param iterable the elements of the array
+     * @return the JavaScript value
+     */
+    public static JsIterableArray lazy(Iterable<?> iterable) {
+        return new JsIterableArray(iterable);
+    }
+
+    /**
+     * Wraps the given Iterator as a JsIterableArray, whose elements are only pulled when the script is generated. As
+     * the Iterator can only be consumed once, the literal can only be generated once. The Iterator is not serialized.
+     * 
+     * @param iterator the elements of the array
+     * @return the JavaScript value
+     */
+    public static JsIterableArray lazy(Iterator<?> iterator) {
+        return new JsIterableArray(new JsIterableArray.IteratorIterable(iterator));
+    }
+
+    /**
+     * Wraps all elements of the given IDataProvider as a JsIterableArray. The provider is queried each time the script
+     * is generated.
+     * 
+     * @param provider the data provider
+     * @return the JavaScript value
+     */
+    public static JsIterableArray lazy(IDataProvider<?> provider) {
+        return lazy(provider, 0, -1);
+    }
+
+    /**
+     * Wraps the given range of elements of the IDataProvider as a JsIterableArray. The provider is queried each time
+     * the script is generated. The provider is not detached, this is left to its owner.
+     * 
+     * @param provider the data provider
+     * @param first the index of the first element
+     * @param count the amount of elements, or a negative value for all remaining elements
+     * @return the JavaScript value
+     */
+    public static JsIterableArray lazy(IDataProvider<?> provider, long first, long count) {
+        return new JsIterableArray(new JsIterableArray.DataProviderIterable(provider, first, count));
+    }
+
+    /**
+     * Wraps the given rows as a JsTable with a column for each of the given properties.
+     * 
+     * @param rows the rows, which are either maps or beans
+     * @param properties the map keys or property expressions of the columns
+     * @return the JavaScript value
+     */
+    public static JsTable table(Iterable<?> rows, String... properties) {
+        JsTable table = new JsTable(rows);
+        for (String property : properties) {
+            table.column(property);
+        }
+        return table;
+    }
+
     /**
      * Wraps the given Collection as a JsArray.
      * 
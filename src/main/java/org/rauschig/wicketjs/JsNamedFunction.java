@@ -17,6 +17,7 @@ package org.rauschig.wicketjs;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * A named function definition.
@@ -85,8 +86,27 @@ public class JsNamedFunction extends JsFunction {
         return identifier;
     }
 
+    @Override
+    public JsNamedFunction freeze() {
+        if (!isFrozen()) {
+            identifier = JsInterner.intern(identifier);
+            super.freeze();
+        }
+        return this;
+    }
+
     @Override
     public void accept(IJsExpressionVisitor visitor) {
         visitor.visit(this);
     }
+
+    @Override
+    public boolean equals(Object obj) {
+        return super.equals(obj) && Objects.equals(identifier, ((JsNamedFunction) obj).identifier);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + Objects.hashCode(identifier);
+    }
 }
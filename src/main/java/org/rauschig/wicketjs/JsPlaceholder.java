@@ -0,0 +1,92 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs;
+
+import java.util.Objects;
+
+import org.apache.wicket.util.lang.Args;
+
+/**
+ * A named parameter slot within a syntax tree that is compiled into a
+ * {@link org.rauschig.wicketjs.generator.ScriptPlan}. The value of the slot is bound when the plan is rendered.
+ *
+ * <pre>
+ * ScriptPlan plan = ScriptPlan.compile(new JQuery(new JsPlaceholder(&quot;selector&quot;, String.class)).hide());
+ * 
+ * plan.bind().set(&quot;selector&quot;, &quot;#row1&quot;).render(); // $('#row1').hide()
+ * </pre>
+ *
+ * A placeholder can only be generated as part of a ScriptPlan, generating it directly results in an
+ * {@code IllegalStateException}.
+ */
+public class JsPlaceholder extends AbstractJsExpression {
+
+    private static final long serialVersionUID = -2137905404425848962L;
+
+    private final String name;
+
+    private final Class<?> type;
+
+    /**
+     * Creates a new placeholder that accepts any value.
+     * 
+     * @param name the name of the placeholder
+     */
+    public JsPlaceholder(String name) {
+        this(name, Object.class);
+    }
+
+    /**
+     * Creates a new placeholder that accepts values of the given type.
+     * 
+     * @param name the name of the placeholder
+     * @param type the type of values that can be bound to the placeholder
+     */
+    public JsPlaceholder(String name, Class<?> type) {
+        this.name = Args.notEmpty(name, "name");
+        this.type = Args.notNull(type, "type");
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    @Override
+    public void accept(IJsExpressionVisitor visitor) {
+        visitor.visit(this);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        } else if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+
+        JsPlaceholder other = (JsPlaceholder) obj;
+        return Objects.equals(name, other.name) && Objects.equals(type, other.type);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, type);
+    }
+}
@@ -15,6 +15,8 @@
  */
 package org.rauschig.wicketjs;
 
+import java.util.Objects;
+
 import org.rauschig.wicketjs.util.JsUtils;
 
 /**
@@ -24,12 +26,18 @@ import org.rauschig.wicketjs.util.JsUtils;
  *     return[ &lt;expression&gt;];
  * </pre>
  */
-public class JsReturn implements IJsStatement {
+public class JsReturn implements IJsStatement, IFreezable {
 
     private static final long serialVersionUID = 2906173231646725779L;
 
     private IJsExpression expression;
 
+    private boolean frozen;
+
+    private boolean constant;
+
+    private transient int hash;
+
     /**
      * Creates a void return statement
      */
@@ -76,8 +84,51 @@ public class JsReturn implements IJsStatement {
         return expression;
     }
 
+    @Override
+    public JsReturn freeze() {
+        if (!frozen) {
+            frozen = true;
+            expression = JsInterner.intern(expression);
+            constant = JsInterner.isConstant(expression);
+            hash = Objects.hash(expression);
+        }
+        return this;
+    }
+
+    @Override
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    @Override
+    public boolean isConstant() {
+        return frozen && constant;
+    }
+
     @Override
     public void accept(IJsStatementVisitor visitor) {
         visitor.visit(this);
     }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        } else if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+
+        JsReturn other = (JsReturn) obj;
+        return Objects.equals(expression, other.expression);
+    }
+
+    @Override
+    public int hashCode() {
+        if (!frozen) {
+            return Objects.hash(expression);
+        } else if (hash == 0) {
+            hash = Objects.hash(expression);
+        }
+        return hash;
+    }
 }
@@ -15,6 +15,8 @@
  */
 package org.rauschig.wicketjs;
 
+import java.util.Objects;
+
 /**
  * A raw statement that may contain arbitrary JavaScript code.
  */
@@ -73,4 +75,21 @@ public class JsStatement extends AbstractJsStatement {
     public void accept(IJsStatementVisitor visitor) {
         visitor.visit(this);
     }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        } else if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+
+        JsStatement other = (JsStatement) obj;
+        return Objects.equals(String.valueOf(statement), String.valueOf(other.statement));
+    }
+
+    @Override
+    public int hashCode() {
+        return String.valueOf(statement).hashCode();
+    }
 }
@@ -18,6 +18,7 @@ package org.rauschig.wicketjs;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 
 import org.rauschig.wicketjs.util.JsUtils;
 
@@ -43,12 +44,18 @@ import org.rauschig.wicketjs.util.JsUtils;
  * </pre>
  * 
  */
-public class JsStatements implements IJsStatement {
+public class JsStatements implements IJsStatement, IFreezable {
 
     private static final long serialVersionUID = -5422270276826187017L;
 
     private List<IJsStatement> statements;
 
+    private boolean frozen;
+
+    private boolean constant;
+
+    private transient int hash;
+
     public JsStatements() {
         this(new ArrayList<IJsStatement>());
     }
@@ -164,8 +171,51 @@ public class JsStatements implements IJsStatement {
         return statements;
     }
 
+    @Override
+    public JsStatements freeze() {
+        if (!frozen) {
+            frozen = true;
+            statements = JsInterner.internAll(statements);
+            constant = JsInterner.isConstantAll(statements);
+            hash = Objects.hash(statements);
+        }
+        return this;
+    }
+
+    @Override
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    @Override
+    public boolean isConstant() {
+        return frozen && constant;
+    }
+
     @Override
     public void accept(IJsStatementVisitor visitor) {
         visitor.visit(this);
     }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        } else if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+
+        JsStatements other = (JsStatements) obj;
+        return Objects.equals(statements, other.statements);
+    }
+
+    @Override
+    public int hashCode() {
+        if (!frozen) {
+            return Objects.hash(statements);
+        } else if (hash == 0) {
+            hash = Objects.hash(statements);
+        }
+        return hash;
+    }
 }
@@ -15,18 +15,21 @@
  */
 package org.rauschig.wicketjs;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
 
 import org.apache.wicket.util.template.PackageTextTemplate;
 import org.apache.wicket.util.template.TextTemplate;
+import org.rauschig.wicketjs.metrics.IScriptMetrics;
 
 /**
  * Loads the contents of a {@code TextTemplate} as a JsExpression.
  * 
  * TODO: split expression/statement template
  */
-public class JsTemplate extends JsExpression {
+public class JsTemplate extends JsExpression implements IFreezable {
 
     private static final long serialVersionUID = -3406739800398789055L;
 
@@ -34,6 +37,12 @@ public class JsTemplate extends JsExpression {
 
     private Map<String, Object> variables;
 
+    private boolean frozen;
+
+    private boolean constant;
+
+    private transient int hash;
+
     public JsTemplate(String file, Object scope) {
         this(file, scope.getClass());
     }
@@ -71,14 +80,77 @@ public class JsTemplate extends JsExpression {
      * @param key the variable name
      * @param value the variable value
      * @return this for chaining
+     * @throws UnsupportedOperationException if the template is frozen
      */
     public JsTemplate setVariable(String key, Object value) {
         variables.put(key, value);
         return this;
     }
 
+    /**
+     * Makes the template variables read-only. The template itself is expected to stay the same once it was loaded.
+     * 
+     * @return this for chaining
+     */
+    @Override
+    public JsTemplate freeze() {
+        if (!frozen) {
+            frozen = true;
+            variables = Collections.unmodifiableMap(new HashMap<>(variables));
+            constant = JsInterner.isConstantAll(variables.values());
+            hash = 31 * System.identityHashCode(template) + variables.hashCode();
+        }
+        return this;
+    }
+
+    @Override
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    @Override
+    public boolean isConstant() {
+        return frozen && constant;
+    }
+
     @Override
     public CharSequence getExpression() {
-        return template.asString(variables);
+        IScriptMetrics metrics = WicketJsSettings.get().getMetrics();
+        if (!metrics.isEnabled()) {
+            return template.asString(variables);
+        }
+
+        Object token = metrics.begin(IScriptMetrics.Operation.TEMPLATE, getClass(), null);
+        long start = System.nanoTime();
+        String expression = null;
+        try {
+            expression = template.asString(variables);
+            return expression;
+        } finally {
+            long chars = (expression != null) ? expression.length() : -1;
+            metrics.record(IScriptMetrics.Operation.TEMPLATE, getClass(), token, System.nanoTime() - start, chars);
+        }
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        } else if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+
+        JsTemplate other = (JsTemplate) obj;
+        return template == other.template && Objects.equals(variables, other.variables);
+    }
+
+    @Override
+    public int hashCode() {
+        if (!frozen) {
+            return 31 * System.identityHashCode(template) + variables.hashCode();
+        } else if (hash == 0) {
+            hash = 31 * System.identityHashCode(template) + variables.hashCode();
+        }
+        return hash;
     }
 }
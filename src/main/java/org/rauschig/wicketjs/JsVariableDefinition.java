@@ -15,6 +15,8 @@
  */
 package org.rauschig.wicketjs;
 
+import java.util.Objects;
+
 import org.rauschig.wicketjs.util.JsUtils;
 
 /**
@@ -24,12 +26,18 @@ import org.rauschig.wicketjs.util.JsUtils;
  *     var &lt;identifier&gt;[ = &lt;value&gt;]
  * </pre>
  */
-public class JsVariableDefinition extends AbstractJsStatement {
+public class JsVariableDefinition extends AbstractJsStatement implements IFreezable {
 
     private static final long serialVersionUID = 1042673656813210505L;
 
     private JsAssignment assignment;
 
+    private boolean frozen;
+
+    private boolean constant;
+
+    private transient int hash;
+
     public JsVariableDefinition(String identifier) {
         this(new JsIdentifier(identifier));
     }
@@ -54,8 +62,51 @@ public class JsVariableDefinition extends AbstractJsStatement {
         return assignment;
     }
 
+    @Override
+    public JsVariableDefinition freeze() {
+        if (!frozen) {
+            frozen = true;
+            assignment = JsInterner.intern(assignment);
+            constant = JsInterner.isConstant(assignment);
+            hash = Objects.hash(assignment);
+        }
+        return this;
+    }
+
+    @Override
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    @Override
+    public boolean isConstant() {
+        return frozen && constant;
+    }
+
     @Override
     public void accept(IJsStatementVisitor visitor) {
         visitor.visit(this);
     }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        } else if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+
+        JsVariableDefinition other = (JsVariableDefinition) obj;
+        return Objects.equals(assignment, other.assignment);
+    }
+
+    @Override
+    public int hashCode() {
+        if (!frozen) {
+            return Objects.hash(assignment);
+        } else if (hash == 0) {
+            hash = Objects.hash(assignment);
+        }
+        return hash;
+    }
 }
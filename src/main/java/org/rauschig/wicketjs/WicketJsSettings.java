@@ -0,0 +1,280 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs;
+
+import org.apache.wicket.Application;
+import org.apache.wicket.MetaDataKey;
+import org.apache.wicket.util.lang.Args;
+import org.rauschig.wicketjs.generator.JsStringEscaper;
+import org.rauschig.wicketjs.generator.ScriptCache;
+import org.rauschig.wicketjs.metrics.IScriptMetrics;
+import org.rauschig.wicketjs.util.JsonSerializer;
+
+/**
+ * Application-wide settings of wicket-js. The settings are stored as meta data of the Wicket {@code Application} and
+ * can be installed in {@code Application#init()}:
+ *
+ * <pre>
+ * &#064;Override
+ * protected void init() {
+ *     super.init();
+ *     WicketJsSettings.install(this).setJsonSerializer(new MyJsonSerializer());
+ * }
+ * </pre>
+ *
+ * If no settings were installed, or there is no Application attached to the current thread, a JVM-wide default
+ * instance is used.
+ * <p>
+ * Instances are shared across request threads, so all objects held by the settings have to be thread safe.
+ * </p>
+ */
+public class WicketJsSettings {
+
+    private static final MetaDataKey<WicketJsSettings> KEY = new MetaDataKey<WicketJsSettings>() {
+        private static final long serialVersionUID = 1L;
+    };
+
+    private volatile JsonSerializer jsonSerializer;
+
+    private volatile boolean jsonSerializerCreated;
+
+    private volatile ScriptCache scriptCache;
+
+    private volatile JsStringEscaper stringEscaper = JsStringEscaper.DEFAULT;
+
+    private volatile IScriptMetrics metrics = IScriptMetrics.NOOP;
+
+    private volatile int optionsHoistingThreshold = -1;
+
+    /**
+     * Installs a new default WicketJsSettings instance into the given Application.
+     *
+     * @param application the application to install the settings into
+     * @return the installed settings
+     */
+    public static WicketJsSettings install(Application application) {
+        return install(application, new WicketJsSettings());
+    }
+
+    /**
+     * Installs the given WicketJsSettings instance into the given Application.
+     *
+     * @param application the application to install the settings into
+     * @param settings the settings to install
+     * @return the installed settings
+     */
+    public static WicketJsSettings install(Application application, WicketJsSettings settings) {
+        Args.notNull(application, "application");
+        Args.notNull(settings, "settings");
+
+        application.setMetaData(KEY, settings);
+        return settings;
+    }
+
+    /**
+     * Returns whether settings were installed into the given Application.
+     *
+     * @param application the application
+     * @return true if {@link #install} was called for the application
+     */
+    public static boolean isInstalled(Application application) {
+        return application.getMetaData(KEY) != null;
+    }
+
+    /**
+     * Returns the settings of the Application attached to the current thread, or the JVM-wide default settings if
+     * there is no Application or no settings were installed.
+     *
+     * @return the current settings
+     */
+    public static WicketJsSettings get() {
+        if (Application.exists()) {
+            return get(Application.get());
+        }
+
+        return Default.INSTANCE;
+    }
+
+    /**
+     * Returns the settings installed in the given Application, or the JVM-wide default settings if no settings were
+     * installed.
+     *
+     * @param application the application
+     * @return the settings of the application
+     */
+    public static WicketJsSettings get(Application application) {
+        WicketJsSettings settings = application.getMetaData(KEY);
+        return (settings != null) ? settings : Default.INSTANCE;
+    }
+
+    /**
+     * Returns the shared JsonSerializer used by generators to serialize JavaScript literals. Unless a serializer was
+     * set, the serializer escapes strings like the {@link #getStringEscaper() string escaper}.
+     *
+     * @return a thread safe JsonSerializer
+     */
+    public JsonSerializer getJsonSerializer() {
+        JsonSerializer serializer = jsonSerializer;
+
+        if (serializer == null) {
+            synchronized (this) {
+                if (jsonSerializer == null) {
+                    JsonSerializer created = new JsonSerializer(stringEscaper);
+                    created.setMetrics(metrics);
+                    jsonSerializer = created;
+                    jsonSerializerCreated = true;
+                }
+                serializer = jsonSerializer;
+            }
+        }
+
+        return serializer;
+    }
+
+    /**
+     * Sets the shared JsonSerializer used by generators to serialize JavaScript literals. The instance is shared across
+     * request threads and therefore has to be thread safe.
+     *
+     * @param jsonSerializer the serializer
+     * @return this for chaining
+     */
+    public synchronized WicketJsSettings setJsonSerializer(JsonSerializer jsonSerializer) {
+        Args.notNull(jsonSerializer, "jsonSerializer").setMetrics(metrics);
+        this.jsonSerializer = jsonSerializer;
+        this.jsonSerializerCreated = false;
+        return this;
+    }
+
+    /**
+     * Returns the shared cache of generated JavaScript used by the {@link org.rauschig.wicketjs.generator.JsGenerator}.
+     *
+     * @return a thread safe ScriptCache
+     */
+    public ScriptCache getScriptCache() {
+        ScriptCache cache = scriptCache;
+
+        if (cache == null) {
+            synchronized (this) {
+                if (scriptCache == null) {
+                    scriptCache = new ScriptCache();
+                }
+                cache = scriptCache;
+            }
+        }
+
+        return cache;
+    }
+
+    /**
+     * Sets the shared cache of generated JavaScript. Use a cache with a maximum size of 0 to disable caching.
+     *
+     * @param scriptCache the cache
+     * @return this for chaining
+     */
+    public WicketJsSettings setScriptCache(ScriptCache scriptCache) {
+        this.scriptCache = Args.notNull(scriptCache, "scriptCache");
+        return this;
+    }
+
+    /**
+     * Returns the escaper generators use to write JavaScript string literals. Defaults to {@link JsStringEscaper#DEFAULT};
+     * set {@link JsStringEscaper#INLINE_SCRIPT} to also escape {@code <}, {@code >} and {@code &} in string literals
+     * that are rendered into inline script elements.
+     *
+     * @return a JsStringEscaper
+     */
+    public JsStringEscaper getStringEscaper() {
+        return stringEscaper;
+    }
+
+    /**
+     * Sets the escaper generators use to write JavaScript string literals. Unless a JsonSerializer was set, strings in
+     * serialized maps, beans and options are escaped accordingly.
+     *
+     * @param stringEscaper the escaper
+     * @return this for chaining
+     */
+    public synchronized WicketJsSettings setStringEscaper(JsStringEscaper stringEscaper) {
+        this.stringEscaper = Args.notNull(stringEscaper, "stringEscaper");
+
+        if (jsonSerializerCreated && jsonSerializer.getEscaper() != stringEscaper.toJson()) {
+            jsonSerializer = null;
+            jsonSerializerCreated = false;
+        }
+        return this;
+    }
+
+    /**
+     * Returns the metrics the cost of script generation, serialization and dom-ready script rendering is recorded with.
+     * Defaults to {@link IScriptMetrics#NOOP}, which records nothing.
+     *
+     * @return an IScriptMetrics instance
+     */
+    public IScriptMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Sets the metrics the cost of script generation, serialization and dom-ready script rendering is recorded with,
+     * e.g. a {@link org.rauschig.wicketjs.metrics.ScriptMetricsRegistry}. The metrics are also handed to the shared
+     * JsonSerializer.
+     *
+     * @param metrics the metrics
+     * @return this for chaining
+     */
+    public synchronized WicketJsSettings setMetrics(IScriptMetrics metrics) {
+        this.metrics = Args.notNull(metrics, "metrics");
+
+        if (jsonSerializer != null) {
+            jsonSerializer.setMetrics(metrics);
+        }
+        return this;
+    }
+
+    /**
+     * Returns the minimum length of a generated widget options literal from which on the options are hoisted into a
+     * shared page-scoped variable (see {@link org.rauschig.wicketjs.markup.head.JsSharedOptionsHeaderItem}). Defaults to
+     * -1, which disables hoisting of options that are not explicitly
+     * {@link org.rauschig.wicketjs.util.options.SharedOptions shared}.
+     *
+     * @return the threshold in characters, or -1 if hoisting is disabled
+     */
+    public int getOptionsHoistingThreshold() {
+        return optionsHoistingThreshold;
+    }
+
+    /**
+     * Sets the minimum length of a generated widget options literal from which on the options are hoisted into a shared
+     * page-scoped variable. Widgets with equal options then refer to a single definition.
+     *
+     * @param optionsHoistingThreshold the threshold in characters, or -1 to disable hoisting
+     * @return this for chaining
+     */
+    public WicketJsSettings setOptionsHoistingThreshold(int optionsHoistingThreshold) {
+        if (optionsHoistingThreshold < -1) {
+            throw new IllegalArgumentException("Threshold has to be -1 or positive: " + optionsHoistingThreshold);
+        }
+        this.optionsHoistingThreshold = optionsHoistingThreshold;
+        return this;
+    }
+
+    /**
+     * Lazy holder of the JVM-wide default settings.
+     */
+    private static final class Default {
+        static final WicketJsSettings INSTANCE = new WicketJsSettings();
+    }
+}
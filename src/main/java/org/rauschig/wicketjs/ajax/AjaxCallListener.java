@@ -78,6 +78,12 @@ public class AjaxCallListener implements IAjaxCallListener, IComponentAwareHeade
     }
 
     protected CharSequence generate(IJavaScript script) {
-        return (script == null) ? null : new JsGenerator(script).generate();
+        if (script == null) {
+            return null;
+        }
+
+        StringBuilder js = new StringBuilder();
+        new JsGenerator(script).generate(js);
+        return js;
     }
 }
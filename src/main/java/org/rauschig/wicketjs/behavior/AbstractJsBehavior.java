@@ -15,14 +15,21 @@
  */
 package org.rauschig.wicketjs.behavior;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.apache.wicket.Component;
 import org.apache.wicket.ajax.AjaxRequestHandler;
 import org.apache.wicket.ajax.AjaxRequestTarget;
 import org.apache.wicket.behavior.AbstractAjaxBehavior;
 import org.apache.wicket.event.IEvent;
+import org.apache.wicket.markup.head.HeaderItem;
 import org.apache.wicket.markup.head.IHeaderResponse;
 import org.apache.wicket.markup.head.OnDomReadyHeaderItem;
+import org.rauschig.wicketjs.WicketJsSettings;
 import org.rauschig.wicketjs.markup.IComponentMarkupIdProvider;
+import org.rauschig.wicketjs.markup.head.JsOnDomReadyHeaderItem;
+import org.rauschig.wicketjs.metrics.IScriptMetrics;
 
 /**
  * Abstract base class that adds custom JavaScript as behavior to Components. Extends AbstractAjaxBehavior for
@@ -32,6 +39,11 @@ public abstract class AbstractJsBehavior extends AbstractAjaxBehavior implements
 
     private static final long serialVersionUID = 3962087472473146564L;
 
+    /**
+     * The header items the dom ready script depends on. Only set while {@link #getOnDomReadyHeaderItem()} is running.
+     */
+    private transient List<HeaderItem> domReadyDependencies;
+
     /**
      * Returns the markup id of the component this Behavior is bound to.
      * 
@@ -67,6 +79,22 @@ public abstract class AbstractJsBehavior extends AbstractAjaxBehavior implements
 
     @Override
     public void renderHead(Component component, IHeaderResponse response) {
+        IScriptMetrics metrics = WicketJsSettings.get().getMetrics();
+        if (!metrics.isEnabled()) {
+            doRenderHead(component, response);
+            return;
+        }
+
+        Object token = metrics.begin(IScriptMetrics.Operation.RENDER_HEAD, getClass(), component);
+        long start = System.nanoTime();
+        try {
+            doRenderHead(component, response);
+        } finally {
+            metrics.record(IScriptMetrics.Operation.RENDER_HEAD, getClass(), token, System.nanoTime() - start, -1);
+        }
+    }
+
+    private void doRenderHead(Component component, IHeaderResponse response) {
         super.renderHead(component, response);
 
         if (component.isEnabledInHierarchy()) {
@@ -108,18 +136,66 @@ public abstract class AbstractJsBehavior extends AbstractAjaxBehavior implements
     }
 
     /**
-     * Creates a new OnDomReadyHeaderItem that is added to the IHeaderResponse.
+     * Creates a new OnDomReadyHeaderItem that is added to the IHeaderResponse. The item declares the header items that
+     * were registered via {@link #addDomReadyDependency(HeaderItem)} while building the script as its dependencies.
      * 
      * @return a new OnDomReadyHeaderItem
      */
     protected OnDomReadyHeaderItem getOnDomReadyHeaderItem() {
+        IScriptMetrics metrics = WicketJsSettings.get().getMetrics();
+        Object token = null;
+        long start = 0;
+        if (metrics.isEnabled()) {
+            token = metrics.begin(IScriptMetrics.Operation.DOM_READY, getClass(), getComponent());
+            start = System.nanoTime();
+        }
+
         StringBuilder js = new StringBuilder();
 
-        prependOnDomReadyScript(js);
-        buildDomReadyScript(js);
-        appendOnDomReadyScript(js);
+        List<HeaderItem> dependencies = new ArrayList<>(0);
+        domReadyDependencies = dependencies;
+        try {
+            prependOnDomReadyScript(js);
+            buildDomReadyScript(js);
+            appendOnDomReadyScript(js);
+        } finally {
+            domReadyDependencies = null;
+
+            if (metrics.isEnabled()) {
+                metrics.record(IScriptMetrics.Operation.DOM_READY, getClass(), token, System.nanoTime() - start,
+                        js.length());
+            }
+        }
 
-        return OnDomReadyHeaderItem.forScript(js.toString());
+        return newOnDomReadyHeaderItem(js.toString(), dependencies);
+    }
+
+    /**
+     * Creates the header item for the built dom ready script. Called by {@link #getOnDomReadyHeaderItem()}.
+     * 
+     * @param javaScript the dom ready script
+     * @param dependencies the header items the script depends on
+     * @return a new OnDomReadyHeaderItem
+     */
+    protected OnDomReadyHeaderItem newOnDomReadyHeaderItem(CharSequence javaScript, List<HeaderItem> dependencies) {
+        return new JsOnDomReadyHeaderItem(javaScript, dependencies);
+    }
+
+    /**
+     * Registers a header item the dom ready script depends on, e.g. a client-side library. Can only be called while
+     * the script is built, i.e. from within {@link #prependOnDomReadyScript}, {@link #buildDomReadyScript} or
+     * {@link #appendOnDomReadyScript}.
+     * 
+     * @param dependency the header item
+     * @throws IllegalStateException if the script is not being built
+     */
+    protected void addDomReadyDependency(HeaderItem dependency) {
+        if (domReadyDependencies == null) {
+            throw new IllegalStateException("Dependencies can only be added while the dom ready script is built");
+        }
+        if (!domReadyDependencies.contains(dependency)) {
+            domReadyDependencies.add(dependency);
+        }
     }
 
     /**
@@ -15,8 +15,19 @@
  */
 package org.rauschig.wicketjs.behavior;
 
+import java.util.List;
+
+import org.apache.wicket.Component;
+import org.apache.wicket.MarkupContainer;
+import org.apache.wicket.Page;
+import org.apache.wicket.markup.ComponentTag;
+import org.apache.wicket.markup.head.HeaderItem;
+import org.apache.wicket.markup.repeater.AbstractRepeater;
 import org.rauschig.wicketjs.IJavaScript;
+import org.rauschig.wicketjs.JsIdentifier;
+import org.rauschig.wicketjs.generator.JsGenerator;
 import org.rauschig.wicketjs.jquery.JQuery;
+import org.rauschig.wicketjs.util.Strings;
 
 /**
  * JsBehavior that uses JQuery's {@code bind} mechanism to bind an event handler callback to one or more DOM events.
@@ -47,14 +58,56 @@ import org.rauschig.wicketjs.jquery.JQuery;
  *         $(this).toggleClass('entered');
  *     });
  * </pre>
+ * 
+ * <h3>Delegated mode</h3>
+ * 
+ * Within repeaters, binding a handler to every single component is wasteful. In delegated mode (see
+ * {@link #setDelegated(boolean)}), the component is marked with a {@code data-wicketjs-on} attribute, and the handler
+ * is bound once to the parent of the nearest enclosing repeater (or to the document if there is no element to bind to),
+ * using the attribute as selector. Components whose callbacks generate identical JavaScript share the same key, and
+ * therefore the same handler, as Wicket renders identical scripts only once. The callback therefore should refer to the
+ * element that triggered the event via {@code $(THIS)} rather than via the component's markup id:
+ * 
+ * <pre>
+ * item.add(new JQueryEventBehavior(&quot;click&quot;) {
+ *     &#064;Override
+ *     protected IJavaScript callback() {
+ *         return $(THIS).toggleClass(&quot;selected&quot;);
+ *     }
+ * }.setDelegated(true));
+ * </pre>
+ * 
+ * compiles to
+ * 
+ * <pre>
+ *     $('#list1').off('click.k5f2e...').on('click.k5f2e...', '[data-wicketjs-on~="k5f2e..."]', function(eventObject){
+ *         $(this).toggleClass('selected');
+ *     });
+ * </pre>
+ * 
+ * The events are namespaced with the key, s.t. re-rendering a component via ajax does not bind the handler twice.
  */
 public abstract class JQueryEventBehavior extends JsBehavior {
 
     private static final long serialVersionUID = 3948469775808421408L;
 
+    /**
+     * The attribute that marks the components of delegated behaviors.
+     */
+    public static final String DELEGATION_ATTRIBUTE = "data-wicketjs-on";
+
     private String event;
     private String selector;
 
+    private boolean delegated;
+
+    /**
+     * The generated callback, its dependencies and its key in delegated mode. Reset when the component is detached.
+     */
+    private transient String delegatedCallback;
+    private transient List<HeaderItem> delegatedDependencies;
+    private transient String delegationKey;
+
     /**
      * Creates a new JQueryEventBehavior for the given DOM event (e.g. {@code "click"} or
      * {@code "mouseenter mouseleave"}).
@@ -85,8 +138,28 @@ public abstract class JQueryEventBehavior extends JsBehavior {
         return selector;
     }
 
+    public boolean isDelegated() {
+        return delegated;
+    }
+
+    /**
+     * Sets whether the event handler is delegated to the parent of the nearest enclosing repeater, rather than bound to
+     * the component itself.
+     * 
+     * @param delegated true to enable the delegated mode
+     * @return this for chaining
+     */
+    public JQueryEventBehavior setDelegated(boolean delegated) {
+        this.delegated = delegated;
+        return this;
+    }
+
     @Override
     protected final IJavaScript domReadyJs() {
+        if (delegated) {
+            return delegatedJs();
+        }
+
         JQuery $this = JQuery.$(getComponent());
         String selector = getSelector();
 
@@ -98,6 +171,99 @@ public abstract class JQueryEventBehavior extends JsBehavior {
 
     }
 
+    @Override
+    public void onConfigure(Component component) {
+        super.onConfigure(component);
+
+        if (delegated) {
+            Component container = getDelegationContainer();
+            if (container != null) {
+                container.setOutputMarkupId(true);
+            }
+        }
+    }
+
+    @Override
+    protected void onComponentTag(ComponentTag tag) {
+        super.onComponentTag(tag);
+
+        if (delegated) {
+            tag.append(DELEGATION_ATTRIBUTE, getDelegationKey(), " ");
+        }
+    }
+
+    @Override
+    public void detach(Component component) {
+        super.detach(component);
+
+        delegatedCallback = null;
+        delegatedDependencies = null;
+        delegationKey = null;
+    }
+
+    /**
+     * Returns the component the handler is bound to in delegated mode, which is the parent of the nearest enclosing
+     * repeater, or the parent of the component if it is not in a repeater. Containers that do not render a tag are
+     * skipped.
+     * 
+     * @return the container, or null if the handler is bound to the document
+     */
+    protected Component getDelegationContainer() {
+        MarkupContainer repeater = getComponent().getParent();
+        while (repeater != null && !(repeater instanceof AbstractRepeater)) {
+            repeater = repeater.getParent();
+        }
+
+        MarkupContainer container = (repeater != null) ? repeater.getParent() : getComponent().getParent();
+        while (container != null && !(container instanceof Page) && container.getRenderBodyOnly()) {
+            container = container.getParent();
+        }
+
+        return (container == null || container instanceof Page) ? null : container;
+    }
+
+    /**
+     * Returns the key that identifies the delegated handler, derived from the events, the selector and the generated
+     * callback.
+     * 
+     * @return a key
+     */
+    protected String getDelegationKey() {
+        if (delegationKey == null) {
+            JsGenerator generator = new JsGenerator(callback());
+            delegatedCallback = generator.generate();
+            delegatedDependencies = generator.getDependencies();
+            delegationKey = "k" + Long.toHexString(Strings.hash(event + '\0' + selector + '\0' + delegatedCallback));
+        }
+        return delegationKey;
+    }
+
+    private IJavaScript delegatedJs() {
+        String key = getDelegationKey();
+
+        for (HeaderItem dependency : delegatedDependencies) {
+            addDomReadyDependency(dependency);
+        }
+
+        Component container = getDelegationContainer();
+        JQuery $container = (container != null) ? JQuery.$(container) : new JQuery(new JsIdentifier("document"));
+
+        StringBuilder events = new StringBuilder();
+        for (String type : event.trim().split("\\s+")) {
+            if (events.length() > 0) {
+                events.append(' ');
+            }
+            events.append(type).append('.').append(key);
+        }
+
+        String filter = "[" + DELEGATION_ATTRIBUTE + "~=\"" + key + "\"]";
+        if (selector != null) {
+            filter += " " + selector;
+        }
+
+        return $container.off(events.toString()).on(events.toString(), filter, delegatedCallback);
+    }
+
     /**
      * The body of the callback for the bound event.
      * 
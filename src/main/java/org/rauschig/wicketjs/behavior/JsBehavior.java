@@ -15,6 +15,7 @@
  */
 package org.rauschig.wicketjs.behavior;
 
+import org.apache.wicket.markup.head.HeaderItem;
 import org.rauschig.wicketjs.IJavaScript;
 import org.rauschig.wicketjs.generator.JsGenerator;
 
@@ -25,15 +26,72 @@ public abstract class JsBehavior extends AbstractJsBehavior {
 
     private static final long serialVersionUID = -4036050499449407153L;
 
+    /**
+     * Whether a JsBehavior class overrides {@link #domReadyScript()}.
+     */
+    private static final OverrideCheck OVERRIDES_DOM_READY_SCRIPT = new OverrideCheck(JsBehavior.class,
+            "domReadyScript");
+
     @Override
     protected CharSequence domReadyScript() {
         return new JsGenerator(domReadyJs()).generate();
     }
 
+    /**
+     * Generates the JavaScript returned by {@link #domReadyJs()} directly into the given StringBuilder, and registers
+     * the dependencies of the generated code. Subclasses that override {@link #domReadyScript()} get their script
+     * appended instead.
+     *
+     * @param js the string builder that contains the JavaScript
+     */
+    @Override
+    protected void buildDomReadyScript(StringBuilder js) {
+        if (OVERRIDES_DOM_READY_SCRIPT.get(getClass())) {
+            super.buildDomReadyScript(js);
+            return;
+        }
+
+        JsGenerator generator = new JsGenerator(domReadyJs());
+        generator.generate(js);
+
+        for (HeaderItem dependency : generator.getDependencies()) {
+            addDomReadyDependency(dependency);
+        }
+    }
+
     /**
      * The JavaScript added as OnDomReadyHeaderItem when the component head is rendered.
      * 
      * @return custom JavaScript
      */
     protected abstract IJavaScript domReadyJs();
+
+    /**
+     * Computes once per behavior class whether it declares one of the given methods without parameters below the given
+     * base class, i.e. whether it overrides one of them.
+     */
+    static final class OverrideCheck extends ClassValue<Boolean> {
+        private final Class<?> base;
+        private final String[] methods;
+
+        OverrideCheck(Class<?> base, String... methods) {
+            this.base = base;
+            this.methods = methods;
+        }
+
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            for (Class<?> c = type; c != null && c != base; c = c.getSuperclass()) {
+                for (String method : methods) {
+                    try {
+                        c.getDeclaredMethod(method);
+                        return true;
+                    } catch (NoSuchMethodException e) {
+                        // continue with the next method or the super class
+                    }
+                }
+            }
+            return false;
+        }
+    }
 }
@@ -17,9 +17,23 @@ package org.rauschig.wicketjs.behavior;
 
 import static org.rauschig.wicketjs.jquery.JQuery.$;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.wicket.markup.head.HeaderItem;
+import org.apache.wicket.markup.head.OnDomReadyHeaderItem;
 import org.rauschig.wicketjs.IJavaScript;
+import org.rauschig.wicketjs.JsCall;
+import org.rauschig.wicketjs.JsExpression;
+import org.rauschig.wicketjs.WicketJsSettings;
+import org.rauschig.wicketjs.generator.JsGenerator;
+import org.rauschig.wicketjs.jquery.JQuery;
+import org.rauschig.wicketjs.markup.head.JsSharedOptionsHeaderItem;
+import org.rauschig.wicketjs.markup.head.JsWidgetHeaderItem;
+import org.rauschig.wicketjs.metrics.IScriptMetrics;
 import org.rauschig.wicketjs.util.options.IOptions;
 import org.rauschig.wicketjs.util.options.Options;
+import org.rauschig.wicketjs.util.options.SharedOptions;
 
 /**
  * A JsBehavior that calls a function with an object argument on a component. Usually jQuery widgets are initialized
@@ -34,16 +48,41 @@ import org.rauschig.wicketjs.util.options.Options;
  * 
  * This is what {@code WidgetBehavior} allows you to define programmatically as a {@code Behavior} which will then be
  * called as DOM-ready script.
+ * <p>
+ * Widgets that are {@link #setCoalescable(boolean) coalescable} render their script as {@link JsWidgetHeaderItem},
+ * which allows the {@link org.rauschig.wicketjs.markup.head.JsWidgetCoalescer} to initialize widgets with equal options
+ * on many components with a single call. The script of a coalescable widget is always the plain widget call, i.e.
+ * overrides of {@link #domReadyJs()} and of the methods that prepend or append dom ready script are not used.
+ * </p>
+ * <p>
+ * Note that the coalescer renders the grouped widget calls when the header response is closed, i.e. after all other dom
+ * ready scripts of the page or ajax response. Scripts that rely on a widget being initialized should therefore not be
+ * rendered as dom ready scripts of the same response if the coalescer is installed.
+ * </p>
+ * <p>
+ * Options that are {@link SharedOptions} (or longer than {@link WicketJsSettings#getOptionsHoistingThreshold()}) are
+ * not inlined, but defined once in a page-scoped variable the widget call refers to, e.g.
+ * {@code $('#component').myWidget(WicketJs.opts.o3fa2...)}. Subclasses that customize the widget call by overriding
+ * {@link #domReadyJs()}, {@link #domReadyScript()} or {@link #getCallArguments()} always pass the object literal.
+ * </p>
  */
 public class WidgetBehavior extends JsBehavior {
 
     private static final long serialVersionUID = 1L;
 
+    /**
+     * Whether a WidgetBehavior class customizes the widget call, in which case its options are never hoisted.
+     */
+    private static final OverrideCheck CUSTOMIZES_CALL = new OverrideCheck(WidgetBehavior.class, "domReadyJs",
+            "domReadyScript", "getCallArguments");
+
     private String widget;
     private String selector;
 
     private IOptions options;
 
+    private boolean coalescable;
+
     /**
      * Creates a new WidgetBehavior for the given widget name.
      * 
@@ -126,34 +165,180 @@ public class WidgetBehavior extends JsBehavior {
         return this;
     }
 
+    /**
+     * Returns whether the dom ready script is rendered as {@link JsWidgetHeaderItem}, s.t. the widget call can be
+     * coalesced with the calls of other WidgetBehaviors.
+     * 
+     * @return true if the widget call can be coalesced, false by default
+     */
+    public boolean isCoalescable() {
+        return coalescable;
+    }
+
+    /**
+     * Sets whether the dom ready script is rendered as {@link JsWidgetHeaderItem}, s.t. the widget call can be
+     * coalesced with the calls of other WidgetBehaviors. The script of a coalescable widget is always built from the
+     * widget call, bypassing {@link #domReadyJs()} and the methods that prepend or append dom ready script.
+     * 
+     * @param coalescable whether the widget call can be coalesced
+     * @return this for chaining
+     */
+    public WidgetBehavior setCoalescable(boolean coalescable) {
+        this.coalescable = coalescable;
+        return this;
+    }
+
     @Override
     protected IJavaScript domReadyJs() {
-        Object[] params = getCallArguments();
+        return target().call(getWidget(), getCallArguments());
+    }
 
-        String sel = getSelector();
-        if (sel == null || sel.isEmpty()) {
-            return $(this).call(getWidget(), params);
+    /**
+     * Builds the dom ready script from the generated target and widget call, and hoists the options into a shared
+     * options variable where applicable. Subclasses that customize the widget call (by overriding
+     * {@link #domReadyJs()}, {@link #domReadyScript()} or {@link #getCallArguments()}) get their script built as is.
+     *
+     * @param js the string builder that contains the JavaScript
+     */
+    @Override
+    protected void buildDomReadyScript(StringBuilder js) {
+        if (CUSTOMIZES_CALL.get(getClass())) {
+            super.buildDomReadyScript(js);
+            return;
+        }
+
+        List<HeaderItem> dependencies = new ArrayList<>(0);
+        JsGenerator generator = new JsGenerator(target().call(getWidget(), getCallArguments(dependencies)));
+        generator.generate(js);
+        addAll(dependencies, generator.getDependencies());
+
+        for (HeaderItem dependency : dependencies) {
+            addDomReadyDependency(dependency);
+        }
+    }
+
+    /**
+     * Renders coalescable widgets as {@link JsWidgetHeaderItem} built from the widget call alone, and all other widgets
+     * like any other JsBehavior.
+     *
+     * @return a new OnDomReadyHeaderItem
+     */
+    @Override
+    protected OnDomReadyHeaderItem getOnDomReadyHeaderItem() {
+        if (!isCoalescable()) {
+            return super.getOnDomReadyHeaderItem();
+        }
+
+        IScriptMetrics metrics = WicketJsSettings.get().getMetrics();
+        if (!metrics.isEnabled()) {
+            return newWidgetHeaderItem();
+        }
+
+        Object token = metrics.begin(IScriptMetrics.Operation.DOM_READY, getClass(), getComponent());
+        long start = System.nanoTime();
+        JsWidgetHeaderItem item = null;
+        try {
+            item = newWidgetHeaderItem();
+            return item;
+        } finally {
+            long chars = (item != null) ? item.getJavaScript().length() : -1;
+            metrics.record(IScriptMetrics.Operation.DOM_READY, getClass(), token, System.nanoTime() - start, chars);
+        }
+    }
+
+    private JsWidgetHeaderItem newWidgetHeaderItem() {
+        List<HeaderItem> dependencies = new ArrayList<>(0);
+        Object[] arguments = CUSTOMIZES_CALL.get(getClass()) ? getCallArguments() : getCallArguments(dependencies);
+
+        JsGenerator generator = new JsGenerator(new JsCall(getWidget(), arguments));
+        String call = generator.generate();
+        addAll(dependencies, generator.getDependencies());
+
+        StringBuilder js = new StringBuilder();
+        new JsGenerator(target()).generate(js);
+        js.append('.').append(call);
+
+        return new JsWidgetHeaderItem(js.toString(), dependencies, getComponentMarkupId(), getSubSelector(), call);
+    }
+
+    private JQuery target() {
+        String sel = getSubSelector();
+        if (sel == null) {
+            return $(this);
         } else {
-            return $(sel, this).call(getWidget(), params);
+            return $(sel, this);
         }
     }
 
+    private String getSubSelector() {
+        String sel = getSelector();
+        return (sel == null || sel.isEmpty()) ? null : sel;
+    }
+
     /**
-     * The arguments passed when calling the widget method.
+     * The arguments passed when calling the widget method. The options are always passed as object literal.
      * 
      * @return arguments that the widget method is called with
      */
     protected Object[] getCallArguments() {
+        return getCallArguments(null);
+    }
+
+    /**
+     * Returns the arguments passed when calling the widget method, hoisting the options into a shared options variable
+     * if dependencies are given.
+     * 
+     * @param dependencies the list the header items the call depends on are added to, or null to pass the options as
+     *            object literal
+     * @return arguments that the widget method is called with
+     */
+    private Object[] getCallArguments(List<HeaderItem> dependencies) {
         IOptions options = getOptions();
 
         if (options != null) {
             onBeforeRender(options);
-            return new Object[] { options.asObject() };
+            return new Object[] { (dependencies != null) ? toArgument(options, dependencies) : options.asObject() };
         } else {
             return new Object[0];
         }
     }
 
+    /**
+     * Returns the options as call argument, which is either the object literal, or a reference to the shared options
+     * object that is added to the given dependencies.
+     */
+    private static Object toArgument(IOptions options, List<HeaderItem> dependencies) {
+        JsSharedOptionsHeaderItem shared;
+        if (options instanceof SharedOptions) {
+            shared = ((SharedOptions) options).getHeaderItem();
+        } else {
+            int threshold = WicketJsSettings.get().getOptionsHoistingThreshold();
+            if (threshold < 0) {
+                return options.asObject();
+            }
+
+            JsGenerator generator = new JsGenerator(options.asObject());
+            String literal = generator.generate();
+            if (literal.length() < threshold) {
+                addAll(dependencies, generator.getDependencies());
+                return new JsExpression(literal);
+            }
+            shared = new JsSharedOptionsHeaderItem(JsSharedOptionsHeaderItem.nameOf(literal), literal,
+                    generator.getDependencies());
+        }
+
+        dependencies.add(shared);
+        return shared.getReference();
+    }
+
+    private static void addAll(List<HeaderItem> dependencies, List<HeaderItem> items) {
+        for (HeaderItem item : items) {
+            if (!dependencies.contains(item)) {
+                dependencies.add(item);
+            }
+        }
+    }
+
     /**
      * Called after construction.
      * 
@@ -0,0 +1,54 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.debug;
+
+import org.apache.wicket.markup.head.HeaderItem;
+import org.apache.wicket.markup.head.IHeaderResponse;
+import org.apache.wicket.markup.head.JavaScriptContentHeaderItem;
+import org.apache.wicket.markup.head.OnDomReadyHeaderItem;
+import org.apache.wicket.markup.head.OnLoadHeaderItem;
+import org.apache.wicket.markup.html.DecoratingHeaderResponse;
+
+/**
+ * Adds the inline scripts rendered while a behavior renders its head to the {@link ScriptCostReport} of the request.
+ */
+class ScriptCostHeaderResponse extends DecoratingHeaderResponse {
+
+    ScriptCostHeaderResponse(IHeaderResponse real) {
+        super(real);
+    }
+
+    @Override
+    public void render(HeaderItem item) {
+        ScriptCostReport report = ScriptCostReport.get();
+        if (report != null) {
+            report.addScript(getJavaScript(item));
+        }
+
+        super.render(item);
+    }
+
+    private static CharSequence getJavaScript(HeaderItem item) {
+        if (item instanceof OnDomReadyHeaderItem) {
+            return ((OnDomReadyHeaderItem) item).getJavaScript();
+        } else if (item instanceof OnLoadHeaderItem) {
+            return ((OnLoadHeaderItem) item).getJavaScript();
+        } else if (item instanceof JavaScriptContentHeaderItem) {
+            return ((JavaScriptContentHeaderItem) item).getJavaScript();
+        }
+        return null;
+    }
+}
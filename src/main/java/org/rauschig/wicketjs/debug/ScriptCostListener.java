@@ -0,0 +1,151 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.debug;
+
+import java.lang.reflect.Field;
+
+import org.apache.wicket.Application;
+import org.apache.wicket.markup.head.IHeaderResponse;
+import org.apache.wicket.markup.html.IHeaderResponseDecorator;
+import org.apache.wicket.request.cycle.AbstractRequestCycleListener;
+import org.apache.wicket.request.cycle.RequestCycle;
+import org.apache.wicket.util.lang.Args;
+import org.rauschig.wicketjs.WicketJsSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Development-mode listener that collects a {@link ScriptCostReport} of every request, which lists the components that
+ * contributed JavaScript through wicket-js behaviors, along with the time spent and the size of the scripts. The report
+ * of the current request can be displayed with a {@link ScriptCostPanel}, and is logged at the end of each request.
+ * <p>
+ * Install the listener in {@code Application#init()}:
+ * </p>
+ *
+ * <pre>
+ * if (usesDevelopmentConfig()) {
+ *     ScriptCostListener.install(this).setBudget(100 * 1024);
+ * }
+ * </pre>
+ *
+ * The listener is installed on top of the header response decorator the Application already has, e.g. a
+ * {@link org.rauschig.wicketjs.markup.head.JsDomReadyAggregator}, s.t. it sees the scripts as they are rendered by the
+ * behaviors. Decorators that are set afterwards have to be created with the listener as their outer decorator.
+ */
+public class ScriptCostListener extends AbstractRequestCycleListener implements IHeaderResponseDecorator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ScriptCostListener.class);
+
+    private final IHeaderResponseDecorator inner;
+
+    private volatile long budget = -1;
+
+    public ScriptCostListener() {
+        this(null);
+    }
+
+    /**
+     * Creates a new ScriptCostListener that decorates the response returned by the given decorator.
+     * 
+     * @param inner the decorator to apply below the listener, may be null
+     */
+    public ScriptCostListener(IHeaderResponseDecorator inner) {
+        this.inner = inner;
+    }
+
+    /**
+     * Installs a new ScriptCostListener into the given Application. The listener is registered as request cycle
+     * listener and header response decorator on top of the current decorator of the Application, and the metrics of
+     * the {@link WicketJsSettings} of the Application are wrapped (settings are installed if necessary).
+     * 
+     * @param application the application
+     * @return the installed listener
+     */
+    public static ScriptCostListener install(Application application) {
+        Args.notNull(application, "application");
+
+        WicketJsSettings settings = WicketJsSettings.isInstalled(application) ? WicketJsSettings.get(application)
+                : WicketJsSettings.install(application);
+        if (!(settings.getMetrics() instanceof ScriptCostMetrics)) {
+            settings.setMetrics(new ScriptCostMetrics(settings.getMetrics()));
+        }
+
+        ScriptCostListener listener = new ScriptCostListener(getHeaderResponseDecorator(application));
+        application.getRequestCycleListeners().add(listener);
+        application.setHeaderResponseDecorator(listener);
+        return listener;
+    }
+
+    /**
+     * Returns the current header response decorator of the given Application, which Wicket 6.0 has no getter for.
+     */
+    private static IHeaderResponseDecorator getHeaderResponseDecorator(Application application) {
+        try {
+            Field field = Application.class.getDeclaredField("headerResponseDecorator");
+            field.setAccessible(true);
+            return (IHeaderResponseDecorator) field.get(application);
+        } catch (NoSuchFieldException | IllegalAccessException e) {
+            throw new IllegalStateException("Can not read the header response decorator of " + application, e);
+        }
+    }
+
+    /**
+     * Returns the budget of script bytes per request.
+     * 
+     * @return the budget in UTF-8 bytes, or -1 if there is none
+     */
+    public long getBudget() {
+        return budget;
+    }
+
+    /**
+     * Sets the budget of script bytes per request. Requests that exceed the budget are logged as warning.
+     * 
+     * @param budget the budget in UTF-8 bytes, or -1 to disable it
+     * @return this for chaining
+     */
+    public ScriptCostListener setBudget(long budget) {
+        this.budget = budget;
+        return this;
+    }
+
+    @Override
+    public IHeaderResponse decorate(IHeaderResponse response) {
+        return new ScriptCostHeaderResponse((inner != null) ? inner.decorate(response) : response);
+    }
+
+    @Override
+    public void onBeginRequest(RequestCycle cycle) {
+        cycle.setMetaData(ScriptCostReport.KEY, new ScriptCostReport());
+    }
+
+    @Override
+    public void onEndRequest(RequestCycle cycle) {
+        ScriptCostReport report = cycle.getMetaData(ScriptCostReport.KEY);
+        if (report == null || report.getEntries().isEmpty()) {
+            return;
+        }
+
+        long total = report.getTotalBytes();
+        if (budget >= 0 && total > budget) {
+            LOG.warn("{} rendered {} bytes of wicket-js script, exceeding the budget of {} bytes: {}", new Object[] {
+                cycle.getRequest().getUrl(), total, budget, report.getEntries() });
+        } else if (LOG.isDebugEnabled()) {
+            LOG.debug("{} rendered {} bytes of wicket-js script ({} bytes duplicated) in {}us", new Object[] {
+                cycle.getRequest().getUrl(), total, report.getDuplicateBytes(), report.getTotalNanos() / 1000 });
+        }
+    }
+}
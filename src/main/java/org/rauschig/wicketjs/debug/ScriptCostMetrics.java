@@ -0,0 +1,72 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.debug;
+
+import org.apache.wicket.Component;
+import org.rauschig.wicketjs.metrics.IScriptMetrics;
+
+/**
+ * Tracks the behavior that is currently rendering its head in the {@link ScriptCostReport} of the request, and
+ * forwards all calls to the previously configured metrics.
+ */
+class ScriptCostMetrics implements IScriptMetrics {
+
+    private final IScriptMetrics delegate;
+
+    ScriptCostMetrics(IScriptMetrics delegate) {
+        this.delegate = delegate;
+    }
+
+    IScriptMetrics getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public Object begin(Operation operation, Class<?> source, Component component) {
+        if (operation == Operation.RENDER_HEAD) {
+            ScriptCostReport report = ScriptCostReport.get();
+            if (report != null) {
+                report.begin(component.getPageRelativePath(), source);
+            }
+        }
+
+        return delegate.isEnabled() ? delegate.begin(operation, source, component) : null;
+    }
+
+    @Override
+    public void record(Operation operation, Class<?> source, Object token, long nanos, long chars) {
+        if (operation == Operation.RENDER_HEAD) {
+            ScriptCostReport report = ScriptCostReport.get();
+            if (report != null) {
+                report.end(nanos);
+            }
+        }
+
+        if (delegate.isEnabled()) {
+            delegate.record(operation, source, token, nanos, chars);
+        }
+    }
+
+    @Override
+    public void recordFallback(Class<?> type) {
+        delegate.recordFallback(type);
+    }
+}
@@ -0,0 +1,146 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.debug;
+
+import org.apache.wicket.markup.ComponentTag;
+import org.apache.wicket.markup.MarkupStream;
+import org.apache.wicket.markup.html.WebMarkupContainer;
+import org.apache.wicket.markup.html.basic.Label;
+import org.apache.wicket.markup.html.panel.Panel;
+import org.apache.wicket.model.AbstractReadOnlyModel;
+import org.apache.wicket.util.string.AppendingStringBuffer;
+import org.apache.wicket.util.string.Strings;
+
+/**
+ * Debug panel that lists the {@link ScriptCostReport} of the current request: every component that contributed
+ * JavaScript through a wicket-js behavior, with the behavior class, the time spent in its {@code renderHead}, the size
+ * of the scripts, and the component whose script was identical. As the head of a page is rendered before its body, the
+ * panel shows the report of the page it is placed on.
+ * <p>
+ * The panel is only visible if the {@link ScriptCostListener} is installed.
+ * </p>
+ */
+public class ScriptCostPanel extends Panel {
+
+    private static final long serialVersionUID = 1L;
+
+    public ScriptCostPanel(String id) {
+        super(id);
+    }
+
+    @Override
+    protected void onInitialize() {
+        super.onInitialize();
+
+        add(new EntriesBody("entries"));
+
+        add(new Label("count", new ReportModel() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected Object getObject(ScriptCostReport report) {
+                return report.getEntries().size();
+            }
+        }));
+        add(new Label("totalTime", new ReportModel() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected Object getObject(ScriptCostReport report) {
+                return formatMillis(report.getTotalNanos());
+            }
+        }));
+        add(new Label("totalBytes", new ReportModel() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected Object getObject(ScriptCostReport report) {
+                return report.getTotalBytes();
+            }
+        }));
+        add(new Label("duplicateBytes", new ReportModel() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected Object getObject(ScriptCostReport report) {
+                return report.getDuplicateBytes();
+            }
+        }));
+    }
+
+    @Override
+    protected void onConfigure() {
+        super.onConfigure();
+        setVisible(ScriptCostReport.get() != null);
+    }
+
+    private static String formatMillis(long nanos) {
+        return String.format("%.3f ms", nanos / 1e6);
+    }
+
+    /**
+     * Writes the table rows at render time rather than populating a repeater, as repeaters are populated before the
+     * head of the page, and therefore the scripts, are rendered.
+     */
+    private static class EntriesBody extends WebMarkupContainer {
+        private static final long serialVersionUID = 1L;
+
+        EntriesBody(String id) {
+            super(id);
+        }
+
+        @Override
+        public void onComponentTagBody(MarkupStream markupStream, ComponentTag openTag) {
+            ScriptCostReport report = ScriptCostReport.get();
+            if (report == null) {
+                return;
+            }
+
+            AppendingStringBuffer body = new AppendingStringBuffer();
+            for (ScriptCostReport.Entry entry : report.getEntries()) {
+                body.append("<tr>");
+                appendCell(body, entry.getComponentPath());
+                appendCell(body, entry.getBehaviorClass());
+                appendCell(body, formatMillis(entry.getNanos()));
+                appendCell(body, String.valueOf(entry.getBytes()));
+                appendCell(body, entry.getDuplicateOf());
+                body.append("</tr>\n");
+            }
+
+            replaceComponentTagBody(markupStream, openTag, body);
+        }
+
+        private static void appendCell(AppendingStringBuffer body, String value) {
+            body.append("<td>");
+            if (value != null) {
+                body.append(Strings.escapeMarkup(value));
+            }
+            body.append("</td>");
+        }
+    }
+
+    private abstract static class ReportModel extends AbstractReadOnlyModel<Object> {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public Object getObject() {
+            ScriptCostReport report = ScriptCostReport.get();
+            return (report != null) ? getObject(report) : null;
+        }
+
+        protected abstract Object getObject(ScriptCostReport report);
+    }
+}
@@ -0,0 +1,234 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.debug;
+
+import java.io.Serializable;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.wicket.MetaDataKey;
+import org.apache.wicket.request.cycle.RequestCycle;
+
+/**
+ * The JavaScript contributed by wicket-js behaviors during a single request, collected by the
+ * {@link ScriptCostListener}. Each entry represents one {@code renderHead} call of a behavior that rendered script, and
+ * records the time it took, the UTF-8 size of the scripts and whether an identical script was already rendered by
+ * another component in the same request.
+ */
+public class ScriptCostReport implements Serializable {
+
+    private static final long serialVersionUID = -2650839414040373511L;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    static final MetaDataKey<ScriptCostReport> KEY = new MetaDataKey<ScriptCostReport>() {
+        private static final long serialVersionUID = 1L;
+    };
+
+    private final List<Entry> entries = new ArrayList<>();
+
+    private transient Deque<Entry> rendering = new ArrayDeque<>();
+
+    private transient Map<String, Entry> scripts = new HashMap<>();
+
+    /**
+     * Returns the report of the current request.
+     * 
+     * @return the report, or null if there is no request or the ScriptCostListener is not installed
+     */
+    public static ScriptCostReport get() {
+        RequestCycle cycle = RequestCycle.get();
+        return (cycle != null) ? cycle.getMetaData(KEY) : null;
+    }
+
+    /**
+     * Returns the entries of all behaviors that rendered script, the most expensive (by size) first.
+     * 
+     * @return an unmodifiable list of entries
+     */
+    public List<Entry> getEntries() {
+        List<Entry> sorted = new ArrayList<>(entries);
+        Collections.sort(sorted, new Comparator<Entry>() {
+            @Override
+            public int compare(Entry o1, Entry o2) {
+                return Long.compare(o2.bytes, o1.bytes);
+            }
+        });
+        return Collections.unmodifiableList(sorted);
+    }
+
+    /**
+     * Returns the total size of all scripts in UTF-8 bytes.
+     * 
+     * @return the total size
+     */
+    public long getTotalBytes() {
+        long total = 0;
+        for (Entry entry : entries) {
+            total += entry.bytes;
+        }
+        return total;
+    }
+
+    /**
+     * Returns the total size of the scripts that were identical to the script of another component.
+     * 
+     * @return the size of duplicated scripts in UTF-8 bytes
+     */
+    public long getDuplicateBytes() {
+        long total = 0;
+        for (Entry entry : entries) {
+            if (entry.duplicateOf != null) {
+                total += entry.bytes;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Returns the total time spent in the {@code renderHead} of the behaviors.
+     * 
+     * @return the time in nanoseconds
+     */
+    public long getTotalNanos() {
+        long total = 0;
+        for (Entry entry : entries) {
+            total += entry.nanos;
+        }
+        return total;
+    }
+
+    void begin(String componentPath, Class<?> behaviorClass) {
+        rendering.push(new Entry(componentPath, behaviorClass.getName()));
+    }
+
+    void end(long nanos) {
+        Entry entry = rendering.poll();
+        if (entry == null || entry.script == null) {
+            return;
+        }
+
+        String script = entry.script.toString();
+        entry.nanos = nanos;
+        entry.bytes = script.getBytes(UTF_8).length;
+
+        Entry first = scripts.get(script);
+        if (first != null) {
+            entry.duplicateOf = first.componentPath;
+        } else {
+            scripts.put(script, entry);
+        }
+
+        entry.script = null;
+        entries.add(entry);
+    }
+
+    void addScript(CharSequence script) {
+        Entry entry = rendering.peek();
+        if (entry == null || script == null) {
+            return;
+        }
+
+        if (entry.script == null) {
+            entry.script = new StringBuilder(script);
+        } else {
+            entry.script.append('\n').append(script);
+        }
+    }
+
+    /**
+     * The script contributed by a single behavior.
+     */
+    public static final class Entry implements Serializable {
+
+        private static final long serialVersionUID = 8096433404127409245L;
+
+        private final String componentPath;
+
+        private final String behaviorClass;
+
+        private long nanos;
+
+        private long bytes;
+
+        private String duplicateOf;
+
+        private transient StringBuilder script;
+
+        Entry(String componentPath, String behaviorClass) {
+            this.componentPath = componentPath;
+            this.behaviorClass = behaviorClass;
+        }
+
+        /**
+         * Returns the page relative path of the component the behavior is bound to.
+         * 
+         * @return a component path
+         */
+        public String getComponentPath() {
+            return componentPath;
+        }
+
+        /**
+         * Returns the class name of the behavior.
+         * 
+         * @return a class name
+         */
+        public String getBehaviorClass() {
+            return behaviorClass;
+        }
+
+        /**
+         * Returns the time spent in the {@code renderHead} of the behavior, including the script generation.
+         * 
+         * @return the time in nanoseconds
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+        /**
+         * Returns the size of the scripts rendered by the behavior.
+         * 
+         * @return the size in UTF-8 bytes
+         */
+        public long getBytes() {
+            return bytes;
+        }
+
+        /**
+         * Returns the path of the first component that rendered an identical script in the same request.
+         * 
+         * @return a component path, or null if the script is unique
+         */
+        public String getDuplicateOf() {
+            return duplicateOf;
+        }
+
+        @Override
+        public String toString() {
+            return componentPath + " " + behaviorClass + " " + bytes + "B " + (nanos / 1000) + "us"
+                    + ((duplicateOf != null) ? " duplicate of " + duplicateOf : "");
+        }
+    }
+}
@@ -15,9 +15,17 @@
  */
 package org.rauschig.wicketjs.generator;
 
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 
-import org.apache.wicket.util.string.Strings;
+import org.apache.wicket.markup.head.HeaderItem;
+import org.apache.wicket.request.Response;
+import org.apache.wicket.util.lang.Args;
 import org.rauschig.wicketjs.IJavaScript;
 import org.rauschig.wicketjs.IJsExpression;
 import org.rauschig.wicketjs.IJsExpressionVisitor;
@@ -33,17 +41,30 @@ import org.rauschig.wicketjs.JsIdentifier;
 import org.rauschig.wicketjs.JsIf;
 import org.rauschig.wicketjs.JsLiteral;
 import org.rauschig.wicketjs.JsNamedFunction;
+import org.rauschig.wicketjs.JsPlaceholder;
 import org.rauschig.wicketjs.JsReturn;
 import org.rauschig.wicketjs.JsStatement;
 import org.rauschig.wicketjs.JsStatements;
 import org.rauschig.wicketjs.JsVariableDefinition;
+import org.rauschig.wicketjs.WicketJsSettings;
+import org.rauschig.wicketjs.metrics.IScriptMetrics;
 import org.rauschig.wicketjs.util.JsonSerializer;
+import org.rauschig.wicketjs.util.json.IJsTokenWriter;
+import org.rauschig.wicketjs.util.json.IJsonCacheable;
 
 /**
  * Abstract implementation of the {@link org.rauschig.wicketjs.IJavaScript} syntax tree visitors used to generate a
  * JavaScript string from a given syntax tree.
  * <p>
- * The implementation is stateful as it uses a {@code StringBuilder} internally and <em>not</em> thread safe.
+ * The implementation is stateful as it writes into a {@link JsWriter} during generation and is <em>not</em> thread
+ * safe. The script can either be generated into a String via {@link #generate()}, or streamed directly into an
+ * arbitrary {@code Appendable} or Wicket {@code Response} via {@link #generate(Appendable)} and
+ * {@link #generate(Response)}.
+ * </p>
+ * <p>
+ * Nodes that require client-side resources (e.g. the decoder of a {@link org.rauschig.wicketjs.JsLiteral.JsTypedArray})
+ * register them as header items via {@link #addDependency(HeaderItem)}. Whoever renders the generated script should
+ * render the items returned by {@link #getDependencies()} along with it.
  * </p>
  */
 public abstract class AbstractJsGenerator implements IJsExpressionVisitor, IJsStatementVisitor {
@@ -54,12 +75,42 @@ public abstract class AbstractJsGenerator implements IJsExpressionVisitor, IJsSt
     protected static final int DEFAULT_BUFFER_SIZE = 256;
 
     /**
-     * The StringBuilder that holds the generated source code string.
+     * The JsWriter the source code is generated into. Only set while the generation is running.
+     */
+    protected JsWriter out;
+
+    /**
+     * The StringBuilder that holds the generated source code string. Only set while a subclass that overrides
+     * {@link #generateInto(StringBuilder)} is generating, in which case {@link #out} writes into the same builder.
+     *
+     * @deprecated write into {@link #out} instead
      */
+    @Deprecated
     protected StringBuilder js;
 
+    /**
+     * The cached result of {@link #generate()}.
+     */
+    private String generated;
+
     protected JsonSerializer jsonSerializer;
 
+    private InlineJsonWriter jsonWriter;
+
+    private JsStringEscaper stringEscaper;
+
+    private IScriptMetrics metrics;
+
+    /**
+     * The cacheable node that is currently being generated after a cache miss.
+     */
+    private IJavaScript uncached;
+
+    /**
+     * The header items the generated code depends on, in the order they were added.
+     */
+    private Set<HeaderItem> dependencies;
+
     /**
      * Lazy-init method for getting a JsonSerializer instance.
      * 
@@ -74,12 +125,59 @@ public abstract class AbstractJsGenerator implements IJsExpressionVisitor, IJsSt
     }
 
     /**
-     * Factory method for creating a new JsonSerializer used by the lazy-init method {@link #getJsonSerializer()}.
+     * Factory method for obtaining the JsonSerializer used by the lazy-init method {@link #getJsonSerializer()}. By
+     * default, the application-wide shared instance of the {@link WicketJsSettings} is returned.
      * 
-     * @return a new JsonSerializer instance
+     * @return a JsonSerializer instance
      */
     protected JsonSerializer createJsonSerializer() {
-        return new JsonSerializer();
+        return WicketJsSettings.get().getJsonSerializer();
+    }
+
+    /**
+     * Lazy-init method for getting the JsStringEscaper used to write string literals.
+     * 
+     * @return a JsStringEscaper
+     */
+    protected JsStringEscaper getStringEscaper() {
+        if (stringEscaper == null) {
+            stringEscaper = createStringEscaper();
+        }
+
+        return stringEscaper;
+    }
+
+    /**
+     * Factory method for obtaining the JsStringEscaper used by the lazy-init method {@link #getStringEscaper()}. By
+     * default, the escaper of the {@link WicketJsSettings} is returned.
+     * 
+     * @return a JsStringEscaper
+     */
+    protected JsStringEscaper createStringEscaper() {
+        return WicketJsSettings.get().getStringEscaper();
+    }
+
+    /**
+     * Lazy-init method for getting the IScriptMetrics generation calls are recorded with.
+     * 
+     * @return an IScriptMetrics instance
+     */
+    protected IScriptMetrics getMetrics() {
+        if (metrics == null) {
+            metrics = createMetrics();
+        }
+
+        return metrics;
+    }
+
+    /**
+     * Factory method for obtaining the IScriptMetrics used by the lazy-init method {@link #getMetrics()}. By default,
+     * the metrics of the {@link WicketJsSettings} are returned.
+     * 
+     * @return an IScriptMetrics instance
+     */
+    protected IScriptMetrics createMetrics() {
+        return WicketJsSettings.get().getMetrics();
     }
 
     /**
@@ -90,165 +188,644 @@ public abstract class AbstractJsGenerator implements IJsExpressionVisitor, IJsSt
      * @return JavaScript code as a String
      */
     public String generate() {
-        if (js != null) {
-            return js.toString();
+        if (generated != null) {
+            return generated;
+        }
+
+        StringBuilder builder = new StringBuilder(DEFAULT_BUFFER_SIZE);
+        generate(builder);
+        generated = builder.toString();
+        return generated;
+    }
+
+    /**
+     * Executes the visitor and writes the generated JavaScript directly into the given Appendable.
+     *
+     * Unlike {@link #generate()}, the result is not cached, and each call re-generates the script code.
+     *
+     * @param out the Appendable to write the JavaScript to
+     */
+    public void generate(Appendable out) {
+        JsWriter writer = JsWriter.of(out);
+
+        IScriptMetrics m = getMetrics();
+        if (!m.isEnabled()) {
+            run(writer);
+            return;
+        }
+
+        Object token = m.begin(IScriptMetrics.Operation.GENERATE, getClass(), null);
+        long length = writer.length();
+        long start = System.nanoTime();
+        try {
+            run(writer);
+        } finally {
+            long chars = (length < 0) ? -1 : writer.length() - length;
+            m.record(IScriptMetrics.Operation.GENERATE, getClass(), token, System.nanoTime() - start, chars);
+        }
+    }
+
+    private void run(JsWriter writer) {
+        out = writer;
+        try {
+            generateInto(out);
+        } finally {
+            out = null;
+        }
+    }
+
+    /**
+     * Executes the visitor and writes the generated JavaScript directly into the given Wicket Response.
+     *
+     * @param response the Response to write the JavaScript to
+     * @see #generate(Appendable)
+     */
+    public void generate(Response response) {
+        generate(JsWriter.of(response));
+    }
+
+    /**
+     * Returns the header items the generated JavaScript depends on, e.g. resource references of client-side libraries.
+     * The dependencies are collected during generation, so this method has to be called after the script was
+     * generated.
+     *
+     * @return an unmodifiable list of header items, which is empty if the script has no dependencies
+     */
+    public List<HeaderItem> getDependencies() {
+        if (dependencies == null) {
+            return Collections.emptyList();
+        }
+
+        return Collections.unmodifiableList(new ArrayList<>(dependencies));
+    }
+
+    /**
+     * Registers a header item the generated JavaScript depends on. Adding the same item multiple times has no effect.
+     *
+     * @param dependency the header item
+     */
+    protected void addDependency(HeaderItem dependency) {
+        Args.notNull(dependency, "dependency");
+
+        if (dependencies == null) {
+            dependencies = new LinkedHashSet<>();
+        }
+        dependencies.add(dependency);
+    }
+
+    /**
+     * Returns the ScriptCache that is consulted for frozen subtrees during generation. Returns null by default, as
+     * only generators whose output solely depends on the syntax tree may share a cache.
+     *
+     * @return a ScriptCache or null if caching is disabled
+     */
+    protected ScriptCache getScriptCache() {
+        return null;
+    }
+
+    /**
+     * Writes the cached source code of the given node if it is available. Otherwise, if the node is cacheable, it is
+     * generated into a separate buffer that is cached and then written. The dependencies of the node are cached and
+     * restored along with its source code.
+     *
+     * @param visitable the node to visit
+     * @return true if the node was written, false if the caller should generate it
+     */
+    protected boolean visitCached(IJavaScript visitable) {
+        if (visitable == uncached || !ScriptCache.isCacheable(visitable)) {
+            return false;
+        }
+
+        ScriptCache cache = getScriptCache();
+        if (cache == null) {
+            return false;
+        }
+
+        ScriptCache.CachedScript entry = cache.lookup(visitable);
+        if (entry == null) {
+            StringBuilder buffer = new StringBuilder(DEFAULT_BUFFER_SIZE);
+            JsWriter target = out;
+            IJavaScript parent = uncached;
+            Set<HeaderItem> outer = dependencies;
+
+            out = JsWriter.of(buffer);
+            uncached = visitable;
+            dependencies = null;
+            Set<HeaderItem> generatedDependencies;
+            try {
+                visitJavaScript(visitable);
+            } finally {
+                generatedDependencies = dependencies;
+                out = target;
+                uncached = parent;
+                dependencies = outer;
+            }
+
+            entry = new ScriptCache.CachedScript(buffer.toString(), generatedDependencies);
+            cache.put(visitable, entry);
+        }
+
+        for (HeaderItem dependency : entry.getDependencies()) {
+            addDependency(dependency);
+        }
+        out.append(entry.getSource());
+        return true;
+    }
+
+    /**
+     * Called in {@link #generate(Appendable)} with the initialized JsWriter. Subclasses override this method to
+     * initiate the generation process.
+     * <p>
+     * By default, the script is generated into a StringBuilder by {@link #generateInto(StringBuilder)}, and then
+     * written into the given writer. Subclasses should override this method to stream into the writer directly.
+     * </p>
+     * 
+     * @param writer the JsWriter the JavaScript is written to
+     */
+    protected void generateInto(JsWriter writer) {
+        StringBuilder builder = new StringBuilder(DEFAULT_BUFFER_SIZE);
+
+        out = JsWriter.of(builder);
+        js = builder;
+        try {
+            generateInto(builder);
+        } finally {
+            out = writer;
+            js = null;
         }
 
-        js = new StringBuilder(DEFAULT_BUFFER_SIZE);
-        generateInto(js);
-        return js.toString();
+        writer.append(builder);
     }
 
     /**
-     * Called in {@link #generate()} with the initialized StringBuilder. Subclasses override this method to initiate the
-     * generation process.
+     * Called by {@link #generateInto(JsWriter)} unless it is overridden, with the StringBuilder that is also referenced
+     * by {@link #js}. Subclasses that override {@link #generateInto(JsWriter)} implement this method by generating
+     * into the given builder, e.g. using {@link #generate(Appendable)}.
      * 
      * @param builder the StringBuilder containing the java script
+     * @deprecated override {@link #generateInto(JsWriter)} instead, which streams into the target directly
      */
+    @Deprecated
     protected abstract void generateInto(StringBuilder builder);
 
     @Override
     public void visit(JsLiteral.JsNumber visitable) {
-        js.append(visitable.getValue().toString()); // TODO: number formatting
+        JsNumberFormat.format(visitable.getValue(), out);
+    }
+
+    @Override
+    public void visit(JsLiteral.JsInt visitable) {
+        JsNumberFormat.format(visitable.intValue(), out);
+    }
+
+    @Override
+    public void visit(JsLiteral.JsLong visitable) {
+        JsNumberFormat.format(visitable.longValue(), out);
+    }
+
+    @Override
+    public void visit(JsLiteral.JsDouble visitable) {
+        JsNumberFormat.format(visitable.doubleValue(), out);
     }
 
     @Override
     public void visit(JsLiteral.JsBoolean visitable) {
-        js.append(visitable.getValue().toString());
+        out.append(visitable.getValue().toString());
     }
 
     @Override
     public void visit(JsLiteral.JsString visitable) {
-        js.append("'");
-        js.append(Strings.replaceAll(visitable.getValue(), "'", "\\'"));
-        js.append("'");
+        if (visitable.getValue() == null) {
+            out.append("null");
+        } else {
+            getStringEscaper().write(visitable.getValue(), out);
+        }
     }
 
     @Override
     public void visit(JsLiteral.JsArray visitable) {
-        js.append(getJsonSerializer().serialize(visitable.getValue()));
+        if (visitCached(visitable)) {
+            return;
+        }
+
+        getJsonSerializer().serialize(visitable.getValue(), getJsonWriter());
+    }
+
+    @Override
+    public void visit(JsLiteral.JsIntArray visitable) {
+        if (visitCached(visitable)) {
+            return;
+        }
+
+        int[] array = visitable.getValue();
+        out.append('[');
+        for (int i = 0; i < array.length; i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            JsNumberFormat.format(array[i], out);
+        }
+        out.append(']');
+    }
+
+    @Override
+    public void visit(JsLiteral.JsLongArray visitable) {
+        if (visitCached(visitable)) {
+            return;
+        }
+
+        long[] array = visitable.getValue();
+        out.append('[');
+        for (int i = 0; i < array.length; i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            JsNumberFormat.format(array[i], out);
+        }
+        out.append(']');
+    }
+
+    @Override
+    public void visit(JsLiteral.JsDoubleArray visitable) {
+        if (visitCached(visitable)) {
+            return;
+        }
+
+        double[] array = visitable.getValue();
+        out.append('[');
+        for (int i = 0; i < array.length; i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            JsNumberFormat.format(array[i], out);
+        }
+        out.append(']');
+    }
+
+    @Override
+    public void visit(JsLiteral.JsTypedArray visitable) {
+        addDependency(JsLiteral.JsTypedArray.getDecoderHeaderItem());
+
+        if (visitCached(visitable)) {
+            return;
+        }
+
+        JsLiteral.JsTypedArray.Encoding encoding = visitable.getEncoding();
+        int length = visitable.length();
+        char quote = getStringEscaper().getQuote();
+
+        out.append("WicketJs.typedArray(");
+        out.append(quote).append(encoding.getType()).append(quote);
+        out.append(',').append(quote);
+
+        Base64Writer payload = new Base64Writer(out);
+        switch (encoding) {
+            case FLOAT64:
+                for (double value : (double[]) visitable.getValue()) {
+                    payload.writeLong(Double.doubleToRawLongBits(value));
+                }
+                break;
+            case INT32:
+                for (int i = 0; i < length; i++) {
+                    payload.writeInt((int) visitable.longValue(i));
+                }
+                break;
+            case INT32_DELTA:
+                for (int i = 1; i < length; i++) {
+                    payload.writeInt((int) (visitable.longValue(i) - visitable.longValue(i - 1)));
+                }
+                break;
+            default:
+                throw new IllegalStateException("Unknown encoding " + encoding);
+        }
+        payload.finish();
+
+        out.append(quote);
+        if (encoding == JsLiteral.JsTypedArray.Encoding.INT32_DELTA && length > 0) {
+            out.append(',');
+            JsNumberFormat.format(visitable.longValue(0), out);
+        }
+        out.append(')');
+    }
+
+    @Override
+    public void visit(JsLiteral.JsTable visitable) {
+        if (visitable.isRows()) {
+            addDependency(JsLiteral.JsTable.getRowsHelperHeaderItem());
+        }
+
+        if (visitCached(visitable)) {
+            return;
+        }
+
+        List<JsLiteral.JsTable.Column> columns = visitable.getColumns();
+        Iterable<?> rows = visitable.getValue();
+
+        if (visitable.isRows()) {
+            out.append("WicketJs.tableRows(");
+        }
+
+        out.append("{cols:[");
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            getStringEscaper().write(columns.get(i).getName(), out);
+        }
+
+        out.append("],data:[");
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+
+            JsLiteral.JsTable.Column column = columns.get(i);
+            if (column.getEncoding() != null) {
+                visit(toTypedArray(column, rows));
+            } else {
+                out.append('[');
+                Iterator<?> iterator = rows.iterator();
+                while (iterator.hasNext()) {
+                    visitValue(column.getValue(iterator.next()));
+
+                    if (iterator.hasNext()) {
+                        out.append(',');
+                    }
+                }
+                out.append(']');
+            }
+        }
+        out.append("]}");
+
+        if (visitable.isRows()) {
+            out.append(')');
+        }
+    }
+
+    @Override
+    public void visit(JsLiteral.JsIterableArray visitable) {
+        JsonSerializer serializer = getJsonSerializer();
+        Writer writer = getJsonWriter();
+
+        out.append('[');
+        Iterator<?> iterator = visitable.getValue().iterator();
+        while (iterator.hasNext()) {
+            serializer.serialize(iterator.next(), writer);
+
+            if (iterator.hasNext()) {
+                out.append(',');
+            }
+        }
+        out.append(']');
     }
 
     @Override
     public void visit(JsLiteral.JsObject visitable) {
-        js.append(getJsonSerializer().serialize(visitable.getValue()));
+        if (visitCached(visitable)) {
+            return;
+        }
+
+        // a cacheable literal is handed over as is, s.t. the serializer can write its cached JSON form
+        Object value = (visitable instanceof IJsonCacheable) ? visitable : visitable.getValue();
+        getJsonSerializer().serialize(value, getJsonWriter());
     }
 
     @Override
     public void visit(JsLiteral.JsNull visitable) {
-        js.append("null");
+        out.append("null");
     }
 
     @Override
     public void visit(JsIdentifier visitable) {
-        js.append(visitable.getIdentifier());
+        out.append(visitable.getIdentifier());
     }
 
     @Override
     public void visit(JsExpression visitable) {
-        js.append(visitable.getExpression());
+        out.append(visitable.getExpression());
+    }
+
+    @Override
+    public void visit(JsPlaceholder visitable) {
+        throw new IllegalStateException("Placeholder '" + visitable.getName()
+            + "' can only be generated as part of a ScriptPlan");
     }
 
     @Override
     public void accept(JsAssignment visitable) {
+        if (visitCached(visitable)) {
+            return;
+        }
+
         IJsExpression left = visitable.getLeftSide();
         IJsExpression right = visitable.getRightSide();
 
         left.accept(this);
         if (right != null) {
-            js.append(" = ");
+            out.append(" = ");
             right.accept(this);
         }
     }
 
     @Override
     public void visit(JsCall visitable) {
+        if (visitCached(visitable)) {
+            return;
+        }
+
         visitable.getFunction().accept(this);
         visitArguments(visitable);
     }
 
     @Override
     public void accept(JsCallChain visitable) {
+        if (visitCached(visitable)) {
+            return;
+        }
+
         visitAndJoin(".", visitable.getExpressions());
     }
 
     @Override
     public void visit(JsFunction visitable) {
-        js.append("function");
+        if (visitCached(visitable)) {
+            return;
+        }
+
+        out.append("function");
         visitFunctionParametersAndBody(visitable);
     }
 
     @Override
     public void visit(JsNamedFunction visitable) {
-        js.append("function ");
+        if (visitCached(visitable)) {
+            return;
+        }
+
+        out.append("function ");
         visitable.getIdentifier().accept(this);
         visitFunctionParametersAndBody(visitable);
     }
 
     @Override
     public void visit(JsExpressionStatement visitable) {
+        if (visitCached(visitable)) {
+            return;
+        }
+
         visitable.getExpression().accept(this);
-        js.append(";");
+        out.append(";");
     }
 
     @Override
     public void visit(JsStatement visitable) {
-        js.append(visitable.getStatement());
-        js.append(";");
+        out.append(visitable.getStatement());
+        out.append(";");
     }
 
     @Override
     public void visit(JsStatements visitable) {
+        if (visitCached(visitable)) {
+            return;
+        }
+
         visitAndJoin("", visitable.getStatements());
     }
 
     @Override
     public void visit(JsIf visitable) {
-        js.append("if(");
+        if (visitCached(visitable)) {
+            return;
+        }
+
+        out.append("if(");
 
         if (visitable.isNegated()) {
-            js.append("!(");
+            out.append("!(");
         }
         visitable.getExpression().accept(this);
         if (visitable.isNegated()) {
-            js.append(")");
+            out.append(")");
         }
 
-        js.append(")");
+        out.append(")");
 
         visitBlock(visitable.getThenBlock());
 
         if (visitable.getElseBlock() != null) {
-            js.append("else");
+            out.append("else");
             visitBlock(visitable.getElseBlock());
         }
     }
 
     @Override
     public void visit(JsVariableDefinition visitable) {
-        js.append("var ");
+        if (visitCached(visitable)) {
+            return;
+        }
+
+        out.append("var ");
         visitable.getAssignment().accept(this);
-        js.append(";");
+        out.append(";");
     }
 
     @Override
     public void visit(JsReturn visitable) {
-        js.append("return");
+        if (visitCached(visitable)) {
+            return;
+        }
+
+        out.append("return");
 
         if (!visitable.isVoid()) {
-            js.append(" ");
+            out.append(" ");
             if (visitable.getExpression() != null) {
                 visitable.getExpression().accept(this);
             }
         }
 
-        js.append(";");
+        out.append(";");
+    }
+
+    /**
+     * Visits the given IJavaScript syntax tree node, which is either an IJsExpression or an IJsStatement.
+     * 
+     * @param visitable the node to visit
+     */
+    protected void visitJavaScript(IJavaScript visitable) {
+        if (visitable instanceof IJsExpression) {
+            ((IJsExpression) visitable).accept(this);
+        } else if (visitable instanceof IJsStatement) {
+            ((IJsStatement) visitable).accept(this);
+        }
+    }
+
+    /**
+     * Writes a plain Java value, taking fast paths for strings, numbers and booleans, and serializing all other values
+     * like the values of a {@link org.rauschig.wicketjs.JsLiteral.JsObject}.
+     * 
+     * @param value the value to write
+     */
+    protected void visitValue(Object value) {
+        if (value == null) {
+            out.append("null");
+        } else if (value instanceof String) {
+            getStringEscaper().write((String) value, out);
+        } else if (value instanceof Number) {
+            JsNumberFormat.format((Number) value, out);
+        } else if (value instanceof Boolean) {
+            out.append(value.toString());
+        } else {
+            getJsonSerializer().serialize(value, getJsonWriter());
+        }
+    }
+
+    private static JsLiteral.JsTypedArray toTypedArray(JsLiteral.JsTable.Column column, Iterable<?> rows) {
+        int size = 0;
+        for (Iterator<?> iterator = rows.iterator(); iterator.hasNext(); iterator.next()) {
+            size++;
+        }
+
+        Iterator<?> iterator = rows.iterator();
+        if (column.getEncoding() == JsLiteral.JsTypedArray.Encoding.FLOAT64) {
+            double[] values = new double[size];
+            for (int i = 0; i < size; i++) {
+                Object value = column.getValue(iterator.next());
+                values[i] = (value != null) ? ((Number) value).doubleValue() : Double.NaN;
+            }
+            return new JsLiteral.JsTypedArray(values, column.getEncoding());
+        }
+
+        long[] values = new long[size];
+        for (int i = 0; i < size; i++) {
+            Object value = column.getValue(iterator.next());
+            if (value == null) {
+                throw new IllegalArgumentException("Column '" + column.getName() + "' contains a null value at row "
+                    + i + ", which can not be written as integer");
+            }
+            values[i] = ((Number) value).longValue();
+        }
+        return new JsLiteral.JsTypedArray(values, column.getEncoding());
+    }
+
+    /**
+     * Returns the Writer that is used to serialize JSON values into the current output. IJavaScript tokens nested
+     * within these values are visited by this generator in-place.
+     * 
+     * @return a Writer
+     */
+    protected Writer getJsonWriter() {
+        if (jsonWriter == null) {
+            jsonWriter = new InlineJsonWriter();
+        }
+
+        return jsonWriter;
     }
 
     protected void visitBlock(IJsStatement visitable) {
-        js.append("{");
+        out.append("{");
         visitable.accept(this);
-        js.append("}");
+        out.append("}");
     }
 
     /**
@@ -257,9 +834,9 @@ public abstract class AbstractJsGenerator implements IJsExpressionVisitor, IJsSt
      * @param visitable the JsCall to visit
      */
     protected void visitArguments(JsCall visitable) {
-        js.append("(");
+        out.append("(");
         visitAndJoin(",", visitable.getArguments());
-        js.append(")");
+        out.append(")");
     }
 
     /**
@@ -278,9 +855,9 @@ public abstract class AbstractJsGenerator implements IJsExpressionVisitor, IJsSt
      * @param visitable the JsFunction to visit
      */
     protected void visitFunctionParameters(JsFunction visitable) {
-        js.append("(");
+        out.append("(");
         visitAndJoin(",", visitable.getParameters());
-        js.append(")");
+        out.append(")");
     }
 
     /**
@@ -289,9 +866,9 @@ public abstract class AbstractJsGenerator implements IJsExpressionVisitor, IJsSt
      * @param visitable the JsFunction to visit
      */
     protected void visitFunctionBody(JsFunction visitable) {
-        js.append("{");
+        out.append("{");
         visitable.getBody().accept(this);
-        js.append("}");
+        out.append("}");
     }
 
     /**
@@ -319,9 +896,40 @@ public abstract class AbstractJsGenerator implements IJsExpressionVisitor, IJsSt
             }
 
             if (iterator.hasNext()) {
-                js.append(delimiter);
+                out.append(delimiter);
             }
         }
     }
 
+    /**
+     * Writer that passes serialized JSON into the current output of the generator, and visits nested IJavaScript tokens
+     * with the generator itself.
+     */
+    private class InlineJsonWriter extends Writer implements IJsTokenWriter {
+
+        @Override
+        public void write(IJavaScript token) {
+            visitJavaScript(token);
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            out.write(cbuf, off, len);
+        }
+
+        @Override
+        public void write(String str, int off, int len) {
+            out.append(str, off, off + len);
+        }
+
+        @Override
+        public void flush() {
+            // output is flushed by the owner
+        }
+
+        @Override
+        public void close() {
+            // output is closed by the owner
+        }
+    }
 }
@@ -0,0 +1,99 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.generator;
+
+/**
+ * Streams bytes as standard base64 (RFC 4648, with padding) into a JsWriter, without buffering the binary data.
+ * Multi-byte values are written in little-endian byte order, which is what the client-side typed array decoder expects.
+ */
+final class Base64Writer {
+
+    private static final char[] ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/"
+            .toCharArray();
+
+    private final JsWriter out;
+
+    private final char[] chars = new char[256];
+    private int charCount;
+
+    private int bits;
+    private int byteCount;
+
+    Base64Writer(JsWriter out) {
+        this.out = out;
+    }
+
+    void writeByte(int b) {
+        bits = (bits << 8) | (b & 0xFF);
+
+        if (++byteCount == 3) {
+            if (charCount + 4 > chars.length) {
+                flush();
+            }
+            chars[charCount++] = ALPHABET[(bits >>> 18) & 0x3F];
+            chars[charCount++] = ALPHABET[(bits >>> 12) & 0x3F];
+            chars[charCount++] = ALPHABET[(bits >>> 6) & 0x3F];
+            chars[charCount++] = ALPHABET[bits & 0x3F];
+
+            bits = 0;
+            byteCount = 0;
+        }
+    }
+
+    void writeInt(int value) {
+        writeByte(value);
+        writeByte(value >>> 8);
+        writeByte(value >>> 16);
+        writeByte(value >>> 24);
+    }
+
+    void writeLong(long value) {
+        writeInt((int) value);
+        writeInt((int) (value >>> 32));
+    }
+
+    /**
+     * Writes the remaining bytes with padding and flushes all characters into the JsWriter.
+     */
+    void finish() {
+        if (charCount + 4 > chars.length) {
+            flush();
+        }
+
+        if (byteCount == 1) {
+            bits <<= 16;
+            chars[charCount++] = ALPHABET[(bits >>> 18) & 0x3F];
+            chars[charCount++] = ALPHABET[(bits >>> 12) & 0x3F];
+            chars[charCount++] = '=';
+            chars[charCount++] = '=';
+        } else if (byteCount == 2) {
+            bits <<= 8;
+            chars[charCount++] = ALPHABET[(bits >>> 18) & 0x3F];
+            chars[charCount++] = ALPHABET[(bits >>> 12) & 0x3F];
+            chars[charCount++] = ALPHABET[(bits >>> 6) & 0x3F];
+            chars[charCount++] = '=';
+        }
+
+        bits = 0;
+        byteCount = 0;
+        flush();
+    }
+
+    private void flush() {
+        out.write(chars, 0, charCount);
+        charCount = 0;
+    }
+}
@@ -18,6 +18,7 @@ package org.rauschig.wicketjs.generator;
 import org.rauschig.wicketjs.IJavaScript;
 import org.rauschig.wicketjs.IJsExpression;
 import org.rauschig.wicketjs.IJsStatement;
+import org.rauschig.wicketjs.WicketJsSettings;
 
 /**
  * An AbstractJsGenerator implementation that compiles a IJsStatement or IJsExpression.
@@ -26,6 +27,8 @@ public class JsGenerator extends AbstractJsGenerator {
 
     protected IJavaScript visitable;
 
+    private ScriptCache scriptCache;
+
     /**
      * Creates a new JsGenerator that generates JavaScript for the given IJavaScript syntax treeq.
      * 
@@ -40,7 +43,7 @@ public class JsGenerator extends AbstractJsGenerator {
     }
 
     @Override
-    protected void generateInto(StringBuilder builder) {
+    protected void generateInto(JsWriter writer) {
         if (visitable instanceof IJsExpression) {
             ((IJsExpression) visitable).accept(this);
         } else if (visitable instanceof IJsStatement) {
@@ -49,4 +52,31 @@ public class JsGenerator extends AbstractJsGenerator {
             throw new IllegalArgumentException("Unknown visitable type " + visitable.getClass());
         }
     }
+
+    /**
+     * Generates the script into the given builder using {@link #generateInto(JsWriter)}.
+     * 
+     * @param builder the StringBuilder the JavaScript is written to
+     * @deprecated use {@link #generate(Appendable)}
+     */
+    @Override
+    @Deprecated
+    protected void generateInto(StringBuilder builder) {
+        generate(builder);
+    }
+
+    /**
+     * Returns the application-wide ScriptCache. Subclasses that change the generated output have to override this
+     * method to opt in again, as their output can not be shared with other generators.
+     *
+     * @return the shared ScriptCache, or null for subclasses
+     */
+    @Override
+    protected ScriptCache getScriptCache() {
+        if (scriptCache == null && getClass() == JsGenerator.class) {
+            scriptCache = WicketJsSettings.get().getScriptCache();
+        }
+
+        return scriptCache;
+    }
 }
@@ -18,6 +18,7 @@ package org.rauschig.wicketjs.generator;
 import java.util.List;
 
 import org.rauschig.wicketjs.IJavaScript;
+import org.rauschig.wicketjs.WicketJsSettings;
 
 /**
  * An AbstractJsGenerator implementation that compiles a list of IJsStatement or IJsExpression using a delimiter.
@@ -33,7 +34,30 @@ public class JsJoiner<T extends IJavaScript> extends AbstractJsGenerator {
     }
 
     @Override
-    protected void generateInto(StringBuilder builder) {
+    protected void generateInto(JsWriter writer) {
         visitAndJoin(delimiter, visitables);
     }
+
+    /**
+     * Generates the script into the given builder using {@link #generateInto(JsWriter)}.
+     * 
+     * @param builder the StringBuilder the JavaScript is written to
+     * @deprecated use {@link #generate(Appendable)}
+     */
+    @Override
+    @Deprecated
+    protected void generateInto(StringBuilder builder) {
+        generate(builder);
+    }
+
+    /**
+     * Returns the application-wide ScriptCache, unless this is a subclass.
+     *
+     * @return the shared ScriptCache, or null
+     * @see JsGenerator#getScriptCache()
+     */
+    @Override
+    protected ScriptCache getScriptCache() {
+        return (getClass() == JsJoiner.class) ? WicketJsSettings.get().getScriptCache() : null;
+    }
 }
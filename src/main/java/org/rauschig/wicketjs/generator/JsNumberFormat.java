@@ -0,0 +1,302 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.generator;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+
+/**
+ * Formats Java numbers as JavaScript number literals, following the rules of JavaScript's {@code Number.toString()}:
+ * integral values are written without a fraction ({@code 4} rather than {@code 4.0}), values are written with the
+ * shortest digits that round-trip to the same double, and exponents are only used below 1e-6 and from 1e21 on
+ * ({@code 1e+21}). NaN and the infinities are written as the JavaScript tokens {@code NaN}, {@code Infinity} and
+ * {@code -Infinity}.
+ * <p>
+ * Integral values and doubles that can be represented as a scaled integer with few fraction digits are written
+ * directly into the output without allocating intermediate Strings. Other doubles fall back to re-arranging the digits
+ * of {@code Double.toString}. As {@code Double.toString} only returns the shortest digits since Java 19, the digits
+ * are shortened where possible on older runtimes.
+ * </p>
+ */
+public final class JsNumberFormat {
+
+    /**
+     * The largest integer that can be represented exactly by a double (2^53).
+     */
+    private static final double MAX_SAFE_INTEGER = 9007199254740992d;
+
+    /**
+     * The maximum amount of fraction digits tried in the scaled integer fast-path.
+     */
+    private static final int MAX_SCALE = 9;
+
+    private static final long[] POW10 = new long[MAX_SCALE + 1];
+
+    private static final double[] POW10_D = new double[MAX_SCALE + 1];
+
+    /**
+     * Whether Double.toString returns the shortest round-trip digits (JDK-4511638, fixed in Java 19).
+     */
+    private static final boolean SHORTEST_DOUBLE_TO_STRING = isShortestDoubleToString();
+
+    static {
+        long pow = 1;
+        for (int i = 0; i <= MAX_SCALE; i++) {
+            POW10[i] = pow;
+            POW10_D[i] = pow;
+            pow *= 10;
+        }
+    }
+
+    private JsNumberFormat() {
+        // static utility class
+    }
+
+    /**
+     * Writes the given Number as JavaScript number literal.
+     * 
+     * @param value the number to format
+     * @param out the JsWriter to write into
+     */
+    public static void format(Number value, JsWriter out) {
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            out.append(value.longValue());
+        } else if (value instanceof Double) {
+            format(value.doubleValue(), out);
+        } else if (value instanceof Float) {
+            format(value.floatValue(), out);
+        } else if (value instanceof BigInteger || value instanceof BigDecimal) {
+            out.append(value.toString());
+        } else {
+            format(value.doubleValue(), out);
+        }
+    }
+
+    /**
+     * Writes the given long as JavaScript number literal.
+     * 
+     * @param value the number to format
+     * @param out the JsWriter to write into
+     */
+    public static void format(long value, JsWriter out) {
+        out.append(value);
+    }
+
+    /**
+     * Writes the given float as JavaScript number literal. The float is not widened to a double, s.t. its shortest
+     * digits are kept (e.g. {@code 4.2} rather than {@code 4.199999809265137}).
+     * 
+     * @param value the number to format
+     * @param out the JsWriter to write into
+     */
+    public static void format(float value, JsWriter out) {
+        if (Float.isNaN(value) || Float.isInfinite(value) || value == 0) {
+            format((double) value, out);
+        } else {
+            relayout(Float.toString(value), out);
+        }
+    }
+
+    /**
+     * Writes the given double as JavaScript number literal.
+     * 
+     * @param value the number to format
+     * @param out the JsWriter to write into
+     */
+    public static void format(double value, JsWriter out) {
+        if (Double.isNaN(value)) {
+            out.append("NaN");
+            return;
+        } else if (Double.isInfinite(value)) {
+            out.append(value > 0 ? "Infinity" : "-Infinity");
+            return;
+        } else if (value == 0) {
+            out.append('0'); // also -0, like JavaScript
+            return;
+        }
+
+        double abs = Math.abs(value);
+        if (abs >= 1e-6 && abs < MAX_SAFE_INTEGER) {
+            for (int scale = 0; scale <= MAX_SCALE; scale++) {
+                double scaled = value * POW10_D[scale];
+                if (Math.abs(scaled) >= MAX_SAFE_INTEGER) {
+                    break;
+                }
+
+                long unscaled = Math.round(scaled);
+                if (unscaled / POW10_D[scale] == value) {
+                    writeScaled(unscaled, scale, out);
+                    return;
+                }
+            }
+        }
+
+        relayout(shortest(value, Double.toString(value)), out);
+    }
+
+    /**
+     * Formats the given double as JavaScript number literal.
+     * 
+     * @param value the number to format
+     * @return the JavaScript number literal
+     */
+    public static String toString(double value) {
+        StringBuilder builder = new StringBuilder(24);
+        format(value, JsWriter.of(builder));
+        return builder.toString();
+    }
+
+    /**
+     * Formats the given float as JavaScript number literal.
+     * 
+     * @param value the number to format
+     * @return the JavaScript number literal
+     */
+    public static String toString(float value) {
+        StringBuilder builder = new StringBuilder(16);
+        format(value, JsWriter.of(builder));
+        return builder.toString();
+    }
+
+    /**
+     * Tries to find a representation of the given double with fewer digits than the one returned by Double.toString.
+     */
+    private static String shortest(double value, String java) {
+        if (SHORTEST_DOUBLE_TO_STRING) {
+            return java;
+        }
+
+        int digits = 0;
+        for (int i = 0; i < java.length() && java.charAt(i) != 'E'; i++) {
+            if (Character.isDigit(java.charAt(i))) {
+                digits++;
+            }
+        }
+
+        BigDecimal exact = new BigDecimal(value);
+        for (int precision = Math.max(1, digits - 3); precision < digits; precision++) {
+            BigDecimal rounded = exact.round(new MathContext(precision));
+            if (rounded.doubleValue() == value) {
+                return rounded.toString();
+            }
+        }
+
+        return java;
+    }
+
+    private static boolean isShortestDoubleToString() {
+        String version = System.getProperty("java.specification.version", "");
+        try {
+            return !version.startsWith("1.") && Integer.parseInt(version) >= 19;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static void writeScaled(long unscaled, int scale, JsWriter out) {
+        if (scale == 0) {
+            out.append(unscaled);
+            return;
+        }
+
+        if (unscaled < 0) {
+            out.append('-');
+            unscaled = -unscaled;
+        }
+
+        long integral = unscaled / POW10[scale];
+        long fraction = unscaled % POW10[scale];
+
+        out.append(integral);
+        out.append('.');
+        for (long pow = POW10[scale - 1]; pow > fraction && pow > 1; pow /= 10) {
+            out.append('0');
+        }
+        out.append(fraction);
+    }
+
+    /**
+     * Re-arranges the output of Java's {@code Double.toString} or {@code Float.toString} (e.g. {@code 1.0E21}) according
+     * to the rules of JavaScript's {@code Number.toString} (e.g. {@code 1e+21}).
+     */
+    private static void relayout(String java, JsWriter out) {
+        int pos = 0;
+        int end = java.length();
+
+        if (java.charAt(0) == '-') {
+            out.append('-');
+            pos = 1;
+        }
+
+        int exponentIndex = java.indexOf('E');
+        int exponent = 0;
+        if (exponentIndex >= 0) {
+            exponent = Integer.parseInt(java.substring(exponentIndex + 1));
+            end = exponentIndex;
+        }
+
+        // collect the significant digits and the position of the decimal point
+        char[] digits = new char[end - pos];
+        int count = 0;
+        int point = -1;
+        for (int i = pos; i < end; i++) {
+            char c = java.charAt(i);
+            if (c == '.') {
+                point = count;
+            } else if (c != '0' || count > 0) {
+                digits[count++] = c;
+            } else if (point >= 0) {
+                exponent--; // leading zeros of the fraction
+            }
+        }
+        if (point < 0) {
+            point = count;
+        }
+        while (count > 1 && digits[count - 1] == '0') {
+            count--;
+        }
+
+        // n as in ECMA-262 Number::toString: value = 0.digits * 10^n
+        int n = point + exponent;
+
+        if (count <= n && n <= 21) {
+            out.write(digits, 0, count);
+            for (int i = count; i < n; i++) {
+                out.append('0');
+            }
+        } else if (0 < n && n <= 21) {
+            out.write(digits, 0, n);
+            out.append('.');
+            out.write(digits, n, count - n);
+        } else if (-6 < n && n <= 0) {
+            out.append("0.");
+            for (int i = n; i < 0; i++) {
+                out.append('0');
+            }
+            out.write(digits, 0, count);
+        } else {
+            out.append(digits[0]);
+            if (count > 1) {
+                out.append('.');
+                out.write(digits, 1, count - 1);
+            }
+            out.append('e');
+            out.append(n - 1 >= 0 ? '+' : '-');
+            out.append(Math.abs(n - 1));
+        }
+    }
+}
@@ -0,0 +1,211 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.generator;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.Writer;
+
+import org.apache.wicket.WicketRuntimeException;
+
+/**
+ * Table-driven escaper that writes string values as quoted JavaScript or JSON string literals in a single pass. Runs
+ * of characters that do not need escaping are written as they are, s.t. no intermediate copy of the string is created.
+ * <p>
+ * All escapers escape backslashes, their quote character, control characters and the line terminators U+2028 and
+ * U+2029, which are valid in JSON but not in JavaScript string literals. The inline script escapers additionally escape
+ * {@code <}, {@code >} and {@code &}, s.t. strings like {@code </script>} or {@code <!--} can safely be written into
+ * inline {@code <script>} elements (like the ones rendered for {@code OnDomReadyHeaderItem}s) without further
+ * sanitizing.
+ * </p>
+ * <p>
+ * Escapers are immutable and thread safe.
+ * </p>
+ */
+public final class JsStringEscaper implements Serializable {
+
+    private static final long serialVersionUID = -3290867003012496853L;
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    /**
+     * Escapes single-quoted JavaScript strings.
+     */
+    public static final JsStringEscaper DEFAULT = new JsStringEscaper('\'', false);
+
+    /**
+     * Escapes single-quoted JavaScript strings that are written into inline script elements.
+     */
+    public static final JsStringEscaper INLINE_SCRIPT = new JsStringEscaper('\'', true);
+
+    /**
+     * Escapes double-quoted JSON strings.
+     */
+    public static final JsStringEscaper JSON = new JsStringEscaper('"', false);
+
+    /**
+     * Escapes double-quoted JSON strings that are written into inline script elements.
+     */
+    public static final JsStringEscaper JSON_INLINE_SCRIPT = new JsStringEscaper('"', true);
+
+    private static final String LINE_SEPARATOR = "\\u2028";
+
+    private static final String PARAGRAPH_SEPARATOR = "\\u2029";
+
+    private final char quote;
+
+    private final boolean inlineScript;
+
+    /**
+     * Replacements of all ASCII characters, null for characters that are written as they are.
+     */
+    private final String[] table;
+
+    private JsStringEscaper(char quote, boolean inlineScript) {
+        this.quote = quote;
+        this.inlineScript = inlineScript;
+        this.table = createTable(quote, inlineScript);
+    }
+
+    public char getQuote() {
+        return quote;
+    }
+
+    public boolean isInlineScript() {
+        return inlineScript;
+    }
+
+    /**
+     * Returns the JSON escaper with the same inline script mode as this escaper.
+     * 
+     * @return a JSON escaper
+     */
+    public JsStringEscaper toJson() {
+        return inlineScript ? JSON_INLINE_SCRIPT : JSON;
+    }
+
+    /**
+     * Escapes the given value and returns it as quoted string literal.
+     * 
+     * @param value the value to escape
+     * @return the quoted string literal
+     */
+    public String quote(CharSequence value) {
+        StringBuilder builder = new StringBuilder(value.length() + 8);
+        write(value, JsWriter.of(builder));
+        return builder.toString();
+    }
+
+    /**
+     * Writes the given value as quoted string literal into the given JsWriter.
+     * 
+     * @param value the value to escape
+     * @param out the JsWriter to write into
+     */
+    public void write(CharSequence value, JsWriter out) {
+        try {
+            write(value, (Appendable) out);
+        } catch (IOException e) {
+            throw new WicketRuntimeException("Could not write JavaScript", e); // not thrown by JsWriter
+        }
+    }
+
+    /**
+     * Writes the given value as quoted string literal into the given Appendable.
+     * 
+     * @param value the value to escape
+     * @param out the Appendable to write into
+     * @throws IOException propagated from the Appendable
+     */
+    public void write(CharSequence value, Appendable out) throws IOException {
+        out.append(quote);
+        escape(value, out);
+        out.append(quote);
+    }
+
+    /**
+     * Writes the escaped characters of the given value into the given Appendable, without surrounding quotes.
+     * 
+     * @param value the value to escape
+     * @param out the Appendable to write into
+     * @throws IOException propagated from the Appendable
+     */
+    public void escape(CharSequence value, Appendable out) throws IOException {
+        int start = 0;
+        int len = value.length();
+
+        for (int i = 0; i < len; i++) {
+            char c = value.charAt(i);
+            String replacement;
+
+            if (c < 128) {
+                replacement = table[c];
+            } else if (c == 0x2028) {
+                replacement = LINE_SEPARATOR;
+            } else if (c == 0x2029) {
+                replacement = PARAGRAPH_SEPARATOR;
+            } else {
+                continue;
+            }
+
+            if (replacement == null) {
+                continue;
+            }
+
+            if (i > start) {
+                append(value, start, i, out);
+            }
+            out.append(replacement);
+            start = i + 1;
+        }
+
+        if (start < len) {
+            append(value, start, len, out);
+        }
+    }
+
+    private static void append(CharSequence value, int start, int end, Appendable out) throws IOException {
+        if (out instanceof JsWriter || !(out instanceof Writer) || !(value instanceof String)) {
+            out.append(value, start, end);
+        } else {
+            ((Writer) out).write((String) value, start, end - start); // avoids Writer#append's subSequence copy
+        }
+    }
+
+    private static String[] createTable(char quote, boolean inlineScript) {
+        String[] table = new String[128];
+
+        for (char c = 0; c < 0x20; c++) {
+            table[c] = "\\u00" + HEX[c >> 4] + HEX[c & 0xF];
+        }
+        table['\b'] = "\\b";
+        table['\t'] = "\\t";
+        table['\n'] = "\\n";
+        table['\f'] = "\\f";
+        table['\r'] = "\\r";
+
+        table['\\'] = "\\\\";
+        table[quote] = "\\" + quote;
+
+        if (inlineScript) {
+            table['<'] = "\\u003C";
+            table['>'] = "\\u003E";
+            table['&'] = "\\u0026";
+        }
+
+        return table;
+    }
+}
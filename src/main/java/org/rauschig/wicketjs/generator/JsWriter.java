@@ -0,0 +1,245 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.generator;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import org.apache.wicket.WicketRuntimeException;
+import org.apache.wicket.request.Response;
+import org.apache.wicket.util.lang.Args;
+
+/**
+ * The output target of an {@link AbstractJsGenerator}. Wraps an arbitrary {@code Appendable} (e.g. a
+ * {@code StringBuilder}, a {@code Writer} or a Wicket {@code Response}) s.t. generated JavaScript can be written
+ * directly to where it is needed, rather than being buffered in an intermediate String first.
+ * <p>
+ * IOExceptions thrown by the underlying target are re-thrown as {@link WicketRuntimeException}.
+ * </p>
+ */
+public class JsWriter extends Writer {
+
+    private final Appendable target;
+
+    /**
+     * Fast-path reference to the target if it is a StringBuilder.
+     */
+    private final StringBuilder builder;
+
+    /**
+     * Creates a new JsWriter that writes into the given target.
+     *
+     * @param target the Appendable to write to
+     */
+    public JsWriter(Appendable target) {
+        this.target = Args.notNull(target, "target");
+        this.builder = (target instanceof StringBuilder) ? (StringBuilder) target : null;
+    }
+
+    /**
+     * Returns the given Appendable as JsWriter, wrapping it if necessary.
+     *
+     * @param target the Appendable to write to
+     * @return a JsWriter
+     */
+    public static JsWriter of(Appendable target) {
+        if (target instanceof JsWriter) {
+            return (JsWriter) target;
+        }
+
+        return new JsWriter(target);
+    }
+
+    /**
+     * Returns a JsWriter that writes into the given Wicket Response.
+     *
+     * @param response the Response to write to
+     * @return a JsWriter
+     */
+    public static JsWriter of(Response response) {
+        return new JsWriter(new ResponseAppendable(response));
+    }
+
+    /**
+     * Returns the Appendable this writer writes into.
+     *
+     * @return the target
+     */
+    public Appendable getTarget() {
+        return target;
+    }
+
+    /**
+     * Returns the length of the target if it is a CharSequence, e.g. a StringBuilder.
+     *
+     * @return the current length of the target, or -1 if it is unknown
+     */
+    public long length() {
+        if (builder != null) {
+            return builder.length();
+        }
+
+        return (target instanceof CharSequence) ? ((CharSequence) target).length() : -1;
+    }
+
+    @Override
+    public JsWriter append(CharSequence csq) {
+        if (builder != null) {
+            builder.append(csq);
+            return this;
+        }
+
+        try {
+            target.append(csq);
+        } catch (IOException e) {
+            throw new WicketRuntimeException("Could not write JavaScript", e);
+        }
+        return this;
+    }
+
+    @Override
+    public JsWriter append(CharSequence csq, int start, int end) {
+        if (builder != null) {
+            builder.append(csq, start, end);
+            return this;
+        }
+
+        try {
+            target.append(csq, start, end);
+        } catch (IOException e) {
+            throw new WicketRuntimeException("Could not write JavaScript", e);
+        }
+        return this;
+    }
+
+    @Override
+    public JsWriter append(char c) {
+        if (builder != null) {
+            builder.append(c);
+            return this;
+        }
+
+        try {
+            target.append(c);
+        } catch (IOException e) {
+            throw new WicketRuntimeException("Could not write JavaScript", e);
+        }
+        return this;
+    }
+
+    /**
+     * Appends the decimal representation of the given long, without creating an intermediate String if the target is a
+     * StringBuilder.
+     *
+     * @param value the value to append
+     * @return this for chaining
+     */
+    public JsWriter append(long value) {
+        if (builder != null) {
+            builder.append(value);
+            return this;
+        }
+
+        return append(Long.toString(value));
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) {
+        if (builder != null) {
+            builder.append(cbuf, off, len);
+            return;
+        }
+
+        try {
+            if (target instanceof Writer) {
+                ((Writer) target).write(cbuf, off, len);
+            } else {
+                target.append(new String(cbuf, off, len));
+            }
+        } catch (IOException e) {
+            throw new WicketRuntimeException("Could not write JavaScript", e);
+        }
+    }
+
+    @Override
+    public void write(String str) {
+        append(str);
+    }
+
+    @Override
+    public void write(String str, int off, int len) {
+        append(str, off, off + len);
+    }
+
+    @Override
+    public void write(int c) {
+        append((char) c);
+    }
+
+    @Override
+    public void flush() {
+        if (target instanceof Writer) {
+            try {
+                ((Writer) target).flush();
+            } catch (IOException e) {
+                throw new WicketRuntimeException("Could not flush JavaScript", e);
+            }
+        }
+    }
+
+    /**
+     * Flushes the target but does not close it, as the target is owned by the caller.
+     */
+    @Override
+    public void close() {
+        flush();
+    }
+
+    @Override
+    public String toString() {
+        return (builder != null) ? builder.toString() : super.toString();
+    }
+
+    /**
+     * Adapts a Wicket Response to the Appendable interface.
+     */
+    private static class ResponseAppendable implements Appendable {
+
+        private final Response response;
+
+        public ResponseAppendable(Response response) {
+            this.response = Args.notNull(response, "response");
+        }
+
+        @Override
+        public Appendable append(CharSequence csq) {
+            response.write(csq);
+            return this;
+        }
+
+        @Override
+        public Appendable append(CharSequence csq, int start, int end) {
+            response.write(csq.subSequence(start, end));
+            return this;
+        }
+
+        @Override
+        public Appendable append(char c) {
+            response.write(String.valueOf(c));
+            return this;
+        }
+    }
+}
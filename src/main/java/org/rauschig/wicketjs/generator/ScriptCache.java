@@ -0,0 +1,282 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.generator;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.wicket.markup.head.HeaderItem;
+import org.apache.wicket.util.lang.Args;
+import org.rauschig.wicketjs.IFreezable;
+import org.rauschig.wicketjs.IJavaScript;
+
+/**
+ * A bounded, thread safe cache of generated JavaScript, keyed by the structure of the syntax tree that was generated.
+ * The cache is used by the {@link JsGenerator} to skip the generation of frozen subtrees it has generated before, and
+ * is shared application-wide via {@link org.rauschig.wicketjs.WicketJsSettings#getScriptCache()}.
+ * <p>
+ * Only frozen nodes (see {@link IFreezable}) are cached, as mutable nodes could change after they were generated. A
+ * frozen tree is treated as a constant: literal values that change after freezing (e.g. models or mutable beans) are
+ * not reflected in the cached source code.
+ * </p>
+ * <p>
+ * The cache is split into segments that each evict their least recently used entries, s.t. the overall size is bounded
+ * by the maximum size passed to the constructor. Hit, miss and eviction counters can be used to size the cache.
+ * </p>
+ * <p>
+ * Along with the source code, each entry holds the header items the generated code depends on (see
+ * {@link AbstractJsGenerator#getDependencies()}), s.t. they are not lost when the code is taken from the cache.
+ * </p>
+ */
+public class ScriptCache {
+
+    /**
+     * The default maximum amount of cached entries.
+     */
+    public static final int DEFAULT_MAXIMUM_SIZE = 1024;
+
+    private static final int MAX_SEGMENTS = 16;
+
+    private final int maximumSize;
+
+    private final Segment[] segments;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Creates a new ScriptCache with the {@link #DEFAULT_MAXIMUM_SIZE}.
+     */
+    public ScriptCache() {
+        this(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * Creates a new ScriptCache that holds at most the given amount of entries. A cache with a maximum size of 0 is
+     * disabled and never stores anything.
+     * 
+     * @param maximumSize the maximum amount of cached entries
+     */
+    public ScriptCache(int maximumSize) {
+        Args.withinRange(0, Integer.MAX_VALUE, maximumSize, "maximumSize");
+        this.maximumSize = maximumSize;
+
+        int segmentCount = 1;
+        while (segmentCount < MAX_SEGMENTS && segmentCount * 2 <= maximumSize) {
+            segmentCount *= 2;
+        }
+
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            int capacity = maximumSize / segmentCount + ((i < maximumSize % segmentCount) ? 1 : 0);
+            segments[i] = new Segment(capacity);
+        }
+    }
+
+    /**
+     * Checks whether the given syntax tree node can be cached, i.e. whether it is frozen and does not contain any
+     * literals that are not constant (like model-backed or lazy literals), s.t. its source code can not change.
+     * 
+     * @param node the node to check
+     * @return true if the node can be used as cache key
+     * @see IFreezable#isConstant()
+     */
+    public static boolean isCacheable(IJavaScript node) {
+        if (!(node instanceof IFreezable)) {
+            return false;
+        }
+
+        IFreezable freezable = (IFreezable) node;
+        return freezable.isFrozen() && freezable.isConstant();
+    }
+
+    /**
+     * Returns the cached source code of the given node and records a hit or a miss.
+     * 
+     * @param node the syntax tree node
+     * @return the cached source code, or null if it is not cached
+     */
+    public String get(IJavaScript node) {
+        CachedScript entry = lookup(node);
+        return (entry != null) ? entry.getSource() : null;
+    }
+
+    /**
+     * Returns the cache entry of the given node, holding its source code and dependencies, and records a hit or a
+     * miss.
+     * 
+     * @param node the syntax tree node
+     * @return the cache entry, or null if the node is not cached
+     */
+    public CachedScript lookup(IJavaScript node) {
+        if (maximumSize == 0 || !isCacheable(node)) {
+            return null;
+        }
+
+        Segment segment = segmentFor(node);
+        CachedScript entry;
+        synchronized (segment) {
+            entry = segment.get(node);
+        }
+
+        if (entry != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+
+        return entry;
+    }
+
+    /**
+     * Caches the source code of the given node. Nodes that are not frozen are ignored.
+     * 
+     * @param node the syntax tree node
+     * @param source the generated source code of the node
+     */
+    public void put(IJavaScript node, String source) {
+        put(node, source, null);
+    }
+
+    /**
+     * Caches the source code of the given node together with the header items it depends on. Nodes that are not
+     * frozen are ignored.
+     * 
+     * @param node the syntax tree node
+     * @param source the generated source code of the node
+     * @param dependencies the header items the source code depends on, may be null
+     */
+    public void put(IJavaScript node, String source, Collection<? extends HeaderItem> dependencies) {
+        put(node, new CachedScript(source, dependencies));
+    }
+
+    void put(IJavaScript node, CachedScript entry) {
+        if (maximumSize == 0 || !isCacheable(node)) {
+            return;
+        }
+
+        Segment segment = segmentFor(node);
+        synchronized (segment) {
+            segment.put(node, entry);
+        }
+    }
+
+    /**
+     * Removes all entries from the cache. The counters are not reset.
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * Returns the current amount of cached entries.
+     * 
+     * @return the cache size
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    private Segment segmentFor(IJavaScript node) {
+        int hash = node.hashCode();
+        hash ^= (hash >>> 16);
+        return segments[hash & (segments.length - 1)];
+    }
+
+    /**
+     * An immutable cache entry that holds the generated source code of a node and the header items it depends on.
+     */
+    public static final class CachedScript {
+
+        private final String source;
+
+        private final List<HeaderItem> dependencies;
+
+        CachedScript(String source, Collection<? extends HeaderItem> dependencies) {
+            this.source = Args.notNull(source, "source");
+
+            if (dependencies == null || dependencies.isEmpty()) {
+                this.dependencies = Collections.emptyList();
+            } else {
+                this.dependencies = Collections.unmodifiableList(new ArrayList<HeaderItem>(dependencies));
+            }
+        }
+
+        public String getSource() {
+            return source;
+        }
+
+        public List<HeaderItem> getDependencies() {
+            return dependencies;
+        }
+    }
+
+    /**
+     * An access-ordered LinkedHashMap that evicts its eldest entry once it exceeds its capacity.
+     */
+    private class Segment extends LinkedHashMap<IJavaScript, CachedScript> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<IJavaScript, CachedScript> eldest) {
+            if (size() > capacity) {
+                evictions.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    }
+}
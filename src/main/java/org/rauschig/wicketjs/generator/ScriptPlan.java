@@ -0,0 +1,337 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.generator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.wicket.markup.head.HeaderItem;
+import org.apache.wicket.util.io.IClusterable;
+import org.apache.wicket.util.lang.Args;
+import org.rauschig.wicketjs.IJavaScript;
+import org.rauschig.wicketjs.IJsExpression;
+import org.rauschig.wicketjs.JsExpression;
+import org.rauschig.wicketjs.JsPlaceholder;
+import org.rauschig.wicketjs.util.JsUtils;
+
+/**
+ * A pre-compiled JavaScript syntax tree that contains {@link org.rauschig.wicketjs.JsPlaceholder} slots.
+ * <p>
+ * Compiling a tree generates all constant parts of the script once and splits them at the placeholders into text
+ * fragments. Rendering the plan then only concatenates the fragments with the generated slot values, without
+ * traversing the syntax tree again. This is useful for scripts that are rendered many times with only few changing
+ * values, e.g. in repeaters:
+ * </p>
+ *
+ * <pre>
+ * static final ScriptPlan HIDE = ScriptPlan.compile($(new JsPlaceholder(&quot;row&quot;)).hide());
+ *
+ * ...
+ *
+ * protected IJavaScript domReadyJs() {
+ *     return HIDE.bind().set(&quot;row&quot;, id()).toJavaScript();
+ * }
+ * </pre>
+ *
+ * A ScriptPlan is immutable and can safely be shared across threads, e.g. in a static field.
+ */
+public final class ScriptPlan implements IClusterable {
+
+    private static final long serialVersionUID = -7412716541327553012L;
+
+    private final String[] fragments;
+
+    private final JsPlaceholder[] slots;
+
+    private final int[] slotParameters;
+
+    private final String[] parameters;
+
+    private final HeaderItem[] dependencies;
+
+    private final int length;
+
+    private ScriptPlan(String[] fragments, JsPlaceholder[] slots, int[] slotParameters, String[] parameters,
+            HeaderItem[] dependencies) {
+        this.fragments = fragments;
+        this.slots = slots;
+        this.slotParameters = slotParameters;
+        this.parameters = parameters;
+        this.dependencies = dependencies;
+
+        int len = 0;
+        for (String fragment : fragments) {
+            len += fragment.length();
+        }
+        this.length = len;
+    }
+
+    /**
+     * Compiles the given syntax tree into a ScriptPlan.
+     *
+     * @param tree the syntax tree, possibly containing JsPlaceholder nodes
+     * @return a new ScriptPlan
+     */
+    public static ScriptPlan compile(IJavaScript tree) {
+        return new Compiler(Args.notNull(tree, "tree")).compile();
+    }
+
+    /**
+     * Returns the distinct placeholder names of this plan in the order of their first occurrence.
+     *
+     * @return a list of parameter names
+     */
+    public List<String> getParameters() {
+        return Collections.unmodifiableList(Arrays.asList(parameters));
+    }
+
+    /**
+     * Creates a new Binding of this plan that can be used to set the parameter values and render the script.
+     *
+     * @return a new Binding
+     */
+    public Binding bind() {
+        return new Binding();
+    }
+
+    /**
+     * Returns the header items the constant parts of the script depend on, as collected while compiling the plan (see
+     * {@link AbstractJsGenerator#getDependencies()}). Dependencies of the values bound to the placeholders are not
+     * included.
+     *
+     * @return an unmodifiable list of header items, which is empty if the script has no dependencies
+     */
+    public List<HeaderItem> getDependencies() {
+        return Collections.unmodifiableList(Arrays.asList(dependencies));
+    }
+
+    /**
+     * Renders the plan with the given parameter values, in the order returned by {@link #getParameters()}.
+     *
+     * @param values the parameter values, one for each parameter
+     * @return the rendered script
+     * @throws IllegalArgumentException if the number of values does not match the number of parameters
+     */
+    public String render(Object... values) {
+        if (values.length != parameters.length) {
+            throw new IllegalArgumentException("Expected " + parameters.length + " values for placeholders "
+                + Arrays.toString(parameters) + ", got " + values.length);
+        }
+
+        Binding binding = bind();
+        for (int i = 0; i < values.length; i++) {
+            binding.set(i, values[i]);
+        }
+        return binding.render();
+    }
+
+    /**
+     * Renders the plan with the parameter values in the given map.
+     *
+     * @param values the parameter values mapped to their names
+     * @return the rendered script
+     */
+    public String render(Map<String, ?> values) {
+        Binding binding = bind();
+        for (Map.Entry<String, ?> entry : values.entrySet()) {
+            binding.set(entry.getKey(), entry.getValue());
+        }
+        return binding.render();
+    }
+
+    private int indexOf(String parameter) {
+        for (int i = 0; i < parameters.length; i++) {
+            if (parameters[i].equals(parameter)) {
+                return i;
+            }
+        }
+
+        throw new IllegalArgumentException("Unknown placeholder '" + parameter + "'");
+    }
+
+    /**
+     * Holds the parameter values of a single rendering of a ScriptPlan. A Binding is <em>not</em> thread safe.
+     */
+    public final class Binding {
+
+        private final Object[] values = new Object[parameters.length];
+
+        private final boolean[] bound = new boolean[parameters.length];
+
+        private Binding() {
+        }
+
+        /**
+         * Binds the given value to the placeholder with the given name. Values that are not IJsExpression instances are
+         * converted to literals.
+         *
+         * @param parameter the name of the placeholder
+         * @param value the value
+         * @return this for chaining
+         * @throws IllegalArgumentException if the placeholder does not exist or the value has the wrong type
+         */
+        public Binding set(String parameter, Object value) {
+            return set(indexOf(parameter), value);
+        }
+
+        private Binding set(int index, Object value) {
+            for (int i = 0; i < slots.length; i++) {
+                if (slotParameters[i] == index) {
+                    Class<?> type = slots[i].getType();
+                    if (value != null && !type.isInstance(value) && !(value instanceof IJsExpression)) {
+                        throw new IllegalArgumentException("Placeholder '" + parameters[index] + "' expects a "
+                            + type.getName() + ", got " + value.getClass().getName());
+                    }
+                    break;
+                }
+            }
+
+            values[index] = value;
+            bound[index] = true;
+            return this;
+        }
+
+        /**
+         * Renders the plan into the given Appendable.
+         *
+         * @param out the Appendable to write into
+         * @throws IllegalStateException if a placeholder is not bound
+         */
+        public void render(Appendable out) {
+            JsWriter writer = JsWriter.of(out);
+            SlotGenerator generator = null;
+
+            writer.append(fragments[0]);
+            for (int i = 0; i < slots.length; i++) {
+                int parameter = slotParameters[i];
+
+                if (!bound[parameter]) {
+                    throw new IllegalStateException("Placeholder '" + parameters[parameter] + "' is not bound");
+                }
+
+                if (generator == null) {
+                    generator = new SlotGenerator();
+                }
+                generator.generate(JsUtils.asArgument(values[parameter]), writer);
+
+                writer.append(fragments[i + 1]);
+            }
+        }
+
+        /**
+         * Renders the plan into a String.
+         *
+         * @return the rendered script
+         */
+        public String render() {
+            StringBuilder builder = new StringBuilder(length + 16 * slots.length);
+            render(builder);
+            return builder.toString();
+        }
+
+        /**
+         * Renders the plan and wraps the result into a raw JsExpression, s.t. it can be used within other syntax trees.
+         *
+         * @return a JsExpression containing the rendered script
+         */
+        public IJsExpression toJavaScript() {
+            return new JsExpression(render());
+        }
+    }
+
+    /**
+     * Generates slot values, reused for all slots of a single Binding rendering.
+     */
+    private static class SlotGenerator extends AbstractJsGenerator {
+        private IJsExpression value;
+
+        void generate(IJsExpression value, JsWriter writer) {
+            this.value = value;
+            generate(writer);
+        }
+
+        @Override
+        protected void generateInto(JsWriter writer) {
+            value.accept(this);
+        }
+
+        @Override
+        @Deprecated
+        protected void generateInto(StringBuilder builder) {
+            generate(builder);
+        }
+    }
+
+    /**
+     * Generates the syntax tree and cuts the output at each placeholder into fragments.
+     */
+    private static class Compiler extends AbstractJsGenerator {
+        private final IJavaScript tree;
+
+        private final StringBuilder buffer = new StringBuilder(DEFAULT_BUFFER_SIZE);
+        private int fragmentStart;
+
+        private final List<String> fragments = new ArrayList<>();
+        private final List<JsPlaceholder> slots = new ArrayList<>();
+        private final List<String> parameters = new ArrayList<>();
+
+        Compiler(IJavaScript tree) {
+            this.tree = tree;
+        }
+
+        ScriptPlan compile() {
+            generate(buffer);
+            fragments.add(buffer.substring(fragmentStart));
+
+            int[] slotParameters = new int[slots.size()];
+            for (int i = 0; i < slotParameters.length; i++) {
+                slotParameters[i] = parameters.indexOf(slots.get(i).getName());
+            }
+
+            List<HeaderItem> dependencies = getDependencies();
+
+            return new ScriptPlan(fragments.toArray(new String[fragments.size()]),
+                    slots.toArray(new JsPlaceholder[slots.size()]), slotParameters,
+                    parameters.toArray(new String[parameters.size()]),
+                    dependencies.toArray(new HeaderItem[dependencies.size()]));
+        }
+
+        @Override
+        protected void generateInto(JsWriter writer) {
+            visitJavaScript(tree);
+        }
+
+        @Override
+        @Deprecated
+        protected void generateInto(StringBuilder builder) {
+            generate(builder);
+        }
+
+        @Override
+        public void visit(JsPlaceholder visitable) {
+            fragments.add(buffer.substring(fragmentStart));
+            fragmentStart = buffer.length();
+
+            slots.add(visitable);
+            if (!parameters.contains(visitable.getName())) {
+                parameters.add(visitable.getName());
+            }
+        }
+    }
+}
@@ -363,6 +363,14 @@ public class JQuery extends JsCallChain {
         return call("on", events, selector, handler);
     }
 
+    public JQuery off(String events) {
+        return call("off", events);
+    }
+
+    public JQuery off(String events, String selector) {
+        return call("off", events, selector);
+    }
+
     public JQuery bind(String event, JsIdentifier callback) {
         return call("bind", event, callback);
     }
@@ -0,0 +1,58 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.markup.head;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.wicket.markup.head.HeaderItem;
+import org.apache.wicket.markup.head.JavaScriptContentHeaderItem;
+
+/**
+ * A JavaScriptContentHeaderItem for generated JavaScript that additionally declares the header items the script
+ * depends on, e.g. the resources collected by
+ * {@link org.rauschig.wicketjs.generator.AbstractJsGenerator#getDependencies()}. Wicket renders the dependencies
+ * before the script.
+ */
+public class JsContentHeaderItem extends JavaScriptContentHeaderItem {
+
+    private final List<HeaderItem> dependencies;
+
+    /**
+     * Creates a new JsContentHeaderItem.
+     * 
+     * @param javaScript the script content
+     * @param id unique id for the javascript element, may be null
+     * @param condition the condition to use for Internet Explorer conditional comments, may be null
+     * @param dependencies the header items the script depends on
+     */
+    public JsContentHeaderItem(CharSequence javaScript, String id, String condition,
+            Collection<? extends HeaderItem> dependencies) {
+        super(javaScript, id, condition);
+        this.dependencies = new ArrayList<>(dependencies);
+    }
+
+    @Override
+    public Iterable<? extends HeaderItem> getDependencies() {
+        List<HeaderItem> all = new ArrayList<>();
+        for (HeaderItem dependency : super.getDependencies()) {
+            all.add(dependency);
+        }
+        all.addAll(dependencies);
+        return all;
+    }
+}
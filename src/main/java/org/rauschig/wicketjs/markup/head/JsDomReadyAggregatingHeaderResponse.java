@@ -0,0 +1,110 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.markup.head;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.apache.wicket.markup.head.HeaderItem;
+import org.apache.wicket.markup.head.IHeaderResponse;
+import org.apache.wicket.markup.html.DecoratingHeaderResponse;
+
+/**
+ * A header response that collects the {@link JsOnDomReadyHeaderItem}s rendered by wicket-js and renders them as a single
+ * JsOnDomReadyHeaderItem when the response is closed, instead of one dom ready handler per behavior. All other header
+ * items are passed through.
+ * <p>
+ * Each script is wrapped in its own function, and the combined script calls them one after the other, s.t. an error in
+ * the script of one component is logged to the console and does not prevent the scripts of other components from
+ * running. Identical scripts are only rendered once, just like Wicket does for identical header items. The dependencies
+ * of all scripts are declared as dependencies of the combined item.
+ * </p>
+ * <p>
+ * Wicket itself concatenates the dom ready scripts of a page into one handler, where a failing script prevents all
+ * subsequent ones from running, and writes each dom ready script of an ajax response as separate evaluation.
+ * </p>
+ * <p>
+ * As the combined item is rendered when the response is closed, the aggregated scripts run after the dom ready scripts
+ * that were not rendered by wicket-js.
+ * </p>
+ */
+public class JsDomReadyAggregatingHeaderResponse extends DecoratingHeaderResponse {
+
+    private static final String PREFIX = "(function(f){for(var i=0;i<f.length;i++){try{f[i]();}catch(e){"
+            + "if(window.console){console.error(e);}}}})([";
+
+    private static final String SUFFIX = "]);";
+
+    private final Set<String> scripts = new LinkedHashSet<>();
+
+    private final Set<HeaderItem> dependencies = new LinkedHashSet<>();
+
+    public JsDomReadyAggregatingHeaderResponse(IHeaderResponse real) {
+        super(real);
+    }
+
+    @Override
+    public void render(HeaderItem item) {
+        if (!(item instanceof JsOnDomReadyHeaderItem) || isClosed()) {
+            super.render(item);
+            return;
+        }
+
+        String script = ((JsOnDomReadyHeaderItem) item).getJavaScript().toString();
+        if (scripts.add(script)) {
+            for (HeaderItem dependency : item.getDependencies()) {
+                dependencies.add(dependency);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!scripts.isEmpty()) {
+            super.render(new JsOnDomReadyHeaderItem(combine().toString(), dependencies));
+            scripts.clear();
+            dependencies.clear();
+        }
+
+        super.close();
+    }
+
+    /**
+     * Combines the collected scripts into a single script.
+     * 
+     * @return the combined script
+     */
+    protected CharSequence combine() {
+        if (scripts.size() == 1) {
+            return scripts.iterator().next();
+        }
+
+        StringBuilder js = new StringBuilder();
+        js.append(PREFIX);
+
+        boolean first = true;
+        for (String script : scripts) {
+            if (!first) {
+                js.append(',');
+            }
+            js.append("function(){").append(script).append('}');
+            first = false;
+        }
+
+        js.append(SUFFIX);
+        return js;
+    }
+}
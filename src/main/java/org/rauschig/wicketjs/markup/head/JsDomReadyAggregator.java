@@ -0,0 +1,56 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.markup.head;
+
+import org.apache.wicket.markup.head.IHeaderResponse;
+import org.apache.wicket.markup.html.IHeaderResponseDecorator;
+
+/**
+ * Opt-in header response decorator that combines the dom ready scripts of all wicket-js behaviors into a single
+ * OnDomReadyHeaderItem per page render and per ajax response. Install it in {@code Application#init()}:
+ *
+ * <pre>
+ * setHeaderResponseDecorator(new JsDomReadyAggregator());
+ * </pre>
+ *
+ * @see JsDomReadyAggregatingHeaderResponse
+ */
+public class JsDomReadyAggregator implements IHeaderResponseDecorator {
+
+    private final IHeaderResponseDecorator outer;
+
+    public JsDomReadyAggregator() {
+        this(null);
+    }
+
+    /**
+     * Creates a new JsDomReadyAggregator that additionally applies the given decorator on top of the aggregating
+     * response, s.t. the decorator still sees the individual scripts. As an Application only holds a single decorator,
+     * this allows to combine the aggregation with other decorators, e.g. the
+     * {@link org.rauschig.wicketjs.debug.ScriptCostListener}.
+     * 
+     * @param outer the decorator to apply on top, may be null
+     */
+    public JsDomReadyAggregator(IHeaderResponseDecorator outer) {
+        this.outer = outer;
+    }
+
+    @Override
+    public IHeaderResponse decorate(IHeaderResponse response) {
+        IHeaderResponse aggregating = new JsDomReadyAggregatingHeaderResponse(response);
+        return (outer != null) ? outer.decorate(aggregating) : aggregating;
+    }
+}
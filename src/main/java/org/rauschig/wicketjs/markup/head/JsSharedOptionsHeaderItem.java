@@ -0,0 +1,178 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.markup.head;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.apache.wicket.MetaDataKey;
+import org.apache.wicket.markup.head.HeaderItem;
+import org.apache.wicket.request.Response;
+import org.apache.wicket.request.cycle.RequestCycle;
+import org.apache.wicket.util.lang.Args;
+import org.rauschig.wicketjs.IJsExpression;
+import org.rauschig.wicketjs.JsIdentifier;
+import org.rauschig.wicketjs.generator.JsGenerator;
+import org.rauschig.wicketjs.util.Strings;
+import org.rauschig.wicketjs.util.options.IOptions;
+
+/**
+ * Defines an options object once as property of the page-scoped {@code WicketJs.opts} namespace, i.e.
+ * {@code WicketJs.opts.name={...};}, s.t. widgets can refer to it via {@link #getReference()} instead of repeating the
+ * object literal in each of their initialization scripts.
+ * <p>
+ * The element id of the item is derived from the name and a hash of the generated literal, so Wicket renders equal
+ * definitions only once per response, no matter how many scripts depend on them. Items created via
+ * {@link #of(IOptions)} are named after that hash, hence equal options share one definition.
+ * </p>
+ * <p>
+ * As all widgets of a page are initialized after the definitions are evaluated, a name can only refer to one options
+ * object per response. Rendering two items with the same name but different content therefore fails with an
+ * {@link IllegalStateException}, rather than initializing all widgets with the options defined last.
+ * </p>
+ */
+public class JsSharedOptionsHeaderItem extends JsContentHeaderItem {
+
+    /**
+     * The JavaScript namespace the shared options are defined in.
+     */
+    public static final String NAMESPACE = "WicketJs.opts";
+
+    private static final Pattern NAME = Pattern.compile("[A-Za-z_$][A-Za-z0-9_$]*");
+
+    private static final MetaDataKey<Map<String, String>> RENDERED = new MetaDataKey<Map<String, String>>() {
+        private static final long serialVersionUID = 1L;
+    };
+
+    private final String name;
+
+    private final String contentName;
+
+    /**
+     * Creates a new JsSharedOptionsHeaderItem.
+     * 
+     * @param name the name of the options object within the namespace, has to be a valid JavaScript identifier
+     * @param literal the generated options object literal
+     * @param dependencies the header items the literal depends on
+     */
+    public JsSharedOptionsHeaderItem(String name, CharSequence literal, Collection<? extends HeaderItem> dependencies) {
+        this(checkName(name), nameOf(literal), literal, dependencies);
+    }
+
+    private JsSharedOptionsHeaderItem(String name, String contentName, CharSequence literal,
+            Collection<? extends HeaderItem> dependencies) {
+        super(definition(name, literal), idOf(name, contentName), null, dependencies);
+        this.name = name;
+        this.contentName = contentName;
+    }
+
+    /**
+     * Generates the given options and creates an item named after a hash of the generated literal.
+     * 
+     * @param options the options to share
+     * @return a new JsSharedOptionsHeaderItem
+     */
+    public static JsSharedOptionsHeaderItem of(IOptions options) {
+        return of(options, null);
+    }
+
+    /**
+     * Generates the given options and creates an item with the given name.
+     * 
+     * @param options the options to share
+     * @param name the name of the options object, or null to name it after a hash of the generated literal
+     * @return a new JsSharedOptionsHeaderItem
+     */
+    public static JsSharedOptionsHeaderItem of(IOptions options, String name) {
+        Args.notNull(options, "options");
+
+        JsGenerator generator = new JsGenerator(options.asObject());
+        String literal = generator.generate();
+
+        return new JsSharedOptionsHeaderItem((name != null) ? name : nameOf(literal), literal,
+                generator.getDependencies());
+    }
+
+    /**
+     * Returns the name for an options object literal that is derived from its content.
+     * 
+     * @param literal the generated object literal
+     * @return a JavaScript identifier
+     */
+    public static String nameOf(CharSequence literal) {
+        return "o" + Long.toHexString(Strings.hash(literal));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Renders the definition, unless the name was defined with different content earlier in the current request.
+     * 
+     * @throws IllegalStateException if the name was already defined with different content
+     */
+    @Override
+    public void render(Response response) {
+        RequestCycle cycle = RequestCycle.get();
+        if (cycle != null) {
+            Map<String, String> rendered = cycle.getMetaData(RENDERED);
+            if (rendered == null) {
+                rendered = new HashMap<>();
+                cycle.setMetaData(RENDERED, rendered);
+            }
+
+            String previous = rendered.put(name, contentName);
+            if (previous != null && !previous.equals(contentName)) {
+                throw new IllegalStateException("Shared options '" + name
+                        + "' are already defined with different content in this request");
+            }
+        }
+
+        super.render(response);
+    }
+
+    /**
+     * Returns the expression that refers to the shared options object, i.e. {@code WicketJs.opts.name}.
+     * 
+     * @return a JavaScript expression
+     */
+    public IJsExpression getReference() {
+        return new JsIdentifier(NAMESPACE + "." + name);
+    }
+
+    private static String checkName(String name) {
+        Args.notNull(name, "name");
+        if (!NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Name of shared options is not a JavaScript identifier: " + name);
+        }
+        return name;
+    }
+
+    private static String idOf(String name, String contentName) {
+        return "wicketjs-opts-" + (name.equals(contentName) ? name : name + "-" + contentName);
+    }
+
+    private static String definition(String name, CharSequence literal) {
+        return new StringBuilder(literal.length() + name.length() + 80)
+                .append("window.WicketJs=window.WicketJs||{};")
+                .append(NAMESPACE).append('=').append(NAMESPACE).append("||{};")
+                .append(NAMESPACE).append('.').append(name).append('=').append(literal).append(';')
+                .toString();
+    }
+}
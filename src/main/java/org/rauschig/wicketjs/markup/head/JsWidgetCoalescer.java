@@ -0,0 +1,57 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.markup.head;
+
+import org.apache.wicket.markup.head.IHeaderResponse;
+import org.apache.wicket.markup.html.IHeaderResponseDecorator;
+
+/**
+ * Opt-in header response decorator that coalesces the initialization of {@link org.rauschig.wicketjs.behavior.WidgetBehavior}s
+ * with equal widget name, sub-selector and options into a single call per page render and ajax response. Install it in
+ * {@code Application#init()}:
+ *
+ * <pre>
+ * setHeaderResponseDecorator(new JsWidgetCoalescer());
+ * </pre>
+ *
+ * The coalescer can be combined with the {@link JsDomReadyAggregator}, by passing it as the aggregator's outer
+ * decorator: {@code new JsDomReadyAggregator(new JsWidgetCoalescer())}.
+ *
+ * @see JsWidgetCoalescingHeaderResponse
+ */
+public class JsWidgetCoalescer implements IHeaderResponseDecorator {
+
+    private final IHeaderResponseDecorator outer;
+
+    public JsWidgetCoalescer() {
+        this(null);
+    }
+
+    /**
+     * Creates a new JsWidgetCoalescer that additionally applies the given decorator on top of the coalescing response.
+     * 
+     * @param outer the decorator to apply on top, may be null
+     */
+    public JsWidgetCoalescer(IHeaderResponseDecorator outer) {
+        this.outer = outer;
+    }
+
+    @Override
+    public IHeaderResponse decorate(IHeaderResponse response) {
+        IHeaderResponse coalescing = new JsWidgetCoalescingHeaderResponse(response);
+        return (outer != null) ? outer.decorate(coalescing) : coalescing;
+    }
+}
@@ -0,0 +1,115 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.markup.head;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.wicket.markup.head.HeaderItem;
+import org.apache.wicket.markup.head.IHeaderResponse;
+import org.apache.wicket.markup.html.DecoratingHeaderResponse;
+import org.rauschig.wicketjs.generator.JsGenerator;
+import org.rauschig.wicketjs.jquery.JQuery;
+
+/**
+ * A header response that collects the {@link JsWidgetHeaderItem}s of a render and groups them by sub-selector and widget
+ * call (i.e. widget name and options). When the response is closed, each group is rendered as a single script that
+ * initializes the widget on all elements of the group with one multi-id selector, e.g.
+ * {@code $('#a,#b,#c').widget({...})}, instead of repeating the options for every element. All other header items are
+ * passed through.
+ * <p>
+ * Groups with a single element are rendered with their original script. As all groups are rendered on close, widget
+ * initializations run after all other dom ready scripts of the response.
+ * </p>
+ */
+public class JsWidgetCoalescingHeaderResponse extends DecoratingHeaderResponse {
+
+    private final Map<String, Group> groups = new LinkedHashMap<>();
+
+    public JsWidgetCoalescingHeaderResponse(IHeaderResponse real) {
+        super(real);
+    }
+
+    @Override
+    public void render(HeaderItem item) {
+        if (!(item instanceof JsWidgetHeaderItem) || isClosed()) {
+            super.render(item);
+            return;
+        }
+
+        JsWidgetHeaderItem widget = (JsWidgetHeaderItem) item;
+        String key = widget.getSelector() + '\0' + widget.getCall();
+
+        Group group = groups.get(key);
+        if (group == null) {
+            group = new Group(widget);
+            groups.put(key, group);
+        }
+        group.add(widget);
+    }
+
+    @Override
+    public void close() {
+        for (Group group : groups.values()) {
+            super.render(group.toHeaderItem());
+        }
+        groups.clear();
+
+        super.close();
+    }
+
+    private static final class Group {
+        final JsWidgetHeaderItem first;
+        final Set<String> markupIds = new LinkedHashSet<>();
+        final Set<HeaderItem> dependencies = new LinkedHashSet<>();
+
+        Group(JsWidgetHeaderItem first) {
+            this.first = first;
+        }
+
+        void add(JsWidgetHeaderItem item) {
+            markupIds.add(item.getMarkupId());
+            for (HeaderItem dependency : item.getDependencies()) {
+                dependencies.add(dependency);
+            }
+        }
+
+        HeaderItem toHeaderItem() {
+            if (markupIds.size() == 1) {
+                return first;
+            }
+
+            StringBuilder ids = new StringBuilder();
+            for (String markupId : markupIds) {
+                if (ids.length() > 0) {
+                    ids.append(',');
+                }
+                ids.append('#').append(markupId);
+            }
+
+            String selector = first.getSelector();
+            JQuery target = (selector != null) ? new JQuery(selector, ids.toString()) : new JQuery(ids.toString());
+
+            StringBuilder js = new StringBuilder();
+            new JsGenerator(target).generate(js);
+            js.append('.').append(first.getCall());
+
+            return new JsOnDomReadyHeaderItem(js.toString(), dependencies);
+        }
+    }
+}
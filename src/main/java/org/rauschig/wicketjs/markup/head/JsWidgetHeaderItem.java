@@ -0,0 +1,66 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.markup.head;
+
+import java.util.Collection;
+
+import org.apache.wicket.markup.head.HeaderItem;
+import org.apache.wicket.util.lang.Args;
+
+/**
+ * The dom ready script of a {@link org.rauschig.wicketjs.behavior.WidgetBehavior}, which initializes a widget on a
+ * single element, i.e. {@code $('#markupId').widget({...})}. Besides the script, the item carries the markup id, the
+ * optional sub-selector and the generated widget call, s.t. the {@link JsWidgetCoalescer} can combine the items of
+ * widgets with equal calls into a single script.
+ */
+public class JsWidgetHeaderItem extends JsOnDomReadyHeaderItem {
+
+    private final String markupId;
+
+    private final String selector;
+
+    private final String call;
+
+    /**
+     * Creates a new JsWidgetHeaderItem.
+     * 
+     * @param javaScript the script that initializes the widget on the single element
+     * @param dependencies the header items the script depends on
+     * @param markupId the markup id of the component
+     * @param selector the sub-selector of the elements within the component, may be null
+     * @param call the widget call, e.g. {@code widget({...})}
+     */
+    public JsWidgetHeaderItem(CharSequence javaScript, Collection<? extends HeaderItem> dependencies, String markupId,
+            String selector, String call) {
+        super(javaScript, dependencies);
+
+        this.markupId = Args.notNull(markupId, "markupId");
+        this.selector = selector;
+        this.call = Args.notNull(call, "call");
+    }
+
+    public String getMarkupId() {
+        return markupId;
+    }
+
+    public String getSelector() {
+        return selector;
+    }
+
+    public String getCall() {
+        return call;
+    }
+}
@@ -0,0 +1,112 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram of non-negative long values with logarithmic (power of two) buckets. Besides the buckets, it
+ * tracks the count, sum and maximum of the recorded values exactly.
+ */
+public class Histogram {
+
+    private static final int BUCKETS = 64;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records the given value. Negative values are ignored.
+     * 
+     * @param value the value to record
+     */
+    public void record(long value) {
+        if (value < 0) {
+            return;
+        }
+
+        buckets.incrementAndGet(bucketOf(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    /**
+     * Returns the current count.
+     * 
+     * @return the amount of recorded values
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * Returns the estimated value at the given quantile, which is the upper bound of the bucket that contains it.
+     * 
+     * @param quantile the quantile between 0 and 1
+     * @return the estimated value, or 0 if no values were recorded
+     */
+    public long getQuantile(double quantile) {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank && counts[i] > 0) {
+                return Math.min(upperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Returns a consistent-enough copy of the current state. As the histogram is updated concurrently, the fields of
+     * the snapshot may be off by the values recorded while it was taken.
+     * 
+     * @param chars the histogram of the written characters that belongs to this timing histogram, may be null
+     * @return a new snapshot
+     */
+    HistogramSnapshot snapshot(Histogram chars) {
+        return new HistogramSnapshot(count.get(), sum.get(), max.get(), getQuantile(0.5), getQuantile(0.99),
+                (chars != null) ? chars.sum.get() : 0, (chars != null) ? chars.max.get() : 0);
+    }
+
+    private static int bucketOf(long value) {
+        return (value == 0) ? 0 : 64 - Long.numberOfLeadingZeros(value) - 1;
+    }
+
+    private static long upperBound(int bucket) {
+        return (bucket >= 62) ? Long.MAX_VALUE : (1L << (bucket + 1)) - 1;
+    }
+}
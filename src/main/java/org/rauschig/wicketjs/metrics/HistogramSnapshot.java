@@ -0,0 +1,97 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.metrics;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * An immutable view of the timings and output sizes recorded for one operation and source class. Exposed over JMX as
+ * composite data.
+ */
+public class HistogramSnapshot {
+
+    private final long count;
+    private final long totalNanos;
+    private final long maxNanos;
+    private final long p50Nanos;
+    private final long p99Nanos;
+    private final long totalChars;
+    private final long maxChars;
+
+    @ConstructorProperties({ "count", "totalNanos", "maxNanos", "p50Nanos", "p99Nanos", "totalChars", "maxChars" })
+    public HistogramSnapshot(long count, long totalNanos, long maxNanos, long p50Nanos, long p99Nanos, long totalChars,
+            long maxChars) {
+        this.count = count;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+        this.p50Nanos = p50Nanos;
+        this.p99Nanos = p99Nanos;
+        this.totalChars = totalChars;
+        this.maxChars = maxChars;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * Returns the estimated median duration, as upper bound of its power of two bucket.
+     * 
+     * @return the median in nanoseconds
+     */
+    public long getP50Nanos() {
+        return p50Nanos;
+    }
+
+    /**
+     * Returns the estimated 99th percentile of the duration, as upper bound of its power of two bucket.
+     * 
+     * @return the 99th percentile in nanoseconds
+     */
+    public long getP99Nanos() {
+        return p99Nanos;
+    }
+
+    public long getTotalChars() {
+        return totalChars;
+    }
+
+    public long getMaxChars() {
+        return maxChars;
+    }
+
+    public long getMeanNanos() {
+        return (count == 0) ? 0 : totalNanos / count;
+    }
+
+    public long getMeanChars() {
+        return (count == 0) ? 0 : totalChars / count;
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + count + ", mean=" + getMeanNanos() + "ns, p50=" + p50Nanos + "ns, p99=" + p99Nanos
+            + "ns, max=" + maxNanos + "ns, meanChars=" + getMeanChars();
+    }
+}
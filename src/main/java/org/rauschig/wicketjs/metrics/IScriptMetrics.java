@@ -0,0 +1,128 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.metrics;
+
+import org.apache.wicket.Component;
+
+/**
+ * Instrumentation hook that receives the cost of generating JavaScript. Implementations are registered per Application
+ * via {@link org.rauschig.wicketjs.WicketJsSettings#setMetrics(IScriptMetrics)} and are called concurrently from all
+ * request threads, so they have to be thread safe and should not block.
+ * <p>
+ * Timings are inclusive: serializing a literal within a generated script is recorded both as {@link Operation#SERIALIZE}
+ * and as part of the enclosing {@link Operation#GENERATE}.
+ * </p>
+ * <p>
+ * Each call of {@link #begin} is followed by exactly one call of {@link #record} for the same operation on the same
+ * thread, also if the operation failed. Operations may nest, e.g. a GENERATE within a RENDER_HEAD.
+ * </p>
+ * 
+ * @see ScriptMetricsRegistry
+ */
+public interface IScriptMetrics {
+
+    /**
+     * An IScriptMetrics instance that records nothing. Instrumented code skips taking timestamps if metrics are
+     * disabled.
+     */
+    IScriptMetrics NOOP = new IScriptMetrics() {
+        @Override
+        public boolean isEnabled() {
+            return false;
+        }
+
+        @Override
+        public Object begin(Operation operation, Class<?> source, Component component) {
+            return null;
+        }
+
+        @Override
+        public void record(Operation operation, Class<?> source, Object token, long nanos, long chars) {
+            // noop
+        }
+
+        @Override
+        public void recordFallback(Class<?> type) {
+            // noop
+        }
+    };
+
+    /**
+     * The instrumented operations.
+     */
+    enum Operation {
+        /**
+         * A call of {@code AbstractJsGenerator#generate}, recorded for the generator class.
+         */
+        GENERATE,
+
+        /**
+         * A call of {@code JsonSerializer#serialize}, recorded for the class of the serialized value.
+         */
+        SERIALIZE,
+
+        /**
+         * The interpolation of a {@code JsTemplate}, recorded for the template class.
+         */
+        TEMPLATE,
+
+        /**
+         * A call of {@code AbstractJsBehavior#renderHead}, recorded for the behavior class.
+         */
+        RENDER_HEAD,
+
+        /**
+         * The creation of the OnDomReadyHeaderItem of a behavior, recorded for the behavior class.
+         */
+        DOM_READY
+    }
+
+    /**
+     * Returns whether this instance records anything at all.
+     * 
+     * @return false if calls can be skipped
+     */
+    boolean isEnabled();
+
+    /**
+     * Called when an operation starts.
+     * 
+     * @param operation the operation
+     * @param source the class the call is attributed to
+     * @param component the component the operation renders for, or null if unknown
+     * @return a token that is handed to {@link #record}, may be null
+     */
+    Object begin(Operation operation, Class<?> source, Component component);
+
+    /**
+     * Records a single call of an operation.
+     * 
+     * @param operation the operation
+     * @param source the class the call is attributed to
+     * @param token the token returned by {@link #begin}
+     * @param nanos the duration of the call in nanoseconds
+     * @param chars the amount of characters written by the call, or -1 if unknown
+     */
+    void record(Operation operation, Class<?> source, Object token, long nanos, long chars);
+
+    /**
+     * Records that a value of the given type could not be written directly and was handed to the Jackson
+     * ObjectMapper.
+     * 
+     * @param type the type of the value
+     */
+    void recordFallback(Class<?> type);
+}
@@ -0,0 +1,43 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.metrics;
+
+import java.util.Map;
+
+/**
+ * JMX management interface of the {@link ScriptMetricsRegistry}.
+ */
+public interface IScriptMetricsMXBean {
+
+    /**
+     * Returns the recorded timings and output sizes, keyed by {@code "<operation> <class name>"}.
+     * 
+     * @return a map of snapshots
+     */
+    Map<String, HistogramSnapshot> getHistograms();
+
+    /**
+     * Returns how often values of a type were handed to the Jackson ObjectMapper, keyed by class name.
+     * 
+     * @return a map of fallback counts
+     */
+    Map<String, Long> getSerializerFallbacks();
+
+    /**
+     * Discards all recorded values.
+     */
+    void reset();
+}
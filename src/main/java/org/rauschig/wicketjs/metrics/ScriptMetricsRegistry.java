@@ -0,0 +1,205 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.wicket.Component;
+import org.apache.wicket.WicketRuntimeException;
+import org.apache.wicket.util.lang.Args;
+
+/**
+ * Default, in-process implementation of {@link IScriptMetrics}. Aggregates timings and output sizes into lock-free
+ * histograms per operation and source class (e.g. per behavior class for {@link IScriptMetrics.Operation#DOM_READY}),
+ * and counts serializer fallbacks per type. The recorded data can be read via {@link #getHistograms()} or over JMX:
+ *
+ * <pre>
+ * &#064;Override
+ * protected void init() {
+ *     super.init();
+ *     ScriptMetricsRegistry metrics = new ScriptMetricsRegistry();
+ *     WicketJsSettings.install(this).setMetrics(metrics);
+ *     metrics.registerMBean(getName());
+ * }
+ * </pre>
+ *
+ * The MBean should be unregistered in {@code Application#onDestroy()}.
+ */
+public class ScriptMetricsRegistry implements IScriptMetrics, IScriptMetricsMXBean {
+
+    /**
+     * The JMX domain the MBeans are registered in.
+     */
+    public static final String JMX_DOMAIN = "org.rauschig.wicketjs";
+
+    private final Map<Operation, ConcurrentMap<Class<?>, Entry>> entries = new EnumMap<>(Operation.class);
+
+    private final ConcurrentMap<Class<?>, AtomicLong> fallbacks = new ConcurrentHashMap<>();
+
+    private volatile ObjectName objectName;
+
+    public ScriptMetricsRegistry() {
+        for (Operation operation : Operation.values()) {
+            entries.put(operation, new ConcurrentHashMap<Class<?>, Entry>());
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public Object begin(Operation operation, Class<?> source, Component component) {
+        return null;
+    }
+
+    @Override
+    public void record(Operation operation, Class<?> source, Object token, long nanos, long chars) {
+        ConcurrentMap<Class<?>, Entry> sources = entries.get(operation);
+
+        Entry entry = sources.get(source);
+        if (entry == null) {
+            Entry created = new Entry();
+            entry = sources.putIfAbsent(source, created);
+            if (entry == null) {
+                entry = created;
+            }
+        }
+
+        entry.nanos.record(nanos);
+        entry.chars.record(chars);
+    }
+
+    @Override
+    public void recordFallback(Class<?> type) {
+        AtomicLong counter = fallbacks.get(type);
+        if (counter == null) {
+            AtomicLong created = new AtomicLong();
+            counter = fallbacks.putIfAbsent(type, created);
+            if (counter == null) {
+                counter = created;
+            }
+        }
+
+        counter.incrementAndGet();
+    }
+
+    /**
+     * Returns a snapshot of the histogram of the given operation and source class.
+     * 
+     * @param operation the operation
+     * @param source the class the calls were attributed to
+     * @return a snapshot, or null if nothing was recorded
+     */
+    public HistogramSnapshot getHistogram(Operation operation, Class<?> source) {
+        Entry entry = entries.get(operation).get(source);
+        return (entry != null) ? entry.snapshot() : null;
+    }
+
+    @Override
+    public Map<String, HistogramSnapshot> getHistograms() {
+        Map<String, HistogramSnapshot> result = new TreeMap<>();
+        for (Map.Entry<Operation, ConcurrentMap<Class<?>, Entry>> sources : entries.entrySet()) {
+            for (Map.Entry<Class<?>, Entry> entry : sources.getValue().entrySet()) {
+                result.put(sources.getKey() + " " + entry.getKey().getName(), entry.getValue().snapshot());
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Long> getSerializerFallbacks() {
+        Map<String, Long> result = new TreeMap<>();
+        for (Map.Entry<Class<?>, AtomicLong> entry : fallbacks.entrySet()) {
+            result.put(entry.getKey().getName(), entry.getValue().get());
+        }
+        return result;
+    }
+
+    @Override
+    public void reset() {
+        for (ConcurrentMap<Class<?>, Entry> sources : entries.values()) {
+            sources.clear();
+        }
+        fallbacks.clear();
+    }
+
+    /**
+     * Registers this registry as MBean named {@code org.rauschig.wicketjs:type=ScriptMetrics,name=<name>} in the
+     * platform MBeanServer.
+     * 
+     * @param name the name of the registry, e.g. the name of the Application
+     * @return the ObjectName the MBean was registered with
+     * @throws WicketRuntimeException if the MBean could not be registered
+     */
+    public ObjectName registerMBean(String name) {
+        Args.notNull(name, "name");
+
+        try {
+            ObjectName on = new ObjectName(JMX_DOMAIN + ":type=ScriptMetrics,name=" + ObjectName.quote(name));
+            getMBeanServer().registerMBean(this, on);
+            objectName = on;
+            return on;
+        } catch (JMException e) {
+            throw new WicketRuntimeException("Could not register script metrics MBean " + name, e);
+        }
+    }
+
+    /**
+     * Unregisters the MBean registered by {@link #registerMBean(String)}, if any.
+     */
+    public void unregisterMBean() {
+        ObjectName on = objectName;
+        if (on == null) {
+            return;
+        }
+
+        try {
+            getMBeanServer().unregisterMBean(on);
+        } catch (JMException e) {
+            throw new WicketRuntimeException("Could not unregister script metrics MBean " + on, e);
+        } finally {
+            objectName = null;
+        }
+    }
+
+    protected MBeanServer getMBeanServer() {
+        return ManagementFactory.getPlatformMBeanServer();
+    }
+
+    /**
+     * The timing and output size histograms of one operation and source class.
+     */
+    private static final class Entry {
+        final Histogram nanos = new Histogram();
+        final Histogram chars = new Histogram();
+
+        HistogramSnapshot snapshot() {
+            return nanos.snapshot(chars);
+        }
+    }
+}
@@ -15,12 +15,15 @@
  */
 package org.rauschig.wicketjs.util;
 
+import java.lang.reflect.Array;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
+import org.apache.wicket.markup.repeater.data.IDataProvider;
 import org.rauschig.wicketjs.IJavaScript;
 import org.rauschig.wicketjs.IJsExpression;
 import org.rauschig.wicketjs.IJsStatement;
@@ -136,10 +139,22 @@ public final class JsUtils {
             return JsLiteral.of((Boolean) value);
         } else if (value instanceof String) {
             return JsLiteral.of((String) value);
-        } else if (value.getClass().isArray()) {
+        } else if (value instanceof Object[]) {
             return JsLiteral.of((Object[]) value);
+        } else if (value instanceof int[]) {
+            return JsLiteral.of((int[]) value);
+        } else if (value instanceof long[]) {
+            return JsLiteral.of((long[]) value);
+        } else if (value instanceof double[]) {
+            return JsLiteral.of((double[]) value);
+        } else if (value.getClass().isArray()) {
+            return JsLiteral.of(box(value));
         } else if (value instanceof Collection) {
             return JsLiteral.of((Collection) value);
+        } else if (value instanceof Iterator) {
+            return JsLiteral.lazy((Iterator<?>) value);
+        } else if (value instanceof IDataProvider) {
+            return JsLiteral.lazy((IDataProvider<?>) value);
         } else if (value instanceof Map) {
             return JsLiteral.of((Map) value);
         } else {
@@ -147,6 +162,17 @@ public final class JsUtils {
         }
     }
 
+    /**
+     * Boxes the elements of the given primitive array into an Object array.
+     */
+    private static Object[] box(Object array) {
+        Object[] boxed = new Object[Array.getLength(array)];
+        for (int i = 0; i < boxed.length; i++) {
+            boxed[i] = Array.get(array, i);
+        }
+        return boxed;
+    }
+
     /**
      * Generates a JavaScript source code string from the given IJavaScript tree.
      * 
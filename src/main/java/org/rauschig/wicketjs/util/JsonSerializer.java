@@ -15,17 +15,45 @@
  */
 package org.rauschig.wicketjs.util;
 
+import java.io.IOException;
 import java.io.Serializable;
+import java.io.Writer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+import org.apache.wicket.util.lang.Args;
+import org.rauschig.wicketjs.WicketJsSettings;
+import org.rauschig.wicketjs.generator.JsStringEscaper;
+import org.rauschig.wicketjs.generator.JsWriter;
+import org.rauschig.wicketjs.metrics.IScriptMetrics;
 import org.rauschig.wicketjs.util.json.JavaScriptModule;
+import org.rauschig.wicketjs.util.json.JsonValueWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.CharacterEscapes;
+import com.fasterxml.jackson.core.io.SerializedString;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 
 /**
  * Serializes objects into JSON Strings and treats IJavaScript tokens as raw (unquoted) values.
+ * <p>
+ * Plain JDK values like Strings, Numbers, Maps and Collections are written directly by a {@link JsonValueWriter}. Only
+ * beans and other unknown types are serialized through the Jackson {@code ObjectMapper}.
+ * </p>
+ * <p>
+ * Instances are thread safe and meant to be shared, as the {@code ObjectMapper} caches serializers internally. In
+ * addition, a pre-resolved {@code ObjectWriter} is cached per serialized value type, s.t. the serializer lookup happens
+ * only once per class. The application-wide instance is held by {@link WicketJsSettings#getJsonSerializer()}.
+ * </p>
+ * <p>
+ * Strings are escaped with the JSON escaper of the same inline script mode as the escaper the serializer was created
+ * with, which is the string escaper of the settings by default. I.e., strings in maps, beans and options are only
+ * escaped for inline scripts if string literals are.
+ * </p>
  */
 public class JsonSerializer implements Serializable {
 
@@ -35,18 +63,72 @@ public class JsonSerializer implements Serializable {
 
     private ObjectMapper mapper;
 
+    private transient volatile ConcurrentMap<Class<?>, ObjectWriter> writers;
+
+    private final JsonValueWriter valueWriter;
+
+    private transient volatile IScriptMetrics metrics;
+
+    /**
+     * Creates a new JsonSerializer that escapes strings like the string escaper of the {@link WicketJsSettings#get()
+     * current settings}.
+     */
     public JsonSerializer() {
-        this(new ObjectMapper().registerModule(new JavaScriptModule()));
+        this(WicketJsSettings.get().getStringEscaper());
+    }
+
+    /**
+     * Creates a new JsonSerializer that escapes strings like the given escaper, i.e. with the JSON escaper of the same
+     * inline script mode.
+     * 
+     * @param escaper the escaper whose escaping rules are applied to strings
+     */
+    public JsonSerializer(JsStringEscaper escaper) {
+        this(new ObjectMapper().registerModule(new JavaScriptModule()), escaper);
     }
 
     protected JsonSerializer(ObjectMapper mapper) {
+        this(mapper, WicketJsSettings.get().getStringEscaper());
+    }
+
+    protected JsonSerializer(ObjectMapper mapper, JsStringEscaper escaper) {
         this.mapper = mapper;
+        this.valueWriter = new JsonValueWriter(this, Args.notNull(escaper, "escaper").toJson());
     }
 
     protected ObjectMapper getMapper() {
         return mapper;
     }
 
+    /**
+     * Returns the JSON escaper strings are written with.
+     * 
+     * @return {@link JsStringEscaper#JSON} or {@link JsStringEscaper#JSON_INLINE_SCRIPT}
+     */
+    public JsStringEscaper getEscaper() {
+        return getValueWriter().getEscaper();
+    }
+
+    /**
+     * Returns the IScriptMetrics serialization calls and fallbacks are recorded with.
+     * 
+     * @return an IScriptMetrics instance, {@link IScriptMetrics#NOOP} by default
+     */
+    public IScriptMetrics getMetrics() {
+        IScriptMetrics m = metrics;
+        return (m != null) ? m : IScriptMetrics.NOOP;
+    }
+
+    /**
+     * Sets the IScriptMetrics serialization calls and fallbacks are recorded with. Called by
+     * {@link org.rauschig.wicketjs.WicketJsSettings} when the serializer or the metrics are set.
+     * 
+     * @param metrics the metrics
+     */
+    public void setMetrics(IScriptMetrics metrics) {
+        this.metrics = Args.notNull(metrics, "metrics");
+    }
+
     public String serialize(Object value) {
         return serialize(value, "null");
     }
@@ -56,12 +138,192 @@ public class JsonSerializer implements Serializable {
             return nullPlaceholder;
         }
 
-        try {
-            return getMapper().writeValueAsString(value);
-        } catch (JsonProcessingException e) {
-            LOG.error("Could not serialize {}. Returning empty String.", value, e);
+        StringBuilder builder = new StringBuilder();
+        if (!write(value, new JsWriter(builder))) {
             return "";
         }
+
+        return builder.toString();
+    }
+
+    /**
+     * Serializes the given value directly into the given Writer. If the Writer implements
+     * {@link org.rauschig.wicketjs.util.json.IJsTokenWriter}, nested IJavaScript tokens are written by the Writer
+     * in-place.
+     * 
+     * @param value the value to serialize
+     * @param out the Writer to serialize the value into
+     */
+    public void serialize(Object value, Writer out) {
+        write(value, out);
+    }
+
+    private boolean write(Object value, Writer out) {
+        IScriptMetrics m = getMetrics();
+        if (!m.isEnabled()) {
+            return writeValue(value, out);
+        }
+
+        Class<?> type = (value != null) ? value.getClass() : Void.class;
+        JsWriter writer = (out instanceof JsWriter) ? (JsWriter) out : null;
+        long length = (writer != null) ? writer.length() : -1;
+
+        Object token = m.begin(IScriptMetrics.Operation.SERIALIZE, type, null);
+        long start = System.nanoTime();
+        try {
+            return writeValue(value, out);
+        } finally {
+            long chars = (length < 0) ? -1 : writer.length() - length;
+            m.record(IScriptMetrics.Operation.SERIALIZE, type, token, System.nanoTime() - start, chars);
+        }
+    }
+
+    private boolean writeValue(Object value, Writer out) {
+        try {
+            getValueWriter().write(value, out);
+            return true;
+        } catch (IOException e) {
+            LOG.error("Could not serialize {}.", value, e);
+            return false;
+        }
+    }
+
+    /**
+     * Serializes the given value into the given Writer using the Jackson ObjectMapper. Used by the
+     * {@link JsonValueWriter} for all types it does not handle itself. Strings are escaped with {@link #getEscaper()}.
+     * 
+     * @param value the value to serialize
+     * @param out the Writer to serialize the value into
+     * @throws IOException if the value could not be serialized
+     */
+    public void serializeWithMapper(Object value, Writer out) throws IOException {
+        serializeWithMapper(value, out, getEscaper());
+    }
+
+    /**
+     * Serializes the given value into the given Writer using the Jackson ObjectMapper, and escapes the strings written
+     * by the mapper like the given escaper would. I.e., if the escaper is in inline script mode, a {@code </script>}
+     * in a bean property is escaped just like in a plain string value.
+     * 
+     * @param value the value to serialize
+     * @param out the Writer to serialize the value into
+     * @param escaper the escaper whose escaping rules are applied to strings
+     * @throws IOException if the value could not be serialized
+     */
+    public void serializeWithMapper(Object value, Writer out, JsStringEscaper escaper) throws IOException {
+        getMetrics().recordFallback(value.getClass());
+
+        JsonGenerator jgen = getMapper().getFactory().createGenerator(out);
+        jgen.setCharacterEscapes(JsCharacterEscapes.of(escaper));
+        getWriter(value.getClass()).writeValue(jgen, value);
+        jgen.flush();
+    }
+
+    /**
+     * Returns the JsonValueWriter that writes plain JDK values without a round-trip through Jackson.
+     * 
+     * @return the value writer
+     */
+    protected JsonValueWriter getValueWriter() {
+        return valueWriter;
+    }
+
+    /**
+     * Returns the cached ObjectWriter for the given value type, creating it if necessary.
+     * 
+     * @param type the type of the value to serialize
+     * @return an ObjectWriter with a pre-resolved serializer for the given type
+     */
+    protected ObjectWriter getWriter(Class<?> type) {
+        ConcurrentMap<Class<?>, ObjectWriter> cache = getWriters();
+
+        ObjectWriter writer = cache.get(type);
+        if (writer == null) {
+            writer = getMapper().writerWithType(type);
+            ObjectWriter existing = cache.putIfAbsent(type, writer);
+            if (existing != null) {
+                writer = existing;
+            }
+        }
+
+        return writer;
+    }
+
+    private ConcurrentMap<Class<?>, ObjectWriter> getWriters() {
+        ConcurrentMap<Class<?>, ObjectWriter> cache = writers;
+
+        if (cache == null) {
+            synchronized (this) {
+                if (writers == null) {
+                    writers = new ConcurrentHashMap<>();
+                }
+                cache = writers;
+            }
+        }
+
+        return cache;
+    }
+
+    /**
+     * Jackson CharacterEscapes that escape the mapper's strings like the {@link JsStringEscaper} JSON escapers: the
+     * line terminators U+2028 and U+2029 always, and {@code <}, {@code >} and {@code &} in inline script mode.
+     */
+    private static final class JsCharacterEscapes extends CharacterEscapes {
+
+        private static final long serialVersionUID = 1L;
+
+        static final JsCharacterEscapes DEFAULT = new JsCharacterEscapes(false);
+
+        static final JsCharacterEscapes INLINE_SCRIPT = new JsCharacterEscapes(true);
+
+        private static final SerializableString LT = new SerializedString("\\u003C");
+
+        private static final SerializableString GT = new SerializedString("\\u003E");
+
+        private static final SerializableString AMP = new SerializedString("\\u0026");
+
+        private static final SerializableString LINE_SEPARATOR = new SerializedString("\\u2028");
+
+        private static final SerializableString PARAGRAPH_SEPARATOR = new SerializedString("\\u2029");
+
+        private final int[] escapes;
+
+        private JsCharacterEscapes(boolean inlineScript) {
+            escapes = standardAsciiEscapesForJSON();
+
+            if (inlineScript) {
+                escapes['<'] = ESCAPE_CUSTOM;
+                escapes['>'] = ESCAPE_CUSTOM;
+                escapes['&'] = ESCAPE_CUSTOM;
+            }
+        }
+
+        static JsCharacterEscapes of(JsStringEscaper escaper) {
+            return escaper.isInlineScript() ? INLINE_SCRIPT : DEFAULT;
+        }
+
+        @Override
+        public int[] getEscapeCodesForAscii() {
+            return escapes;
+        }
+
+        @Override
+        public SerializableString getEscapeSequence(int ch) {
+            switch (ch) {
+            case '<':
+                return LT;
+            case '>':
+                return GT;
+            case '&':
+                return AMP;
+            case 0x2028:
+                return LINE_SEPARATOR;
+            case 0x2029:
+                return PARAGRAPH_SEPARATOR;
+            default:
+                return null;
+            }
+        }
     }
 
 }
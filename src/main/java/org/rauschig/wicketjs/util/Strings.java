@@ -57,6 +57,22 @@ public final class Strings {
         return str.toString();
     }
 
+    /**
+     * Computes the 64 bit FNV-1a hash of the given characters. Collisions are negligible for the number of distinct
+     * scripts and options on a page, so the hash can be used to derive names and keys from generated JavaScript.
+     * 
+     * @param value the characters to hash
+     * @return the hash
+     */
+    public static long hash(CharSequence value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
     private static boolean isEmpty(Object[] array) {
         return array == null || array.length == 0;
     }
@@ -15,14 +15,24 @@
  */
 package org.rauschig.wicketjs.util;
 
+import java.util.List;
+
 import org.apache.wicket.ajax.AjaxRequestTarget;
+import org.apache.wicket.markup.head.HeaderItem;
 import org.apache.wicket.markup.head.JavaScriptHeaderItem;
 import org.apache.wicket.markup.head.OnDomReadyHeaderItem;
+import org.apache.wicket.request.Response;
 import org.rauschig.wicketjs.IJavaScript;
 import org.rauschig.wicketjs.generator.JsGenerator;
+import org.rauschig.wicketjs.markup.head.JsContentHeaderItem;
+import org.rauschig.wicketjs.markup.head.JsOnDomReadyHeaderItem;
 
 /**
  * A set of utils that integrates IJavaScript tokens where Wicket expects CharSequences.
+ * <p>
+ * Header items the generated code depends on (see {@link JsGenerator#getDependencies()}) are rendered into the header
+ * response of Ajax requests, or declared as dependencies of the created header items.
+ * </p>
  */
 public final class WicketJsUtils {
 
@@ -39,7 +49,10 @@ public final class WicketJsUtils {
      * @see AjaxRequestTarget#appendJavaScript(CharSequence)
      */
     public static void append(AjaxRequestTarget target, IJavaScript js) {
-        target.appendJavaScript(toString(js));
+        JsGenerator generator = new JsGenerator(js);
+        CharSequence script = generate(generator);
+        renderDependencies(target, generator);
+        target.appendJavaScript(script);
     }
 
     /**
@@ -50,7 +63,10 @@ public final class WicketJsUtils {
      * @see AjaxRequestTarget#prependJavaScript(CharSequence)
      */
     public static void prepend(AjaxRequestTarget target, IJavaScript js) {
-        target.prependJavaScript(toString(js));
+        JsGenerator generator = new JsGenerator(js);
+        CharSequence script = generate(generator);
+        renderDependencies(target, generator);
+        target.prependJavaScript(script);
     }
 
     /**
@@ -63,7 +79,7 @@ public final class WicketJsUtils {
      * @see JavaScriptHeaderItem#forScript(CharSequence, String)
      */
     public static JavaScriptHeaderItem asHeaderItem(IJavaScript js, String id) {
-        return JavaScriptHeaderItem.forScript(toString(js), id);
+        return asHeaderItem(js, id, null);
     }
 
     /**
@@ -77,7 +93,14 @@ public final class WicketJsUtils {
      * @see JavaScriptHeaderItem#forScript(CharSequence, String, String)
      */
     public static JavaScriptHeaderItem asHeaderItem(IJavaScript js, String id, String condition) {
-        return JavaScriptHeaderItem.forScript(toString(js), id, condition);
+        JsGenerator generator = new JsGenerator(js);
+        String script = generator.generate();
+        List<HeaderItem> dependencies = generator.getDependencies();
+
+        if (dependencies.isEmpty()) {
+            return JavaScriptHeaderItem.forScript(script, id, condition);
+        }
+        return new JsContentHeaderItem(script, id, condition, dependencies);
     }
 
     /**
@@ -88,10 +111,31 @@ public final class WicketJsUtils {
      * @see OnDomReadyHeaderItem#forScript(CharSequence)
      */
     public static OnDomReadyHeaderItem asOnDomReadyHeaderItem(IJavaScript js) {
-        return OnDomReadyHeaderItem.forScript(toString(js));
+        JsGenerator generator = new JsGenerator(js);
+        String script = generator.generate();
+        return new JsOnDomReadyHeaderItem(script, generator.getDependencies());
+    }
+
+    /**
+     * Generates the given JavaScript and writes it directly into the given Response. Dependencies of the generated code
+     * are not rendered, they have to be contributed by the caller.
+     *
+     * @param response the response to write the javascript to
+     * @param js the javascript to render
+     */
+    public static void write(Response response, IJavaScript js) {
+        new JsGenerator(js).generate(response);
+    }
+
+    private static CharSequence generate(JsGenerator generator) {
+        StringBuilder builder = new StringBuilder();
+        generator.generate(builder);
+        return builder;
     }
 
-    private static String toString(IJavaScript js) {
-        return new JsGenerator(js).generate();
+    private static void renderDependencies(AjaxRequestTarget target, JsGenerator generator) {
+        for (HeaderItem dependency : generator.getDependencies()) {
+            target.getHeaderResponse().render(dependency);
+        }
     }
 }
@@ -0,0 +1,37 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.util.json;
+
+import org.rauschig.wicketjs.IJavaScript;
+
+/**
+ * An output target of JSON serialization that is able to write {@link org.rauschig.wicketjs.IJavaScript} tokens
+ * in-place.
+ * <p>
+ * If the {@code Writer} a JSON value is serialized into implements this interface, the {@link JsTokenSerializer}
+ * hands nested IJavaScript tokens to {@link #write(IJavaScript)}, rather than generating them into a separate String
+ * first. This allows a generator to emit literals and syntax tree nodes in a single pass into the same output.
+ * </p>
+ */
+public interface IJsTokenWriter {
+
+    /**
+     * Writes the given IJavaScript token at the current position of the output.
+     * 
+     * @param token the token to write
+     */
+    void write(IJavaScript token);
+}
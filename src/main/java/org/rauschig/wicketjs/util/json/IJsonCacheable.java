@@ -0,0 +1,65 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.util.json;
+
+import org.rauschig.wicketjs.util.JsonSerializer;
+
+/**
+ * A value that keeps its serialized JSON form, s.t. it does not have to be serialized again as long as it has not
+ * changed. The {@link JsonValueWriter} captures the state of the value once via {@link #getJsonState()} and passes it
+ * to the other methods: it writes the form cached for that state if there is one, and otherwise serializes the value
+ * returned by {@link #getJsonValue(Object)} and hands the result to
+ * {@link #setCachedJson(JsonSerializer, Object, String)}.
+ * <p>
+ * Values that contain {@link org.rauschig.wicketjs.IJavaScript} tokens are not cached, as tokens are written in-place
+ * by the generator and may declare header item dependencies.
+ * </p>
+ */
+public interface IJsonCacheable {
+
+    /**
+     * Captures the current state of the value, which is passed to the other methods of a single write.
+     * 
+     * @return the current state, may be null
+     */
+    Object getJsonState();
+
+    /**
+     * Returns the value that is serialized if there is no cached JSON form for the given state.
+     * 
+     * @param state the state returned by {@link #getJsonState()}
+     * @return the value to serialize
+     */
+    Object getJsonValue(Object state);
+
+    /**
+     * Returns the JSON form that was cached for the given serializer and state.
+     * 
+     * @param serializer the serializer that writes the value
+     * @param state the state returned by {@link #getJsonState()}
+     * @return the cached JSON, or null if the value has to be serialized
+     */
+    String getCachedJson(JsonSerializer serializer, Object state);
+
+    /**
+     * Caches the JSON form the given serializer has written for the given state of the value.
+     * 
+     * @param serializer the serializer that wrote the value
+     * @param state the state returned by {@link #getJsonState()}
+     * @param json the serialized value
+     */
+    void setCachedJson(JsonSerializer serializer, Object state, String json);
+}
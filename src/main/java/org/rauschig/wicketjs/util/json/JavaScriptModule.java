@@ -19,7 +19,7 @@ import com.fasterxml.jackson.databind.module.SimpleModule;
 
 /**
  * A jackson {@code SimpleModule} that registers serializers required for properly serializing objects that contain
- * {@link org.rauschig.wicketjs.IJavaScript} tokens.
+ * {@link org.rauschig.wicketjs.IJavaScript} tokens, and writes doubles and floats like generated code does.
  */
 public class JavaScriptModule extends SimpleModule {
 
@@ -31,5 +31,12 @@ public class JavaScriptModule extends SimpleModule {
         addSerializer(new JsLiteralSerializer());
         addSerializer(new JsTokenSerializer());
         addSerializer(new ModelSerializer());
+        addSerializer(new JsonCacheableSerializer());
+
+        JsNumberSerializer numbers = new JsNumberSerializer();
+        addSerializer(Double.class, numbers);
+        addSerializer(Double.TYPE, numbers);
+        addSerializer(Float.class, numbers);
+        addSerializer(Float.TYPE, numbers);
     }
 }
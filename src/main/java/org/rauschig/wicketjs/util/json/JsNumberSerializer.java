@@ -0,0 +1,43 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.util.json;
+
+import java.io.IOException;
+
+import org.rauschig.wicketjs.generator.JsNumberFormat;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * Serializer for doubles and floats that writes them with {@link JsNumberFormat}, like the {@link JsonValueWriter}
+ * does. NaN and the infinities are written as the JavaScript tokens {@code NaN} and {@code Infinity}.
+ */
+public class JsNumberSerializer extends StdSerializer<Number> {
+    public JsNumberSerializer() {
+        super(Number.class);
+    }
+
+    @Override
+    public void serialize(Number value, JsonGenerator jgen, SerializerProvider provider) throws IOException {
+        if (value instanceof Float) {
+            jgen.writeNumber(JsNumberFormat.toString(value.floatValue()));
+        } else {
+            jgen.writeNumber(JsNumberFormat.toString(value.doubleValue()));
+        }
+    }
+}
@@ -27,6 +27,10 @@ import com.fasterxml.jackson.databind.ser.std.StdSerializer;
 /**
  * Delegates the value serialization of an {@link org.rauschig.wicketjs.IJavaScript} token to
  * {@link org.rauschig.wicketjs.generator.JsGenerator}.
+ * <p>
+ * If the output target of the {@code JsonGenerator} is an {@link IJsTokenWriter}, the token is written directly into
+ * the output by the token writer, rather than being generated into an intermediate String.
+ * </p>
  */
 public class JsTokenSerializer extends StdSerializer<IJavaScript> {
     public JsTokenSerializer() {
@@ -35,6 +39,14 @@ public class JsTokenSerializer extends StdSerializer<IJavaScript> {
 
     @Override
     public void serialize(IJavaScript value, JsonGenerator jgen, SerializerProvider provider) throws IOException {
-        jgen.writeRawValue(new JsGenerator(value).generate());
+        Object target = jgen.getOutputTarget();
+
+        if (target instanceof IJsTokenWriter) {
+            jgen.writeRawValue(""); // writes pending separators
+            jgen.flush();
+            ((IJsTokenWriter) target).write(value);
+        } else {
+            jgen.writeRawValue(new JsGenerator(value).generate());
+        }
     }
 }
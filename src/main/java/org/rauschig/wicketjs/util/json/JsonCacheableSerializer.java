@@ -0,0 +1,37 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.util.json;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * Passes the JSON value of an {@link IJsonCacheable} (e.g. the map of {@link org.rauschig.wicketjs.util.options.Options})
+ * to the JsonGenerator rather than the object itself.
+ */
+public class JsonCacheableSerializer extends StdSerializer<IJsonCacheable> {
+    public JsonCacheableSerializer() {
+        super(IJsonCacheable.class);
+    }
+
+    @Override
+    public void serialize(IJsonCacheable value, JsonGenerator jgen, SerializerProvider provider) throws IOException {
+        jgen.writeObject(value.getJsonValue(value.getJsonState()));
+    }
+}
@@ -0,0 +1,430 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.util.json;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.apache.wicket.model.IModel;
+import org.apache.wicket.util.lang.Args;
+import org.rauschig.wicketjs.IJavaScript;
+import org.rauschig.wicketjs.JsLiteral;
+import org.rauschig.wicketjs.WicketJsSettings;
+import org.rauschig.wicketjs.generator.JsGenerator;
+import org.rauschig.wicketjs.generator.JsNumberFormat;
+import org.rauschig.wicketjs.generator.JsStringEscaper;
+import org.rauschig.wicketjs.generator.JsWriter;
+import org.rauschig.wicketjs.util.JsonSerializer;
+
+/**
+ * Writes plain JDK values directly as JSON, without a round-trip through Jackson. Handles {@code null}, Strings,
+ * Characters, Booleans, the common Number types, Maps, Iterables, Object arrays and int, long, double and float
+ * arrays, as well as the wicket-js specific {@link org.rauschig.wicketjs.JsLiteral},
+ * {@link org.rauschig.wicketjs.IJavaScript} and {@code IModel} types. The cached form of an {@link IJsonCacheable} is written as is. A {@link org.rauschig.wicketjs.JsLiteral.JsTypedArray} or
+ * {@link org.rauschig.wicketjs.JsLiteral.JsTable} is written as token, s.t. it keeps its compact encoding.
+ * <p>
+ * All other values (e.g. beans or enums) are handed to the Jackson {@code ObjectMapper} of the {@link JsonSerializer}
+ * this writer was created for.
+ * </p>
+ * <p>
+ * The output is equivalent to that of the {@code ObjectMapper} with a registered {@link JavaScriptModule}, except for
+ * strings, which are written with a {@link JsStringEscaper} (by default derived from the settings' string escaper).
+ * The same escaping rules are applied to the strings the {@code ObjectMapper} writes. Doubles and floats are written
+ * with {@link JsNumberFormat} like in generated code (e.g. {@code 1} rather than {@code 1.0}), and NaN and the
+ * infinities as the JavaScript tokens {@code NaN} and {@code Infinity} rather than as strings. The output is therefore
+ * JavaScript rather than strict JSON. The writer is stateless and thread safe.
+ * </p>
+ */
+public class JsonValueWriter implements Serializable {
+
+    private static final long serialVersionUID = 5402771950553734427L;
+
+    private final JsonSerializer fallback;
+
+    private final JsStringEscaper escaper;
+
+    /**
+     * Creates a new JsonValueWriter that uses the given JsonSerializer to serialize unknown types, and escapes strings
+     * with the JSON escaper of the same inline script mode as the string escaper of the
+     * {@link WicketJsSettings#get() current settings}.
+     *
+     * @param fallback the serializer used for unknown types
+     */
+    public JsonValueWriter(JsonSerializer fallback) {
+        this(fallback, WicketJsSettings.get().getStringEscaper().toJson());
+    }
+
+    /**
+     * Creates a new JsonValueWriter that uses the given JsonSerializer to serialize unknown types, and the given
+     * escaper to write strings.
+     *
+     * @param fallback the serializer used for unknown types
+     * @param escaper the escaper used to write strings, which should be one of the JSON escapers
+     */
+    public JsonValueWriter(JsonSerializer fallback, JsStringEscaper escaper) {
+        this.fallback = fallback;
+        this.escaper = Args.notNull(escaper, "escaper");
+    }
+
+    /**
+     * Returns the escaper used to write strings.
+     *
+     * @return a JsStringEscaper
+     */
+    public JsStringEscaper getEscaper() {
+        return escaper;
+    }
+
+    /**
+     * Writes the given value as JSON into the given Writer.
+     *
+     * @param value the value to write
+     * @param out the Writer to write into
+     * @throws IOException propagated from the Writer or the fallback serializer
+     */
+    public void write(Object value, Writer out) throws IOException {
+        if (value == null) {
+            out.write("null");
+        } else if (value instanceof String) {
+            writeString((String) value, out);
+        } else if (value instanceof Boolean) {
+            out.write(((Boolean) value) ? "true" : "false");
+        } else if (value instanceof Number) {
+            writeNumber((Number) value, out);
+        } else if (value instanceof IJsonCacheable) {
+            writeCacheable((IJsonCacheable) value, out);
+        } else if (value instanceof Map) {
+            writeMap((Map<?, ?>) value, out);
+        } else if (value instanceof Iterable && !(value instanceof IJavaScript)) {
+            writeIterable((Iterable<?>) value, out);
+        } else if (value instanceof Object[]) {
+            writeArray((Object[]) value, out);
+        } else if (value instanceof int[] || value instanceof long[] || value instanceof double[]
+                || value instanceof float[]) {
+            writePrimitiveArray(value, out);
+        } else if (value instanceof JsLiteral.JsTypedArray || value instanceof JsLiteral.JsTable) {
+            writeToken((IJavaScript) value, out);
+        } else if (value instanceof JsLiteral) {
+            write(((JsLiteral<?>) value).getValue(), out);
+        } else if (value instanceof IJavaScript) {
+            writeToken((IJavaScript) value, out);
+        } else if (value instanceof IModel) {
+            write(((IModel<?>) value).getObject(), out);
+        } else if (value instanceof Character) {
+            writeString(value.toString(), out);
+        } else {
+            fallback.serializeWithMapper(value, out, escaper);
+        }
+    }
+
+    /**
+     * Writes the given Number as JSON number. Number types that are not part of the JDK are handed to the fallback
+     * serializer.
+     *
+     * @param value the number to write
+     * @param out the Writer to write into
+     * @throws IOException propagated from the Writer
+     */
+    protected void writeNumber(Number value, Writer out) throws IOException {
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            out.write(Long.toString(value.longValue()));
+        } else if (value instanceof Double) {
+            writeDouble(value.doubleValue(), out);
+        } else if (value instanceof Float) {
+            writeFloat(value.floatValue(), out);
+        } else if (value instanceof BigDecimal || value instanceof BigInteger) {
+            out.write(value.toString());
+        } else {
+            fallback.serializeWithMapper(value, out, escaper);
+        }
+    }
+
+    /**
+     * Writes the given double as JavaScript number literal using {@link JsNumberFormat}, i.e. like the
+     * {@link JsGenerator} writes a double literal. NaN and the infinities are written as the JavaScript tokens
+     * {@code NaN}, {@code Infinity} and {@code -Infinity}.
+     *
+     * @param value the number to write
+     * @param out the Writer to write into
+     * @throws IOException propagated from the Writer
+     */
+    protected void writeDouble(double value, Writer out) throws IOException {
+        if (out instanceof JsWriter) {
+            JsNumberFormat.format(value, (JsWriter) out);
+        } else {
+            out.write(JsNumberFormat.toString(value));
+        }
+    }
+
+    /**
+     * Writes the given float as JavaScript number literal using {@link JsNumberFormat}, keeping its shortest digits.
+     * NaN and the infinities are written like in {@link #writeDouble(double, Writer)}.
+     *
+     * @param value the number to write
+     * @param out the Writer to write into
+     * @throws IOException propagated from the Writer
+     */
+    protected void writeFloat(float value, Writer out) throws IOException {
+        if (out instanceof JsWriter) {
+            JsNumberFormat.format(value, (JsWriter) out);
+        } else {
+            out.write(JsNumberFormat.toString(value));
+        }
+    }
+
+    /**
+     * Writes the given map as JSON object, using the String representation of the keys as property names.
+     *
+     * @param map the map to write
+     * @param out the Writer to write into
+     * @throws IOException propagated from the Writer
+     */
+    protected void writeMap(Map<?, ?> map, Writer out) throws IOException {
+        out.write('{');
+
+        Iterator<? extends Map.Entry<?, ?>> iterator = map.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<?, ?> entry = iterator.next();
+
+            writeString(String.valueOf(entry.getKey()), out);
+            out.write(':');
+            write(entry.getValue(), out);
+
+            if (iterator.hasNext()) {
+                out.write(',');
+            }
+        }
+
+        out.write('}');
+    }
+
+    /**
+     * Writes the cached JSON form of the given value, or serializes its JSON value and caches the result if it does not
+     * contain IJavaScript tokens.
+     *
+     * @param value the value to write
+     * @param out the Writer to write into
+     * @throws IOException propagated from the Writer
+     */
+    protected void writeCacheable(IJsonCacheable value, Writer out) throws IOException {
+        Object state = value.getJsonState();
+
+        String json = value.getCachedJson(fallback, state);
+        if (json != null) {
+            out.write(json);
+            return;
+        }
+
+        CachingWriter caching = new CachingWriter(out);
+        write(value.getJsonValue(state), caching);
+
+        if (caching.isCacheable()) {
+            value.setCachedJson(fallback, state, caching.toString());
+        }
+    }
+
+    /**
+     * Writes the elements of the given Collection or Iterable as JSON array.
+     *
+     * @param iterable the elements to write
+     * @param out the Writer to write into
+     * @throws IOException propagated from the Writer
+     */
+    protected void writeIterable(Iterable<?> iterable, Writer out) throws IOException {
+        out.write('[');
+
+        Iterator<?> iterator = iterable.iterator();
+        while (iterator.hasNext()) {
+            write(iterator.next(), out);
+
+            if (iterator.hasNext()) {
+                out.write(',');
+            }
+        }
+
+        out.write(']');
+    }
+
+    /**
+     * Writes the given array as JSON array.
+     *
+     * @param array the array to write
+     * @param out the Writer to write into
+     * @throws IOException propagated from the Writer
+     */
+    protected void writeArray(Object[] array, Writer out) throws IOException {
+        out.write('[');
+
+        for (int i = 0; i < array.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            write(array[i], out);
+        }
+
+        out.write(']');
+    }
+
+    /**
+     * Writes the given int[], long[], double[] or float[] as JSON array without boxing its elements. Doubles and floats
+     * are written like {@link #writeDouble(double, Writer)} and {@link #writeFloat(float, Writer)} do, s.t. a double[]
+     * is written just like a {@link org.rauschig.wicketjs.JsLiteral.JsDoubleArray}.
+     *
+     * @param array the primitive array to write
+     * @param out the Writer to write into
+     * @throws IOException propagated from the Writer
+     */
+    protected void writePrimitiveArray(Object array, Writer out) throws IOException {
+        out.write('[');
+
+        if (array instanceof int[]) {
+            int[] ints = (int[]) array;
+            for (int i = 0; i < ints.length; i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                out.write(Integer.toString(ints[i]));
+            }
+        } else if (array instanceof long[]) {
+            long[] longs = (long[]) array;
+            for (int i = 0; i < longs.length; i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                out.write(Long.toString(longs[i]));
+            }
+        } else if (array instanceof double[]) {
+            double[] doubles = (double[]) array;
+            for (int i = 0; i < doubles.length; i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                writeDouble(doubles[i], out);
+            }
+        } else {
+            float[] floats = (float[]) array;
+            for (int i = 0; i < floats.length; i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                writeFloat(floats[i], out);
+            }
+        }
+
+        out.write(']');
+    }
+
+    /**
+     * Writes the given IJavaScript token as raw value. If the Writer is an {@link IJsTokenWriter}, the token is written
+     * in-place by it, otherwise it is generated directly into the Writer.
+     *
+     * @param token the token to write
+     * @param out the Writer to write into
+     */
+    protected void writeToken(IJavaScript token, Writer out) {
+        if (out instanceof IJsTokenWriter) {
+            ((IJsTokenWriter) out).write(token);
+        } else {
+            new JsGenerator(token).generate(out);
+        }
+    }
+
+    /**
+     * Writes the given String as double-quoted JSON string.
+     *
+     * @param value the string to write
+     * @param out the Writer to write into
+     * @throws IOException propagated from the Writer
+     */
+    protected void writeString(String value, Writer out) throws IOException {
+        escaper.write(value, out);
+    }
+
+    /**
+     * Writes into another Writer and keeps a copy of everything written, unless an IJavaScript token is written.
+     */
+    private static class CachingWriter extends Writer implements IJsTokenWriter {
+
+        private final Writer out;
+
+        private final StringBuilder copy = new StringBuilder(64);
+
+        private boolean cacheable = true;
+
+        CachingWriter(Writer out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(IJavaScript token) {
+            cacheable = false;
+
+            if (out instanceof IJsTokenWriter) {
+                ((IJsTokenWriter) out).write(token);
+            } else {
+                new JsGenerator(token).generate(out);
+            }
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            out.write(cbuf, off, len);
+            if (cacheable) {
+                copy.append(cbuf, off, len);
+            }
+        }
+
+        @Override
+        public void write(String str, int off, int len) throws IOException {
+            out.write(str, off, len);
+            if (cacheable) {
+                copy.append(str, off, off + len);
+            }
+        }
+
+        @Override
+        public void write(int c) throws IOException {
+            out.write(c);
+            if (cacheable) {
+                copy.append((char) c);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() {
+            // the target is closed by its owner
+        }
+
+        boolean isCacheable() {
+            return cacheable;
+        }
+
+        @Override
+        public String toString() {
+            return copy.toString();
+        }
+    }
+}
@@ -0,0 +1,362 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.util.options;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * An insertion-ordered Map that stores up to {@link #THRESHOLD} entries in two arrays and is searched linearly, which
+ * avoids the entry objects and the hash table of a {@code LinkedHashMap} for the few keys options usually have. When
+ * more entries are added, the map switches to a LinkedHashMap, which it keeps even if entries are removed later.
+ * <p>
+ * The serialized form consists of the size followed by the keys and values, regardless of the storage in use.
+ * </p>
+ * <p>
+ * Iterators are fail-fast: they throw a {@link ConcurrentModificationException} if the map is structurally modified
+ * other than through the iterator itself, which includes the switch to the LinkedHashMap. An entry returned by an
+ * iterator keeps its key and the last value it has seen after such a modification, and its
+ * {@link Map.Entry#setValue(Object)} throws a ConcurrentModificationException rather than writing to the wrong entry.
+ * </p>
+ * 
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class CompactMap<K, V> extends AbstractMap<K, V> implements Serializable {
+
+    private static final long serialVersionUID = -2853407263170891066L;
+
+    /**
+     * The maximum amount of entries that are stored in arrays.
+     */
+    public static final int THRESHOLD = 8;
+
+    private static final Object[] EMPTY = new Object[0];
+
+    private transient Object[] keys = EMPTY;
+
+    private transient Object[] values = EMPTY;
+
+    private transient int size;
+
+    /**
+     * The number of structural modifications, i.e. added or removed keys and the switch to the LinkedHashMap.
+     */
+    private transient int modCount;
+
+    /**
+     * The map used after the threshold was exceeded, null while the entries are stored in the arrays.
+     */
+    private transient LinkedHashMap<K, V> hashed;
+
+    public CompactMap() {
+        // empty map
+    }
+
+    /**
+     * Creates a new CompactMap holding the entries of the given map.
+     * 
+     * @param map the entries to copy
+     */
+    public CompactMap(Map<? extends K, ? extends V> map) {
+        putAll(map);
+    }
+
+    @Override
+    public int size() {
+        return (hashed != null) ? hashed.size() : size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return (hashed != null) ? hashed.containsKey(key) : indexOf(key) >= 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        if (hashed != null) {
+            return hashed.get(key);
+        }
+
+        int index = indexOf(key);
+        return (index >= 0) ? (V) values[index] : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V put(K key, V value) {
+        if (hashed != null) {
+            return hashed.put(key, value);
+        }
+
+        int index = indexOf(key);
+        if (index >= 0) {
+            V previous = (V) values[index];
+            values[index] = value;
+            return previous;
+        }
+
+        modCount++;
+        if (size == THRESHOLD) {
+            hashed = new LinkedHashMap<>(THRESHOLD * 4);
+            for (int i = 0; i < size; i++) {
+                hashed.put((K) keys[i], (V) values[i]);
+            }
+            keys = EMPTY;
+            values = EMPTY;
+            size = 0;
+            return hashed.put(key, value);
+        }
+
+        if (size == keys.length) {
+            int capacity = (size == 0) ? 2 : Math.min(size * 2, THRESHOLD);
+            keys = Arrays.copyOf(keys, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        keys[size] = key;
+        values[size] = value;
+        size++;
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(Object key) {
+        if (hashed != null) {
+            return hashed.remove(key);
+        }
+
+        int index = indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+
+        V previous = (V) values[index];
+        removeAt(index);
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        if (hashed != null) {
+            hashed.clear();
+        } else if (size > 0) {
+            Arrays.fill(keys, 0, size, null);
+            Arrays.fill(values, 0, size, null);
+            size = 0;
+            modCount++;
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return new EntrySet();
+    }
+
+    private int indexOf(Object key) {
+        for (int i = 0; i < size; i++) {
+            if (Objects.equals(key, keys[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void removeAt(int index) {
+        int moved = size - index - 1;
+        if (moved > 0) {
+            System.arraycopy(keys, index + 1, keys, index, moved);
+            System.arraycopy(values, index + 1, values, index, moved);
+        }
+        size--;
+        keys[size] = null;
+        values[size] = null;
+        modCount++;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(size());
+
+        for (Map.Entry<K, V> entry : entrySet()) {
+            out.writeObject(entry.getKey());
+            out.writeObject(entry.getValue());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IllegalStateException("Invalid size " + count);
+        }
+
+        keys = EMPTY;
+        values = EMPTY;
+        if (count <= THRESHOLD && count > 0) {
+            keys = new Object[count];
+            values = new Object[count];
+        }
+
+        for (int i = 0; i < count; i++) {
+            put((K) in.readObject(), (V) in.readObject());
+        }
+    }
+
+    /**
+     * The entries of the map, which iterates the arrays or the LinkedHashMap, depending on the storage in use when the
+     * iterator is created.
+     */
+    private class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+        @Override
+        public int size() {
+            return CompactMap.this.size();
+        }
+
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            return (hashed != null) ? hashed.entrySet().iterator() : new EntryIterator();
+        }
+
+        @Override
+        public void clear() {
+            CompactMap.this.clear();
+        }
+    }
+
+    /**
+     * Iterates the entries of the arrays.
+     */
+    private class EntryIterator implements Iterator<Map.Entry<K, V>> {
+        private int next;
+        private boolean removable;
+        private int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            return next < size || modCount != expectedModCount; // lets next() fail on a modification
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            checkForModification();
+            if (next >= size) {
+                throw new NoSuchElementException();
+            }
+            removable = true;
+            return new Entry(next++);
+        }
+
+        @Override
+        public void remove() {
+            if (!removable) {
+                throw new IllegalStateException();
+            }
+            checkForModification();
+
+            removable = false;
+            removeAt(--next);
+            expectedModCount = modCount;
+        }
+
+        private void checkForModification() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    /**
+     * An entry that reads and writes the arrays at its index as long as the map is not structurally modified.
+     */
+    private class Entry implements Map.Entry<K, V> {
+        private final int index;
+        private final int expectedModCount = modCount;
+        private final K key;
+        private V value;
+
+        @SuppressWarnings("unchecked")
+        Entry(int index) {
+            this.index = index;
+            this.key = (K) keys[index];
+            this.value = (V) values[index];
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V getValue() {
+            if (isAttached()) {
+                value = (V) values[index];
+            }
+            return value;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V setValue(V value) {
+            if (!isAttached()) {
+                throw new ConcurrentModificationException();
+            }
+
+            V previous = (V) values[index];
+            values[index] = value;
+            this.value = value;
+            return previous;
+        }
+
+        private boolean isAttached() {
+            return modCount == expectedModCount;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> other = (Map.Entry<?, ?>) o;
+            return Objects.equals(getKey(), other.getKey()) && Objects.equals(getValue(), other.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+}
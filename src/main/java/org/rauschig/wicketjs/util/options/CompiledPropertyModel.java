@@ -0,0 +1,85 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.util.options;
+
+import org.apache.wicket.core.util.lang.PropertyResolver;
+import org.apache.wicket.model.IDetachable;
+import org.apache.wicket.model.IModel;
+import org.apache.wicket.model.PropertyModel;
+import org.apache.wicket.util.lang.Args;
+
+/**
+ * A read-mostly alternative to {@link PropertyModel} that reads the property through a {@link PropertyAccessor}, which
+ * is compiled once per class and expression. Expressions that can not be compiled are resolved by Wicket's
+ * {@code PropertyResolver}, and {@link #setObject(Object)} is delegated to a PropertyModel.
+ * 
+ * @param <T> the type of the property
+ */
+public class CompiledPropertyModel<T> implements IModel<T> {
+
+    private static final long serialVersionUID = 2962411367125314185L;
+
+    private final Object target;
+
+    private final String expression;
+
+    /**
+     * Creates a new CompiledPropertyModel.
+     * 
+     * @param target the object to read the property from, may be an IModel
+     * @param expression the property expression
+     */
+    public CompiledPropertyModel(Object target, String expression) {
+        this.target = target;
+        this.expression = Args.notNull(expression, "expression");
+    }
+
+    public String getExpression() {
+        return expression;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T getObject() {
+        Object object = getTarget();
+        if (object == null) {
+            return null;
+        }
+
+        PropertyAccessor accessor = PropertyAccessor.of(object.getClass(), expression);
+        if (accessor != null) {
+            return (T) accessor.getValue(object);
+        } else {
+            return (T) PropertyResolver.getValue(expression, object);
+        }
+    }
+
+    @Override
+    public void setObject(T object) {
+        new PropertyModel<T>(target, expression).setObject(object);
+    }
+
+    @Override
+    public void detach() {
+        if (target instanceof IDetachable) {
+            ((IDetachable) target).detach();
+        }
+    }
+
+    private Object getTarget() {
+        return (target instanceof IModel) ? ((IModel<?>) target).getObject() : target;
+    }
+}
@@ -15,30 +15,56 @@
  */
 package org.rauschig.wicketjs.util.options;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.LinkedHashMap;
 import java.util.Map;
 
 import org.apache.wicket.util.io.IClusterable;
-import org.rauschig.wicketjs.JsLiteral;
 import org.rauschig.wicketjs.JsLiteral.JsObject;
+import org.rauschig.wicketjs.util.JsonSerializer;
+import org.rauschig.wicketjs.util.json.IJsonCacheable;
 
 /**
- * Default map-based IOptions implementation.
+ * Default map-based IOptions implementation. By default, the values are stored in a {@link CompactMap}, which keeps the
+ * few keys options usually have in arrays and has a compact serialized form.
+ * <p>
+ * Options keep their serialized JSON form (see {@link IJsonCacheable}), which is invalidated by {@link #set} and
+ * {@link #unset}, s.t. unchanged options are not serialized again on every render. The form is only cached if all
+ * values are immutable and all changes are tracked (see {@link #getState()}), i.e. if the options created the map
+ * themselves and never handed it out through {@link #getMap()}. Options created with an existing map are therefore
+ * serialized on every render.
+ * </p>
  */
-public class Options implements IOptions, IClusterable {
+public class Options implements IOptions, IClusterable, IJsonCacheable {
 
     private static final long serialVersionUID = -3243969396060873256L;
 
     public static final Options EMPTY = new Options(Collections.<String, Object>emptyMap());
 
+    /**
+     * The state of options whose changes are tracked by {@link #set} and {@link #unset}.
+     */
+    protected static final Object UNCHANGED = new Object();
+
     private Map<String, Object> map;
 
+    private volatile boolean tracked;
+
+    private transient volatile CachedJson cachedJson;
+
     public Options() {
-        this(new LinkedHashMap<String, Object>());
+        this.map = new CompactMap<>();
+        this.tracked = true;
     }
 
+    /**
+     * Creates new options backed by the given map. As changes made directly to the map can not be tracked, the JSON
+     * form of the options is not cached.
+     * 
+     * @param map the map holding the options
+     */
     public Options(Map<String, Object> map) {
         this.map = map;
     }
@@ -46,6 +72,7 @@ public class Options implements IOptions, IClusterable {
     @Override
     public Options set(String key, Object value) {
         map.put(key, value);
+        invalidate();
         return this;
     }
 
@@ -57,6 +84,7 @@ public class Options implements IOptions, IClusterable {
     @Override
     public Options unset(String key) {
         map.remove(key);
+        invalidate();
         return this;
     }
 
@@ -77,11 +105,121 @@ public class Options implements IOptions, IClusterable {
 
     @Override
     public JsObject asObject() {
-        return JsLiteral.of(map);
+        return new OptionsObject(this);
     }
 
+    /**
+     * Returns the map holding the options. As changes made directly to the returned map can not be tracked, the JSON
+     * form of the options is no longer cached from then on.
+     * 
+     * @return the map holding the options
+     */
     public Map<String, Object> getMap() {
+        tracked = false;
+        invalidate();
+        return map;
+    }
+
+    /**
+     * Returns the map holding the options without handing it out, i.e. the JSON form stays cached. Changes made to the
+     * returned map have to be followed by a call to {@link #invalidate()}.
+     * 
+     * @return the map holding the options
+     */
+    protected Map<String, Object> getTrackedMap() {
         return map;
     }
 
+    @Override
+    public Object getJsonState() {
+        return getState();
+    }
+
+    @Override
+    public Object getJsonValue(Object state) {
+        return map;
+    }
+
+    @Override
+    public String getCachedJson(JsonSerializer serializer, Object state) {
+        CachedJson cached = cachedJson;
+        if (cached == null || cached.serializer != serializer || !isCacheable(state)) {
+            return null;
+        }
+
+        return state.equals(cached.state) ? cached.json : null;
+    }
+
+    @Override
+    public void setCachedJson(JsonSerializer serializer, Object state, String json) {
+        cachedJson = isCacheable(state) ? new CachedJson(serializer, state, json) : null;
+    }
+
+    /**
+     * Discards the cached JSON form of these options.
+     */
+    public void invalidate() {
+        cachedJson = null;
+    }
+
+    /**
+     * Returns the state the cached JSON form is valid for, which is captured once per serialization. The cached form
+     * is discarded as soon as the state is no longer equal to the state it was cached in. By default,
+     * {@link #UNCHANGED} is returned if the map is not shared (see {@link #getMap()}) and all values are
+     * {@link #isImmutable(Object) immutable}, as other changes are tracked by {@link #set} and {@link #unset}.
+     * 
+     * @return the current state, or null if changes of the values can not be detected and the JSON form must not be
+     *         cached (see {@link #isCacheable(Object)})
+     */
+    protected Object getState() {
+        if (!tracked) {
+            return null;
+        }
+        for (Object value : map.values()) {
+            if (!isImmutable(value)) {
+                return null;
+            }
+        }
+        return UNCHANGED;
+    }
+
+    /**
+     * Checks whether the JSON form can be cached for the given state.
+     * 
+     * @param state a state returned by {@link #getState()}
+     * @return true if the state is not null
+     */
+    protected boolean isCacheable(Object state) {
+        return state != null;
+    }
+
+    /**
+     * Checks whether the given option value is immutable, i.e. whether its JSON form can not change without replacing
+     * the value.
+     * 
+     * @param value the option value
+     * @return true for null, Strings, Characters, Booleans, the JDK Number types and enums
+     */
+    protected static boolean isImmutable(Object value) {
+        return value == null || value instanceof String || value instanceof Boolean || value instanceof Integer
+                || value instanceof Long || value instanceof Double || value instanceof Float || value instanceof Short
+                || value instanceof Byte || value instanceof Character || value instanceof BigDecimal
+                || value instanceof BigInteger || value instanceof Enum;
+    }
+
+    /**
+     * The serialized JSON form of the options along with the serializer and state it was created with.
+     */
+    private static final class CachedJson {
+        final JsonSerializer serializer;
+        final Object state;
+        final String json;
+
+        CachedJson(JsonSerializer serializer, Object state, String json) {
+            this.serializer = serializer;
+            this.state = state;
+            this.json = json;
+        }
+    }
+
 }
@@ -0,0 +1,59 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.util.options;
+
+import org.rauschig.wicketjs.JsLiteral.JsObject;
+import org.rauschig.wicketjs.util.JsonSerializer;
+import org.rauschig.wicketjs.util.json.IJsonCacheable;
+
+/**
+ * The JsObject returned by {@link Options#asObject()}. Its value is the map of the options, like the value of
+ * {@code JsLiteral.of(map)}, but it shares the cached JSON form of the options with the generator. A frozen literal
+ * holds a copy of the map and is therefore serialized without the cache.
+ */
+class OptionsObject extends JsObject implements IJsonCacheable {
+
+    private static final long serialVersionUID = -2186517760453371785L;
+
+    private final Options options;
+
+    OptionsObject(Options options) {
+        super(options.getTrackedMap());
+        this.options = options;
+    }
+
+    @Override
+    public Object getJsonState() {
+        return isFrozen() ? null : options.getJsonState();
+    }
+
+    @Override
+    public Object getJsonValue(Object state) {
+        return isFrozen() ? getValue() : options.getJsonValue(state);
+    }
+
+    @Override
+    public String getCachedJson(JsonSerializer serializer, Object state) {
+        return isFrozen() ? null : options.getCachedJson(serializer, state);
+    }
+
+    @Override
+    public void setCachedJson(JsonSerializer serializer, Object state, String json) {
+        if (!isFrozen()) {
+            options.setCachedJson(serializer, state, json);
+        }
+    }
+}
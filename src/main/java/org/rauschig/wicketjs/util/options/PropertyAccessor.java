@@ -0,0 +1,210 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.util.options;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+import org.apache.wicket.util.lang.Args;
+
+/**
+ * Reads a property expression of the form {@code a.b.c} from objects of a specific class through a chain of
+ * MethodHandles, rather than resolving the expression reflectively on each access like Wicket's
+ * {@code PropertyResolver} does. Each step resolves to a getter ({@code getX()} or {@code isX()}) or a field of the
+ * declared type of the previous step. A null value in the middle of the chain yields null.
+ * <p>
+ * Accessors are compiled once per class and expression and then cached. Expressions that can not be compiled (e.g.
+ * indexed properties, map keys, or properties that only exist on subclasses of a declared type) yield no accessor, in
+ * which case callers should fall back to the {@code PropertyResolver}.
+ * </p>
+ */
+public final class PropertyAccessor {
+
+    private static final Pattern EXPRESSION = Pattern.compile("[A-Za-z_$][A-Za-z0-9_$]*(\\.[A-Za-z_$][A-Za-z0-9_$]*)*");
+
+    private static final MethodType GETTER = MethodType.methodType(Object.class, Object.class);
+
+    /**
+     * Marks expressions that could not be compiled, as the cache can not hold null values.
+     */
+    private static final PropertyAccessor UNSUPPORTED = new PropertyAccessor(null, new MethodHandle[0]);
+
+    private static final ClassValue<ConcurrentMap<String, PropertyAccessor>> ACCESSORS =
+            new ClassValue<ConcurrentMap<String, PropertyAccessor>>() {
+                @Override
+                protected ConcurrentMap<String, PropertyAccessor> computeValue(Class<?> type) {
+                    return new ConcurrentHashMap<>();
+                }
+            };
+
+    private final String expression;
+
+    private final MethodHandle[] steps;
+
+    private PropertyAccessor(String expression, MethodHandle[] steps) {
+        this.expression = expression;
+        this.steps = steps;
+    }
+
+    /**
+     * Returns the compiled accessor of the given property expression for objects of the given class.
+     * 
+     * @param type the class of the objects the expression is evaluated on
+     * @param expression the property expression
+     * @return the accessor, or null if the expression can not be compiled
+     */
+    public static PropertyAccessor of(Class<?> type, String expression) {
+        Args.notNull(type, "type");
+        Args.notNull(expression, "expression");
+
+        ConcurrentMap<String, PropertyAccessor> accessors = ACCESSORS.get(type);
+        PropertyAccessor accessor = accessors.get(expression);
+        if (accessor == null) {
+            accessor = compile(type, expression);
+            PropertyAccessor existing = accessors.putIfAbsent(expression, accessor);
+            if (existing != null) {
+                accessor = existing;
+            }
+        }
+
+        return (accessor != UNSUPPORTED) ? accessor : null;
+    }
+
+    public String getExpression() {
+        return expression;
+    }
+
+    /**
+     * Reads the property from the given object.
+     * 
+     * @param target an instance of the class the accessor was compiled for
+     * @return the property value, or null if the target or an intermediate value is null
+     */
+    public Object getValue(Object target) {
+        Object value = target;
+        try {
+            for (MethodHandle step : steps) {
+                if (value == null) {
+                    return null;
+                }
+                value = (Object) step.invokeExact(value);
+            }
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Could not read property " + expression, e);
+        }
+        return value;
+    }
+
+    private static PropertyAccessor compile(Class<?> type, String expression) {
+        if (!EXPRESSION.matcher(expression).matches()) {
+            return UNSUPPORTED;
+        }
+
+        String[] names = expression.split("\\.");
+        MethodHandle[] steps = new MethodHandle[names.length];
+
+        Class<?> current = type;
+        for (int i = 0; i < names.length; i++) {
+            if (Map.class.isAssignableFrom(current) || Collection.class.isAssignableFrom(current)
+                    || current.isArray()) {
+                return UNSUPPORTED; // resolved by key or index by the PropertyResolver
+            }
+
+            MethodHandle step;
+            try {
+                step = findGetter(current, names[i]);
+            } catch (IllegalAccessException | RuntimeException e) {
+                return UNSUPPORTED;
+            }
+            if (step == null) {
+                return UNSUPPORTED;
+            }
+
+            current = step.type().returnType();
+            steps[i] = step.asType(GETTER);
+        }
+
+        return new PropertyAccessor(expression, steps);
+    }
+
+    private static MethodHandle findGetter(Class<?> type, String name) throws IllegalAccessException {
+        String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+
+        Method getter = findMethod(type, "get" + capitalized);
+        if (getter == null) {
+            getter = findMethod(type, "is" + capitalized);
+            if (getter != null && getter.getReturnType() != boolean.class && getter.getReturnType() != Boolean.class) {
+                getter = null;
+            }
+        }
+        if (getter != null) {
+            getter.setAccessible(true);
+            return MethodHandles.lookup().unreflect(getter);
+        }
+
+        Field field = findField(type, name);
+        if (field != null) {
+            field.setAccessible(true);
+            return MethodHandles.lookup().unreflectGetter(field);
+        }
+
+        return null;
+    }
+
+    private static Method findMethod(Class<?> type, String name) {
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            try {
+                Method method = c.getDeclaredMethod(name);
+                if (!Modifier.isStatic(method.getModifiers()) && method.getReturnType() != void.class) {
+                    return method;
+                }
+            } catch (NoSuchMethodException e) {
+                // continue with the super class
+            }
+        }
+
+        try {
+            return type.getMethod(name); // default methods of interfaces
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static Field findField(Class<?> type, String name) {
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            try {
+                Field field = c.getDeclaredField(name);
+                if (!Modifier.isStatic(field.getModifiers())) {
+                    return field;
+                }
+            } catch (NoSuchFieldException e) {
+                // continue with the super class
+            }
+        }
+        return null;
+    }
+}
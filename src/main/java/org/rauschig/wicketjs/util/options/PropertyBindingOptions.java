@@ -15,6 +15,10 @@
  */
 package org.rauschig.wicketjs.util.options;
 
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import org.apache.wicket.model.IModel;
 import org.apache.wicket.model.PropertyModel;
 
@@ -28,6 +32,13 @@ import org.apache.wicket.model.PropertyModel;
  * IOptions option = new PropertyBindingOptions(obj, &quot;someProperty&quot;);
  * option.get(&quot;someProperty&quot;); // equal to obj.getSomeProperty();
  * </pre>
+ * 
+ * The serialized JSON form is reused as long as all bound properties hold the same immutable values as when the
+ * options were last serialized. All bound properties are read in a single pass per render.
+ * <p>
+ * Options created via {@link #compiled(Object, String...)} bind {@link CompiledPropertyModel} instances instead, which
+ * read the properties through MethodHandles that are resolved once per class and property expression.
+ * </p>
  */
 public class PropertyBindingOptions extends Options {
 
@@ -35,6 +46,8 @@ public class PropertyBindingOptions extends Options {
 
     private Object modelObject;
 
+    private boolean compiled;
+
     public PropertyBindingOptions(Object object) {
         super();
         this.modelObject = object;
@@ -54,6 +67,33 @@ public class PropertyBindingOptions extends Options {
         }
     }
 
+    /**
+     * Creates a new IOptions instance that uses the given properties from the given object, which are read through
+     * compiled accessors rather than PropertyModel instances.
+     * 
+     * @param object the object to read the properties from
+     * @param properties the property expressions to read
+     * @return new PropertyBindingOptions
+     */
+    public static PropertyBindingOptions compiled(Object object, String... properties) {
+        PropertyBindingOptions options = new PropertyBindingOptions(object);
+        options.compiled = true;
+
+        for (String property : properties) {
+            options.add(property);
+        }
+        return options;
+    }
+
+    /**
+     * Returns whether properties are bound as {@link CompiledPropertyModel} rather than PropertyModel.
+     * 
+     * @return true if the options were created via {@link #compiled(Object, String...)}
+     */
+    public boolean isCompiled() {
+        return compiled;
+    }
+
     /**
      * Adds a new PropertyModel binding to these options using the key as both options key and property expression (on
      * the object the Options were created with).
@@ -62,7 +102,7 @@ public class PropertyBindingOptions extends Options {
      * @return this for chaining
      */
     public PropertyBindingOptions add(String key) {
-        return add(key, new PropertyModel<>(modelObject, key));
+        return add(key, key);
     }
 
     /**
@@ -74,6 +114,9 @@ public class PropertyBindingOptions extends Options {
      * @return this for chaining
      */
     public PropertyBindingOptions add(String key, String propertyExpression) {
+        if (compiled) {
+            return add(key, new CompiledPropertyModel<>(modelObject, propertyExpression));
+        }
         return add(key, new PropertyModel<>(modelObject, propertyExpression));
     }
 
@@ -86,7 +129,8 @@ public class PropertyBindingOptions extends Options {
      * @return this for chaining
      */
     public <T> PropertyBindingOptions add(String key, IModel<T> model) {
-        getMap().put(key, model);
+        getTrackedMap().put(key, model);
+        invalidate();
         return this;
     }
 
@@ -97,7 +141,7 @@ public class PropertyBindingOptions extends Options {
 
     @Override
     public Object get(String key) {
-        Object o = getMap().get(key);
+        Object o = getTrackedMap().get(key);
 
         if (o == null) {
             return null;
@@ -109,4 +153,79 @@ public class PropertyBindingOptions extends Options {
 
     }
 
+    /**
+     * Builds the map of keys and property values from the values captured in the given state, s.t. the properties are
+     * not read again.
+     */
+    @Override
+    public Object getJsonValue(Object state) {
+        Object[] values = (state instanceof Snapshot) ? ((Snapshot) state).values : readValues();
+
+        Map<String, Object> json = new LinkedHashMap<>(values.length * 2);
+        int i = 0;
+        for (String key : getKeys()) {
+            json.put(key, values[i++]);
+        }
+        return json;
+    }
+
+    /**
+     * Returns a snapshot of the current values of all bound properties.
+     * 
+     * @return a snapshot of the property values
+     */
+    @Override
+    protected Object getState() {
+        return new Snapshot(readValues());
+    }
+
+    /**
+     * Returns true if all property values of the given snapshot are immutable.
+     */
+    @Override
+    protected boolean isCacheable(Object state) {
+        return state instanceof Snapshot && ((Snapshot) state).immutable;
+    }
+
+    /**
+     * Reads the values of all bound properties in the order of the keys.
+     */
+    private Object[] readValues() {
+        Object[] values = new Object[size()];
+
+        int i = 0;
+        for (Object value : getTrackedMap().values()) {
+            values[i++] = (value instanceof IModel) ? ((IModel<?>) value).getObject() : value;
+        }
+        return values;
+    }
+
+    /**
+     * The property values read in a single pass, which are compared to the values the cached JSON form was created
+     * with.
+     */
+    private static final class Snapshot {
+        final Object[] values;
+        final boolean immutable;
+
+        Snapshot(Object[] values) {
+            this.values = values;
+
+            boolean all = true;
+            for (Object value : values) {
+                all &= isImmutable(value);
+            }
+            this.immutable = all;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Snapshot && Arrays.equals(values, ((Snapshot) obj).values);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(values);
+        }
+    }
 }
@@ -0,0 +1,177 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.util.options;
+
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.apache.wicket.MetaDataKey;
+import org.apache.wicket.request.cycle.RequestCycle;
+import org.apache.wicket.util.lang.Args;
+import org.rauschig.wicketjs.JsLiteral.JsObject;
+import org.rauschig.wicketjs.markup.head.JsSharedOptionsHeaderItem;
+
+/**
+ * Marks IOptions that are shared between many widgets. A {@link org.rauschig.wicketjs.behavior.WidgetBehavior} that
+ * is configured with SharedOptions does not inline the options object into its initialization script, but refers to a
+ * page-scoped variable that is defined once by a {@link JsSharedOptionsHeaderItem}.
+ * 
+ * <pre>
+ * SharedOptions defaults = new SharedOptions(new Options().set(&quot;delay&quot;, 300).set(...));
+ * 
+ * for (...) {
+ *     item.add(new WidgetBehavior(&quot;tooltip&quot;, defaults)); // $('#id').tooltip(WicketJs.opts.o3fa2...)
+ * }
+ * </pre>
+ * 
+ * The options are generated only once per request, so the same instance should be passed to all widgets rather than
+ * equal copies. Modifying the options through this object invalidates the generated literal.
+ */
+public class SharedOptions implements IOptions {
+
+    private static final long serialVersionUID = 4377024211385962580L;
+
+    /**
+     * The header items generated in the current request.
+     */
+    private static final MetaDataKey<Map<SharedOptions, JsSharedOptionsHeaderItem>> GENERATED =
+            new MetaDataKey<Map<SharedOptions, JsSharedOptionsHeaderItem>>() {
+                private static final long serialVersionUID = 1L;
+            };
+
+    private final IOptions options;
+
+    private final String name;
+
+    /**
+     * Shares the given options under a name that is derived from their content.
+     * 
+     * @param options the options to share
+     */
+    public SharedOptions(IOptions options) {
+        this(options, null);
+    }
+
+    /**
+     * Shares the given options under the given name, which has to be unique within the page.
+     * 
+     * @param options the options to share
+     * @param name a JavaScript identifier, or null to derive the name from the content of the options
+     */
+    public SharedOptions(IOptions options, String name) {
+        this.options = Args.notNull(options, "options");
+        this.name = name;
+    }
+
+    /**
+     * Returns the shared options.
+     * 
+     * @return the wrapped IOptions
+     */
+    public IOptions getOptions() {
+        return options;
+    }
+
+    /**
+     * Returns the explicit name of the options.
+     * 
+     * @return a JavaScript identifier, or null if the name is derived from the content
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the header item that defines the options object. The item is generated once per request and cached in
+     * the meta data of the RequestCycle.
+     * 
+     * @return a JsSharedOptionsHeaderItem
+     */
+    public JsSharedOptionsHeaderItem getHeaderItem() {
+        Map<SharedOptions, JsSharedOptionsHeaderItem> generated = getGenerated(true);
+        if (generated == null) {
+            return JsSharedOptionsHeaderItem.of(options, name);
+        }
+
+        JsSharedOptionsHeaderItem item = generated.get(this);
+        if (item == null) {
+            item = JsSharedOptionsHeaderItem.of(options, name);
+            generated.put(this, item);
+        }
+        return item;
+    }
+
+    @Override
+    public SharedOptions set(String key, Object value) {
+        options.set(key, value);
+        invalidate();
+        return this;
+    }
+
+    @Override
+    public Object get(String key) {
+        return options.get(key);
+    }
+
+    @Override
+    public SharedOptions unset(String key) {
+        options.unset(key);
+        invalidate();
+        return this;
+    }
+
+    @Override
+    public int size() {
+        return options.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return options.isEmpty();
+    }
+
+    @Override
+    public Collection<String> getKeys() {
+        return options.getKeys();
+    }
+
+    @Override
+    public JsObject asObject() {
+        return options.asObject();
+    }
+
+    private void invalidate() {
+        Map<SharedOptions, JsSharedOptionsHeaderItem> generated = getGenerated(false);
+        if (generated != null) {
+            generated.remove(this);
+        }
+    }
+
+    private static Map<SharedOptions, JsSharedOptionsHeaderItem> getGenerated(boolean create) {
+        RequestCycle cycle = RequestCycle.get();
+        if (cycle == null) {
+            return null;
+        }
+
+        Map<SharedOptions, JsSharedOptionsHeaderItem> generated = cycle.getMetaData(GENERATED);
+        if (generated == null && create) {
+            generated = new IdentityHashMap<>();
+            cycle.setMetaData(GENERATED, generated);
+        }
+        return generated;
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+/*
+ * Rehydrates the column-oriented tables of wicket-js (JsLiteral.JsTable) into arrays of row objects.
+ *
+ * WicketJs.tableRows({cols: ['a', 'b'], data: [[1, 2], ['x', 'y']]}) returns [{a: 1, b: 'x'}, {a: 2, b: 'y'}].
+ */
+;(function (window) {
+    'use strict';
+
+    var WicketJs = window.WicketJs = window.WicketJs || {};
+
+    if (WicketJs.tableRows) {
+        return;
+    }
+
+    WicketJs.tableRows = function (table) {
+        var cols = table.cols,
+            data = table.data,
+            length = cols.length ? data[0].length : 0,
+            rows = new Array(length),
+            row, i, c;
+
+        for (i = 0; i < length; i++) {
+            row = {};
+            for (c = 0; c < cols.length; c++) {
+                row[cols[c]] = data[c][i];
+            }
+            rows[i] = row;
+        }
+
+        return rows;
+    };
+})(window);
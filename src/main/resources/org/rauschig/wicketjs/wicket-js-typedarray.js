@@ -0,0 +1,80 @@
+/*
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+/*
+ * Decodes the base64 encoded payloads of wicket-js typed array literals (JsLiteral.JsTypedArray).
+ *
+ * WicketJs.typedArray(type, payload[, base]) returns
+ *   'f64': a Float64Array of little-endian doubles,
+ *   'i32': an Int32Array of little-endian 32-bit integers,
+ *   'd32': a Float64Array starting with base, followed by the running sum of the little-endian 32-bit deltas.
+ */
+;(function (window) {
+    'use strict';
+
+    var WicketJs = window.WicketJs = window.WicketJs || {};
+
+    if (WicketJs.typedArray) {
+        return;
+    }
+
+    function decode(payload) {
+        var binary = window.atob(payload),
+            length = binary.length,
+            bytes = new Uint8Array(length),
+            i;
+
+        for (i = 0; i < length; i++) {
+            bytes[i] = binary.charCodeAt(i);
+        }
+
+        return new DataView(bytes.buffer);
+    }
+
+    WicketJs.typedArray = function (type, payload, base) {
+        var view = decode(payload),
+            result, length, sum, i;
+
+        if (type === 'f64') {
+            length = view.byteLength / 8;
+            result = new Float64Array(length);
+            for (i = 0; i < length; i++) {
+                result[i] = view.getFloat64(i * 8, true);
+            }
+        } else if (type === 'i32') {
+            length = view.byteLength / 4;
+            result = new Int32Array(length);
+            for (i = 0; i < length; i++) {
+                result[i] = view.getInt32(i * 4, true);
+            }
+        } else if (type === 'd32') {
+            if (base === undefined) {
+                return new Float64Array(0);
+            }
+
+            length = view.byteLength / 4;
+            result = new Float64Array(length + 1);
+            result[0] = sum = base;
+            for (i = 0; i < length; i++) {
+                sum += view.getInt32(i * 4, true);
+                result[i + 1] = sum;
+            }
+        } else {
+            throw new Error('Unknown typed array type: ' + type);
+        }
+
+        return result;
+    };
+})(window);
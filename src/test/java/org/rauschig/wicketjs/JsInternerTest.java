@@ -0,0 +1,203 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.wicket.model.Model;
+
+import org.junit.Test;
+import org.rauschig.wicketjs.generator.JsGenerator;
+import org.rauschig.wicketjs.jquery.JQuery;
+
+/**
+ * JsInternerTest
+ */
+public class JsInternerTest {
+
+    @Test
+    public void intern_null_returnsNull() throws Exception {
+        assertNull(JsInterner.intern(null));
+    }
+
+    @Test
+    public void intern_freezesNode() throws Exception {
+        JsCall call = new JsCall("alert", "foo");
+
+        assertFalse(call.isFrozen());
+        JsInterner.intern(call);
+        assertTrue(call.isFrozen());
+    }
+
+    @Test
+    public void intern_structurallyEqualNodes_returnsSameInstance() throws Exception {
+        JsCall a = JsInterner.intern(new JsCall("alert", "foo", 42));
+        JsCall b = JsInterner.intern(new JsCall("alert", "foo", 42));
+
+        assertSame(a, b);
+    }
+
+    @Test
+    public void intern_differentNodes_returnsDifferentInstances() throws Exception {
+        JsCall a = JsInterner.intern(new JsCall("alert", "foo"));
+        JsCall b = JsInterner.intern(new JsCall("alert", "bar"));
+
+        assertNotSame(a, b);
+    }
+
+    @Test
+    public void intern_sameSourceDifferentType_returnsDifferentInstances() throws Exception {
+        IJsExpression a = JsInterner.intern(new JsIdentifier("foo"));
+        IJsExpression b = JsInterner.intern(new JsExpression("foo"));
+
+        assertNotSame(a, b);
+    }
+
+    @Test
+    public void intern_sameSourceDifferentStructure_returnsDifferentInstances() throws Exception {
+        JsCall a = JsInterner.intern(new JsCall("f", new JsExpression("'a'")));
+        JsCall b = JsInterner.intern(new JsCall("f", "a"));
+
+        assertNotSame(a, b);
+        assertFalse(a.equals(b));
+    }
+
+    @Test
+    public void intern_lazyLiteral_isNotPooled() throws Exception {
+        List<Integer> values = Arrays.asList(1, 2);
+        JsLiteral.JsIterableArray a = JsLiteral.lazy(values);
+        JsLiteral.JsIterableArray b = JsLiteral.lazy(values);
+
+        assertSame(a, JsInterner.intern(a));
+        assertSame(b, JsInterner.intern(b));
+        assertNotSame(JsInterner.intern(new JsCall("f", a)), JsInterner.intern(new JsCall("f", b)));
+    }
+
+    @Test
+    public void intern_modelLiteral_isNotPooled() throws Exception {
+        JsLiteral.JsObject a = JsLiteral.of(Model.of("a"));
+        JsLiteral.JsObject b = JsLiteral.of(Model.of("a"));
+
+        assertNotSame(JsInterner.intern(new JsCall("f", a)), JsInterner.intern(new JsCall("f", b)));
+    }
+
+    @Test
+    public void freeze_lazyIteratorLiteral_canBeGeneratedAfterwards() throws Exception {
+        JsCall call = new JsCall("f", JsLiteral.lazy(Arrays.asList(1, 2).iterator()));
+        call.freeze();
+
+        assertEquals("f([1,2])", new JsGenerator(call).generate());
+    }
+
+    @Test
+    public void freeze_internsChildren() throws Exception {
+        JQuery a = new JQuery(JsExpression.THIS);
+        a.call("show");
+        JQuery b = new JQuery(JsExpression.THIS);
+        b.call("hide");
+
+        new JsStatements(a, b).freeze();
+
+        assertSame(a.getExpressions().get(0), b.getExpressions().get(0));
+    }
+
+    @Test
+    public void freeze_withPlaceholders_internsByPlaceholderName() throws Exception {
+        JsCall a = JsInterner.intern(new JsCall("alert", new JsPlaceholder("a")));
+        JsCall b = JsInterner.intern(new JsCall("alert", new JsPlaceholder("a")));
+        JsCall c = JsInterner.intern(new JsCall("alert", new JsPlaceholder("c")));
+
+        assertSame(a, b);
+        assertNotSame(a, c);
+    }
+
+    @Test
+    public void freeze_doesNotChangeGeneratedCode() throws Exception {
+        JsStatements statements = new JsStatements(new JsIf(new JsIdentifier("x"), new JsCall("foo", 1)),
+                new JsVariableDefinition("y", "bar"), new JsFunction(new JsReturn(true), "a", "b"));
+        String expected = new JsGenerator(statements).generate();
+
+        assertEquals(expected, new JsGenerator(statements.freeze()).generate());
+    }
+
+    @Test
+    public void freeze_keepsStructuralHashCode() throws Exception {
+        JsStatements statements = new JsStatements(new JsIf(new JsIdentifier("x"), new JsCall("foo", 1)),
+                new JsVariableDefinition("y", "bar"), new JsFunction(new JsReturn(true), "a", "b"));
+        int expected = new JsStatements(new JsIf(new JsIdentifier("x"), new JsCall("foo", 1)),
+                new JsVariableDefinition("y", "bar"), new JsFunction(new JsReturn(true), "a", "b")).hashCode();
+
+        assertEquals(expected, statements.freeze().hashCode());
+        assertEquals(expected, statements.hashCode());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void addArgument_onFrozenCall_throwsException() throws Exception {
+        new JsCall("alert").freeze().addArgument("foo");
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void chain_onFrozenCallChain_throwsException() throws Exception {
+        new JsCallChain("foo").freeze().chain("bar");
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void add_onFrozenStatements_throwsException() throws Exception {
+        new JsStatements().freeze().add("foo");
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void addParameter_onFrozenFunction_throwsException() throws Exception {
+        new JsFunction("foo").freeze().addParameter("bar");
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void not_onFrozenIf_throwsException() throws Exception {
+        new JsIf("true", new JsStatement("foo")).freeze().not();
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void setValue_onFrozenLiteral_throwsException() throws Exception {
+        JsLiteral.of("foo").freeze().setValue("bar");
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void setValue_onSharedBoolean_throwsException() throws Exception {
+        JsLiteral.JsBoolean.TRUE.setValue(false);
+    }
+
+    @Test
+    public void freeze_literalMap_copiesMap() throws Exception {
+        Map<String, Object> map = new HashMap<>();
+        map.put("a", 1);
+
+        JsLiteral.JsObject literal = JsLiteral.of(map);
+        literal.freeze();
+        map.put("b", 2);
+
+        assertEquals(1, ((Map<?, ?>) literal.getValue()).size());
+    }
+}
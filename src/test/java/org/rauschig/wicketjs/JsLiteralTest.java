@@ -15,6 +15,7 @@
  */
 package org.rauschig.wicketjs;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
@@ -28,6 +29,22 @@ import org.junit.Test;
 
 public class JsLiteralTest {
 
+    @Test(expected = IllegalArgumentException.class)
+    public void int32_withValueOutOfRange_throwsException() throws Exception {
+        JsLiteral.int32(new long[] { 1, Integer.MAX_VALUE + 1L });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void delta_withDifferenceOutOfRange_throwsException() throws Exception {
+        JsLiteral.delta(new long[] { 0, Integer.MAX_VALUE, Long.MIN_VALUE });
+    }
+
+    @Test
+    public void typedArray_equals_considersEncoding() throws Exception {
+        assertEquals(JsLiteral.int32(new long[] { 1, 2 }), JsLiteral.int32(new long[] { 1, 2 }));
+        assertFalse(JsLiteral.int32(new long[] { 1, 2 }).equals(JsLiteral.delta(new long[] { 1, 2 })));
+    }
+
     @Test
     public void of_boolean_returnsBooleanConstant() throws Exception {
         assertSame(JsBoolean.FALSE, of(false));
@@ -79,4 +96,23 @@ public class JsLiteralTest {
         assertFalse(jsArray.equals(arr2));
         assertFalse(jsArray.equals(null));
     }
+
+    @Test
+    public void equals_array_comparesElements() throws Exception {
+        JsArray a = new JsArray(new Object[] { 1, "two", new Object[] { 3 } });
+        JsArray b = new JsArray(new Object[] { 1, "two", new Object[] { 3 } });
+
+        assertTrue(a.equals(b));
+        assertEquals(a.hashCode(), b.hashCode());
+        assertFalse(a.equals(new JsArray(new Object[] { 1, "two" })));
+    }
+
+    @Test
+    public void equals_primitiveAndBoxedNumber_areEqual() throws Exception {
+        assertTrue(of(42).equals(new JsNumber(42)));
+        assertTrue(new JsNumber(42).equals(of(42)));
+        assertEquals(of(42).hashCode(), new JsNumber(42).hashCode());
+        assertTrue(of(4.2).equals(4.2));
+        assertFalse(of(42).equals(of(42L)));
+    }
 }
@@ -0,0 +1,84 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.Collections;
+
+import org.apache.wicket.Application;
+import org.junit.Test;
+import org.rauschig.wicketjs.generator.JsStringEscaper;
+import org.rauschig.wicketjs.util.JsonSerializer;
+
+public class WicketJsSettingsTest extends AbstractWicketTest {
+
+    @Test
+    public void get_withoutInstalledSettings_returnsDefaultSettings() throws Exception {
+        WicketJsSettings settings = WicketJsSettings.get(getTester().getApplication());
+
+        assertNotNull(settings);
+        assertSame(settings, WicketJsSettings.get(getTester().getApplication()));
+        assertNotNull(settings.getJsonSerializer());
+    }
+
+    @Test
+    public void get_withInstalledSettings_returnsInstalledSettings() throws Exception {
+        Application application = getTester().getApplication();
+        WicketJsSettings defaults = WicketJsSettings.get(application);
+
+        WicketJsSettings settings = WicketJsSettings.install(application);
+
+        assertNotSame(defaults, settings);
+        assertSame(settings, WicketJsSettings.get(application));
+        assertSame(settings, WicketJsSettings.get());
+    }
+
+    @Test
+    public void getJsonSerializer_returnsSharedInstance() throws Exception {
+        WicketJsSettings settings = WicketJsSettings.install(getTester().getApplication());
+
+        assertSame(settings.getJsonSerializer(), settings.getJsonSerializer());
+
+        JsonSerializer serializer = new JsonSerializer();
+        settings.setJsonSerializer(serializer);
+        assertSame(serializer, settings.getJsonSerializer());
+    }
+
+    @Test
+    public void getJsonSerializer_escapesLikeStringEscaper() throws Exception {
+        WicketJsSettings settings = WicketJsSettings.install(getTester().getApplication());
+        assertSame(JsStringEscaper.JSON, settings.getJsonSerializer().getEscaper());
+
+        settings.setStringEscaper(JsStringEscaper.INLINE_SCRIPT);
+        assertSame(JsStringEscaper.JSON_INLINE_SCRIPT, settings.getJsonSerializer().getEscaper());
+        assertEquals("{\"name\":\"\\u003C/script\\u003E\"}",
+                settings.getJsonSerializer().serialize(Collections.singletonMap("name", "</script>")));
+    }
+
+    @Test
+    public void setStringEscaper_keepsSetJsonSerializer() throws Exception {
+        WicketJsSettings settings = WicketJsSettings.install(getTester().getApplication());
+        JsonSerializer serializer = new JsonSerializer(JsStringEscaper.DEFAULT);
+        settings.setJsonSerializer(serializer);
+
+        settings.setStringEscaper(JsStringEscaper.INLINE_SCRIPT);
+        assertSame(serializer, settings.getJsonSerializer());
+    }
+}
@@ -16,15 +16,31 @@
 package org.rauschig.wicketjs.behavior;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
 
 import org.apache.wicket.Component;
+import org.apache.wicket.MarkupContainer;
+import org.apache.wicket.markup.IMarkupResourceStreamProvider;
+import org.apache.wicket.markup.html.WebMarkupContainer;
+import org.apache.wicket.markup.html.WebPage;
+import org.apache.wicket.markup.html.list.ListItem;
+import org.apache.wicket.markup.html.list.ListView;
+import org.apache.wicket.mock.MockApplication;
+import org.apache.wicket.util.resource.IResourceStream;
+import org.apache.wicket.util.resource.StringResourceStream;
+import org.apache.wicket.util.tester.WicketTester;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
 import org.rauschig.wicketjs.IJsExpression;
+import org.rauschig.wicketjs.JsCall;
+import org.rauschig.wicketjs.JsExpression;
+import org.rauschig.wicketjs.JsLiteral;
 import org.rauschig.wicketjs.jquery.JQuery;
 
 /**
@@ -81,6 +97,108 @@ public class JQueryEventBehaviorTest {
         assertEquals("$('#id').on('click','button',function(eventObject){$('#id').toggleClass('test');})", js);
     }
 
+    @Test
+    public void behavior_delegatedInRepeater_bindsSingleHandlerToContainer() throws Exception {
+        WicketTester tester = new WicketTester(new MockApplication());
+        try {
+            tester.startPage(new DelegatingPage(false));
+            String document = tester.getLastResponseAsString();
+
+            assertEquals(1, count(document, ".on("));
+            assertEquals(3, count(document, JQueryEventBehavior.DELEGATION_ATTRIBUTE + "=\"k"));
+            assertTrue(document.contains("<ul wicket:id=\"list\" id=\"list"));
+
+            String key = document.substring(document.indexOf("data-wicketjs-on=\"") + 18);
+            key = key.substring(0, key.indexOf('"'));
+            assertTrue(document.contains("$('#list1').off('click." + key + "').on('click." + key
+                    + "','[data-wicketjs-on~=\"" + key + "\"]',function(eventObject){$(this).toggleClass('selected');})"));
+        } finally {
+            tester.destroy();
+        }
+    }
+
+    @Test
+    public void behavior_delegatedWithComponentSpecificCallbacks_bindsHandlerPerComponent() throws Exception {
+        WicketTester tester = new WicketTester(new MockApplication());
+        try {
+            tester.startPage(new DelegatingPage(true));
+            String document = tester.getLastResponseAsString();
+
+            assertEquals(3, count(document, ".on("));
+        } finally {
+            tester.destroy();
+        }
+    }
+
+    @Test
+    public void behavior_delegatedCallbackWithDependency_rendersDependency() throws Exception {
+        WicketTester tester = new WicketTester(new MockApplication());
+        try {
+            tester.startPage(new DelegatingPage(false) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected IJsExpression callback(Component component, boolean componentSpecific) {
+                    return new JsCall("plot", new JsLiteral.JsTypedArray(new int[] { 1, 2, 3 },
+                            JsLiteral.JsTypedArray.Encoding.INT32));
+                }
+            });
+            String document = tester.getLastResponseAsString();
+
+            assertEquals(1, count(document, ".on("));
+            assertTrue(document.contains("wicket-js-typedarray.js"));
+            assertTrue(document.indexOf("wicket-js-typedarray.js") < document.indexOf(".on("));
+        } finally {
+            tester.destroy();
+        }
+    }
+
+    private static int count(String document, String token) {
+        int count = 0;
+        for (int i = document.indexOf(token); i >= 0; i = document.indexOf(token, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    public static class DelegatingPage extends WebPage implements IMarkupResourceStreamProvider {
+        private static final long serialVersionUID = 1L;
+
+        public DelegatingPage(final boolean componentSpecific) {
+            List<String> items = Arrays.asList("a", "b", "c");
+
+            WebMarkupContainer list = new WebMarkupContainer("list");
+            add(list);
+
+            list.add(new ListView<String>("items", items) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected void populateItem(final ListItem<String> item) {
+                    item.add(new JQueryEventBehavior("click") {
+                        private static final long serialVersionUID = 1L;
+
+                        @Override
+                        protected IJsExpression callback() {
+                            return DelegatingPage.this.callback(item, componentSpecific);
+                        }
+                    }.setDelegated(true));
+                }
+            });
+        }
+
+        protected IJsExpression callback(Component component, boolean componentSpecific) {
+            return componentSpecific ? JQuery.$(component).toggleClass("selected") : JQuery.$(JsExpression.THIS)
+                    .toggleClass("selected");
+        }
+
+        @Override
+        public IResourceStream getMarkupResourceStream(MarkupContainer container, Class<?> containerClass) {
+            return new StringResourceStream("<html><head></head><body>"
+                    + "<ul wicket:id=\"list\"><li wicket:id=\"items\"></li></ul></body></html>");
+        }
+    }
+
     private CharSequence getJavaScript(JQueryEventBehavior behavior) throws Exception {
         Method method = AbstractJsBehavior.class.getDeclaredMethod("domReadyScript");
         method.setAccessible(true);
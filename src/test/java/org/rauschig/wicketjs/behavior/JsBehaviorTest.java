@@ -0,0 +1,84 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.behavior;
+
+import static org.junit.Assert.assertTrue;
+
+import org.apache.wicket.MarkupContainer;
+import org.apache.wicket.markup.IMarkupResourceStreamProvider;
+import org.apache.wicket.markup.html.WebMarkupContainer;
+import org.apache.wicket.markup.html.WebPage;
+import org.apache.wicket.util.resource.IResourceStream;
+import org.apache.wicket.util.resource.StringResourceStream;
+import org.junit.Test;
+import org.rauschig.wicketjs.AbstractWicketTest;
+import org.rauschig.wicketjs.IJavaScript;
+import org.rauschig.wicketjs.JsCall;
+
+public class JsBehaviorTest extends AbstractWicketTest {
+
+    @Test
+    public void render_generatesDomReadyJs() throws Exception {
+        getTester().startPage(BehaviorPage.class);
+
+        assertTrue(getTester().getLastResponseAsString().contains("generated('a');"));
+    }
+
+    @Test
+    public void render_withOverriddenDomReadyScript_rendersOverriddenScript() throws Exception {
+        getTester().startPage(BehaviorPage.class);
+        String document = getTester().getLastResponseAsString();
+
+        assertTrue(document.contains("custom();generated('b');"));
+    }
+
+    private static class GeneratingBehavior extends JsBehavior {
+        private static final long serialVersionUID = 1L;
+
+        private final String argument;
+
+        GeneratingBehavior(String argument) {
+            this.argument = argument;
+        }
+
+        @Override
+        protected IJavaScript domReadyJs() {
+            return new JsCall("generated", argument);
+        }
+    }
+
+    public static class BehaviorPage extends WebPage implements IMarkupResourceStreamProvider {
+        private static final long serialVersionUID = 1L;
+
+        public BehaviorPage() {
+            add(new WebMarkupContainer("a").add(new GeneratingBehavior("a")));
+            add(new WebMarkupContainer("b").add(new GeneratingBehavior("b") {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected CharSequence domReadyScript() {
+                    return "custom();" + super.domReadyScript();
+                }
+            }));
+        }
+
+        @Override
+        public IResourceStream getMarkupResourceStream(MarkupContainer container, Class<?> containerClass) {
+            return new StringResourceStream("<html><head></head><body><div wicket:id='a'></div>"
+                    + "<div wicket:id='b'></div></body></html>");
+        }
+    }
+}
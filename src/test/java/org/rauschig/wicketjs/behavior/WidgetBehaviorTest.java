@@ -0,0 +1,233 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.behavior;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.apache.wicket.MarkupContainer;
+import org.apache.wicket.markup.IMarkupResourceStreamProvider;
+import org.apache.wicket.markup.html.WebMarkupContainer;
+import org.apache.wicket.markup.html.WebPage;
+import org.apache.wicket.util.resource.IResourceStream;
+import org.apache.wicket.util.resource.StringResourceStream;
+import org.junit.Test;
+import org.rauschig.wicketjs.AbstractWicketTest;
+import org.rauschig.wicketjs.IJavaScript;
+import org.rauschig.wicketjs.JsCall;
+import org.rauschig.wicketjs.WicketJsSettings;
+import org.rauschig.wicketjs.generator.JsGenerator;
+import org.rauschig.wicketjs.markup.head.JsWidgetCoalescer;
+import org.rauschig.wicketjs.util.Strings;
+import org.rauschig.wicketjs.util.options.Options;
+import org.rauschig.wicketjs.util.options.SharedOptions;
+
+public class WidgetBehaviorTest extends AbstractWicketTest {
+
+    @Test
+    public void render_withoutCoalescer_initializesEachWidget() throws Exception {
+        getTester().startPage(WidgetPage.class);
+        String document = getTester().getLastResponseAsString();
+
+        assertTrue(document.contains("$('#a1').slider({\"min\":0});"));
+        assertTrue(document.contains("$('#b2').slider({\"min\":0});"));
+        assertTrue(document.contains("$('#c3').slider({\"min\":1});"));
+        assertTrue(document.contains("$('input','#d4').slider({\"min\":0});"));
+        assertTrue(document.contains("custom('#e5');"));
+    }
+
+    @Test
+    public void render_withCoalescer_groupsWidgetsWithEqualOptions() throws Exception {
+        getTester().getApplication().setHeaderResponseDecorator(new JsWidgetCoalescer());
+
+        getTester().startPage(WidgetPage.class);
+        String document = getTester().getLastResponseAsString();
+
+        assertTrue(document.contains("$('#a1,#b2').slider({\"min\":0});"));
+        assertTrue(document.contains("$('#c3').slider({\"min\":1});"));
+        assertTrue(document.contains("$('input','#d4').slider({\"min\":0});"));
+        assertTrue(document.contains("custom('#e5');"));
+        assertEquals(1, document.split("\\.slider\\(\\{\"min\":0\\}\\)", -1).length - 2);
+    }
+
+    @Test
+    public void render_withCoalescer_rendersWidgetsAfterOtherDomReadyScripts() throws Exception {
+        getTester().getApplication().setHeaderResponseDecorator(new JsWidgetCoalescer());
+
+        getTester().startPage(WidgetPage.class);
+        String document = getTester().getLastResponseAsString();
+
+        int custom = document.indexOf("custom('#e5');");
+        assertTrue(custom >= 0);
+        assertTrue(custom < document.indexOf("$('#a1,#b2').slider({\"min\":0});"));
+        assertTrue(custom < document.indexOf("$('#c3').slider({\"min\":1});"));
+    }
+
+    @Test
+    public void render_withCoalescer_doesNotGroupWidgetsThatAreNotCoalescable() throws Exception {
+        getTester().getApplication().setHeaderResponseDecorator(new JsWidgetCoalescer());
+
+        getTester().startPage(SharedOptionsPage.class);
+        String document = getTester().getLastResponseAsString();
+
+        assertTrue(document.contains("$('#a1').slider(WicketJs.opts.defaults);"));
+        assertTrue(document.contains("$('#b2').slider(WicketJs.opts.defaults);"));
+    }
+
+    @Test
+    public void getCallArguments_withSharedOptions_returnsObjectLiteral() throws Exception {
+        WidgetBehavior behavior = new WidgetBehavior("slider", new SharedOptions(new Options().set("min", 0), "d"));
+
+        assertEquals("f({\"min\":0})", new JsGenerator(new JsCall("f", behavior.getCallArguments())).generate());
+    }
+
+    @Test
+    public void render_withSharedOptions_definesOptionsOnce() throws Exception {
+        getTester().startPage(SharedOptionsPage.class);
+        String document = getTester().getLastResponseAsString();
+
+        assertEquals(1, count(document, "WicketJs.opts.defaults={\"min\":0,\"max\":10};"));
+        assertTrue(document.contains("$('#a1').slider(WicketJs.opts.defaults);"));
+        assertTrue(document.contains("$('#b2').slider(WicketJs.opts.defaults);"));
+        assertTrue(document.contains("$('#c3').slider({\"min\":1});"));
+    }
+
+    @Test
+    public void render_withEqualSharedOptionsOfSameName_definesOptionsOnce() throws Exception {
+        getTester().startPage(new SameNameSharedOptionsPage(0));
+        String document = getTester().getLastResponseAsString();
+
+        assertEquals(1, count(document, "WicketJs.opts.defaults={\"min\":0};"));
+        assertTrue(document.contains("$('#a1').slider(WicketJs.opts.defaults);"));
+        assertTrue(document.contains("$('#b2').slider(WicketJs.opts.defaults);"));
+    }
+
+    @Test
+    public void render_withDifferentSharedOptionsOfSameName_fails() throws Exception {
+        try {
+            getTester().startPage(new SameNameSharedOptionsPage(1));
+            fail("Expected conflicting shared options to fail");
+        } catch (Exception e) {
+            Throwable cause = e;
+            while (cause != null && !(cause instanceof IllegalStateException)) {
+                cause = cause.getCause();
+            }
+            assertNotNull(cause);
+            assertTrue(cause.getMessage().contains("'defaults'"));
+        }
+    }
+
+    @Test
+    public void render_withHoistingThreshold_definesEqualOptionsOnce() throws Exception {
+        WicketJsSettings.install(getTester().getApplication()).setOptionsHoistingThreshold(8);
+
+        getTester().startPage(WidgetPage.class);
+        String document = getTester().getLastResponseAsString();
+
+        String name = "WicketJs.opts.o" + Long.toHexString(Strings.hash("{\"min\":0}"));
+        assertEquals(1, count(document, name + "={\"min\":0};"));
+        assertTrue(document.contains("$('#a1').slider(" + name + ");"));
+        assertTrue(document.contains("$('#b2').slider(" + name + ");"));
+        assertTrue(document.contains("$('input','#d4').slider(" + name + ");"));
+        assertTrue(document.contains("custom('#e5');"));
+    }
+
+    @Test
+    public void render_belowHoistingThreshold_inlinesOptions() throws Exception {
+        WicketJsSettings.install(getTester().getApplication()).setOptionsHoistingThreshold(100);
+
+        getTester().startPage(WidgetPage.class);
+        String document = getTester().getLastResponseAsString();
+
+        assertTrue(document.contains("$('#a1').slider({\"min\":0});"));
+        assertEquals(0, count(document, "WicketJs.opts"));
+    }
+
+    private static int count(String document, String substring) {
+        int count = 0;
+        for (int i = document.indexOf(substring); i >= 0; i = document.indexOf(substring, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+
+    public static class SharedOptionsPage extends WebPage implements IMarkupResourceStreamProvider {
+        private static final long serialVersionUID = 1L;
+
+        public SharedOptionsPage() {
+            SharedOptions defaults = new SharedOptions(new Options().set("min", 0).set("max", 10), "defaults");
+
+            add(new WebMarkupContainer("a").add(new WidgetBehavior("slider", defaults)));
+            add(new WebMarkupContainer("b").add(new WidgetBehavior("slider", defaults)));
+            add(new WebMarkupContainer("c").add(new WidgetBehavior("slider", new Options().set("min", 1))));
+        }
+
+        @Override
+        public IResourceStream getMarkupResourceStream(MarkupContainer container, Class<?> containerClass) {
+            return new StringResourceStream("<html><head></head><body><div wicket:id='a'></div><div wicket:id='b'></div>"
+                    + "<div wicket:id='c'></div></body></html>");
+        }
+    }
+
+    public static class SameNameSharedOptionsPage extends WebPage implements IMarkupResourceStreamProvider {
+        private static final long serialVersionUID = 1L;
+
+        public SameNameSharedOptionsPage(int secondMin) {
+            add(new WebMarkupContainer("a").add(new WidgetBehavior("slider", new SharedOptions(new Options().set("min",
+                    0), "defaults"))));
+            add(new WebMarkupContainer("b").add(new WidgetBehavior("slider", new SharedOptions(new Options().set("min",
+                    secondMin), "defaults"))));
+        }
+
+        @Override
+        public IResourceStream getMarkupResourceStream(MarkupContainer container, Class<?> containerClass) {
+            return new StringResourceStream("<html><head></head><body><div wicket:id='a'></div><div wicket:id='b'></div>"
+                    + "</body></html>");
+        }
+    }
+
+    public static class WidgetPage extends WebPage implements IMarkupResourceStreamProvider {
+        private static final long serialVersionUID = 1L;
+
+        public WidgetPage() {
+            add(new WebMarkupContainer("a").add(new WidgetBehavior("slider", new Options().set("min", 0))
+                    .setCoalescable(true)));
+            add(new WebMarkupContainer("b").add(new WidgetBehavior("slider", new Options().set("min", 0))
+                    .setCoalescable(true)));
+            add(new WebMarkupContainer("c").add(new WidgetBehavior("slider", new Options().set("min", 1))
+                    .setCoalescable(true)));
+            add(new WebMarkupContainer("d").add(new WidgetBehavior("slider", "input", new Options().set("min", 0))
+                    .setCoalescable(true)));
+            add(new WebMarkupContainer("e").add(new WidgetBehavior("slider", new Options().set("min", 0)) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected IJavaScript domReadyJs() {
+                    return new JsCall("custom", "#" + getComponentMarkupId());
+                }
+            }));
+        }
+
+        @Override
+        public IResourceStream getMarkupResourceStream(MarkupContainer container, Class<?> containerClass) {
+            return new StringResourceStream("<html><head></head><body><div wicket:id='a'></div><div wicket:id='b'></div>"
+                    + "<div wicket:id='c'></div><div wicket:id='d'></div><div wicket:id='e'></div></body></html>");
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.debug;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.wicket.MarkupContainer;
+import org.apache.wicket.markup.IMarkupResourceStreamProvider;
+import org.apache.wicket.markup.head.IHeaderResponse;
+import org.apache.wicket.markup.html.IHeaderResponseDecorator;
+import org.apache.wicket.markup.html.WebMarkupContainer;
+import org.apache.wicket.markup.html.WebPage;
+import org.apache.wicket.util.resource.IResourceStream;
+import org.apache.wicket.util.resource.StringResourceStream;
+import org.junit.Test;
+import org.rauschig.wicketjs.AbstractWicketTest;
+import org.rauschig.wicketjs.IJavaScript;
+import org.rauschig.wicketjs.JsIdentifier;
+import org.rauschig.wicketjs.WicketJsSettings;
+import org.rauschig.wicketjs.behavior.JsBehavior;
+import org.rauschig.wicketjs.metrics.IScriptMetrics;
+
+public class ScriptCostListenerTest extends AbstractWicketTest {
+
+    @Test
+    public void install_wrapsMetricsOfSettings() throws Exception {
+        ScriptCostListener.install(getTester().getApplication());
+
+        IScriptMetrics metrics = WicketJsSettings.get(getTester().getApplication()).getMetrics();
+        assertTrue(metrics instanceof ScriptCostMetrics);
+        assertTrue(((ScriptCostMetrics) metrics).getDelegate() == IScriptMetrics.NOOP);
+    }
+
+    @Test
+    public void render_collectsScriptsOfBehaviorsAndDetectsDuplicates() throws Exception {
+        ScriptCostListener.install(getTester().getApplication());
+
+        ScriptCostPage page = getTester().startPage(ScriptCostPage.class);
+
+        ScriptCostReport report = page.report;
+        assertNotNull(report);
+
+        List<ScriptCostReport.Entry> entries = report.getEntries();
+        assertEquals(3, entries.size());
+
+        ScriptCostReport.Entry largest = entries.get(0);
+        assertEquals("large", largest.getComponentPath());
+        assertEquals(TestBehavior.class.getName(), largest.getBehaviorClass());
+        assertNull(largest.getDuplicateOf());
+
+        assertEquals("first", entries.get(1).getComponentPath());
+        assertNull(entries.get(1).getDuplicateOf());
+        assertEquals("second", entries.get(2).getComponentPath());
+        assertEquals("first", entries.get(2).getDuplicateOf());
+
+        assertEquals(entries.get(1).getBytes(), report.getDuplicateBytes());
+
+        getTester().assertContains("<td>large</td>");
+        getTester().assertContains("<td>first</td>");
+    }
+
+    @Test
+    public void install_withExistingDecorator_decoratesOnTopOfIt() throws Exception {
+        final List<IHeaderResponse> decorated = new ArrayList<>();
+        getTester().getApplication().setHeaderResponseDecorator(new IHeaderResponseDecorator() {
+            @Override
+            public IHeaderResponse decorate(IHeaderResponse response) {
+                decorated.add(response);
+                return response;
+            }
+        });
+        ScriptCostListener.install(getTester().getApplication());
+
+        ScriptCostPage page = getTester().startPage(ScriptCostPage.class);
+
+        assertFalse(decorated.isEmpty());
+        assertEquals(3, page.report.getEntries().size());
+    }
+
+    @Test
+    public void render_withoutListener_hidesPanel() throws Exception {
+        ScriptCostPage page = getTester().startPage(ScriptCostPage.class);
+
+        assertNull(page.report);
+        getTester().assertInvisible("costs");
+    }
+
+    public static class ScriptCostPage extends WebPage implements IMarkupResourceStreamProvider {
+        private static final long serialVersionUID = 1L;
+
+        transient ScriptCostReport report;
+
+        public ScriptCostPage() {
+            add(new WebMarkupContainer("first").add(new TestBehavior("foo")));
+            add(new WebMarkupContainer("second").add(new TestBehavior("foo")));
+            add(new WebMarkupContainer("large").add(new TestBehavior("somethingMuchLonger")));
+            add(new ScriptCostPanel("costs"));
+        }
+
+        @Override
+        protected void onAfterRender() {
+            super.onAfterRender();
+            report = ScriptCostReport.get();
+        }
+
+        @Override
+        public IResourceStream getMarkupResourceStream(MarkupContainer container, Class<?> containerClass) {
+            return new StringResourceStream("<html><head></head><body>"
+                    + "<span wicket:id='first'></span><span wicket:id='second'></span><span wicket:id='large'></span>"
+                    + "<div wicket:id='costs'></div></body></html>");
+        }
+    }
+
+    static class TestBehavior extends JsBehavior {
+        private static final long serialVersionUID = 1L;
+
+        private final String identifier;
+
+        TestBehavior(String identifier) {
+            this.identifier = identifier;
+        }
+
+        @Override
+        protected IJavaScript domReadyJs() {
+            return new JsIdentifier(identifier);
+        }
+    }
+}
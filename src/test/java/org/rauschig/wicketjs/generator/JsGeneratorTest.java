@@ -17,10 +17,13 @@ package org.rauschig.wicketjs.generator;
 
 import static org.hamcrest.core.Is.is;
 
+import java.io.StringWriter;
 import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
+import org.apache.wicket.markup.repeater.data.ListDataProvider;
+import org.apache.wicket.mock.MockWebResponse;
 import org.apache.wicket.util.template.TextTemplate;
 import org.junit.Rule;
 import org.junit.Test;
@@ -43,6 +46,7 @@ import org.rauschig.wicketjs.JsStatement;
 import org.rauschig.wicketjs.JsStatements;
 import org.rauschig.wicketjs.JsTemplate;
 import org.rauschig.wicketjs.JsVariableDefinition;
+import org.rauschig.wicketjs.util.JsonSerializer;
 
 @SuppressWarnings("unchecked")
 public class JsGeneratorTest {
@@ -67,12 +71,12 @@ public class JsGeneratorTest {
 
     @Test
     public void generateJsString_withSingleEscapedQuotes_compilesCorrectly() throws Exception {
-        generateAndAssert("'string\\\\'s'", new JsLiteral.JsString("string\\'s"));
+        generateAndAssert("'string\\\\\\'s'", new JsLiteral.JsString("string\\'s"));
     }
 
     @Test
     public void generateJsString_withSingleQuotesEscapedSlash_compilesCorrectly() throws Exception {
-        generateAndAssert("'string\\\\\\'s'", new JsLiteral.JsString("string\\\\'s"));
+        generateAndAssert("'string\\\\\\\\\\'s'", new JsLiteral.JsString("string\\\\'s"));
     }
 
     @Test
@@ -82,7 +86,51 @@ public class JsGeneratorTest {
 
     @Test
     public void generateJsString_withDoubleEscapedQuotes_compilesCorrectly() throws Exception {
-        generateAndAssert("'string\\\"s'", new JsLiteral.JsString("string\\\"s"));
+        generateAndAssert("'string\\\\\"s'", new JsLiteral.JsString("string\\\"s"));
+    }
+
+    @Test
+    public void generateJsString_withLineTerminators_compilesCorrectly() throws Exception {
+        generateAndAssert("'a\\nb\\r\\u2028c\\u2029'", new JsLiteral.JsString("a\nb\r\u2028c\u2029"));
+    }
+
+    @Test
+    public void generateJsString_withClosingScriptTag_isNotEscapedByDefault() throws Exception {
+        generateAndAssert("'</script>'", new JsLiteral.JsString("</script>"));
+    }
+
+    @Test
+    public void generateJsString_withClosingScriptTag_inlineScriptEscaper_compilesCorrectly() throws Exception {
+        JsGenerator generator = new InlineScriptGenerator(new JsLiteral.JsString("</script>"));
+
+        errors.checkThat(generator.generate(), is("'\\u003C/script\\u003E'"));
+    }
+
+    @Test
+    public void generateJsLiteral_fallbackValueWithClosingScriptTag_isEscaped() throws Exception {
+        JsGenerator generator = new InlineScriptGenerator(JsLiteral.of(new Bean("</script>")));
+
+        errors.checkThat(generator.generate(), is("{\"name\":\"\\u003C/script\\u003E\"}"));
+    }
+
+    @Test
+    public void generateJsLiteral_mapWithFallbackValueWithClosingScriptTag_isEscaped() throws Exception {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("bean", new Bean("</script>"));
+        map.put("string", "</script>");
+
+        errors.checkThat(new InlineScriptGenerator(JsLiteral.of(map)).generate(),
+                is("{\"bean\":{\"name\":\"\\u003C/script\\u003E\"},\"string\":\"\\u003C/script\\u003E\"}"));
+    }
+
+    @Test
+    public void generateJsLiteral_mapWithClosingScriptTag_defaultEscaper_isNotEscaped() throws Exception {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("bean", new Bean("</script>"));
+        map.put("string", "</script>");
+
+        errors.checkThat(new JsGenerator(JsLiteral.of(map)).generate(),
+                is("{\"bean\":{\"name\":\"</script>\"},\"string\":\"</script>\"}"));
     }
 
     @Test
@@ -103,6 +151,18 @@ public class JsGeneratorTest {
         generateAndAssert("-42", new JsLiteral.JsNumber(new Long(-42)));
     }
 
+    @Test
+    public void generateJsLiteralOf_float_keepsFloatDigits() throws Exception {
+        generateAndAssert("4.2", JsLiteral.of(4.2f));
+        generateAndAssert("-0.1", JsLiteral.of(-0.1f));
+    }
+
+    @Test
+    public void generateJsLiteralOf_char_compilesToString() throws Exception {
+        generateAndAssert("\"x\"", JsLiteral.of('x'));
+        generateAndAssert("[\"x\"]", new JsLiteral.JsArray(new Object[] { 'x' }));
+    }
+
     @Test
     public void generateJsNumber_Float_compilesCorrectly() throws Exception {
         generateAndAssert("4.2", new JsLiteral.JsNumber(new Float(4.2)));
@@ -115,11 +175,42 @@ public class JsGeneratorTest {
         generateAndAssert("-4.2", new JsLiteral.JsNumber(new Double(-4.2)));
     }
 
+    @Test
+    public void generateJsNumber_primitives_compilesCorrectly() throws Exception {
+        generateAndAssert("42", JsLiteral.of(42));
+        generateAndAssert("-9007199254740993", JsLiteral.of(-9007199254740993L));
+        generateAndAssert("4.2", JsLiteral.of(4.2));
+        generateAndAssert("4", JsLiteral.of(4.0));
+        generateAndAssert("1e+21", JsLiteral.of(1e21));
+    }
+
+    @Test
+    public void generateJsNumber_nonFiniteDouble_compilesToJavaScriptTokens() throws Exception {
+        generateAndAssert("NaN", JsLiteral.of(Double.NaN));
+        generateAndAssert("-Infinity", new JsLiteral.JsNumber(Double.NEGATIVE_INFINITY));
+    }
+
     @Test
     public void generateJsArray_ObjectArray_compilesCorrectly() throws Exception {
         generateAndAssert("[1,-2,3]", new JsLiteral.JsArray(new Integer[] { 1, -2, 3 }));
     }
 
+    @Test
+    public void generateJsArray_primitiveArrays_compilesCorrectly() throws Exception {
+        generateAndAssert("[1,-2,3]", JsLiteral.of(new int[] { 1, -2, 3 }));
+        generateAndAssert("[9007199254740993]", JsLiteral.of(new long[] { 9007199254740993L }));
+        generateAndAssert("[0.5,2,NaN]", JsLiteral.of(new double[] { 0.5, 2.0, Double.NaN }));
+        generateAndAssert("[]", JsLiteral.of(new double[0]));
+    }
+
+    @Test
+    public void generateJsObject_withPrimitiveArray_compilesCorrectly() throws Exception {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("data", new double[] { 1.5, 2.0 });
+
+        generateAndAssert("{\"data\":[1.5,2]}", new JsLiteral.JsObject(map));
+    }
+
     @Test
     public void generateJsArray_StringArray_compilesCorrectly() throws Exception {
         generateAndAssert("[\"a\",\"b\",\"c\"]", new JsLiteral.JsArray(new String[] { "a", "b", "c" }));
@@ -130,6 +221,34 @@ public class JsGeneratorTest {
         generateAndAssert("[\"a\",\"b\",\"c\"]", new JsLiteral.JsArray(Arrays.asList("a", "b", "c")));
     }
 
+    @Test
+    public void generateJsIterableArray_Iterable_compilesCorrectly() throws Exception {
+        generateAndAssert("[1,\"a\",x,[2]]",
+                JsLiteral.lazy(Arrays.asList(1, "a", new JsIdentifier("x"), Arrays.asList(2))));
+    }
+
+    @Test
+    public void generateJsIterableArray_Iterator_compilesCorrectly() throws Exception {
+        generateAndAssert("[1,2,3]", JsLiteral.lazy(Arrays.asList(1, 2, 3).iterator()));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void generateJsIterableArray_IteratorTwice_throwsException() throws Exception {
+        JsLiteral.JsIterableArray array = JsLiteral.lazy(Arrays.asList(1, 2, 3).iterator());
+
+        new JsGenerator(array).generate();
+        new JsGenerator(array).generate();
+    }
+
+    @Test
+    public void generateJsIterableArray_DataProviderRange_compilesCorrectly() throws Exception {
+        ListDataProvider<String> provider = new ListDataProvider<>(Arrays.asList("a", "b", "c", "d"));
+
+        generateAndAssert("[\"b\",\"c\"]", JsLiteral.lazy(provider, 1, 2));
+        generateAndAssert("[\"c\",\"d\"]", JsLiteral.lazy(provider, 2, -1));
+        generateAndAssert("[\"a\",\"b\",\"c\",\"d\"]", JsLiteral.lazy(provider));
+    }
+
     @Test
     public void generateJsObject_Map_compilesCorrectly() throws Exception {
         Map<Object, Object> map = new LinkedHashMap<>();
@@ -153,6 +272,21 @@ public class JsGeneratorTest {
         generateAndAssert("{\"1\":2,\"a\":\"b\",\"m\":{\"3\":4,\"c\":\"d\"}}", new JsLiteral.JsObject(map));
     }
 
+    @Test
+    public void generateJsObject_withNestedJavaScript_compilesCorrectly() throws Exception {
+        Map<String, Object> nestedMap = new LinkedHashMap<>();
+        nestedMap.put("fn", new JsFunction(new JsCall("inner", new JsLiteral.JsObject(Arrays.asList(1, "a"))), "e"));
+
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("a", 1);
+        map.put("this", JsExpression.THIS);
+        map.put("nested", nestedMap);
+        map.put("list", Arrays.asList(new JsIdentifier("x"), 2));
+
+        generateAndAssert("{\"a\":1,\"this\":this,\"nested\":{\"fn\":function(e){inner([1,\"a\"]);}},\"list\":[x,2]}",
+                new JsLiteral.JsObject(map));
+    }
+
     @Test
     public void generateJsNull_compilesCorrectly() throws Exception {
         generateAndAssert("null", JsLiteral.NULL);
@@ -417,7 +551,190 @@ public class JsGeneratorTest {
         generateAndAssert("var foo = this;", new JsVariableDefinition("foo", JsExpression.THIS));
     }
 
+    @Test
+    public void generateIntoAppendable_writesScriptIntoWriter() throws Exception {
+        StringWriter writer = new StringWriter();
+        writer.append("/* head */");
+
+        new JsGenerator(new JsCall("call", "arg", 1)).generate(writer);
+
+        errors.checkThat(writer.toString(), is("/* head */call('arg',1)"));
+    }
+
+    @Test
+    public void generateIntoResponse_writesScriptIntoResponse() throws Exception {
+        MockWebResponse response = new MockWebResponse();
+
+        new JsGenerator(new JsStatements(new JsCall("foo"), new JsCall("bar", true))).generate(response);
+
+        errors.checkThat(response.getTextResponse().toString(), is("foo();bar(true);"));
+    }
+
+    @Test
+    public void generate_calledRepeatedly_returnsSameResult() throws Exception {
+        JsGenerator generator = new JsGenerator(new JsCall("call", "arg"));
+
+        errors.checkThat(generator.generate(), is("call('arg')"));
+        errors.checkThat(generator.generate(), is("call('arg')"));
+    }
+
+    @Test
+    public void generateJsTypedArray_float64_compilesCorrectly() throws Exception {
+        generateAndAssert("WicketJs.typedArray('f64','AAAAAAAA8D8AAAAAAAAEwA==')",
+                JsLiteral.float64(new double[] { 1.0, -2.5 }));
+    }
+
+    @Test
+    public void generateJsTypedArray_int32_compilesCorrectly() throws Exception {
+        generateAndAssert("WicketJs.typedArray('i32','AQAAAP////8AAQAA')", JsLiteral.int32(new int[] { 1, -1, 256 }));
+        generateAndAssert("WicketJs.typedArray('i32','AQAAAP////8AAQAA')", JsLiteral.int32(new long[] { 1, -1, 256 }));
+    }
+
+    @Test
+    public void generateJsTypedArray_delta_compilesCorrectly() throws Exception {
+        generateAndAssert("WicketJs.typedArray('d32','CgAAAPv///8=',1400000000000)",
+                JsLiteral.delta(new long[] { 1400000000000L, 1400000000010L, 1400000000005L }));
+        generateAndAssert("WicketJs.typedArray('d32','',7)", JsLiteral.delta(new long[] { 7 }));
+        generateAndAssert("WicketJs.typedArray('d32','')", JsLiteral.delta(new long[0]));
+    }
+
+    @Test
+    public void generateJsTypedArray_withinObject_keepsEncoding() throws Exception {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("data", JsLiteral.int32(new int[] { 7 }));
+
+        generateAndAssert("{\"data\":WicketJs.typedArray('i32','BwAAAA==')}", JsLiteral.of(map));
+    }
+
+    @Test
+    public void generateJsTypedArray_addsDecoderDependency() throws Exception {
+        JsGenerator generator = new JsGenerator(new JsCall("plot", JsLiteral.float64(new double[] { 1 })));
+        generator.generate();
+
+        errors.checkThat(generator.getDependencies(),
+                is(Arrays.asList(JsLiteral.JsTypedArray.getDecoderHeaderItem())));
+    }
+
+    @Test
+    public void getDependencies_withoutTypedArrays_isEmpty() throws Exception {
+        JsGenerator generator = new JsGenerator(new JsCall("plot", JsLiteral.of(new double[] { 1 })));
+        generator.generate();
+
+        errors.checkThat(generator.getDependencies().isEmpty(), is(true));
+    }
+
+    @Test
+    public void generateJsTable_withMaps_compilesColumnWise() throws Exception {
+        Map<String, Object> first = new LinkedHashMap<>();
+        first.put("name", "a");
+        first.put("value", 1);
+        Map<String, Object> second = new LinkedHashMap<>();
+        second.put("name", "b");
+        second.put("value", 2.5);
+
+        generateAndAssert("{cols:['name','value'],data:[['a','b'],[1,2.5]]}",
+                JsLiteral.table(Arrays.asList(first, second), "name", "value"));
+    }
+
+    @Test
+    public void generateJsTable_withBeans_compilesColumnWise() throws Exception {
+        JsLiteral.JsTable table = new JsLiteral.JsTable(Arrays.asList(new Point(1, 1.5), new Point(2, 2)))
+                .column("x")
+                .column("y", "y", JsLiteral.JsTypedArray.Encoding.FLOAT64);
+
+        generateAndAssert("{cols:['x','y'],data:[[1,2],WicketJs.typedArray('f64','AAAAAAAA+D8AAAAAAAAAQA==')]}",
+                table);
+    }
+
+    @Test
+    public void generateJsTable_asRows_wrapsTableAndAddsDependency() throws Exception {
+        JsGenerator generator = new JsGenerator(JsLiteral.table(Arrays.asList(new Point(1, 2)), "x").asRows());
+
+        errors.checkThat(generator.generate(), is("WicketJs.tableRows({cols:['x'],data:[[1]]})"));
+        errors.checkThat(generator.getDependencies(),
+                is(Arrays.asList(JsLiteral.JsTable.getRowsHelperHeaderItem())));
+    }
+
+    @Test
+    public void generateJsTable_empty_compilesCorrectly() throws Exception {
+        generateAndAssert("{cols:['x'],data:[[]]}", JsLiteral.table(Arrays.asList(), "x"));
+    }
+
+    @Test
+    public void generate_legacyGenerator_writesBuilderAndVisitorOutputInOrder() throws Exception {
+        LegacyGenerator generator = new LegacyGenerator(new JsCall("foo", 1));
+
+        StringBuilder out = new StringBuilder();
+        generator.generate(out);
+
+        errors.checkThat(out.toString(), is("/*legacy*/foo(1)"));
+        errors.checkThat(new LegacyGenerator(new JsCall("foo", 1)).generate(), is("/*legacy*/foo(1)"));
+    }
+
+    @SuppressWarnings("deprecation")
+    private static class LegacyGenerator extends AbstractJsGenerator {
+        private final IJavaScript node;
+
+        LegacyGenerator(IJavaScript node) {
+            this.node = node;
+        }
+
+        @Override
+        protected void generateInto(StringBuilder builder) {
+            js.append("/*legacy*/");
+            visitJavaScript(node);
+        }
+    }
+
     protected void generateAndAssert(String expected, IJavaScript expression) {
         errors.checkThat(new JsGenerator(expression).generate(), is(expected));
     }
+
+    private static class InlineScriptGenerator extends JsGenerator {
+        private static final JsonSerializer SERIALIZER = new JsonSerializer(JsStringEscaper.INLINE_SCRIPT);
+
+        InlineScriptGenerator(IJavaScript node) {
+            super(node);
+        }
+
+        @Override
+        protected JsonSerializer createJsonSerializer() {
+            return SERIALIZER;
+        }
+
+        @Override
+        protected JsStringEscaper createStringEscaper() {
+            return JsStringEscaper.INLINE_SCRIPT;
+        }
+    }
+
+    public static class Bean {
+        private final String name;
+
+        Bean(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    public static class Point {
+        private final int x;
+        private final double y;
+
+        Point(int x, double y) {
+            this.x = x;
+            this.y = y;
+        }
+
+        public int getX() {
+            return x;
+        }
+
+        public double getY() {
+            return y;
+        }
+    }
 }
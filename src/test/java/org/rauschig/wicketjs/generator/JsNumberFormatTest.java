@@ -0,0 +1,76 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.generator;
+
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigDecimal;
+
+import org.junit.Test;
+
+public class JsNumberFormatTest {
+
+    @Test
+    public void toString_integralValues_omitsFraction() throws Exception {
+        assertEquals("4", JsNumberFormat.toString(4.0));
+        assertEquals("-42", JsNumberFormat.toString(-42.0));
+        assertEquals("0", JsNumberFormat.toString(-0.0));
+        assertEquals("9007199254740994", JsNumberFormat.toString(9007199254740994d));
+        assertEquals("100000000000000000000", JsNumberFormat.toString(1e20));
+    }
+
+    @Test
+    public void toString_fractions_writesShortestRoundTrip() throws Exception {
+        assertEquals("0.1", JsNumberFormat.toString(0.1));
+        assertEquals("4.2", JsNumberFormat.toString(4.2));
+        assertEquals("-1.05", JsNumberFormat.toString(-1.05));
+        assertEquals("123.456", JsNumberFormat.toString(123.456));
+        assertEquals("0.30000000000000004", JsNumberFormat.toString(0.1 + 0.2));
+        assertEquals("0.000001", JsNumberFormat.toString(1e-6));
+        assertEquals("0.00001234", JsNumberFormat.toString(1.234e-5));
+    }
+
+    @Test
+    public void toString_largeAndSmallValues_usesJavaScriptExponents() throws Exception {
+        assertEquals("1e+21", JsNumberFormat.toString(1e21));
+        assertEquals("1.5e-7", JsNumberFormat.toString(1.5e-7));
+        assertEquals("1e-7", JsNumberFormat.toString(1e-7));
+        assertEquals("1.7976931348623157e+308", JsNumberFormat.toString(Double.MAX_VALUE));
+        assertEquals("5e-324", JsNumberFormat.toString(Double.MIN_VALUE));
+    }
+
+    @Test
+    public void toString_nonFiniteValues_writesJavaScriptTokens() throws Exception {
+        assertEquals("NaN", JsNumberFormat.toString(Double.NaN));
+        assertEquals("Infinity", JsNumberFormat.toString(Double.POSITIVE_INFINITY));
+        assertEquals("-Infinity", JsNumberFormat.toString(Double.NEGATIVE_INFINITY));
+    }
+
+    @Test
+    public void format_boxedNumbers_writesJavaScriptNumbers() throws Exception {
+        assertEquals("42", format(42));
+        assertEquals("-42", format(-42L));
+        assertEquals("4.2", format(4.2f));
+        assertEquals("1e+21", format(1e21f));
+        assertEquals("1.50", format(new BigDecimal("1.50")));
+    }
+
+    private static String format(Number number) {
+        StringBuilder builder = new StringBuilder();
+        JsNumberFormat.format(number, JsWriter.of(builder));
+        return builder.toString();
+    }
+}
@@ -0,0 +1,59 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.generator;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+public class JsStringEscaperTest {
+
+    @Test
+    public void quote_default_escapesQuotesBackslashesAndControlCharacters() throws Exception {
+        assertEquals("'it\\'s \"a\" \\\\ \\t\\u0001'", JsStringEscaper.DEFAULT.quote("it's \"a\" \\ \t\u0001"));
+    }
+
+    @Test
+    public void quote_default_doesNotEscapeMarkup() throws Exception {
+        assertEquals("'<b>&amp;</b>'", JsStringEscaper.DEFAULT.quote("<b>&amp;</b>"));
+    }
+
+    @Test
+    public void quote_inlineScript_escapesMarkup() throws Exception {
+        assertEquals("'\\u003C!--\\u003C/script\\u003E\\u0026'", JsStringEscaper.INLINE_SCRIPT.quote("<!--</script>&"));
+    }
+
+    @Test
+    public void quote_json_escapesDoubleQuotesOnly() throws Exception {
+        assertEquals("\"it's \\\"a\\\"\"", JsStringEscaper.JSON.quote("it's \"a\""));
+    }
+
+    @Test
+    public void write_intoWriter_writesUnescapedRuns() throws Exception {
+        StringWriter out = new StringWriter();
+        JsStringEscaper.JSON.write("plain\u2029text", out);
+
+        assertEquals("\"plain\\u2029text\"", out.toString());
+    }
+
+    @Test
+    public void toJson_keepsInlineScriptMode() throws Exception {
+        assertEquals(JsStringEscaper.JSON, JsStringEscaper.DEFAULT.toJson());
+        assertEquals(JsStringEscaper.JSON_INLINE_SCRIPT, JsStringEscaper.INLINE_SCRIPT.toJson());
+    }
+}
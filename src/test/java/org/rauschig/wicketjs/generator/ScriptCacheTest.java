@@ -0,0 +1,182 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.generator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.wicket.model.IModel;
+import org.apache.wicket.model.Model;
+import org.junit.Test;
+import org.rauschig.wicketjs.IJsExpression;
+import org.rauschig.wicketjs.JsCall;
+import org.rauschig.wicketjs.JsFunction;
+import org.rauschig.wicketjs.JsLiteral;
+import org.rauschig.wicketjs.JsStatements;
+import org.rauschig.wicketjs.jquery.JQuery;
+
+public class ScriptCacheTest {
+
+    @Test
+    public void get_notCached_returnsNullAndCountsMiss() throws Exception {
+        ScriptCache cache = new ScriptCache(8);
+
+        assertNull(cache.get(new JsCall("foo").freeze()));
+        assertEquals(0, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void get_structurallyEqualNode_returnsCachedSource() throws Exception {
+        ScriptCache cache = new ScriptCache(8);
+        cache.put(new JsCall("foo", 1, "bar").freeze(), "foo(1,'bar')");
+
+        assertEquals("foo(1,'bar')", cache.get(new JsCall("foo", 1, "bar").freeze()));
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void put_mutableNode_isIgnored() throws Exception {
+        ScriptCache cache = new ScriptCache(8);
+        cache.put(new JsCall("foo"), "foo()");
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void put_frozenNodeWithModelLiteral_isIgnored() throws Exception {
+        ScriptCache cache = new ScriptCache(8);
+        JsCall call = new JsCall("f", JsLiteral.of((Object) Model.of("one"))).freeze();
+        cache.put(call, "f('one')");
+
+        assertFalse(ScriptCache.isCacheable(call));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void put_exceedingMaximumSize_evictsLeastRecentlyUsed() throws Exception {
+        ScriptCache cache = new ScriptCache(1);
+        JsCall foo = new JsCall("foo").freeze();
+        JsCall bar = new JsCall("bar").freeze();
+
+        cache.put(foo, "foo()");
+        cache.put(bar, "bar()");
+
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertNull(cache.get(foo));
+        assertEquals("bar()", cache.get(bar));
+    }
+
+    @Test
+    public void put_withMaximumSizeZero_isDisabled() throws Exception {
+        ScriptCache cache = new ScriptCache(0);
+        cache.put(new JsCall("foo").freeze(), "foo()");
+
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getMissCount());
+    }
+
+    @Test
+    public void size_isBoundedByMaximumSize() throws Exception {
+        ScriptCache cache = new ScriptCache(20);
+
+        for (int i = 0; i < 100; i++) {
+            cache.put(new JsCall("foo", i).freeze(), "foo(" + i + ")");
+        }
+
+        assertTrue(cache.size() <= 20);
+        assertEquals(100 - cache.size(), cache.getEvictionCount());
+    }
+
+    @Test
+    public void generate_frozenSubtrees_areCachedAndReused() throws Exception {
+        ScriptCache cache = new ScriptCache(8);
+        IJsExpression handler = new JsFunction(new JQuery(new JsCall("foo")).call("hide")).freeze();
+
+        String first = new CachingGenerator(new JsStatements(new JsCall("bind", handler)), cache).generate();
+        String second = new CachingGenerator(new JsStatements(new JsCall("on", handler)), cache).generate();
+
+        assertEquals("bind(function(){$(foo()).hide();});", first);
+        assertEquals("on(function(){$(foo()).hide();});", second);
+        assertTrue(cache.getHitCount() >= 1);
+    }
+
+    @Test
+    public void generate_cachedSubtreeWithDependencies_restoresDependencies() throws Exception {
+        ScriptCache cache = new ScriptCache(8);
+        IJsExpression plot = new JsCall("plot", JsLiteral.int32(new int[] { 1, 2 })).freeze();
+
+        CachingGenerator first = new CachingGenerator(new JsStatements(plot), cache);
+        first.generate();
+        CachingGenerator second = new CachingGenerator(new JsStatements(plot), cache);
+        second.generate();
+
+        assertTrue(cache.getHitCount() >= 1);
+        assertEquals(Arrays.asList(JsLiteral.JsTypedArray.getDecoderHeaderItem()), first.getDependencies());
+        assertEquals(first.getDependencies(), second.getDependencies());
+    }
+
+    @Test
+    public void generate_frozenSubtreeWithModelLiteral_reflectsModelChanges() throws Exception {
+        ScriptCache cache = new ScriptCache(8);
+        IModel<String> model = Model.of("one");
+        IJsExpression call = new JsCall("f", JsLiteral.of((Object) model)).freeze();
+
+        String first = new CachingGenerator(new JsStatements(new JsCall("g", call)), cache).generate();
+        model.setObject("two");
+        String second = new CachingGenerator(new JsStatements(new JsCall("g", call)), cache).generate();
+
+        assertEquals("g(f(\"one\"));", first);
+        assertEquals("g(f(\"two\"));", second);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void generate_frozenSubtreeWithLazyLiteral_reflectsIterableChanges() throws Exception {
+        ScriptCache cache = new ScriptCache(8);
+        List<Integer> list = new ArrayList<>(Arrays.asList(1, 2));
+        IJsExpression call = new JsCall("g", JsLiteral.lazy(list)).freeze();
+
+        String first = new CachingGenerator(new JsStatements(new JsCall("h", call)), cache).generate();
+        list.add(3);
+        String second = new CachingGenerator(new JsStatements(new JsCall("h", call)), cache).generate();
+
+        assertEquals("h(g([1,2]));", first);
+        assertEquals("h(g([1,2,3]));", second);
+        assertEquals(0, cache.size());
+    }
+
+    private static class CachingGenerator extends JsGenerator {
+        private final ScriptCache cache;
+
+        CachingGenerator(JsStatements visitable, ScriptCache cache) {
+            super(visitable);
+            this.cache = cache;
+        }
+
+        @Override
+        protected ScriptCache getScriptCache() {
+            return cache;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.generator;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+import org.rauschig.wicketjs.JsCall;
+import org.rauschig.wicketjs.JsExpression;
+import org.rauschig.wicketjs.JsFunction;
+import org.rauschig.wicketjs.JsLiteral;
+import org.rauschig.wicketjs.JsPlaceholder;
+import org.rauschig.wicketjs.jquery.JQuery;
+
+public class ScriptPlanTest {
+
+    @Test
+    public void compile_withoutPlaceholders_rendersConstantScript() throws Exception {
+        ScriptPlan plan = ScriptPlan.compile(new JsCall("alert", "hi"));
+
+        assertEquals(Collections.emptyList(), plan.getParameters());
+        assertEquals("alert('hi')", plan.bind().render());
+    }
+
+    @Test
+    public void render_bindsLiteralsAndExpressions() throws Exception {
+        ScriptPlan plan =
+            ScriptPlan.compile(new JQuery(new JsPlaceholder("selector", String.class)).call("toggleClass",
+                    new JsPlaceholder("class"), new JsPlaceholder("state")));
+
+        assertEquals(Arrays.asList("selector", "class", "state"), plan.getParameters());
+        assertEquals("$('#row1').toggleClass('active',true)", plan.render("#row1", "active", true));
+        assertEquals("$('#row2').toggleClass('it\\'s',this)", plan.render("#row2", "it's", JsExpression.THIS));
+    }
+
+    @Test
+    public void render_withRepeatedPlaceholder_bindsAllOccurrences() throws Exception {
+        ScriptPlan plan =
+            ScriptPlan.compile(new JsCall("fn", new JsPlaceholder("id"), new JsFunction(new JsCall("log",
+                    new JsPlaceholder("id")))));
+
+        assertEquals("fn(42,function(){log(42);})", plan.bind().set("id", 42).render());
+    }
+
+    @Test
+    public void render_withPlaceholderInObjectLiteral_bindsValue() throws Exception {
+        Map<String, Object> options = new LinkedHashMap<>();
+        options.put("id", new JsPlaceholder("id"));
+        options.put("size", 3);
+
+        ScriptPlan plan = ScriptPlan.compile(new JsCall("init", new JsLiteral.JsObject(options)));
+
+        assertEquals("init({\"id\":'a',\"size\":3})", plan.bind().set("id", "a").render());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void render_withUnboundPlaceholder_throwsException() throws Exception {
+        ScriptPlan.compile(new JsCall("fn", new JsPlaceholder("id"))).bind().render();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void set_withWrongType_throwsException() throws Exception {
+        ScriptPlan.compile(new JsCall("fn", new JsPlaceholder("id", String.class))).bind().set("id", 42);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void set_withUnknownPlaceholder_throwsException() throws Exception {
+        ScriptPlan.compile(new JsCall("fn", new JsPlaceholder("id"))).bind().set("unknown", 42);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void render_withMoreValuesThanPlaceholders_throwsException() throws Exception {
+        ScriptPlan.compile(new JsCall("fn", new JsPlaceholder("id"))).render(1, 2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void render_withFewerValuesThanPlaceholders_throwsException() throws Exception {
+        ScriptPlan.compile(new JsCall("fn", new JsPlaceholder("a"), new JsPlaceholder("b"))).render(1);
+    }
+
+    @Test
+    public void getDependencies_returnsDependenciesOfCompiledTree() throws Exception {
+        ScriptPlan plan = ScriptPlan.compile(new JsCall("plot", new JsPlaceholder("id"), new JsLiteral.JsTypedArray(
+                new int[] { 1, 2 }, JsLiteral.JsTypedArray.Encoding.INT32)));
+
+        assertEquals(Collections.singletonList(JsLiteral.JsTypedArray.getDecoderHeaderItem()), plan.getDependencies());
+    }
+
+    @Test
+    public void getDependencies_withoutDependencies_returnsEmptyList() throws Exception {
+        assertEquals(Collections.emptyList(), ScriptPlan.compile(new JsCall("fn", new JsPlaceholder("id")))
+                .getDependencies());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void generate_placeholderOutsideOfPlan_throwsException() throws Exception {
+        new JsGenerator(new JsCall("fn", new JsPlaceholder("id"))).generate();
+    }
+}
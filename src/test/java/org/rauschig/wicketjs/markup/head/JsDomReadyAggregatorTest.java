@@ -0,0 +1,146 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.markup.head;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+
+import org.apache.wicket.MarkupContainer;
+import org.apache.wicket.markup.IMarkupResourceStreamProvider;
+import org.apache.wicket.markup.head.HeaderItem;
+import org.apache.wicket.markup.head.IHeaderResponse;
+import org.apache.wicket.markup.head.OnDomReadyHeaderItem;
+import org.apache.wicket.markup.html.WebMarkupContainer;
+import org.apache.wicket.markup.html.WebPage;
+import org.apache.wicket.util.resource.IResourceStream;
+import org.apache.wicket.util.resource.StringResourceStream;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.rauschig.wicketjs.AbstractWicketTest;
+import org.rauschig.wicketjs.IJavaScript;
+import org.rauschig.wicketjs.JsCall;
+import org.rauschig.wicketjs.JsLiteral;
+import org.rauschig.wicketjs.behavior.JsBehavior;
+
+public class JsDomReadyAggregatorTest extends AbstractWicketTest {
+
+    @Test
+    public void close_rendersCollectedScriptsAsSingleItem() throws Exception {
+        IHeaderResponse real = Mockito.mock(IHeaderResponse.class);
+        JsDomReadyAggregatingHeaderResponse response = new JsDomReadyAggregatingHeaderResponse(real);
+
+        response.render(new JsOnDomReadyHeaderItem("a()", Collections.<HeaderItem> emptyList()));
+        response.render(new JsOnDomReadyHeaderItem("b()", Collections.<HeaderItem> emptyList()));
+        response.render(new JsOnDomReadyHeaderItem("a()", Collections.<HeaderItem> emptyList()));
+        response.render(OnDomReadyHeaderItem.forScript("other()"));
+
+        Mockito.verify(real).render(OnDomReadyHeaderItem.forScript("other()"));
+
+        response.close();
+
+        ArgumentCaptor<HeaderItem> captor = ArgumentCaptor.forClass(HeaderItem.class);
+        Mockito.verify(real, Mockito.times(2)).render(captor.capture());
+        Mockito.verify(real).close();
+
+        JsOnDomReadyHeaderItem combined = (JsOnDomReadyHeaderItem) captor.getAllValues().get(1);
+        assertEquals("(function(f){for(var i=0;i<f.length;i++){try{f[i]();}catch(e){"
+                + "if(window.console){console.error(e);}}}})([function(){a()},function(){b()}]);",
+                combined.getJavaScript());
+    }
+
+    @Test
+    public void close_withSingleScript_rendersScriptUnwrapped() throws Exception {
+        IHeaderResponse real = Mockito.mock(IHeaderResponse.class);
+        JsDomReadyAggregatingHeaderResponse response = new JsDomReadyAggregatingHeaderResponse(real);
+
+        response.render(new JsOnDomReadyHeaderItem("a()", Collections.<HeaderItem> emptyList()));
+        response.close();
+
+        Mockito.verify(real).render(OnDomReadyHeaderItem.forScript("a()"));
+    }
+
+    @Test
+    public void close_declaresDependenciesOfAllScripts() throws Exception {
+        IHeaderResponse real = Mockito.mock(IHeaderResponse.class);
+        JsDomReadyAggregatingHeaderResponse response = new JsDomReadyAggregatingHeaderResponse(real);
+
+        HeaderItem decoder = JsLiteral.JsTypedArray.getDecoderHeaderItem();
+        response.render(new JsOnDomReadyHeaderItem("a()", Collections.singletonList(decoder)));
+        response.render(new JsOnDomReadyHeaderItem("b()", Collections.<HeaderItem> emptyList()));
+        response.close();
+
+        ArgumentCaptor<HeaderItem> captor = ArgumentCaptor.forClass(HeaderItem.class);
+        Mockito.verify(real).render(captor.capture());
+
+        boolean found = false;
+        for (HeaderItem dependency : captor.getValue().getDependencies()) {
+            found |= dependency.equals(decoder);
+        }
+        assertTrue("Decoder is not a dependency", found);
+    }
+
+    @Test
+    public void renderPage_withAggregator_rendersSingleDomReadyHandler() throws Exception {
+        getTester().getApplication().setHeaderResponseDecorator(new JsDomReadyAggregator());
+
+        getTester().startPage(AggregatedPage.class);
+        String document = getTester().getLastResponseAsString();
+
+        assertEquals(1, count(document, "\"domready\""));
+        assertTrue(document.contains("function(){first()},function(){second()}"));
+    }
+
+    private static int count(String document, String token) {
+        int count = 0;
+        for (int i = document.indexOf(token); i >= 0; i = document.indexOf(token, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    public static class AggregatedPage extends WebPage implements IMarkupResourceStreamProvider {
+        private static final long serialVersionUID = 1L;
+
+        public AggregatedPage() {
+            add(new WebMarkupContainer("first").add(new CallBehavior("first")));
+            add(new WebMarkupContainer("second").add(new CallBehavior("second")));
+        }
+
+        @Override
+        public IResourceStream getMarkupResourceStream(MarkupContainer container, Class<?> containerClass) {
+            return new StringResourceStream("<html><head></head><body>"
+                    + "<span wicket:id='first'></span><span wicket:id='second'></span></body></html>");
+        }
+    }
+
+    static class CallBehavior extends JsBehavior {
+        private static final long serialVersionUID = 1L;
+
+        private final String function;
+
+        CallBehavior(String function) {
+            this.function = function;
+        }
+
+        @Override
+        protected IJavaScript domReadyJs() {
+            return new JsCall(function);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+
+import javax.management.ObjectName;
+
+import org.junit.Test;
+import org.rauschig.wicketjs.AbstractWicketTest;
+import org.rauschig.wicketjs.JsIdentifier;
+import org.rauschig.wicketjs.WicketJsSettings;
+import org.rauschig.wicketjs.generator.JsGenerator;
+import org.rauschig.wicketjs.metrics.IScriptMetrics.Operation;
+import org.rauschig.wicketjs.util.JsonSerializer;
+
+public class ScriptMetricsRegistryTest extends AbstractWicketTest {
+
+    @Test
+    public void record_createsHistogramPerOperationAndSource() throws Exception {
+        ScriptMetricsRegistry registry = new ScriptMetricsRegistry();
+
+        registry.record(Operation.GENERATE, String.class, null, 100, 10);
+        registry.record(Operation.GENERATE, String.class, null, 300, 30);
+        registry.record(Operation.SERIALIZE, String.class, null, 50, -1);
+
+        HistogramSnapshot generate = registry.getHistogram(Operation.GENERATE, String.class);
+        assertEquals(2, generate.getCount());
+        assertEquals(400, generate.getTotalNanos());
+        assertEquals(300, generate.getMaxNanos());
+        assertEquals(200, generate.getMeanNanos());
+        assertEquals(40, generate.getTotalChars());
+        assertEquals(30, generate.getMaxChars());
+
+        HistogramSnapshot serialize = registry.getHistogram(Operation.SERIALIZE, String.class);
+        assertEquals(1, serialize.getCount());
+        assertEquals(0, serialize.getTotalChars());
+
+        assertNull(registry.getHistogram(Operation.DOM_READY, String.class));
+        assertEquals(2, registry.getHistograms().size());
+    }
+
+    @Test
+    public void reset_clearsHistogramsAndFallbacks() throws Exception {
+        ScriptMetricsRegistry registry = new ScriptMetricsRegistry();
+        registry.record(Operation.GENERATE, String.class, null, 100, 10);
+        registry.recordFallback(Object.class);
+
+        registry.reset();
+
+        assertTrue(registry.getHistograms().isEmpty());
+        assertTrue(registry.getSerializerFallbacks().isEmpty());
+    }
+
+    @Test
+    public void histogram_quantile_returnsUpperBoundOfBucket() throws Exception {
+        Histogram histogram = new Histogram();
+        for (int i = 0; i < 99; i++) {
+            histogram.record(10);
+        }
+        histogram.record(1000);
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(15, histogram.getQuantile(0.5));
+        assertEquals(15, histogram.getQuantile(0.99));
+        assertEquals(1000, histogram.getQuantile(1));
+    }
+
+    @Test
+    public void generate_withMetrics_recordsGenerateOperation() throws Exception {
+        ScriptMetricsRegistry registry = new ScriptMetricsRegistry();
+        WicketJsSettings.install(getTester().getApplication()).setMetrics(registry);
+
+        String js = new JsGenerator(new JsIdentifier("foo")).generate();
+
+        HistogramSnapshot snapshot = registry.getHistogram(Operation.GENERATE, JsGenerator.class);
+        assertNotNull(snapshot);
+        assertEquals(1, snapshot.getCount());
+        assertEquals(js.length(), snapshot.getTotalChars());
+    }
+
+    @Test
+    public void serialize_withMetrics_recordsSerializeOperationAndFallbacks() throws Exception {
+        ScriptMetricsRegistry registry = new ScriptMetricsRegistry();
+        WicketJsSettings settings = WicketJsSettings.install(getTester().getApplication());
+        JsonSerializer serializer = settings.getJsonSerializer();
+        settings.setMetrics(registry);
+
+        serializer.serialize(Collections.singletonMap("a", 1));
+        serializer.serialize(new Bean());
+
+        assertEquals(1, registry.getHistogram(Operation.SERIALIZE, Collections.singletonMap("a", 1).getClass())
+                .getCount());
+        assertEquals(Long.valueOf(1), registry.getSerializerFallbacks().get(Bean.class.getName()));
+    }
+
+    @Test
+    public void setJsonSerializer_handsMetricsToSerializer() throws Exception {
+        ScriptMetricsRegistry registry = new ScriptMetricsRegistry();
+        WicketJsSettings settings = WicketJsSettings.install(getTester().getApplication()).setMetrics(registry);
+
+        JsonSerializer serializer = new JsonSerializer();
+        assertFalse(serializer.getMetrics().isEnabled());
+
+        settings.setJsonSerializer(serializer);
+        assertTrue(serializer.getMetrics() == registry);
+    }
+
+    @Test
+    public void registerMBean_exposesRegistryInPlatformMBeanServer() throws Exception {
+        ScriptMetricsRegistry registry = new ScriptMetricsRegistry();
+        registry.recordFallback(Bean.class);
+
+        ObjectName name = registry.registerMBean("test");
+        try {
+            assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+            assertNotNull(ManagementFactory.getPlatformMBeanServer().getAttribute(name, "SerializerFallbacks"));
+        } finally {
+            registry.unregisterMBean();
+        }
+
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+    }
+
+    public static class Bean {
+        public String getName() {
+            return "bean";
+        }
+    }
+}
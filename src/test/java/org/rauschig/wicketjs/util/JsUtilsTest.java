@@ -120,6 +120,23 @@ public class JsUtilsTest {
         assertEquals(42, literal.getValue());
     }
 
+    @Test
+    public void asLiteral_primitiveArray_returnsPrimitiveArrayLiteral() throws Exception {
+        int[] array = { 1, 2, 3 };
+        JsLiteral<?> literal = JsUtils.asLiteral(array);
+
+        assertEquals(JsLiteral.JsIntArray.class, literal.getClass());
+        assertSame(array, literal.getValue());
+    }
+
+    @Test
+    public void asLiteral_otherPrimitiveArray_returnsBoxedArrayLiteral() throws Exception {
+        JsLiteral<?> literal = JsUtils.asLiteral(new float[] { 1.5f });
+
+        assertEquals(JsLiteral.JsArray.class, literal.getClass());
+        assertEquals(1.5f, ((Object[]) literal.getValue())[0]);
+    }
+
     @Test
     public void asLiteral_boolean_returnsCorrectLiteral() throws Exception {
         JsLiteral<?> literal = JsUtils.asLiteral(false);
@@ -16,7 +16,10 @@
 package org.rauschig.wicketjs.util;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -29,6 +32,7 @@ import org.junit.Test;
 import org.mockito.Mockito;
 import org.rauschig.wicketjs.JsCall;
 import org.rauschig.wicketjs.JsLiteral;
+import org.rauschig.wicketjs.generator.JsStringEscaper;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -142,6 +146,67 @@ public class JsonSerializerTest {
         assertEquals("{\"question\":\"life the universe and everything\",\"answer\":42}", serializer.serialize(model));
     }
 
+    @Test
+    public void serializeIntoWriter_serializesNestedMapsWithJsTokenCorrectly() throws Exception {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("answer", 42);
+        map.put("fun", new JsCall("getAnswer", "to life the universe and everything"));
+
+        StringWriter writer = new StringWriter();
+        new JsonSerializer().serialize(map, writer);
+
+        assertEquals("{\"answer\":42,\"fun\":getAnswer('to life the universe and everything')}", writer.toString());
+    }
+
+    @Test
+    public void serializeIntoWriter_withNullObject_writesNull() throws Exception {
+        StringWriter writer = new StringWriter();
+        new JsonSerializer().serialize(null, writer);
+
+        assertEquals("null", writer.toString());
+    }
+
+    @Test
+    public void serialize_beanWithClosingScriptTag_escapesMapperOutput() throws Exception {
+        Value value = new Value();
+        value.setAttr1("</script>&\u2028");
+
+        assertEquals("{\"attr1\":\"\\u003C/script\\u003E\\u0026\\u2028\",\"attr2\":0,\"nullattr\":null}",
+                new JsonSerializer(JsStringEscaper.INLINE_SCRIPT).serialize(value));
+    }
+
+    @Test
+    public void serialize_defaultEscaper_escapesOnlyLineTerminators() throws Exception {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("string", "</script>\u2028");
+        map.put("bean", new Value());
+
+        JsonSerializer serializer = new JsonSerializer();
+
+        assertSame(JsStringEscaper.JSON, serializer.getEscaper());
+        assertEquals("{\"string\":\"</script>\\u2028\",\"bean\":{\"attr1\":null,\"attr2\":0,\"nullattr\":null}}",
+                serializer.serialize(map));
+    }
+
+    @Test
+    public void serializeWithMapper_defaultEscaper_escapesOnlyLineTerminators() throws Exception {
+        Value value = new Value();
+        value.setAttr1("</script>\u2029");
+
+        StringWriter writer = new StringWriter();
+        new JsonSerializer().serializeWithMapper(value, writer, JsStringEscaper.JSON);
+
+        assertEquals("{\"attr1\":\"</script>\\u2029\",\"attr2\":0,\"nullattr\":null}", writer.toString());
+    }
+
+    @Test
+    public void getWriter_returnsCachedWriterPerType() throws Exception {
+        JsonSerializer serializer = new JsonSerializer();
+
+        assertSame(serializer.getWriter(Value.class), serializer.getWriter(Value.class));
+        assertNotSame(serializer.getWriter(Value.class), serializer.getWriter(LinkedHashMap.class));
+    }
+
     public static class Value {
         private String attr1;
         private int attr2;
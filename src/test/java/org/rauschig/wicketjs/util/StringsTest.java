@@ -42,4 +42,11 @@ public class StringsTest {
     public void join_returnsCorrectString() throws Exception {
         assertEquals("1--2--3", Strings.join(new Integer[] { 1, 2, 3 }, "--"));
     }
+
+    @Test
+    public void hash_returnsFnv1a() throws Exception {
+        assertEquals(0xcbf29ce484222325L, Strings.hash(""));
+        assertEquals(0xaf63dc4c8601ec8cL, Strings.hash("a"));
+        assertEquals(0x85944171f73967e8L, Strings.hash("foobar"));
+    }
 }
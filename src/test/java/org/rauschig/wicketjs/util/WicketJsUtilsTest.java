@@ -24,6 +24,7 @@ import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
 import org.apache.wicket.ajax.AjaxRequestTarget;
+import org.apache.wicket.markup.head.HeaderItem;
 import org.apache.wicket.markup.head.JavaScriptContentHeaderItem;
 import org.apache.wicket.markup.head.JavaScriptHeaderItem;
 import org.apache.wicket.markup.head.OnDomReadyHeaderItem;
@@ -33,6 +34,7 @@ import org.apache.wicket.util.tester.DummyHomePage;
 import org.junit.Test;
 import org.rauschig.wicketjs.AbstractWicketTest;
 import org.rauschig.wicketjs.JsCall;
+import org.rauschig.wicketjs.JsLiteral;
 import org.rauschig.wicketjs.ajax.JsAjaxEventBehavior;
 
 public class WicketJsUtilsTest extends AbstractWicketTest {
@@ -71,6 +73,20 @@ public class WicketJsUtilsTest extends AbstractWicketTest {
         assertEquals("alert('pwnd')", item.getJavaScript());
     }
 
+    @Test
+    public void asOnDomReadyHeaderItem_withTypedArray_declaresDecoderDependency() throws Exception {
+        OnDomReadyHeaderItem item = WicketJsUtils.asOnDomReadyHeaderItem(new JsCall("plot",
+                JsLiteral.float64(new double[0])));
+
+        assertEquals("plot(WicketJs.typedArray('f64',''))", item.getJavaScript());
+
+        boolean found = false;
+        for (HeaderItem dependency : item.getDependencies()) {
+            found |= dependency.equals(JsLiteral.JsTypedArray.getDecoderHeaderItem());
+        }
+        assertTrue("Decoder is not a dependency", found);
+    }
+
     @Test
     public void asHeaderItem_withoutCondition_rendersItemCorrectly() throws Exception {
         JavaScriptHeaderItem item = WicketJsUtils.asHeaderItem(new JsCall("alert", "pwnd"), "js-is-useful");
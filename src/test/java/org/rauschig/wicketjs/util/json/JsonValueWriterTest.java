@@ -0,0 +1,190 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.util.json;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.wicket.model.Model;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.rauschig.wicketjs.JsCall;
+import org.rauschig.wicketjs.JsLiteral;
+import org.rauschig.wicketjs.generator.JsGenerator;
+import org.rauschig.wicketjs.generator.JsStringEscaper;
+import org.rauschig.wicketjs.util.JsonSerializer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class JsonValueWriterTest {
+
+    private ObjectMapper jackson;
+
+    private JsonSerializer serializer;
+
+    @Before
+    public void setUp() throws Exception {
+        jackson = new ObjectMapper().registerModule(new JavaScriptModule());
+        serializer = new JsonSerializer();
+    }
+
+    @Test
+    public void write_lineSeparator_isEscaped() throws Exception {
+        StringWriter out = new StringWriter();
+        new JsonValueWriter(serializer, JsStringEscaper.JSON).write("a\u2028b", out);
+
+        assertEquals("\"a\\u2028b\"", out.toString());
+    }
+
+    @Test
+    public void write_defaultEscaper_doesNotEscapeMarkup() throws Exception {
+        StringWriter out = new StringWriter();
+        new JsonValueWriter(serializer).write("</script>", out);
+
+        assertEquals("\"</script>\"", out.toString());
+    }
+
+    @Test
+    public void write_inlineScriptEscaper_escapesMarkup() throws Exception {
+        StringWriter out = new StringWriter();
+        new JsonValueWriter(serializer, JsStringEscaper.JSON_INLINE_SCRIPT).write("</script>", out);
+
+        assertEquals("\"\\u003C/script\\u003E\"", out.toString());
+    }
+
+    @Test
+    public void write_scalars_writesSameAsJackson() throws Exception {
+        assertSameAsJackson("plain");
+        assertSameAsJackson("quote\" backslash\\ newline\n tab\t cr\r bell\u0007 unicodeä");
+        assertSameAsJackson(42);
+        assertSameAsJackson(-42L);
+        assertSameAsJackson((short) 7);
+        assertSameAsJackson(4.2);
+        assertSameAsJackson(-4.2f);
+        assertSameAsJackson(1e21);
+        assertSameAsJackson(Double.NaN);
+        assertSameAsJackson(new BigDecimal("1.50"));
+        assertSameAsJackson(true);
+        assertSameAsJackson('c');
+    }
+
+    @Test
+    public void write_doubles_writesSameAsGenerator() throws Exception {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("one", 1.0);
+        map.put("large", 1e21);
+        map.put("nan", Double.NaN);
+        map.put("float", 4.2f);
+
+        assertEquals("{\"one\":1,\"large\":1e+21,\"nan\":NaN,\"float\":4.2}", serializer.serialize(map));
+        assertEquals(new JsGenerator(JsLiteral.of(Double.NEGATIVE_INFINITY)).generate(),
+                serializer.serialize(Double.NEGATIVE_INFINITY));
+    }
+
+    @Test
+    public void write_doubleArray_writesSameAsJsDoubleArray() throws Exception {
+        double[] values = { 1.0, -0.5, 1e21, 1e-7, Double.NaN, Double.NEGATIVE_INFINITY };
+        String expected = new JsGenerator(JsLiteral.of(values)).generate();
+
+        assertEquals("[1,-0.5,1e+21,1e-7,NaN,-Infinity]", expected);
+        assertEquals(expected, serializer.serialize(values));
+        assertEquals(expected, new JsGenerator(JsLiteral.of((Object) values)).generate());
+    }
+
+    @Test
+    public void write_floatArray_keepsShortestDigits() throws Exception {
+        assertEquals("[4.2,1,NaN]", serializer.serialize(new float[] { 4.2f, 1.0f, Float.NaN }));
+    }
+
+    @Test
+    public void write_beanWithDouble_writesSameAsGenerator() throws Exception {
+        assertEquals("{\"value\":1}", serializer.serialize(new NumberBean()));
+    }
+
+    @Test
+    public void write_nestedCollections_writesSameAsJackson() throws Exception {
+        Map<Object, Object> nested = new LinkedHashMap<>();
+        nested.put(1, Arrays.asList("a", null, 2.5));
+        nested.put("b", new Object[] { "c", false });
+
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("nested", nested);
+        map.put("null", null);
+        map.put("model", Model.of("value"));
+        map.put("literal", JsLiteral.of("literal"));
+
+        assertSameAsJackson(map);
+    }
+
+    @Test
+    public void write_javaScriptToken_writesRawValue() throws Exception {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("fn", new JsCall("fn", "arg"));
+
+        assertEquals("{\"fn\":fn('arg')}", serializer.serialize(map));
+    }
+
+    @Test
+    public void write_unknownTypes_fallsBackToJackson() throws Exception {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("bean", new Bean());
+        map.put("enum", Thread.State.NEW);
+
+        assertEquals("{\"bean\":{\"name\":\"bean\"},\"enum\":\"NEW\"}", serializer.serialize(map));
+    }
+
+    @Test
+    public void write_plainValues_doesNotUseObjectMapper() throws Exception {
+        ObjectMapper mapper = Mockito.mock(ObjectMapper.class);
+        JsonSerializer mockedSerializer = new JsonSerializer(mapper) {
+            private static final long serialVersionUID = 1L;
+        };
+
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("list", Arrays.asList(1, "two", 3.0));
+
+        StringWriter writer = new StringWriter();
+        mockedSerializer.serialize(map, writer);
+
+        assertEquals("{\"list\":[1,\"two\",3]}", writer.toString());
+        Mockito.verifyZeroInteractions(mapper);
+    }
+
+    private void assertSameAsJackson(Object value) throws Exception {
+        StringWriter writer = new StringWriter();
+        new JsonValueWriter(serializer).write(value, writer);
+
+        assertEquals(jackson.writeValueAsString(value), writer.toString());
+    }
+
+    public static class NumberBean {
+        public double getValue() {
+            return 1.0;
+        }
+    }
+
+    public static class Bean {
+        public String getName() {
+            return "bean";
+        }
+    }
+}
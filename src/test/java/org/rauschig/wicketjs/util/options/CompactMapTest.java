@@ -0,0 +1,242 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.util.options;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class CompactMapTest {
+
+    @Test
+    public void put_keepsInsertionOrder() throws Exception {
+        CompactMap<String, Object> map = new CompactMap<>();
+        map.put("b", 1);
+        map.put("a", 2);
+        map.put("b", 3);
+
+        assertEquals(2, map.size());
+        assertEquals(3, map.get("b"));
+        assertEquals(Arrays.asList("b", "a"), Arrays.asList(map.keySet().toArray()));
+    }
+
+    @Test
+    public void remove_shiftsRemainingEntries() throws Exception {
+        CompactMap<String, Object> map = filled(4);
+
+        assertEquals(1, map.remove("k1"));
+        assertNull(map.remove("k1"));
+
+        assertEquals(3, map.size());
+        assertFalse(map.containsKey("k1"));
+        assertEquals(Arrays.asList("k0", "k2", "k3"), Arrays.asList(map.keySet().toArray()));
+    }
+
+    @Test
+    public void iteratorRemove_removesEntry() throws Exception {
+        CompactMap<String, Object> map = filled(3);
+
+        Iterator<Map.Entry<String, Object>> iterator = map.entrySet().iterator();
+        iterator.next();
+        iterator.remove();
+        iterator.next().setValue(42);
+
+        assertEquals(Arrays.asList("k1", "k2"), Arrays.asList(map.keySet().toArray()));
+        assertEquals(42, map.get("k1"));
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void iterate_putNewKey_throwsException() throws Exception {
+        CompactMap<String, Object> map = filled(3);
+
+        for (String key : map.keySet()) {
+            map.put(key + "x", 0);
+        }
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void iterate_removeLastKey_throwsException() throws Exception {
+        CompactMap<String, Object> map = filled(3);
+
+        Iterator<String> iterator = map.keySet().iterator();
+        iterator.next();
+        iterator.next();
+        map.remove("k2");
+
+        iterator.hasNext();
+        iterator.next();
+    }
+
+    @Test
+    public void iterate_putExistingKey_continues() throws Exception {
+        CompactMap<String, Object> map = filled(3);
+
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            map.put(entry.getKey(), 42);
+            assertEquals(42, entry.getValue());
+        }
+
+        assertEquals(Arrays.<Object> asList(42, 42, 42), Arrays.asList(map.values().toArray()));
+    }
+
+    @Test
+    public void iterate_switchToHashed_throwsExceptionAndKeepsEntries() throws Exception {
+        CompactMap<String, Object> map = filled(CompactMap.THRESHOLD);
+
+        Iterator<Map.Entry<String, Object>> iterator = map.entrySet().iterator();
+        Map.Entry<String, Object> entry = iterator.next();
+        map.put("new", 0);
+
+        try {
+            iterator.next();
+            fail("Expected ConcurrentModificationException");
+        } catch (ConcurrentModificationException e) {
+            // expected
+        }
+
+        assertEquals("k0", entry.getKey());
+        assertEquals(0, entry.getValue());
+        assertEquals(CompactMap.THRESHOLD + 1, map.size());
+    }
+
+    @Test
+    public void entrySetValue_afterRemove_throwsExceptionAndKeepsMap() throws Exception {
+        CompactMap<String, Object> map = filled(3);
+
+        Map.Entry<String, Object> entry = map.entrySet().iterator().next();
+        map.remove("k0");
+
+        try {
+            entry.setValue(42);
+            fail("Expected ConcurrentModificationException");
+        } catch (ConcurrentModificationException e) {
+            // expected
+        }
+
+        assertEquals("k0", entry.getKey());
+        assertEquals(0, entry.getValue());
+        assertEquals(Arrays.asList("k1", "k2"), Arrays.asList(map.keySet().toArray()));
+        assertEquals(1, map.get("k1"));
+    }
+
+    @Test
+    public void entrySetValue_afterSwitchToHashed_throwsException() throws Exception {
+        CompactMap<String, Object> map = filled(CompactMap.THRESHOLD);
+
+        Map.Entry<String, Object> entry = map.entrySet().iterator().next();
+        map.put("new", 0);
+
+        try {
+            entry.setValue(42);
+            fail("Expected ConcurrentModificationException");
+        } catch (ConcurrentModificationException e) {
+            // expected
+        }
+        assertEquals(0, map.get("k0"));
+    }
+
+    @Test
+    public void entrySet_heldAcrossSwitchToHashed_iteratesAllEntries() throws Exception {
+        CompactMap<String, Object> map = filled(CompactMap.THRESHOLD);
+
+        Set<Map.Entry<String, Object>> entries = map.entrySet();
+        map.put("new", 0);
+
+        Map<String, Object> expected = filled(new LinkedHashMap<String, Object>(), CompactMap.THRESHOLD);
+        expected.put("new", 0);
+
+        assertEquals(CompactMap.THRESHOLD + 1, entries.size());
+        assertEquals(expected.entrySet(), new LinkedHashSet<>(entries));
+    }
+
+    @Test
+    public void put_pastThreshold_keepsEntriesAndOrder() throws Exception {
+        CompactMap<String, Object> map = filled(CompactMap.THRESHOLD + 2);
+
+        assertEquals(CompactMap.THRESHOLD + 2, map.size());
+        assertEquals(filled(new LinkedHashMap<String, Object>(), CompactMap.THRESHOLD + 2), map);
+        assertEquals("k0", map.keySet().iterator().next());
+        assertEquals(CompactMap.THRESHOLD + 1, map.get("k" + (CompactMap.THRESHOLD + 1)));
+    }
+
+    @Test
+    public void equals_equalToOtherMaps() throws Exception {
+        Map<String, Object> expected = filled(new LinkedHashMap<String, Object>(), 3);
+
+        assertEquals(expected, filled(3));
+        assertEquals(expected.hashCode(), filled(3).hashCode());
+        assertTrue(filled(3).equals(expected));
+    }
+
+    @Test
+    public void serialize_roundTrip() throws Exception {
+        assertEquals(filled(3), roundTrip(filled(3)));
+        assertEquals(filled(CompactMap.THRESHOLD + 2), roundTrip(filled(CompactMap.THRESHOLD + 2)));
+    }
+
+    @Test
+    public void serialize_isSmallerThanLinkedHashMap() throws Exception {
+        Map<String, Object> linked = filled(new LinkedHashMap<String, Object>(), 4);
+
+        assertTrue(serialize(filled(4)).length < serialize(linked).length);
+    }
+
+    @Test
+    public void options_useCompactMap() throws Exception {
+        assertTrue(new Options().getMap() instanceof CompactMap);
+    }
+
+    private static CompactMap<String, Object> filled(int count) {
+        return filled(new CompactMap<String, Object>(), count);
+    }
+
+    private static <M extends Map<String, Object>> M filled(M map, int count) {
+        for (int i = 0; i < count; i++) {
+            map.put("k" + i, i);
+        }
+        return map;
+    }
+
+    private static byte[] serialize(Object object) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Object roundTrip(Object object) throws Exception {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialize(object)))) {
+            return in.readObject();
+        }
+    }
+}
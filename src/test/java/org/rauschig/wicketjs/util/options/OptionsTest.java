@@ -0,0 +1,187 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.util.options;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.rauschig.wicketjs.JsExpression;
+import org.rauschig.wicketjs.JsLiteral.JsObject;
+import org.rauschig.wicketjs.WicketJsSettings;
+import org.rauschig.wicketjs.generator.JsGenerator;
+import org.rauschig.wicketjs.util.JsonSerializer;
+
+public class OptionsTest {
+
+    private JsonSerializer serializer = new JsonSerializer();
+
+    @Test
+    public void serialize_cachesJson() throws Exception {
+        Options options = new Options().set("min", 0).set("label", "a");
+
+        assertEquals("{\"min\":0,\"label\":\"a\"}", serializer.serialize(options));
+        assertEquals("{\"min\":0,\"label\":\"a\"}", options.getCachedJson(serializer, options.getJsonState()));
+        assertEquals("{\"min\":0,\"label\":\"a\"}", serializer.serialize(options));
+    }
+
+    @Test
+    public void set_invalidatesCachedJson() throws Exception {
+        Options options = new Options().set("min", 0);
+        serializer.serialize(options);
+
+        options.set("min", 1);
+
+        assertNull(options.getCachedJson(serializer, options.getJsonState()));
+        assertEquals("{\"min\":1}", serializer.serialize(options));
+    }
+
+    @Test
+    public void unset_invalidatesCachedJson() throws Exception {
+        Options options = new Options().set("min", 0).set("max", 1);
+        serializer.serialize(options);
+
+        options.unset("max");
+
+        assertNull(options.getCachedJson(serializer, options.getJsonState()));
+        assertEquals("{\"min\":0}", serializer.serialize(options));
+    }
+
+    @Test
+    public void getCachedJson_otherSerializer_returnsNull() throws Exception {
+        Options options = new Options().set("min", 0);
+        serializer.serialize(options);
+
+        assertNull(options.getCachedJson(new JsonSerializer(), options.getJsonState()));
+    }
+
+    @Test
+    public void serialize_mutableValue_isNotCached() throws Exception {
+        List<Integer> values = new ArrayList<>();
+        Options options = new Options().set("values", values);
+
+        assertEquals("{\"values\":[]}", serializer.serialize(options));
+        values.add(1);
+
+        assertNull(options.getCachedJson(serializer, options.getJsonState()));
+        assertEquals("{\"values\":[1]}", serializer.serialize(options));
+    }
+
+    @Test
+    public void serialize_externalMap_isNotCached() throws Exception {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("min", 0);
+        Options options = new Options(map);
+
+        assertEquals("{\"min\":0}", serializer.serialize(options));
+        assertNull(options.getCachedJson(serializer, options.getJsonState()));
+
+        map.put("min", 1);
+        assertEquals("{\"min\":1}", serializer.serialize(options));
+    }
+
+    @Test
+    public void getMap_writesThroughMap_areSerialized() throws Exception {
+        Options options = new Options().set("min", 0);
+        serializer.serialize(options);
+
+        options.getMap().put("min", 1);
+
+        assertNull(options.getCachedJson(serializer, options.getJsonState()));
+        assertEquals("{\"min\":1}", serializer.serialize(options));
+
+        options.getMap().put("min", 2);
+        assertEquals("{\"min\":2}", serializer.serialize(options));
+    }
+
+    @Test
+    public void generate_cachesJson() throws Exception {
+        Options options = new Options().set("min", 0);
+
+        assertEquals("{\"min\":0}", new JsGenerator(options.asObject()).generate());
+        assertNotNull(options.getCachedJson(WicketJsSettings.get().getJsonSerializer(), options.getJsonState()));
+        assertEquals("{\"min\":0}", new JsGenerator(options.asObject()).generate());
+    }
+
+    @Test
+    public void generate_withToken_isNotCached() throws Exception {
+        Options options = new Options().set("callback", new JsExpression("function(){}"));
+
+        assertEquals("{\"callback\":function(){}}", new JsGenerator(options.asObject()).generate());
+        assertNull(options.getCachedJson(WicketJsSettings.get().getJsonSerializer(), options.getJsonState()));
+    }
+
+    @Test
+    public void asObject_valueIsMap() throws Exception {
+        Options options = new Options().set("a", 1);
+
+        Object value = options.asObject().getValue();
+        assertSame(options.getMap(), value);
+        assertTrue(value instanceof Map);
+    }
+
+    @Test
+    public void serialize_nestedInBean_writesOptionsAsObject() throws Exception {
+        Options options = new Options().set("a", 1);
+
+        assertEquals("{\"opts\":{\"a\":1}}", serializer.serialize(new LiteralBean(options.asObject())));
+        assertEquals("{\"opts\":{\"a\":1}}", serializer.serialize(new OptionsBean(options)));
+    }
+
+    @Test
+    public void generate_frozenObject_ignoresLaterChanges() throws Exception {
+        Options options = new Options().set("min", 0);
+        JsObject frozen = (JsObject) options.asObject().freeze();
+        new JsGenerator(options.asObject()).generate();
+
+        options.set("min", 1);
+
+        assertEquals("{\"min\":0}", new JsGenerator(frozen).generate());
+        assertEquals("{\"min\":1}", new JsGenerator(options.asObject()).generate());
+    }
+
+    public static class LiteralBean {
+        private final JsObject opts;
+
+        LiteralBean(JsObject opts) {
+            this.opts = opts;
+        }
+
+        public JsObject getOpts() {
+            return opts;
+        }
+    }
+
+    public static class OptionsBean {
+        private final Options opts;
+
+        OptionsBean(Options opts) {
+            this.opts = opts;
+        }
+
+        public Options getOpts() {
+            return opts;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/**
+ *    Copyright 2014 Thomas Rausch
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.rauschig.wicketjs.util.options;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class PropertyAccessorTest {
+
+    @Test
+    public void getValue_getter_returnsValue() throws Exception {
+        PropertyAccessor accessor = PropertyAccessor.of(Bean.class, "name");
+
+        assertEquals("outer", accessor.getValue(new Bean("outer", null)));
+    }
+
+    @Test
+    public void getValue_booleanGetter_returnsValue() throws Exception {
+        assertEquals(true, PropertyAccessor.of(Bean.class, "active").getValue(new Bean("outer", null)));
+    }
+
+    @Test
+    public void getValue_field_returnsValue() throws Exception {
+        assertEquals(42, PropertyAccessor.of(Bean.class, "count").getValue(new Bean("outer", null)));
+    }
+
+    @Test
+    public void getValue_nestedExpression_returnsValue() throws Exception {
+        PropertyAccessor accessor = PropertyAccessor.of(Bean.class, "child.name");
+
+        assertEquals("inner", accessor.getValue(new Bean("outer", new Bean("inner", null))));
+    }
+
+    @Test
+    public void getValue_nullIntermediate_returnsNull() throws Exception {
+        assertNull(PropertyAccessor.of(Bean.class, "child.name").getValue(new Bean("outer", null)));
+    }
+
+    @Test
+    public void of_returnsCachedAccessor() throws Exception {
+        assertSame(PropertyAccessor.of(Bean.class, "child.name"), PropertyAccessor.of(Bean.class, "child.name"));
+    }
+
+    @Test
+    public void of_unsupportedExpressions_returnsNull() throws Exception {
+        assertNull(PropertyAccessor.of(Bean.class, "doesNotExist"));
+        assertNull(PropertyAccessor.of(Bean.class, "values.key"));
+        assertNull(PropertyAccessor.of(Bean.class, "name[0]"));
+    }
+
+    @Test
+    public void compiledPropertyModel_unsupportedExpression_fallsBackToPropertyResolver() throws Exception {
+        CompiledPropertyModel<Object> model = new CompiledPropertyModel<>(new Bean("outer", null), "values.key");
+
+        assertEquals("value", model.getObject());
+    }
+
+    private static class Bean {
+        private final String name;
+        private final Bean child;
+        private int count = 42;
+
+        Bean(String name, Bean child) {
+            this.name = name;
+            this.child = child;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Bean getChild() {
+            return child;
+        }
+
+        public boolean isActive() {
+            return true;
+        }
+
+        public Map<String, String> getValues() {
+            return Collections.singletonMap("key", "value");
+        }
+    }
+}
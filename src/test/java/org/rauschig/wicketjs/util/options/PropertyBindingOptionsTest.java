@@ -16,10 +16,13 @@
 package org.rauschig.wicketjs.util.options;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 
+import org.apache.wicket.model.AbstractReadOnlyModel;
 import org.junit.Before;
 import org.junit.Test;
+import org.rauschig.wicketjs.util.JsonSerializer;
 
 public class PropertyBindingOptionsTest {
 
@@ -63,6 +66,51 @@ public class PropertyBindingOptionsTest {
         options.set("theory", "logic");
     }
 
+    @Test
+    public void serialize_unchangedProperties_reusesCachedJson() throws Exception {
+        JsonSerializer serializer = new JsonSerializer();
+        PropertyBindingOptions options = new PropertyBindingOptions(model, "theory", "logic");
+
+        assertEquals("{\"theory\":\"foo\",\"logic\":true}", serializer.serialize(options));
+        assertNotNull(options.getCachedJson(serializer, options.getJsonState()));
+
+        model.setLogic(false);
+        assertNull(options.getCachedJson(serializer, options.getJsonState()));
+        assertEquals("{\"theory\":\"foo\",\"logic\":false}", serializer.serialize(options));
+    }
+
+    @Test
+    public void serialize_readsPropertiesOncePerSerialization() throws Exception {
+        JsonSerializer serializer = new JsonSerializer();
+        CountingModel counting = new CountingModel();
+        PropertyBindingOptions options = new PropertyBindingOptions(model).add("count", counting);
+
+        assertEquals("{\"count\":1}", serializer.serialize(options));
+        assertEquals(1, counting.reads);
+
+        assertEquals("{\"count\":1}", serializer.serialize(options));
+        assertEquals(2, counting.reads);
+    }
+
+    @Test
+    public void serialize_mutableProperty_isNotCached() throws Exception {
+        JsonSerializer serializer = new JsonSerializer();
+        PropertyBindingOptions options = new PropertyBindingOptions(new Object[] { model }, "0");
+
+        serializer.serialize(options);
+        assertNull(options.getCachedJson(serializer, options.getJsonState()));
+    }
+
+    @Test
+    public void compiled_returnsValuesFromObject() throws Exception {
+        PropertyBindingOptions options = PropertyBindingOptions.compiled(model, "theory", "logic");
+        assertEquals("foo", options.get("theory"));
+
+        model.setLogic(false);
+        assertEquals(false, options.get("logic"));
+        assertEquals("{\"theory\":\"foo\",\"logic\":false}", new JsonSerializer().serialize(options));
+    }
+
     private static class TestModel {
         private String theory;
         private Boolean logic;
@@ -88,4 +136,16 @@ public class PropertyBindingOptionsTest {
             this.logic = logic;
         }
     }
+
+    private static class CountingModel extends AbstractReadOnlyModel<Integer> {
+        private static final long serialVersionUID = 1L;
+
+        int reads;
+
+        @Override
+        public Integer getObject() {
+            reads++;
+            return 1;
+        }
+    }
 }